@@ -0,0 +1,123 @@
+package resq;
+
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.ServoController;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.TeleOp;
+import org.swerverobotics.library.internal.VirtualTimeHarness;
+
+/**
+ * Runs the climber dump of ResqRecordV2Auton on a VirtualTimeHarness, against a servo controller
+ * that only notes when it is written to. The dump waits for its writes to reach the controller
+ * before it lets the box swing, so this checks that such waits block on the OpMode's clock (if
+ * they didn't, the harness would fail to settle), and that the box is held down for the full
+ * half second of simulated time once the controller has actually been told to put it there.
+ * Press gamepad1 'a' to run it again.
+ */
+@TeleOp(name = "Climber Dump Harness Run", group = "Swerve Tests")
+@Disabled
+public class ClimberDumpHarnessRun extends SynchronousOpMode {
+    static final int msLoopPeriod = 20;
+    static final int msRunLimit = 10 * 1000;
+
+    @Override
+    protected void main() throws InterruptedException {
+        waitForStart();
+        runAndReport();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive()) {
+            while (pollGamepadEvent(event)) {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    runAndReport();
+            }
+            idle();
+        }
+    }
+
+    void runAndReport() throws InterruptedException {
+        DumpOnly dump = new DumpOnly();
+        RecordingServoController controller = new RecordingServoController(dump);
+        HardwareMap map = new HardwareMap(null);
+        map.servo.put(DeviceNaming.BOX_SERVO, new Servo(controller, 1));
+
+        VirtualTimeHarness harness = new VirtualTimeHarness(dump, map, msLoopPeriod);
+        String outcome = "completed";
+        long nsStart = System.nanoTime();
+        try {
+            harness.run(1, msRunLimit);
+            if (!dump.finished)
+                outcome = "did not finish";
+        } catch (RuntimeException e) {
+            outcome = e.toString();
+        }
+        long nsReal = System.nanoTime() - nsStart;
+
+        telemetry.addData("outcome", outcome);
+        telemetry.addData("real ms", nsReal * 1e-6, 1);
+        telemetry.addData("simulated ms", (dump.nsFinished - dump.nsStarted) * 1e-6, 1);
+        telemetry.addData("controller writes", controller.writes);
+        telemetry.addData("box down ms", (controller.nsLeftBottom - controller.nsReachedBottom) * 1e-6, 1);
+        telemetry.updateNow();
+    }
+
+    /**
+     * The auton with everything but the climber dump taken out, since the rest of it wants
+     * the settings, storage, and remaining hardware of a real robot controller
+     */
+    static class DumpOnly extends ResqRecordV2Auton {
+        volatile boolean finished = false;
+        volatile long nsStarted = 0;
+        volatile long nsFinished = 0;
+
+        @Override
+        protected void main() throws InterruptedException {
+            boxSrvo = hardwareMap.servo.get(DeviceNaming.BOX_SERVO);
+            waitForStart();
+            nsStarted = getClock().nanoTime();
+            dumpClimbers();
+            nsFinished = getClock().nanoTime();
+            finished = true;
+        }
+    }
+
+    /**
+     * Notes, on the OpMode's clock, when the box is first told to go to the bottom of its
+     * sweep and when it is first told to leave it
+     */
+    static class RecordingServoController implements ServoController {
+        final SynchronousOpMode opMode;
+        volatile double position;
+        volatile int writes = 0;
+        volatile long nsReachedBottom = 0;
+        volatile long nsLeftBottom = 0;
+
+        RecordingServoController(SynchronousOpMode opMode) {
+            this.opMode = opMode;
+        }
+
+        @Override
+        public void setServoPosition(int servo, double position) {
+            long now = opMode.getClock().nanoTime();
+            writes++;
+            if (nsReachedBottom == 0 && position < 0.1)
+                nsReachedBottom = now;
+            else if (nsReachedBottom != 0 && nsLeftBottom == 0 && position > 0.15)
+                nsLeftBottom = now;
+            this.position = position;
+        }
+
+        @Override public double getServoPosition(int servo) { return position; }
+        @Override public void pwmEnable() { }
+        @Override public void pwmDisable() { }
+        @Override public PwmStatus getPwmStatus() { return PwmStatus.ENABLED; }
+        @Override public String getDeviceName() { return "recording servo controller"; }
+        @Override public String getConnectionInfo() { return ""; }
+        @Override public int getVersion() { return 1; }
+        @Override public void close() { }
+    }
+}
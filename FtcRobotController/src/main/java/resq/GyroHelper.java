@@ -28,9 +28,12 @@ public class GyroHelper {
         return parameters;
     }
 
-    // Here we have state we use for updating the dashboard. The first of these is important
-    // to read only once per update, as its acquisition is expensive. The remainder, though,
-    // could probably be read once per item, at only a small loss in display accuracy.
+    // The IMU is sampled in the background at this interval, so that reading it never
+    // waits on I2C. Its fusion outputs update at 100Hz, so there's no point going faster.
+    static final int msSampleInterval = 10;
+
+    // Here we have state we use for updating the dashboard, a consistent snapshot as of
+    // the last update().
     EulerAngles angles;
 
     public EulerAngles getAngles() {
@@ -64,10 +67,20 @@ public class GyroHelper {
     }
 
     public void update(){
-        this.angles = (getImu().getAngularOrientation());
-        this.position = (getImu().getPosition());
-        this.accel = (getImu().getLinearAcceleration());
-        this.rawAccel = getImu().getOverallAcceleration();
+        this.angles = getImu().getLatestAngularOrientation();
+        this.position = getImu().getPosition();
+        this.accel = getImu().getLatestLinearAcceleration();
+        this.rawAccel = getImu().getLatestOverallAcceleration();
+    }
+
+    /** The heading as last sampled; cheaper than update() if that's all you need */
+    public double getHeading() {
+        return getImu().getLatestHeading();
+    }
+
+    /** The heading at the given System.nanoTime(), such as when a camera frame was captured */
+    public double getHeadingAt(long nanoTime) {
+        return getImu().getHeadingAt(nanoTime);
     }
 
     public boolean isGyroCalibrated(){
@@ -82,6 +95,7 @@ public class GyroHelper {
         parameters.mode = IBNO055IMU.SENSOR_MODE.NDOF;
         parameters.loggingTag = "BNO055";
         imu = ClassFactory.createAdaFruitBNO055IMU(backingOpMode.hardwareMap.i2cDevice.get("bno055"), parameters);
+        imu.startSampling(msSampleInterval);
 
     }
 }
\ No newline at end of file
@@ -157,17 +157,19 @@ boolean calSaved = false;
                 })
                 );
 
+        // These are I2C reads that change only slowly, so we read them now and then, off in
+        // the background, rather than holding up every telemetry update for them.
         telemetry.addLine(
                 telemetry.item("status: ", new IFunc<Object>() {
                     public Object value() {
                         return decodeStatus(imu.getSystemStatus());
                     }
-                }),
+                }).setRefreshIntervalMs(1000).setRefreshInBackground(true),
                 telemetry.item("calib: ", new IFunc<Object>() {
                     public Object value() {
                         return decodeCalibration(imu.read8(IBNO055IMU.REGISTER.CALIB_STAT));
                     }
-                }));
+                }).setRefreshIntervalMs(1000).setRefreshInBackground(true));
 
         telemetry.addLine(
                 telemetry.item("heading: ", new IFunc<Object>() {
@@ -208,7 +210,7 @@ boolean calSaved = false;
                     public Object value() {
                         return imu.isSystemCalibrated();
                     }
-                })
+                }).setRefreshIntervalMs(1000).setRefreshInBackground(true)
         );
         telemetry.addLine(
                 telemetry.item("xa: ", new IFunc<Object>() {
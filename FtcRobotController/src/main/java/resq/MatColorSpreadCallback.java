@@ -8,6 +8,7 @@ import android.util.Log;
 import android.widget.TextView;
 import ftc.team6460.javadeck.ftc.vision.MatCallback;
 import org.opencv.core.Mat;
+import org.swerverobotics.library.interfaces.NumberFormatter;
 
 /**
  * Created by hexafraction on 9/30/15.
@@ -18,6 +19,7 @@ public class MatColorSpreadCallback implements MatCallback {
     private volatile String overText = "";
     long lastTs;
     long lastTime;
+    private final StringBuilder logLine = new StringBuilder(); // reused, as we log on every frame
     public void setOverText(String overText) {
         this.overText = overText;
     }
@@ -73,7 +75,7 @@ public class MatColorSpreadCallback implements MatCallback {
         if (theta < (-60)) lS = "B";
         else if (theta > (60)) lS = "G";
         else lS = "R";
-        Log.v("CLRES", String.format("theta: %f rad: %f samples: %d", theta, Math.hypot(yT / mTotal, xT / mTotal), mTotal));
+        Log.v("CLRES", formatResult(theta, Math.hypot(yT / mTotal, xT / mTotal), mTotal));
 
         // repeat for other side.
         xT = 0;
@@ -96,7 +98,7 @@ public class MatColorSpreadCallback implements MatCallback {
         if (thetaR < (-60)) rS = "B";
         else if (thetaR > (60)) rS = "G";
         else rS = "R";
-        Log.v("CRRES", String.format("theta: %f rad: %f samples: %d", thetaR, Math.hypot(yT / mTotal, xT / mTotal), mTotal));
+        Log.v("CRRES", formatResult(thetaR, Math.hypot(yT / mTotal, xT / mTotal), mTotal));
         state = lS + rS;
         cx.runOnUiThread(new Runnable() {
             @Override
@@ -110,6 +112,17 @@ public class MatColorSpreadCallback implements MatCallback {
         lastTs = System.currentTimeMillis();
     }
 
+    // As String.format("theta: %f rad: %f samples: %d"), but without the garbage of a Formatter per frame
+    private String formatResult(double theta, double rad, int samples) {
+        logLine.setLength(0);
+        logLine.append("theta: ");
+        NumberFormatter.appendFixed(logLine, theta, 6);
+        logLine.append(" rad: ");
+        NumberFormatter.appendFixed(logLine, rad, 6);
+        logLine.append(" samples: ").append(samples);
+        return logLine.toString();
+    }
+
     @Override
     public void draw(Canvas canvas) {
         //self explanatory
@@ -16,6 +16,7 @@ import ftc.team6460.javadeck.ftc.Utils;
 import ftc.team6460.javadeck.ftc.vision.OpenCvActivityHelper;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
+import org.swerverobotics.library.ClassFactory;
 import org.swerverobotics.library.SynchronousOpMode;
 import org.swerverobotics.library.interfaces.*;
 
@@ -48,8 +49,7 @@ public class ResqAuton extends SynchronousOpMode {
         offsetPosition(0, 0, 0);
         while (2 + 2 <= DUMMY) {
             updateGamepads();
-            setLeftSpeed(gamepad1.left_stick_y);
-            setRightSpeed(gamepad1.right_stick_y);
+            setSpeeds(gamepad1.left_stick_y, gamepad1.right_stick_y);
             doPeriodicTasks();
             cb.setOverText(String.format("%f, %f (%f deg)", getGyroX(), getGyroY(), getGyroYAW()));
         }
@@ -149,9 +149,11 @@ public class ResqAuton extends SynchronousOpMode {
     }
 
     protected void waitTime(int i) {
-        long t = System.currentTimeMillis();
-        while (System.currentTimeMillis() < t + (i)) {
-            doPeriodicTasks();
+        // Dead reckoning carries on in positionTracker, so there's nothing to poll while we wait
+        try {
+            sleep(i);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // the next idle() will notice
         }
     }
 
@@ -178,8 +180,7 @@ public class ResqAuton extends SynchronousOpMode {
         double speed = 0;
         while (System.currentTimeMillis() < oriTime + accelTime && distTraveled < dist / 2) { //ACCELERATION
             speed = Math.min(0.25, ((System.currentTimeMillis() - oriTime) / accelTime * 1.0) * factor);
-            setLeftSpeed(speed);
-            setRightSpeed(speed);
+            setSpeeds(speed, speed);
 
             if (curYAW > oriYAW + 5) { //CORRECTIONS
                 while (curYAW > Math.atan2(finalX - curX, finalY - curY)) {
@@ -209,8 +210,7 @@ public class ResqAuton extends SynchronousOpMode {
         double distAccel = distTraveled;
 
         while (dist - distTraveled > distAccel) { //CONSTANT SPEED
-            setLeftSpeed(1.00 * factor);
-            setRightSpeed(1.00 * factor);
+            setSpeeds(1.00 * factor, 1.00 * factor);
             if (curYAW > oriYAW + 5) { //CORRECTIONS
                 while (curYAW > Math.atan2(finalX - curX, finalY - curY)) {
                     setRightSpeed(1.0);
@@ -237,8 +237,7 @@ public class ResqAuton extends SynchronousOpMode {
 
         while (Math.abs(curX - finalX) > 0.05 || Math.abs(curY - finalY) > 0.05) { //DECELERATION
             speed = Math.sqrt(Math.hypot(finalX - curX, finalY - curY) / (dist - distTraveled)) * factor;
-            setLeftSpeed(speed);
-            setRightSpeed(speed);
+            setSpeeds(speed, speed);
             if (curYAW > oriYAW + 5) { //CORRECTIONS
                 while (curYAW > Math.atan2(finalX - curX, finalY - curY)) {
                     blendRightSpeed(0.8 * speed);
@@ -269,14 +268,12 @@ public class ResqAuton extends SynchronousOpMode {
 
     /*
     public void goForward(double secs, double speed) {
-        setLeftSpeed(speed);
-        setRightSpeed(speed);
+        setSpeeds(speed, speed);
         long t = System.currentTimeMillis();
         while (System.currentTimeMillis() < t + (secs * 1000)) {
             doPeriodicTasks();
         }
-        setLeftSpeed(0);
-        setRightSpeed(0);
+        setSpeeds(0, 0);
 
     }
 */
@@ -301,8 +298,7 @@ public class ResqAuton extends SynchronousOpMode {
         if (((oriYAW > YAW) && (oriYAW - YAW) < 180)) { //TURN RIGHT
 
             while ((oriYAW - curYAW) < incA) {
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 incr = 1 * ((oriYAW - curYAW) / 15);
 
                 doPeriodicTasks();
@@ -311,15 +307,13 @@ public class ResqAuton extends SynchronousOpMode {
             }
            /* START INTERMEDIATE MAX SPEED TURN*/
             while ((oriYAW - curYAW) < (angle - incA)) {
-                setLeftSpeed(1 * .25);
-                setRightSpeed(-1 * .25);
+                setSpeeds(1 * .25, -1 * .25);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
             }
            /* START DECLINING INCREMENT */
             while ((oriYAW - curYAW) < angle) {
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 incr = (1 * (-(YAW - curYAW) / 15));
 
                 doPeriodicTasks();
@@ -333,8 +327,7 @@ public class ResqAuton extends SynchronousOpMode {
             curYAW = getGyroYAW();
             if (oriYAW > incA) {
                 while ((oriYAW - curYAW) < incA) {
-                    setLeftSpeed(incr * .25);
-                    setRightSpeed(-incr * .25);
+                    setSpeeds(incr * .25, -incr * .25);
                     incr = 1 * ((oriYAW - curYAW) / 15);
                     doPeriodicTasks();
                     curYAW = getGyroYAW();
@@ -343,15 +336,13 @@ public class ResqAuton extends SynchronousOpMode {
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
                 while (curYAW < 180) {
-                    setLeftSpeed(incr * .25);
-                    setRightSpeed(-incr * .25);
+                    setSpeeds(incr * .25, -incr * .25);
                     incr = 1 * ((oriYAW - curYAW) / 15);
                     doPeriodicTasks();
                     curYAW = getGyroYAW();
                 }
                 while (oriYAW + (360 - curYAW) < incA) {
-                    setLeftSpeed(incr * .25);
-                    setRightSpeed(-incr * .25);
+                    setSpeeds(incr * .25, -incr * .25);
                     incr = 1 * ((oriYAW - curYAW) / 15);
                     doPeriodicTasks();
                     curYAW = getGyroYAW();
@@ -360,14 +351,12 @@ public class ResqAuton extends SynchronousOpMode {
             }
            /* START INTERMEDIATE MAX SPEED TURN*/
             while (curYAW < oriYAW) { //these two while loops are the same thing
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
             }
             while ((360 - curYAW) < (angle - incA)) {//they're just accounting for before the 0 line and after it
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
 
@@ -375,8 +364,7 @@ public class ResqAuton extends SynchronousOpMode {
             }
            /*START DECLINING INCREMENT SPEED */
             while ((oriYAW + (360 - curYAW)) < angle) {
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 incr = 1 * (-(YAW - curYAW) / 15);
 
                 doPeriodicTasks();
@@ -387,16 +375,14 @@ public class ResqAuton extends SynchronousOpMode {
             doPeriodicTasks();
             curYAW = getGyroYAW();
             if ((oriYAW + (360 - curYAW)) >= angle) { //stops motors
-                setLeftSpeed(0);
-                setRightSpeed(0);
+                setSpeeds(0, 0);
 
                 doPeriodicTasks();
             }
 
         } else if ((oriYAW < YAW) && ((YAW - oriYAW) < 180)) { // LEFT TURN (DO THIS!!)
             while ((curYAW - oriYAW) < incA) {
-                setLeftSpeed(-incr * .25);
-                setRightSpeed(incr * .25);
+                setSpeeds(-incr * .25, incr * .25);
                 incr = 1 * ((curYAW - oriYAW) / 15);
 
 
@@ -406,16 +392,14 @@ public class ResqAuton extends SynchronousOpMode {
             }
        	/* START INTERMEDIATE MAX SPEED TURN*/
             while ((curYAW - oriYAW) < (angle - incA)) {
-                setLeftSpeed(-1);
-                setRightSpeed(1);
+                setSpeeds(-1, 1);
 
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
             }
        	/* START DECLINING INCREMENT */
             while ((curYAW - oriYAW) < angle) {
-                setLeftSpeed(-incr * .25);
-                setRightSpeed(incr * .25);
+                setSpeeds(-incr * .25, incr * .25);
                 incr = (1 * (-(YAW - curYAW) / 15));
 
 
@@ -426,8 +410,7 @@ public class ResqAuton extends SynchronousOpMode {
             doPeriodicTasks();
             curYAW = getGyroYAW();
             if (curYAW >= YAW) {
-                setLeftSpeed(0);
-                setRightSpeed(0);
+                setSpeeds(0, 0);
             }
         } else if ((oriYAW > YAW) && (oriYAW - YAW) > 180) { //turn left past 0 line
 
@@ -435,8 +418,7 @@ public class ResqAuton extends SynchronousOpMode {
             curYAW = getGyroYAW();
             if (oriYAW > incA) {
                 while ((oriYAW - curYAW) < incA) {
-                    setLeftSpeed(incr * .25);
-                    setRightSpeed(-incr * .25);
+                    setSpeeds(incr * .25, -incr * .25);
                     incr = 1 * ((oriYAW - curYAW) / 15);
 
                     doPeriodicTasks();
@@ -447,8 +429,7 @@ public class ResqAuton extends SynchronousOpMode {
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
                 while (oriYAW + (360 - curYAW) < incA) {
-                    setLeftSpeed(incr * .25);
-                    setRightSpeed(-incr * .25);
+                    setSpeeds(incr * .25, -incr * .25);
                     incr = 1 * ((oriYAW - curYAW) / 15);
 
 
@@ -458,21 +439,18 @@ public class ResqAuton extends SynchronousOpMode {
             }
        	/* START INTERMEDIATE MAX SPEED TURN*/
             while (curYAW < oriYAW) { //these two while loops are the same thing
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
             }
             while ((360 - curYAW) < (angle - incA)) {//they're just accounting for before the 0 line and after it
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
             }
        	/*START DECLINING INCREMENT SPEED */
             while ((oriYAW + (360 - curYAW)) < angle) {
-                setLeftSpeed(incr * .25);
-                setRightSpeed(-incr * .25);
+                setSpeeds(incr * .25, -incr * .25);
                 incr = (-(YAW - curYAW) / 15);
                 doPeriodicTasks();
                 curYAW = getGyroYAW();
@@ -481,8 +459,7 @@ public class ResqAuton extends SynchronousOpMode {
 
             curYAW = getGyroYAW();
             if ((oriYAW + (360 - curYAW)) >= angle) { //stops motors
-                setLeftSpeed(0);
-                setRightSpeed(0);
+                setSpeeds(0, 0);
             }
 
         }
@@ -496,19 +473,36 @@ public class ResqAuton extends SynchronousOpMode {
     double lSpd, rSpd;
 
 
-    public void setLeftSpeed(double spd) {
+    IMotorGroup drive;
 
+    public void setLeftSpeed(double spd) {
         spd = Range.clip(spd, -1, 1);
         lSpd = spd;
-        l0.setPower(spd);
-        l1.setPower(spd);
+        drive.setPower(l0, spd);
+        drive.setPower(l1, spd);
+        drive.commit();
     }
 
     public void setRightSpeed(double spd) {
         spd = Range.clip(spd, -1, 1);
         rSpd = spd;
-        r0.setPower(spd);
-        r1.setPower(spd);
+        drive.setPower(r0, spd);
+        drive.setPower(r1, spd);
+        drive.commit();
+    }
+
+    /**
+     * Sets the speeds of both sides of the drivetrain in one commit, so that they take effect
+     * in the same hardware cycle rather than one side turning before the other.
+     */
+    public void setSpeeds(double lSpd, double rSpd) {
+        this.lSpd = Range.clip(lSpd, -1, 1);
+        this.rSpd = Range.clip(rSpd, -1, 1);
+        drive.setPower(l0, this.lSpd);
+        drive.setPower(l1, this.lSpd);
+        drive.setPower(r0, this.rSpd);
+        drive.setPower(r1, this.rSpd);
+        drive.commit();
     }
 
     public void blendLeftSpeed(double spd) {
@@ -530,8 +524,10 @@ public class ResqAuton extends SynchronousOpMode {
     } //get team from settings dialog
 
     public void offsetPosition(double X, double Y, double YAW) {
-        x = X;
-        y = Y;
+        synchronized (trackingLock) {
+            x = X;
+            y = Y;
+        }
         initYaw = YAW;
     }
 
@@ -613,16 +609,13 @@ public class ResqAuton extends SynchronousOpMode {
         waitTime(1000);
         if (getTeam() == Colors.BLUE) {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 doPeriodicTasks();
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
             dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -637,13 +630,11 @@ public class ResqAuton extends SynchronousOpMode {
 
                 }
 
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             } else {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -656,24 +647,20 @@ public class ResqAuton extends SynchronousOpMode {
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
 
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             }
         } else {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
 
             dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -686,12 +673,10 @@ public class ResqAuton extends SynchronousOpMode {
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
             } else {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -704,8 +689,7 @@ public class ResqAuton extends SynchronousOpMode {
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
                 ledCtrl.setPower(1.0);
             }
@@ -719,14 +703,14 @@ public class ResqAuton extends SynchronousOpMode {
             boxSrvo.setPosition(d);
             idle();
         }
-        idle();
+        waitForThreadsWritesToReachHardware(); // the box has been told; now give it time to swing
         waitTime(500);
         idle();
         for (double d = 0.09; d <= 1.0; d += .1) {
             boxSrvo.setPosition(d);
             idle();
         }
-        idle();
+        waitForThreadsWritesToReachHardware();
         waitTime(100);
     }
 
@@ -737,15 +721,13 @@ public class ResqAuton extends SynchronousOpMode {
         waitTime(200);
         ledCtrl.setPower(1.0);
         int compensationRunTime = Utils.safeInt(sharedPref.getString("camera_to_btn_offset", "0"), 0);
-        setLeftSpeed(0.1 * Math.signum(compensationRunTime));
-        setRightSpeed(0.1 * Math.signum(compensationRunTime));
+        setSpeeds(0.1 * Math.signum(compensationRunTime), 0.1 * Math.signum(compensationRunTime));
         try {
             Thread.sleep(Math.abs(compensationRunTime));
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
-        setLeftSpeed(0.0);
-        setRightSpeed(0.0);
+        setSpeeds(0.0, 0.0);
         ledCtrl.setPower(0.0);
         for (double pos = BTN_SRVO_RETRACTED; pos >= BTN_SRVO_DEPLOYED; pos -= 0.06) {
             btnSrvo.setPosition(Math.max(BTN_SRVO_DEPLOYED, pos));
@@ -812,6 +794,7 @@ public class ResqAuton extends SynchronousOpMode {
         w.setChannelMode(DcMotorController.RunMode.RUN_WITHOUT_ENCODERS);
         l0.setDirection(DcMotor.Direction.REVERSE);
         l1.setDirection(DcMotor.Direction.REVERSE);
+        drive = ClassFactory.createMotorGroup(l0, l1, r0, r1);
         ledCtrl = hardwareMap.dcMotor.get(DeviceNaming.LED_DEV_NAME);
         ledCtrl.setPower(1.0);
 
@@ -826,6 +809,13 @@ public class ResqAuton extends SynchronousOpMode {
                 throw new RuntimeException("EMERG-STOP: CANNOT CALIBRATE GYRO");
             }
         }
+        // The tracker reads the heading, so it must wait for the gyro
+        positionTracker = schedulePeriodic(TRACKING_HZ, new IInterruptableRunnable() {
+            @Override
+            public void run() {
+                trackPosition();
+            }
+        });
         idle();
         composeDashboard();
     }
@@ -835,49 +825,70 @@ public class ResqAuton extends SynchronousOpMode {
 
 
         doPeriodicTasks();
-        return x;
+        synchronized (trackingLock) {
+            return x;
+        }
     }
 
     public double getGyroY() {
 
         doPeriodicTasks();
-        return y;
+        synchronized (trackingLock) {
+            return y;
+        }
     }
 
     public double getGyroYAW() {
 
-        return normalizeDegrees(gyroHelper.getAngles().heading - initYaw);
+        return normalizeDegrees(gyroHelper.getHeading() - initYaw);
     }
 
+    public double getGyroYAWAt(long nanoTime) {
+
+        return normalizeDegrees(gyroHelper.getHeadingAt(nanoTime) - initYaw);
+    }
+
+    // Dead reckoning runs at a steady rate on its own thread, rather than only as often as
+    // main() happens to call doPeriodicTasks(). x, y and the encoder baseline are guarded
+    // by trackingLock.
+    static final double TRACKING_HZ = 50;
+    final Object trackingLock = new Object();
+    IPeriodicTask positionTracker;
+    volatile boolean lastRunWasLite = false;
+
     double initYaw = 0;
     double x = 0;
     double y = 0;
     int lastEncoderL = 0;
     int lastEncoderR = 0;
 
-    public void doPeriodicTasks() {
-        Log.w("TRACK", "ENTER DO-PERIODIC");
-        gyroHelper.update();
-
+    void trackPosition() {
         int l0p = l0.getCurrentPosition();
         int r0p = r0.getCurrentPosition();
 
-        if (lastRunWasLite) {
+        synchronized (trackingLock) {
+            // Turning in place moves the encoders but not the robot: just keep the baseline current
+            if (lastRunWasLite) {
+                lastEncoderL = l0p;
+                lastEncoderR = r0p;
+                return;
+            }
+
+            int delta = weightPositionEffects(l0p - lastEncoderL, r0p - lastEncoderR);
+            //int delta = weightPositionEffects(uEL[1], uER[1]);
+            double dist = remapWheelDiameter(delta);
+            x += (dist * Math.cos(getGyroYAW()));
+            y += (dist * Math.sin(getGyroYAW()));
             lastEncoderL = l0p;
             lastEncoderR = r0p;
-            lastRunWasLite = false;
         }
+    }
 
+    public void doPeriodicTasks() {
+        Log.w("TRACK", "ENTER DO-PERIODIC");
+        gyroHelper.update();
+        lastRunWasLite = false;
 
-        int delta = weightPositionEffects(l0p - lastEncoderL, r0p - lastEncoderR);
-        //int delta = weightPositionEffects(uEL[1], uER[1]);
-        double dist = remapWheelDiameter(delta);
-        x += (dist * Math.cos(getGyroYAW()));
-        y += (dist * Math.sin(getGyroYAW()));
-        lastEncoderL = l0p;
-        lastEncoderR = r0p;
-
-        Log.i("MOVE", "DIST: " + dist);
         // The rest of this is pretty cheap to acquire, but we may as well do it
         // all while we're gathering the above.
         loopCycles = getLoopCount();
@@ -891,21 +902,12 @@ public class ResqAuton extends SynchronousOpMode {
         Log.w("TRACK", "EXIT DO-PERIODIC");
     }
 
-    boolean lastRunWasLite = false;
-
 
     public void doTurnOnlyTasks() {
         lastRunWasLite = true;
         Log.w("TRACK", "ENTER DO-PERIODIC");
         gyroHelper.update();
 
-        int delta = 0;
-        //int delta = weightPositionEffects(uEL[1], uER[1]);
-        double dist = remapWheelDiameter(delta);
-        x += (dist * Math.cos(getGyroYAW()));
-        y += (dist * Math.sin(getGyroYAW()));
-
-        Log.i("MOVE", "DIST: " + dist);
         // The rest of this is pretty cheap to acquire, but we may as well do it
         // all while we're gathering the above.
         loopCycles = getLoopCount();
@@ -131,22 +131,19 @@ boolean s = false;
             double rS = -param2[i];
             switch (actionCode) {
                 case 0:
-                    setLeftSpeed(lS);
-                    setRightSpeed(rS);
+                    setSpeeds(lS, rS);
                     if(!s)
                     r2Beep.start();
                     s = true;
                     break;
                 case 1:
-                    setLeftSpeed(0);
-                    setRightSpeed(0);
+                    setSpeeds(0, 0);
                     turnFor(param1[i]);
                     ns = System.nanoTime()-stNow;
                     monotonicallyIncreasingPtr++;
                     break;
                 case 2:
-                    setLeftSpeed(0);
-                    setRightSpeed(0);
+                    setSpeeds(0, 0);
                     dumpClimbers();
                     ns = System.nanoTime()-stNow;
                     monotonicallyIncreasingPtr++;
@@ -222,8 +219,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((oriYAW-curYAW)/15*factor)*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
 
@@ -232,15 +228,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((oriYAW-curYAW)/15*factor)*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
                 while (360-curYAW+oriYAW < Math.min(15, angle/2)) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((oriYAW - curYAW + 360) / 15 * factor)*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
             if (curYAW > endYAW || curYAW > angle - 30) {
@@ -248,8 +242,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
 
@@ -258,15 +251,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
                 while (curYAW > endYAW + Math.min(angle/2, 15)) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
 
@@ -275,8 +266,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (curYAW - endYAW)/15*factor*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
 
@@ -285,15 +275,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (curYAW - endYAW + 360)/ 15*factor*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
                 while (curYAW > endYAW) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (curYAW - endYAW)/15*factor*0.9+0.1*factor;
-                    setRightSpeed(-speed);
-                    setLeftSpeed(speed);
+                    setSpeeds(speed, -speed);
                 }
             }
         }
@@ -305,24 +293,21 @@ boolean s = false;
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = ((oriYAW-curYAW)/15*factor)*0.9+0.1*factor;
-                setRightSpeed(-speed);
-                setLeftSpeed(speed);
+                setSpeeds(speed, -speed);
             }
 
             while (curYAW > endYAW + Math.min(angle/2, 15)) {
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = factor;
-                setRightSpeed(-speed);
-                setLeftSpeed(speed);
+                setSpeeds(speed, -speed);
             }
 
             while (curYAW > endYAW) {
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = (curYAW - endYAW)/15*factor*0.9+0.1*factor;
-                setRightSpeed(-speed);
-                setLeftSpeed(speed);
+                setSpeeds(speed, -speed);
             }
         }
 
@@ -333,8 +318,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((curYAW-oriYAW)/15*factor)*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
 
@@ -343,15 +327,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((curYAW-oriYAW)/15*factor)*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
                 while (360+curYAW-oriYAW < Math.min(15, angle/2)) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = ((curYAW - oriYAW + 360) / 15 * factor)*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
 
@@ -360,8 +342,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
 
@@ -370,15 +351,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
                 while (curYAW < endYAW - Math.min(angle/2, 15)) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
 
@@ -387,8 +366,7 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (endYAW - curYAW)/15*factor*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
 
@@ -397,15 +375,13 @@ boolean s = false;
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (endYAW - curYAW + 360)/ 15*factor*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
                 while (curYAW < endYAW) {
                     doTurnOnlyTasks();
                     curYAW = getGyroYAW();
                     speed = (endYAW - curYAW)/15*factor*0.9+0.1*factor;
-                    setRightSpeed(speed);
-                    setLeftSpeed(-speed);
+                    setSpeeds(-speed, speed);
                 }
             }
         }
@@ -416,24 +392,21 @@ boolean s = false;
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = ((curYAW-oriYAW)/15*factor)*0.9+0.1*factor;
-                setRightSpeed(speed);
-                setLeftSpeed(-speed);
+                setSpeeds(-speed, speed);
             }
 
             while (curYAW < endYAW - Math.min(angle/2, 15)) {
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = factor;
-                setRightSpeed(speed);
-                setLeftSpeed(-speed);
+                setSpeeds(-speed, speed);
             }
 
             while (curYAW < endYAW) {
                 doTurnOnlyTasks();
                 curYAW = getGyroYAW();
                 speed = (endYAW - curYAW)/15*factor*0.9+0.1*factor;
-                setRightSpeed(speed);
-                setLeftSpeed(-speed);
+                setSpeeds(-speed, speed);
             }
         }
     }
@@ -498,8 +471,7 @@ boolean s = false;
                 lMtr *= recordedVoltage/ourVoltage;
                 rMtr *= recordedVoltage/ourVoltage;
             }
-            setLeftSpeed(lMtr);
-            setRightSpeed(rMtr);
+            setSpeeds(lMtr, rMtr);
             idle();
             */
             double lS = -leftDriveVals[i];
@@ -509,8 +481,7 @@ boolean s = false;
                 rS *= recordedVoltage / ourVoltage;
             }
 
-            setLeftSpeed(lS);
-            setRightSpeed(rS);
+            setSpeeds(lS, rS);
             idle();
         }
         try {
@@ -534,16 +505,13 @@ boolean s = false;
         waitTime(1000);
         if (getTeam() == Colors.BLUE) {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 doPeriodicTasks();
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
             //dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -558,13 +526,11 @@ boolean s = false;
 
                 }
 
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             } else {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -577,24 +543,20 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
 
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             }
         } else {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
 
             //dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -607,12 +569,10 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
             } else {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -625,8 +585,7 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
                 ledCtrl.setPower(1.0);
             }
@@ -638,16 +597,13 @@ boolean s = false;
         waitTime(1000);
         if (getTeam() == Colors.BLUE) {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 doPeriodicTasks();
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
             //dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -662,13 +618,11 @@ boolean s = false;
 
                 }
 
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             } else {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("BB")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -681,24 +635,20 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
 
                 Log.e("MADEIT", "MADEIT");
                 pushButton();
             }
         } else {
             while ((!cb.getState().equals("RB")) && (!cb.getState().equals("BR"))) {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
             }
-            setLeftSpeed(0);
-            setRightSpeed(0);
+            setSpeeds(0, 0);
 
             //dumpClimbers();
             if (cb.getState().equals("RB")) {
-                setLeftSpeed(0.07);
-                setRightSpeed(0.07);
+                setSpeeds(0.07, 0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -711,12 +661,10 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
             } else {
-                setLeftSpeed(-0.07);
-                setRightSpeed(-0.07);
+                setSpeeds(-0.07, -0.07);
                 while (true) {
                     if (cb.getState().equals("RR")) {
                         waitTime(Utils.safeInt(sharedPref.getString("camera_undershoot_correction", "0"), 0));
@@ -729,8 +677,7 @@ boolean s = false;
                         return;
                     }
                 }
-                setLeftSpeed(0.0);
-                setRightSpeed(0.0);
+                setSpeeds(0.0, 0.0);
                 pushButton();
                 ledCtrl.setPower(1.0);
             }
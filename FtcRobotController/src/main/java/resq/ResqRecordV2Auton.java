@@ -7,7 +7,9 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorController;
 import com.qualcomm.robotcore.hardware.Servo;
 import ftc.team6460.javadeck.ftc.Utils;
+import org.swerverobotics.library.ClassFactory;
 import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.IMotorGroup;
 
 import java.io.*;
 
@@ -58,6 +60,7 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
     DcMotor l1;
     DcMotor r0;
     DcMotor r1;
+    IMotorGroup drive;
     DcMotor w;
 
     DcMotor w2;
@@ -75,6 +78,7 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
 
         r0.setDirection(DcMotor.Direction.REVERSE);
         r1.setDirection(DcMotor.Direction.REVERSE);
+        drive = ClassFactory.createMotorGroup(l0, l1, r0, r1);
         l0.setChannelMode(DcMotorController.RunMode.RUN_WITHOUT_ENCODERS);
         l1.setChannelMode(DcMotorController.RunMode.RUN_WITHOUT_ENCODERS);
         r0.setChannelMode(DcMotorController.RunMode.RUN_WITHOUT_ENCODERS);
@@ -162,15 +166,15 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
             boxSrvo.setPosition(d);
             idle();
         }
-        idle();
-        Thread.sleep(500);
+        waitForThreadsWritesToReachHardware(); // the box has been told; now give it time to swing
+        sleep(500);
         idle();
         for (double d = 0.09; d <= 0.871; d += .1) {
             boxSrvo.setPosition(d);
             idle();
         }
-        idle();
-        Thread.sleep(100);
+        waitForThreadsWritesToReachHardware();
+        sleep(100);
     }
 
     public void loop_() throws InterruptedException {
@@ -178,12 +182,10 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
         if (runDrive) {
             if (gamepad1.x) {
                 // turn mode...
-                l0.setPower(0.0);
-                r0.setPower(0.0);
-                l1.setPower(0.0);
-                r1.setPower(0.0);
+                drive.setPower(0.0);
+                drive.commit();
 
-                idle();
+                waitForThreadsWritesToReachHardware(); // then let the robot come to rest
                 Thread.sleep(300);
                 while (gamepad1.x) {
                     updateGamepads();
@@ -199,6 +201,7 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
                 }
                 l0.setPower(0);
                 r0.setPower(0);
+                waitForThreadsWritesToReachHardware();
                 Thread.sleep(300);
                 gh.update();
                 double newAngle = gh.getAngles().heading;
@@ -217,10 +220,8 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
 
             } else if (gamepad1.right_bumper) {
                 // box out mode...
-                l0.setPower(0.0);
-                r0.setPower(0.0);
-                l1.setPower(0.0);
-                r1.setPower(0.0);
+                drive.setPower(0.0);
+                drive.commit();
 
                 dumpClimbers();
 
@@ -244,11 +245,11 @@ public class ResqRecordV2Auton extends SynchronousOpMode {
                 lCalculated /= 2;
                 rCalculated /= 2;
 
-                l0.setPower(lCalculated);
-                r0.setPower(rCalculated);
-
-                l1.setPower(lCalculated);
-                r1.setPower(rCalculated);
+                drive.setPower(l0, lCalculated);
+                drive.setPower(r0, rCalculated);
+                drive.setPower(l1, lCalculated);
+                drive.setPower(r1, rCalculated);
+                drive.commit();
                 try {
                     dbaos.writeByte(0x00);
                     dbaos.writeLong((tsLast = System.nanoTime() - ns));
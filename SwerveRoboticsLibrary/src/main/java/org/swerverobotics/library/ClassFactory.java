@@ -126,6 +126,21 @@ public final class ClassFactory
             throw new IllegalArgumentException("no servos provided");
         }
 
+    /**
+     * Creates a group of motors whose powers can be staged and then committed together, so
+     * that, for example, the two sides of a drivetrain always change speed in the same hardware
+     * cycle. The group measures the skew between the first and last motor writes of each commit.
+     *
+     * @param motors    the motors of the group, in the order in which they are to be indexed
+     * @return          the newly created motor group
+     * @see IMotorGroup
+     * @see org.swerverobotics.library.internal.tests.MotorGroupSkew
+     */
+    public static IMotorGroup createMotorGroup(DcMotor... motors)
+        {
+        return new MotorGroup(motors);
+        }
+
     //----------------------------------------------------------------------------------------------
     // Sensors
     //----------------------------------------------------------------------------------------------
@@ -318,6 +333,29 @@ public final class ClassFactory
         return new OpModeLoopCounter(opMode);
         }
 
+    /**
+     * Creates an acceleration integration algorithm for use with an {@link IBNO055IMU} that
+     * corrects for the bias in the sensor's acceleration, and zeroes the velocity whenever the
+     * sensor is at rest, so that position drifts far less than it does with the default algorithm.
+     * It allocates nothing as it integrates, and is polled by default at the sensor's full data rate.
+     * Robots that may drive at a constant velocity should tell it when they're being driven, as
+     * otherwise steady cruising can be mistaken for rest.
+     *
+     * <pre>
+     *     DriftCorrectingAccelerationIntegrator integrator = ClassFactory.createDriftCorrectingAccelerationIntegrator();
+     *     parameters.accelerationIntegrationAlgorithm = integrator;
+     *     ...
+     *     integrator.setMotionCommanded(leftPower != 0 || rightPower != 0);
+     * </pre>
+     *
+     * @return the new algorithm, to be set in {@link IBNO055IMU.Parameters#accelerationIntegrationAlgorithm}
+     * @see DriftCorrectingAccelerationIntegrator#setMotionCommanded(boolean)
+     */
+    public static DriftCorrectingAccelerationIntegrator createDriftCorrectingAccelerationIntegrator()
+        {
+        return new DriftCorrectingAccelerationIntegrator();
+        }
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
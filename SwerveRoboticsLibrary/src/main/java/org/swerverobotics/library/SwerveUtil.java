@@ -139,4 +139,21 @@ public class SwerveUtil
         {
         simpleSoundPlayer.play(context, resourceId);
         }
+
+    /**
+     * Returns the device that the SDK made, stripped of any wrappers that the processed
+     * hardware map of a SynchronousOpMode has put around it. Use it to get at methods
+     * particular to a kind of device, which the wrappers, implementing only the SDK's
+     * interfaces, don't have. A device with no wrappers is returned as is.
+     * <pre>
+     *     ModernRoboticsI2cGyro gyro = (ModernRoboticsI2cGyro)SwerveUtil.unwrap(hardwareMap.gyroSensor.get("gyro"));
+     * </pre>
+     * @param device    a device from a hardware map
+     * @return          the device that the SDK originally made
+     * @see SynchronousOpMode#useSensorReadCaching
+     */
+    public static <T> T unwrap(T device)
+        {
+        return Util.unwrap(device);
+        }
     }
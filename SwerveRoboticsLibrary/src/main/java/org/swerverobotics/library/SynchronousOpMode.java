@@ -69,7 +69,43 @@ public abstract class SynchronousOpMode extends OpMode
      * @return the number of times loop() has been called.
      */
     public int getLoopCount() { return this.loopCount.get(); }
-    private final AtomicInteger loopCount = new AtomicInteger(0);
+
+    /**
+     * Returns the clock on which this OpMode runs. On the robot, this is real time, but a
+     * test harness may run the OpMode on a simulated clock instead. Code that reads the time
+     * or sleeps through this clock (rather than System.nanoTime() and Thread.sleep()) will
+     * work correctly in either case.
+     * @return the clock of this OpMode. Most code need only use it as an {@link IClock}.
+     * @see #sleep(long)
+     * @see #setClock(Clock)
+     */
+    public final Clock getClock()
+        {
+        return this.clock;
+        }
+
+    /**
+     * Advanced: runs the OpMode on a clock other than real time. This is for the use of
+     * test harnesses, and must be done before init() is called.
+     * @param clock the clock to use
+     * @see org.swerverobotics.library.internal.VirtualTimeHarness
+     */
+    public final void setClock(Clock clock)
+        {
+        this.clock = clock;
+        this.cycleSequencer.setClock(clock);
+        }
+
+    /**
+     * Sleeps for the indicated duration, as measured by the clock of the OpMode
+     * @param ms the duration to sleep, in milliseconds
+     * @throws InterruptedException thrown if the thread is interrupted
+     * @see #getClock()
+     */
+    public final void sleep(long ms) throws InterruptedException
+        {
+        this.clock.sleep(ms);
+        }
 
     /**
      * We define a *local* hardwareMap variable here to hide the one in our base
@@ -101,6 +137,55 @@ public abstract class SynchronousOpMode extends OpMode
      */
     protected boolean useExperimentalHardwareMap = false;
 
+    /**
+     * Advanced: coalesce writes to motors and servos. When set (as it is by default), the
+     * DcMotors and Servos of the hardware map defer their setPower() and setPosition()
+     * writes to the end of the current hardware cycle; writes that would not change what the
+     * controller was last told are dropped, and only the last of several writes made within
+     * one cycle is sent. Must be set before init(), e.g. in the constructor of your OpMode.
+     * @see #getActuatorWriteStatistics()
+     */
+    protected boolean useWriteCoalescing = true;
+
+    /**
+     * Advanced: returns the number of motor and servo writes requested by the OpMode, and
+     * how many of them coalescing saved from being sent to the controllers
+     * @return the write coalescing statistics of the actuators of the hardware map, or null before init()
+     * @see #useWriteCoalescing
+     */
+    public IWriteCoalescingStatistics getActuatorWriteStatistics()
+        {
+        return this.actuatorWriteStatistics;
+        }
+
+    /**
+     * Advanced: cache sensor reads. When set, the sensors of the hardware map, and the encoders
+     * of its DcMotors, remember what they last read until the next hardware cycle begins, so that
+     * a loop which polls a sensor thousands of times a second only reaches the controller once
+     * per cycle. Must be set before init(), e.g. in the constructor of your OpMode.
+     *
+     * Caching is off by default, as the sensors are then put in wrappers that implement only
+     * the SDK's sensor interfaces: a cast such as (ModernRoboticsI2cGyro)hardwareMap.gyroSensor.get("gyro")
+     * fails. Use {@link SwerveUtil#unwrap(Object)} to get at the sensor inside, should you need
+     * its device-specific methods; its reads are then not cached, of course.
+     * @see #setSensorReadMaxStaleness(double)
+     */
+    protected boolean useSensorReadCaching = false;
+
+    /**
+     * Advanced: bounds how old a cached sensor reading may become. Readings are ordinarily
+     * kept until the next hardware cycle begins; with a maximum staleness set, they are also read
+     * afresh once they reach that age, should a hardware cycle be running long. May be called at
+     * any time.
+     * @param msMaxStaleness the maximum age of a cached reading, in milliseconds; zero (the
+     *                       default) places no limit on it other than the hardware cycle
+     * @see #useSensorReadCaching
+     */
+    public void setSensorReadMaxStaleness(double msMaxStaleness)
+        {
+        this.sensorReadCache.setMaxStalenessNanos(Math.round(msMaxStaleness * ElapsedTime.MILLIS_IN_NANO));
+        }
+
     //----------------------------------------------------------------------------------------------
     // Key threading-related methods
     //----------------------------------------------------------------------------------------------
@@ -140,12 +225,13 @@ public abstract class SynchronousOpMode extends OpMode
      */
     public final void waitForStart() throws InterruptedException
         {
-        synchronized (this.loopLock)
+        for (;;)
             {
-            while (!this.isStarted())  // avoid spurious wakeups
-                {
-                this.loopLock.wait();
-                }
+            // Read the wake count before testing so that a racing start() can't be missed
+            long wakeCount = this.cycleSequencer.getWakeCount();
+            if (this.isStarted())
+                break;
+            this.cycleSequencer.parkUntilWoken(wakeCount, 0);
             }
         }
 
@@ -203,10 +289,13 @@ public abstract class SynchronousOpMode extends OpMode
      * {@link #idle()} is conceptually related to waitOneFullHardwareCycle(), but makes no
      * guarantees as to completing any particular number of hardware cycles, if any.
      *
+     * Exactly how idle() waits is determined by the current idle strategy.
+     *
      * @throws InterruptedException thrown if the thread is interrupted
      * @see #main()
      * @see #synchronousThreadIdle()
      * @see #waitOneFullHardwareCycle()
+     * @see #setIdleStrategy(IDLE_STRATEGY)
      */
     public final void idle() throws InterruptedException
         {
@@ -214,31 +303,127 @@ public abstract class SynchronousOpMode extends OpMode
         if (this.isStopRequested())
             throw new InterruptedException();
 
-        // Otherwise, yield back our thread scheduling quantum and give other threads at
-        // our priority level a chance to run
-        Thread.yield();
+        // Otherwise, give up the CPU in whatever manner we've been asked to. On a simulated
+        // clock, though, a thread must block to let time move on, so we always wait for a cycle.
+        if (this.clock.isRealTime())
+            this.idleStrategy.idle(this.cycleSequencer);
+        else
+            this.cycleSequencer.awaitNextCycle();
+        }
+
+    /**
+     * The ways in which {@link #idle()} can give up the CPU.
+     * @see #setIdleStrategy(IDLE_STRATEGY)
+     */
+    public enum IDLE_STRATEGY
+        {
+        /** Yield the thread's scheduling quantum. Lowest latency, but a loop that
+         * does little else besides idle() will consume a whole core. This is the default. */
+        YIELD,
+        /** Spin briefly watching for the next hardware cycle, then yield a few times, then
+         * park until the next cycle (or a couple of milliseconds) arrives. */
+        SPIN_THEN_PARK,
+        /** Park until the loop() thread completes its next hardware cycle. Burns essentially
+         * no CPU; the wake-up latency is that of a thread being unparked. */
+        NEXT_CYCLE
+        }
+
+    /**
+     * Advanced: sets the strategy used by {@link #idle()} to give up the CPU. This is typically
+     * called in the constructor or at the very start of {@link #main()}. Changing the strategy
+     * resets the idle statistics.
+     *
+     * @param strategy the new idle strategy
+     * @see #getIdleStatistics()
+     */
+    public void setIdleStrategy(IDLE_STRATEGY strategy)
+        {
+        switch (strategy)
+            {
+            case SPIN_THEN_PARK:    this.idleStrategy = new IdleStrategy.SpinThenPark(); break;
+            case NEXT_CYCLE:        this.idleStrategy = new IdleStrategy.NextCycle();    break;
+            default:                this.idleStrategy = new IdleStrategy.Yield();        break;
+            }
+        this.idleStrategyKind = strategy;
+        }
+
+    /**
+     * Advanced: returns the strategy currently used by {@link #idle()}
+     * @return the current idle strategy
+     * @see #setIdleStrategy(IDLE_STRATEGY)
+     */
+    public IDLE_STRATEGY getIdleStrategy()
+        {
+        return this.idleStrategyKind;
+        }
+
+    /**
+     * Advanced: returns the statistics (CPU consumed, wake-up latency) of the current idle
+     * strategy, accumulated across all the synchronous threads that call {@link #idle()}.
+     * @return the statistics of the current idle strategy
+     * @see #setIdleStrategy(IDLE_STRATEGY)
+     */
+    public IIdleStatistics getIdleStatistics()
+        {
+        return this.idleStrategy;
         }
 
     /**
      * Waits until the rest of the event loop code that runs on the loop() thread but outside
-     * of the actual body of the loop() method itself has had a chance to run at least once. In
-     * practice, up to two such 'hardware cycles' are sometimes used. Provided only for compatibility
-     * with LinearOpMode, as it is unnecessary here: {@link #idle()} is a better choice.
+     * of the actual body of the loop() method itself has had a chance to run, in its entirety,
+     * at least once. As the caller may be arriving part way through a cycle, this waits for
+     * exactly two cycles to be published. Provided only for compatibility with LinearOpMode, as
+     * it is unnecessary here: {@link #idle()} is a better choice.
      * @throws InterruptedException thrown if the thread is interrupted
      * @see #idle()
+     * @see #awaitCycle(long)
      */
     @Deprecated
     public void waitOneFullHardwareCycle() throws InterruptedException
         {
-        synchronized (this.loopLock)
-            {
-            this.loopLock.wait();
-            }
-        Thread.sleep(1);
-        synchronized (this.loopLock)
-            {
-            this.loopLock.wait();
-            }
+        this.awaitCycle(this.getHardwareCycle() + 2);
+        }
+
+    /**
+     * Advanced: returns the number of the hardware cycle most recently completed by the loop()
+     * thread. Cycles are counted from init(), and both init_loop() and loop() complete one each.
+     * Reading this is very cheap: it never takes a lock.
+     *
+     * @return the number of the most recently completed hardware cycle
+     * @see #awaitCycle(long)
+     * @see #awaitNextCycle()
+     */
+    public final long getHardwareCycle()
+        {
+        return this.cycleSequencer.getCycle();
+        }
+
+    /**
+     * Advanced: waits until the hardware cycle with the indicated number (or a later one) has been
+     * completed by the loop() thread. The current thread is parked while it waits; no monitor
+     * is taken, so the loop() thread is never held up by those who are waiting.
+     *
+     * @param cycle the cycle number to wait for
+     * @return      the number of the cycle actually observed, which is at least the one requested
+     * @throws InterruptedException thrown if the thread is interrupted
+     * @see #getHardwareCycle()
+     * @see #awaitNextCycle()
+     */
+    public final long awaitCycle(long cycle) throws InterruptedException
+        {
+        return this.cycleSequencer.awaitCycle(cycle);
+        }
+
+    /**
+     * Advanced: waits until the loop() thread completes the next hardware cycle.
+     *
+     * @return the number of the cycle actually observed
+     * @throws InterruptedException thrown if the thread is interrupted
+     * @see #awaitCycle(long)
+     */
+    public final long awaitNextCycle() throws InterruptedException
+        {
+        return this.cycleSequencer.awaitNextCycle();
         }
 
     /**
@@ -259,11 +444,15 @@ public abstract class SynchronousOpMode extends OpMode
      * Warning: multithreaded programming <em>is</em> rocket science!
      * <p>
      * Like the {@link #main()} thread, synchronous worker threads should frequently call
-     * {@link #opModeIsActive()} and return from their loop body if the opMode has stopped.
+     * {@link #opModeIsActive()} (or poll {@link #getCancellationToken()}) and return from
+     * their loop body if the opMode has stopped. At most {@link #MAX_SYNCHRONOUS_WORKER_THREADS}
+     * worker threads may be running at any one time.
      *
      * @param threadBody the code to execute on the newly created thread
+     * @throws IllegalStateException if the OpMode is stopping or too many workers are running
      * @see #main()
      * @see #opModeIsActive()
+     * @see #getSynchronousWorkerStatistics()
      */
     public void createSynchronousWorkerThread(IInterruptableRunnable threadBody)
         {
@@ -271,28 +460,100 @@ public abstract class SynchronousOpMode extends OpMode
         }
 
     /**
-     * Advanced: wait until all thunks that have been dispatched from the current (synchronous)
-     * thread have completed their execution over on the loop() thread and their effects
-     * to have reached the hardware.
+     * The maximum number of synchronous worker threads that may be running at once
+     * @see #createSynchronousWorkerThread(IInterruptableRunnable)
+     */
+    public static final int MAX_SYNCHRONOUS_WORKER_THREADS = 16;
+
+    /**
+     * Returns a token that is cancelled when the OpMode is asked to stop. Polling it is
+     * cheaper than calling {@link #opModeIsActive()}, so it is well suited to tight loops
+     * in worker threads; throwIfCancellationRequested() is an easy way to exit a thread body.
+     * @return the cancellation token of the OpMode
+     * @see #createSynchronousWorkerThread(IInterruptableRunnable)
+     */
+    public final ICancellationToken getCancellationToken()
+        {
+        return this.cancellationToken;
+        }
+
+    /**
+     * Advanced: returns statistics on each of the threads that have been used to run
+     * the main() thread and synchronous worker threads: their names, lifetimes, CPU
+     * consumption, and how many thread bodies each has run.
+     * @return a snapshot of the statistics of the synchronous threads
+     * @see #createSynchronousWorkerThread(IInterruptableRunnable)
+     */
+    public List<ISynchronousWorkerStatistics> getSynchronousWorkerStatistics()
+        {
+        List<ISynchronousWorkerStatistics> result = this.mainThreadExecutor.getWorkerStatistics();
+        result.addAll(this.workerThreadsExecutor.getWorkerStatistics());
+        return result;
+        }
+
+    /**
+     * Advanced: schedulePeriodic() runs a control task at a fixed rate on a dedicated,
+     * high-priority synchronous thread. This is a better home for control math (PID loops
+     * and the like) than a busy while() loop on main(), which runs at whatever rate the CPU
+     * happens to allow and takes that CPU away from everyone else.
+     * <p>
+     * Executions are scheduled against absolute deadlines, so the rate doesn't drift. If an
+     * execution overruns the start of the next, the missed executions are skipped rather than
+     * run late; {@link IPeriodicTask} reports how often this happens, along with the jitter in
+     * execution start times. All periodic tasks are cancelled automatically when the OpMode stops.
      *
-     * In general, thunked methods that don't return any information to the caller
-     * (that is, the majority of setXXX() calls) only *initiate* their work on the loop()
-     * thread before returning to their caller; the work may or may not have been completed
-     * by the time the setXXX() call returns. Calling waitForThreadsWritesToReachHardware()
-     * allows one to wait later for these calls to have been dispatched. It waits further
-     * until it is known that the effect of those calls has been propagated to the hardware.
+     * @param hz    the rate at which the task is to be executed, in executions per second
+     * @param task  the code to execute on each period
+     * @return      a handle by which the task can be cancelled and its timing inspected
+     * @see IPeriodicTask
+     */
+    public IPeriodicTask schedulePeriodic(double hz, IInterruptableRunnable task)
+        {
+        // Checked and added under the lock that stop() takes to cancel them all, so that no
+        // task can slip in after the cancellation and be left running
+        synchronized (this.periodicTasksLock)
+            {
+            if (this.isStopRequested())
+                throw new IllegalStateException("schedulePeriodic: stop requested");
+
+            PeriodicTask periodicTask = new PeriodicTask(hz, task, this.clock, this.periodicTaskFinished);
+            ExecutorService executor = ThreadPool.newSingleThreadExecutor();
+            periodicTask.setExecutor(executor);
+            this.periodicTasks.add(periodicTask);
+            this.executeSynchronousThread(executor, "synch periodic", new SynchronousThreadRoot(periodicTask, false));
+            return periodicTask;
+            }
+        }
+
+    /**
+     * Advanced: wait until all the actuator writes made by the current (synchronous) thread
+     * have been issued to their controllers.
+     *
+     * When write coalescing is on (see {@link #useWriteCoalescing}), motor power and servo
+     * position writes (the majority of setXXX() calls) are only recorded when made, and
+     * are issued to the controller by the loop() thread at the end of the current hardware
+     * cycle; the write will usually not yet have been issued by the time the setXXX() call
+     * returns. Each such write is numbered, per thread, and acknowledged to the thread when
+     * it is issued (or when it is superseded by a later write to the same actuator that is
+     * issued). waitForThreadsWritesToReachHardware() waits until every write the current
+     * thread has made so far has been acknowledged, and no longer: there's no need for a
+     * sleep() to be sure that a servo has been told to move. Writes that aren't deferred
+     * are issued before their setXXX() call returns, and so are never waited for.
      *
      * Note that waitForThreadsWritesToReachHardware() only deals with work that has been issued
      * by the current thread. Work dispatched from *other* (synchronous) threads may not yet have
-     * completed when waitForThreadsWritesToReachHardware() returns.
+     * completed when waitForThreadsWritesToReachHardware() returns. Note too that issuing a
+     * write to a controller is as far as we can see it go: the controller then sends it on
+     * over USB in its own time.
      *
      * @throws InterruptedException thrown if the thread is interrupted
-     * @deprecated Thunking support is being removed
      */
-    @Deprecated
     public void waitForThreadsWritesToReachHardware() throws InterruptedException
         {
-        // Nothing here any more
+        // Only synchronous threads may wait: the loop() thread is the one that does the flushing
+        SwerveThreadContext context = SwerveThreadContext.getThreadContext();
+        if (context != null && context.thisIsSynchronousThread())
+            context.waitForWritesFlushed();
         }
 
     //----------------------------------------------------------------------------------------------
@@ -312,47 +573,118 @@ public abstract class SynchronousOpMode extends OpMode
      */
     public final boolean updateGamepads()
         {
-        // Called NOT from loop()
-        synchronized (this.loopLock)
+        // Called NOT from loop(). Readers only exclude each other: the loop() thread never
+        // takes this lock, it just publishes into the triple buffer.
+        synchronized (this.gamepadReaderLock)
             {
             this.gamepadInputQueried = true;
-            boolean result = this.gamePadCaptureStateChanged.getAndSet(false);
-            if (result)
-                {
-                gamepadAssign(this.gamepad1, this.gamepad1Captured);
-                gamepadAssign(this.gamepad2, this.gamepad2Captured);
-                }
-            return result;
+            if (!this.gamePadCaptureStateChanged.getAndSet(false))
+                return false;
+
+            // Swap our (consumed) buffer for the most recently published one. If a capture
+            // raced with us, we may get back a buffer we've already seen, which we ignore.
+            this.gamepadsReading = this.gamepadsPublished.getAndSet(this.gamepadsReading);
+            if (!this.gamepadsReading.fresh)
+                return false;
+
+            this.gamepadsReading.fresh = false;
+            gamepadAssign(this.gamepad1, this.gamepadsReading.gamepad1);
+            gamepadAssign(this.gamepad2, this.gamepadsReading.gamepad2);
+            return true;
             }
         }
 
+    /**
+     * Removes and returns the oldest gamepad event not yet polled, if any. Gamepad events
+     * record each press and release of a button, and each movement of a stick or trigger
+     * past the event threshold, in the order in which they occurred. Unlike the state
+     * made visible by {@link #updateGamepads()}, no press is missed just because it was
+     * released again before the polling thread got around to looking, provided that the
+     * loop() thread saw it. Events are collected whether or not anyone polls for them.
+     *
+     * @return the oldest outstanding gamepad event, or null if there is none
+     * @see #pollGamepadEvent(GamepadEvent)
+     * @see #setGamepadEventThreshold(float)
+     */
+    public final GamepadEvent pollGamepadEvent()
+        {
+        GamepadEvent result = new GamepadEvent();
+        return this.pollGamepadEvent(result) ? result : null;
+        }
+
+    /**
+     * Removes the oldest gamepad event not yet polled, if any, copying it into an event
+     * supplied by the caller. This variation allocates nothing.
+     *
+     * @param result the event to fill in
+     * @return whether an event was available
+     * @see #pollGamepadEvent()
+     */
+    public final boolean pollGamepadEvent(GamepadEvent result)
+        {
+        synchronized (this.gamepadEventLock)
+            {
+            return this.gamepadEvents.poll(result);
+            }
+        }
+
+    /**
+     * Sets how far (0 to 1) a stick or trigger must be moved before a gamepad event is
+     * generated for it. The default is 0.5.
+     * @param threshold the event threshold for sticks and triggers
+     * @see #pollGamepadEvent()
+     */
+    public final void setGamepadEventThreshold(float threshold)
+        {
+        this.gamepadEvents.setThreshold(threshold);
+        }
+
+    /**
+     * Returns the number of gamepad events that have been discarded because too many
+     * of them had accumulated without being polled
+     * @return the number of gamepad events dropped
+     */
+    public final long getDroppedGamepadEventCount()
+        {
+        return this.gamepadEvents.getDroppedCount();
+        }
+
     /** Capture the gamepad state so that it will be available for a later updateGamepads() */
     private void captureGamepadState()
         {
+        // Record any edges first. This costs a few compares per gamepad and allocates nothing.
+        long nsNow = this.clock.nanoTime();
+        this.gamepadEvents.capture(1, super.gamepad1, nsNow);
+        this.gamepadEvents.capture(2, super.gamepad2, nsNow);
+
         // We conservatively indicate that things have changed
         boolean changed1 = true, changed2 = true;
         //
-        if (this.gamepad1Captured == null)
-            this.gamepad1Captured = new Gamepad();
+        if (this.gamepad1Previous == null)
+            this.gamepad1Previous = new Gamepad();
         else if (super.gamepad1 != null)
-            changed1 = !gamepadsSame(this.gamepad1Captured, super.gamepad1);
+            changed1 = !gamepadsSame(this.gamepad1Previous, super.gamepad1);
         //
-        if (this.gamepad2Captured == null)
-            this.gamepad2Captured = new Gamepad();
+        if (this.gamepad2Previous == null)
+            this.gamepad2Previous = new Gamepad();
         else if (super.gamepad2 != null)
-            changed2 = !gamepadsSame(this.gamepad2Captured, super.gamepad2);
-        //
-        if (super.gamepad1 != null) gamepadAssign(this.gamepad1Captured, super.gamepad1);
-        if (super.gamepad2 != null) gamepadAssign(this.gamepad2Captured, super.gamepad2);
-        //
-        boolean changed = changed1 || changed2;
+            changed2 = !gamepadsSame(this.gamepad2Previous, super.gamepad2);
         //
-        if (changed)
+        if (changed1 || changed2)
             {
+            if (super.gamepad1 != null) gamepadAssign(this.gamepad1Previous, super.gamepad1);
+            if (super.gamepad2 != null) gamepadAssign(this.gamepad2Previous, super.gamepad2);
+
+            // Fill in our private buffer and publish it, taking back whatever was there before
+            CapturedGamepads captured = this.gamepadsCapturing;
+            gamepadAssign(captured.gamepad1, this.gamepad1Previous);
+            gamepadAssign(captured.gamepad2, this.gamepad2Previous);
+            captured.fresh = true;
+            this.gamepadsCapturing = this.gamepadsPublished.getAndSet(captured);
+
             // Log.v(LOGGING_TAG, String.format("gamepad state: #%d", this.gamepadStateCount.getAndIncrement()));
+            this.gamePadCaptureStateChanged.set(true);
             }
-        //
-        this.gamePadCaptureStateChanged.compareAndSet(false, changed);
         }
 
     boolean isNewGamepadStateAvailable()
@@ -360,6 +692,18 @@ public abstract class SynchronousOpMode extends OpMode
         return this.gamePadCaptureStateChanged.get();
         }
 
+    /**
+     * One of the three buffers used to hand gamepad state from the loop() thread to the
+     * synchronous threads. At any instant, one is owned by the loop() thread, one by the reader,
+     * and one is published in between; ownership changes only through atomic swaps.
+     */
+    private static class CapturedGamepads
+        {
+        final Gamepad    gamepad1 = new Gamepad();
+        final Gamepad    gamepad2 = new Gamepad();
+        boolean          fresh    = false;
+        }
+
     /** Are the states of two gamepads equivalent? */
     private static boolean gamepadsSame(com.qualcomm.robotcore.hardware.Gamepad p1, com.qualcomm.robotcore.hardware.Gamepad p2)
         {
@@ -423,24 +767,58 @@ public abstract class SynchronousOpMode extends OpMode
     private volatile boolean                started;
     private volatile boolean                stopRequested;
     private SynchronousOpModeHardwareFactory hardwareFactory = null;
+    private IWriteCoalescingStatistics      actuatorWriteStatistics = null;
     private         AtomicBoolean           gamePadCaptureStateChanged = new AtomicBoolean(false);
     private         boolean                 gamepadInputQueried = false;
-    private final   Object                  loopLock = new Object();
+    private final   HardwareCycleSequencer  cycleSequencer = new HardwareCycleSequencer();
+    private final   ReadCache               sensorReadCache = new ReadCache(cycleSequencer);
+    private final   ThunkDispatcher         thunkDispatcher = new ThunkDispatcher();
+    private volatile Clock                  clock = Clock.REAL_TIME;
+    private volatile IdleStrategy           idleStrategy = new IdleStrategy.Yield();
+    private volatile IDLE_STRATEGY          idleStrategyKind = IDLE_STRATEGY.YIELD;
 
     private         Thread                  loopThread;
-    private final   ExecutorService         mainThreadExecutor    = ThreadPool.newSingleThreadExecutor();
-    private final   ExecutorService         workerThreadsExecutor = ThreadPool.newCachedThreadPool();
+    private final   SynchronousWorkerPool   mainThreadExecutor    = new SynchronousWorkerPool("synch main", 1);
+    private final   SynchronousWorkerPool   workerThreadsExecutor = new SynchronousWorkerPool("synch worker", MAX_SYNCHRONOUS_WORKER_THREADS);
+    private final   CancellationToken       cancellationToken     = new CancellationToken();
+    private final   List<PeriodicTask>      periodicTasks = new CopyOnWriteArrayList<PeriodicTask>();
+    private final   Object                  periodicTasksLock = new Object();
+    // Forgets tasks that are cancelled or end of their own accord, so they don't pile up until stop()
+    private final   Util.IAction<PeriodicTask> periodicTaskFinished = new Util.IAction<PeriodicTask>()
+        {
+        @Override public void doAction(PeriodicTask task)
+            {
+            synchronized (periodicTasksLock)
+                {
+                periodicTasks.remove(task);
+                }
+            }
+        };
     private         RuntimeException        exceptionThrownOnMainThread;
     private final   AtomicReference<RuntimeException> firstExceptionThrownOnASynchronousWorkerThread = new AtomicReference<RuntimeException>();
 
-    private         Gamepad                 gamepad1Captured = null;
-    private         Gamepad                 gamepad2Captured = null;
+    private         Gamepad                 gamepad1Previous = null;
+    private         Gamepad                 gamepad2Previous = null;
+    private         CapturedGamepads        gamepadsCapturing = new CapturedGamepads();
+    private         CapturedGamepads        gamepadsReading   = new CapturedGamepads();
+    private final   AtomicReference<CapturedGamepads> gamepadsPublished = new AtomicReference<CapturedGamepads>(new CapturedGamepads());
+    private final   Object                  gamepadReaderLock = new Object();
+    private final   GamepadEventRing        gamepadEvents     = new GamepadEventRing(256);
+    private final   Object                  gamepadEventLock  = new Object();
+
+    private final   LatencyHistogram[]      timings       = new LatencyHistogram[TIMING_POINT.values().length];
+    private final   AtomicLongArray         timingBudgets = new AtomicLongArray(TIMING_POINT.values().length);
+    private final   boolean[]               timingBudgetReported = new boolean[TIMING_POINT.values().length];   // loop thread only
+    private         long                    nanoTimePrevLoop = 0;                                                // loop thread only
+    private final   AtomicInteger           loopCount = new AtomicInteger(0);
 
     // State only intended to support debugging and logging
     private         AtomicInteger           gamepadStateCount = new AtomicInteger(0);
 
     public SynchronousOpMode()
         {
+        for (int i = 0; i < this.timings.length; i++)
+            this.timings[i] = new LatencyHistogram();
         }
 
     //----------------------------------------------------------------------------------------------
@@ -457,6 +835,7 @@ public abstract class SynchronousOpMode extends OpMode
         // State
         final IInterruptableRunnable threadBody;
         final boolean                isMain;
+        final Clock                  clock;
 
         //--------------------------------------------------------------
         // Construction
@@ -464,6 +843,7 @@ public abstract class SynchronousOpMode extends OpMode
             {
             this.threadBody = threadBody;
             this.isMain     = isMain;
+            this.clock      = SynchronousOpMode.this.clock;
             }
 
         //--------------------------------------------------------------
@@ -472,11 +852,12 @@ public abstract class SynchronousOpMode extends OpMode
             {
             // Remember the thing that can thunk from this thread back to the loop() thread.
             SynchronousOpMode.this.setThreadThunker();
+            this.clock.threadStarting();
             try
                 {
                 this.threadBody.run();
                 if (this.isMain)
-                    requestOpModeStop();
+                    this.clock.requestOpModeStop(SynchronousOpMode.this);
                 }
             catch (InterruptedException|CancellationException ignored)
                 {
@@ -498,6 +879,10 @@ public abstract class SynchronousOpMode extends OpMode
                     SynchronousOpMode.this.firstExceptionThrownOnASynchronousWorkerThread.compareAndSet(null, e); 
                     }
                 }
+            finally
+                {
+                this.clock.threadStopping();
+                }
             // 'Thread falls off the end here and terminates.
             }
         }
@@ -511,20 +896,56 @@ public abstract class SynchronousOpMode extends OpMode
         //
         ExecutorService service = isMain ? this.mainThreadExecutor : this.workerThreadsExecutor;
         //
-        service.execute(new Runnable()
+        this.executeSynchronousThread(service, isMain ? "synch main" : "synch worker", new SynchronousThreadRoot(threadBody, isMain));
+        }
+
+    private void executeSynchronousThread(ExecutorService service, final String name, final SynchronousThreadRoot root)
+        {
+        // Let the clock know the thread is coming before it actually exists, so that a
+        // simulated clock can't think everyone is idle in the meantime.
+        root.clock.threadSpawning();
+        try {
+            service.execute(new Runnable()
+                {
+                @Override public void run()
+                    {
+                    ThreadPool.logThreadLifeCycle(name, root);
+                    }
+                });
+            }
+        catch (RuntimeException e)
             {
-            @Override public void run()
+            root.clock.threadSpawnFailed();
+            throw e;
+            }
+        }
+    
+    /**
+     * Reports how long it took for the synchronous threads to terminate once stop was
+     * requested, relative to the duration of a loop() cycle, which is what we aim to beat.
+     * The aim is not enforced: threads can only be asked to stop, and stop() still waits up
+     * to the usual ten seconds for them to do so. When a teardown overruns the cycle, the
+     * statistics of each worker are logged so that the slow one can be found.
+     */
+    private void logTeardown(long nsTeardown)
+        {
+        long nsCycle = this.cycleSequencer.getNanosLastCycle();
+        Log.d(LOGGING_TAG, String.format("synchronous threads terminated in %.2fms (loop cycle %.2fms)", nsTeardown / (double)ElapsedTime.MILLIS_IN_NANO, nsCycle / (double)ElapsedTime.MILLIS_IN_NANO));
+        if (nsCycle > 0 && nsTeardown > nsCycle)
+            {
+            for (ISynchronousWorkerStatistics worker : this.getSynchronousWorkerStatistics())
                 {
-                ThreadPool.logThreadLifeCycle(isMain ? "synch main" : "synch worker", new SynchronousThreadRoot(threadBody, isMain));
+                Log.d(LOGGING_TAG, String.format("    %s", worker.toString()));
                 }
-            });
+            }
         }
-    
+
     private void setThreadThunker()
         {
         SwerveThreadContext context = SwerveThreadContext.createIfNecessary();
         context.opMode = this;
         context.isSynchronousThread = true;
+        context.thunker = this.thunkDispatcher;
         }
 
     //----------------------------------------------------------------------------------------------
@@ -537,8 +958,18 @@ public abstract class SynchronousOpMode extends OpMode
     @Override public final void init()
         {
         try {
+            // A re-run reports its own timings, not the sum of its and the last run's. We're
+            // the timings' writer, so we can clear them here and now.
+            for (int i = 0; i < this.timings.length; i++)
+                {
+                this.timings[i].clear();
+                this.timingBudgetReported[i] = false;
+                }
+
             // Call the subclass hook in case they might want to do something interesting
+            long nsPreInitHook = System.nanoTime();
             this.preInitHook();
+            this.noteTiming(TIMING_POINT.PRE_INIT_HOOK, nsPreInitHook);
 
             // Remember who the loop thread is so that we know whom to communicate with from a
             // synchronous thread. Note: we ASSUME here that init() and loop() run on the same thread
@@ -548,8 +979,10 @@ public abstract class SynchronousOpMode extends OpMode
             this.unthunkedHardwareMap = super.hardwareMap;
             // Make a new processed hardware map, and remember it in a variable that shadows the super one.
             // Note that we always leave the super one unchanged; this is important to OpModeShutdownNotifier.
-            this.hardwareFactory = new SynchronousOpModeHardwareFactory(this, this.useExperimentalHardwareMap);
+            this.hardwareFactory = new SynchronousOpModeHardwareFactory(this, this.useExperimentalHardwareMap, this.useWriteCoalescing,
+                                                        this.useSensorReadCaching ? this.sensorReadCache : null);
             this.hardwareMap     = this.hardwareFactory.createProcessedHardwareMap();
+            this.actuatorWriteStatistics = this.hardwareFactory.getWriteStatistics();
 
             // Similarly replace the telemetry variable
             this.telemetry = new TelemetryDashboardAndLog(this);
@@ -558,6 +991,11 @@ public abstract class SynchronousOpMode extends OpMode
             this.started = false;
             this.stopRequested = false;
             this.loopCount.set(0);
+            this.nanoTimePrevLoop = 0;
+            this.cancellationToken.reset();
+            this.cycleSequencer.reset();
+            // Compare the gamepads afresh rather than against how the last run left them
+            this.gamepadEvents.resetBaseline();
 
             this.exceptionThrownOnMainThread = null;
             this.firstExceptionThrownOnASynchronousWorkerThread.set(null);
@@ -574,7 +1012,9 @@ public abstract class SynchronousOpMode extends OpMode
                 }, true);
 
             // Call the subclass hook in case they might want to do something interesting
+            long nsPostInitHook = System.nanoTime();
             this.postInitHook();
+            this.noteTiming(TIMING_POINT.POST_INIT_HOOK, nsPostInitHook);
             }
         catch (Exception e)
             {
@@ -591,17 +1031,23 @@ public abstract class SynchronousOpMode extends OpMode
      */
     @Override public final void init_loop()
         {
+        long nsPreInitLoopHook = System.nanoTime();
         this.preInitLoopHook();
+        this.noteTiming(TIMING_POINT.PRE_INIT_LOOP_HOOK, nsPreInitLoopHook);
 
-        synchronized (this.loopLock)
-            {
-            // Capture the gamepad state for later processing
-            this.captureGamepadState();
+        // Capture the gamepad state for later processing
+        this.captureGamepadState();
 
-            this.loopLock.notifyAll();
-            }
+        // Run the work thunked over to us, then send out the actuator writes made during this cycle
+        this.thunkDispatcher.drain();
+        this.hardwareFactory.flushWrites();
+
+        // Tell people that this cycle is complete
+        this.cycleSequencer.publish();
 
+        long nsPostInitLoopHook = System.nanoTime();
         this.postInitLoopHook();
+        this.noteTiming(TIMING_POINT.POST_INIT_LOOP_HOOK, nsPostInitLoopHook);
         }
 
     /**
@@ -613,16 +1059,17 @@ public abstract class SynchronousOpMode extends OpMode
     @Override public final void start()
         {
         // Call the subclass hook in case they might want to do something interesting
+        long nsPreStartHook = System.nanoTime();
         this.preStartHook();
+        this.noteTiming(TIMING_POINT.PRE_START_HOOK, nsPreStartHook);
         
-        synchronized (this.loopLock)
-            {
-            this.started = true;
-            this.loopLock.notifyAll();
-            }
+        this.started = true;
+        this.cycleSequencer.wakeWaiters();
 
         // Call the subclass hook in case they might want to do something interesting
+        long nsPostStartHook = System.nanoTime();
         this.postStartHook();
+        this.noteTiming(TIMING_POINT.POST_START_HOOK, nsPostStartHook);
         }
 
     /**
@@ -633,46 +1080,61 @@ public abstract class SynchronousOpMode extends OpMode
      */
     @Override public final void loop()
         {
+        // Note how long it's been since we were last here
+        long nsLoop = System.nanoTime();
+        if (this.nanoTimePrevLoop != 0)
+            this.noteTiming(TIMING_POINT.LOOP_PERIOD, this.nanoTimePrevLoop);
+        this.nanoTimePrevLoop = nsLoop;
+
         // Protect the whole silly thing. If we throw in there, 'caller is just going to tell
         // on us, so we want to get to know what's happening before he does.
         try {
             // Call the subclass hook in case they might want to do something interesting
+            long nsPreLoopHook = System.nanoTime();
             this.preLoopHook();
+            this.noteTiming(TIMING_POINT.PRE_LOOP_HOOK, nsPreLoopHook);
 
             // Validate our assumption of init() and loop() running on the same thread.
             assertTrue(this.isLoopThread());
 
-            synchronized (this.loopLock)
+            // Keep track of how many loop() calls we've seen
+            this.loopCount.getAndIncrement();
+
+            // If we had an exception thrown by a synchronous thread, then throw it here. 'Sort
+            // of like thunking the exceptions. Exceptions from the main thread take
+            // priority over those from worker threads. Note that the reads here are indeed
+            // racing with the writes that are throwing, but that's ok.
+            RuntimeException e = this.exceptionThrownOnMainThread;
+            if (e == null)
                 {
-                // Keep track of how many loop() calls we've seen
-                this.loopCount.getAndIncrement();
-
-                // If we had an exception thrown by a synchronous thread, then throw it here. 'Sort
-                // of like thunking the exceptions. Exceptions from the main thread take
-                // priority over those from worker threads. Note that the reads here are indeed
-                // racing with the writes that are throwing, but that's ok.
-                RuntimeException e = this.exceptionThrownOnMainThread;
-                if (e == null)
-                    {
-                    e = this.firstExceptionThrownOnASynchronousWorkerThread.get();
-                    }
-                if (e != null)
-                    {
-                    throw e;
-                    }
+                e = this.firstExceptionThrownOnASynchronousWorkerThread.get();
+                }
+            if (e != null)
+                {
+                throw e;
+                }
 
-                // Capture the gamepad state for later processing
-                this.captureGamepadState();
+            // Capture the gamepad state for later processing
+            this.captureGamepadState();
 
-                // Call the subclass hook in case they might want to do something interesting
-                this.midLoopHook();
+            // Call the subclass hook in case they might want to do something interesting
+            long nsMidLoopHook = System.nanoTime();
+            this.midLoopHook();
+            this.noteTiming(TIMING_POINT.MID_LOOP_HOOK, nsMidLoopHook);
 
-                // Tell people that this loop cycle is complete
-                this.loopLock.notifyAll();
-                }
+            // Run the work thunked over to us, then send out the actuator writes made during this cycle
+            this.thunkDispatcher.drain();
+            this.hardwareFactory.flushWrites();
+
+            // Tell people that this loop cycle is complete
+            this.cycleSequencer.publish();
 
             // Call the subclass hook in case they might want to do something interesting
+            long nsPostLoopHook = System.nanoTime();
             this.postLoopHook();
+            this.noteTiming(TIMING_POINT.POST_LOOP_HOOK, nsPostLoopHook);
+
+            this.noteTiming(TIMING_POINT.LOOP, nsLoop);
             }
         catch (Exception e)
             {
@@ -691,11 +1153,30 @@ public abstract class SynchronousOpMode extends OpMode
         {
         try {
             // Call the subclass hook in case they might want to do something interesting
+            long nsPreStopHook = System.nanoTime();
             this.preStopHook();
+            this.noteTiming(TIMING_POINT.PRE_STOP_HOOK, nsPreStopHook);
             Log.d(LOGGING_TAG, String.format("stopping OpMode {%s}...", this.getClass().getSimpleName()));
 
             // Next time synchronous threads ask, yes, we do want to stop
+            long nsStopRequested = System.nanoTime();
             this.stopRequested = true;
+            this.cancellationToken.cancel();
+            this.cycleSequencer.wakeWaiters();
+
+            // Periodic control tasks go first, so that they stop driving the robot
+            // Cancel under the lock, but await outside it: a task may itself be waiting on the
+            // lock in schedulePeriodic(), and will find the stop request once it gets it.
+            List<PeriodicTask> cancelled;
+            synchronized (this.periodicTasksLock)
+                {
+                cancelled = new ArrayList<PeriodicTask>(this.periodicTasks);
+                this.periodicTasks.clear();
+                for (PeriodicTask task : cancelled)
+                    task.cancel();
+                }
+            for (PeriodicTask task : cancelled)
+                task.cancelAndAwait();
 
             // Give all of our worker threads a heads up to get out of town
             this.workerThreadsExecutor.shutdownNow();
@@ -704,6 +1185,14 @@ public abstract class SynchronousOpMode extends OpMode
             // Serially wait for these folk to pack up and leave
             ThreadPool.awaitTerminationOrExitApplication(this.workerThreadsExecutor, 10, TimeUnit.SECONDS, "synchronous threads", "unreasonable delay in user code?");
             ThreadPool.awaitTerminationOrExitApplication(this.mainThreadExecutor, 10, TimeUnit.SECONDS, "synchronous main thread", "unreasonable delay in user code?");
+            this.logTeardown(System.nanoTime() - nsStopRequested);
+
+            // No one is left to wait for any work still thunked over to us
+            this.thunkDispatcher.abandon();
+
+            // Finish off any recording, now that no one is left to add to it
+            if (this.telemetry != null)
+                this.telemetry.recorder.stop();
 
             if (this.hardwareFactory != null)
                 {
@@ -712,7 +1201,9 @@ public abstract class SynchronousOpMode extends OpMode
                 }
 
             Log.d(LOGGING_TAG, String.format("...stopped"));
+            long nsPostStopHook = System.nanoTime();
             this.postStopHook();
+            this.noteTiming(TIMING_POINT.POST_STOP_HOOK, nsPostStopHook);
             }
         catch (Exception e)
             {
@@ -787,6 +1278,89 @@ public abstract class SynchronousOpMode extends OpMode
      */
     protected void postStopHook() { /* hook for subclasses */ }
 
+    //----------------------------------------------------------------------------------------------
+    // Advanced: loop thread timing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * The things on the loop() thread whose durations are measured: each of the subclass hooks,
+     * the whole of loop() (hooks included), and the period between the starts of successive
+     * calls to loop().
+     * @see #getTimingStatistics(TIMING_POINT)
+     */
+    public enum TIMING_POINT
+        {
+        PRE_INIT_HOOK, POST_INIT_HOOK,
+        PRE_INIT_LOOP_HOOK, POST_INIT_LOOP_HOOK,
+        PRE_START_HOOK, POST_START_HOOK,
+        PRE_LOOP_HOOK, MID_LOOP_HOOK, POST_LOOP_HOOK,
+        PRE_STOP_HOOK, POST_STOP_HOOK,
+        LOOP, LOOP_PERIOD
+        }
+
+    /**
+     * Advanced: returns the distribution of the durations measured at the indicated
+     * point on the loop() thread since the OpMode was last initialized
+     * @param point the point of interest
+     * @return the timing statistics at that point
+     * @see #setTimingBudget(TIMING_POINT, long)
+     * @see #addTimingTelemetry()
+     */
+    public ILatencyStatistics getTimingStatistics(TIMING_POINT point)
+        {
+        return this.timings[point.ordinal()];
+        }
+
+    /**
+     * Advanced: sets a budget for the time taken at the indicated point. The first time the
+     * budget is exceeded in a run a warning is written to the log; later overruns are only reflected
+     * in the timing statistics. A budget of zero (the default) disables the check.
+     * @param point    the point to which the budget applies
+     * @param nsBudget the budget, in nanoseconds
+     * @see #getTimingStatistics(TIMING_POINT)
+     */
+    public void setTimingBudget(TIMING_POINT point, long nsBudget)
+        {
+        this.timingBudgets.set(point.ordinal(), nsBudget);
+        }
+
+    /**
+     * Advanced: adds lines to the telemetry dashboard that show the p50, p99 and max durations
+     * of loop(), of the period between loop() calls, and of the hooks called by loop().
+     * Call once from main(), before your loop; the lines update with the rest of the dashboard.
+     * @see #getTimingStatistics(TIMING_POINT)
+     */
+    public void addTimingTelemetry()
+        {
+        TIMING_POINT[] points = { TIMING_POINT.LOOP, TIMING_POINT.LOOP_PERIOD, TIMING_POINT.PRE_LOOP_HOOK, TIMING_POINT.MID_LOOP_HOOK, TIMING_POINT.POST_LOOP_HOOK };
+        for (final TIMING_POINT point : points)
+            {
+            this.telemetry.addLine(this.telemetry.item(point.toString().toLowerCase() + ": ", new IFunc<Object>()
+                {
+                @Override public Object value()
+                    {
+                    return getTimingStatistics(point);
+                    }
+                }));
+            }
+        }
+
+    /** Records the time elapsed since nsStart at the indicated point; called only on the loop() thread */
+    private void noteTiming(TIMING_POINT point, long nsStart)
+        {
+        long nsElapsed = System.nanoTime() - nsStart;
+        int  index     = point.ordinal();
+        this.timings[index].record(nsElapsed);
+
+        long nsBudget = this.timingBudgets.get(index);
+        if (nsBudget > 0 && nsElapsed > nsBudget && !this.timingBudgetReported[index])
+            {
+            this.timingBudgetReported[index] = true;
+            Log.w(LOGGING_TAG, String.format("%s took %.2fms, exceeding its budget of %.2fms; further overruns will not be logged",
+                    point, nsElapsed / (double)ElapsedTime.MILLIS_IN_NANO, nsBudget / (double)ElapsedTime.MILLIS_IN_NANO));
+            }
+        }
+
     //----------------------------------------------------------------------------------------------
     // Thunking helpers
     //----------------------------------------------------------------------------------------------
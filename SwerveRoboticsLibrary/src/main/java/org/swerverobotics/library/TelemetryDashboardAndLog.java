@@ -4,9 +4,17 @@ import com.qualcomm.ftccommon.FtcEventLoopHandler;
 import com.qualcomm.robotcore.eventloop.EventLoopManager;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 import com.qualcomm.robotcore.robocol.Telemetry;
+import com.qualcomm.robotcore.util.ElapsedTime;
 import org.swerverobotics.library.interfaces.*;
 import org.swerverobotics.library.internal.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * TelemetryDashboardAndLog is a telemetry helper class that makes it easier write 
@@ -27,7 +35,8 @@ import java.util.*;
  * {@link #setUpdateIntervalMs(int)}. This helps both reduce network traffic and reduce
  * the cost on the robot controller itself of acquiring telemetry data for transmission,
  * as the acquisition of the data itself can sometimes be quite expensive, depending on what
- * is being shown.</p>
+ * is being shown. Should that cost get to be too much nonetheless, the rate is automatically
+ * lowered further: see {@link #setMaxCostFraction(double)}.</p>
  *
  * <p>Data can be shown in the dashboard in one (or both) of two ways:</p>
  * <ol>
@@ -48,6 +57,33 @@ import java.util.*;
  * When new additions are made to the log, they are conveyed to the driver station in an
  * expeditious manner. The dashboard is also updated at such times. The order of the display
  * of log messages can be controlled with {@link org.swerverobotics.library.TelemetryDashboardAndLog.Log#setDisplayOldToNew(boolean) setDisplayOldToNew()}.</p>
+ *
+ * <p>The dashboard is retained from one transmission to the next: the keys of the lines, the
+ * buffers in which they are composed, and the object in which they are transmitted are all
+ * reused, and a line is only recomposed if something in it has actually changed. Once your
+ * telemetry settles down, then, the dashboard itself produces no garbage.</p>
+ *
+ * <p>Numbers are best shown with the numeric overloads of addData(), such as
+ * {@link #addData(String, double, int)}, and with numeric items, made with
+ * {@link #item(String, IDoubleFunc, int)}, rather than by formatting them into strings yourself.
+ * These keep the number itself, and format it (without allocating) only when it has changed
+ * and is actually to be transmitted.</p>
+ *
+ * <p>Items whose values are expensive to acquire, such as those that read a sensor over I2C,
+ * needn't be evaluated on every transmission: each {@link Item} and {@link Line} can be given
+ * its own refresh interval, and between refreshes the value from the last one is shown. In a
+ * SynchronousOpMode an item can also be refreshed on a background thread, so that reading it
+ * never holds up {@link #update()}.</p>
+ *
+ * <p>Any number of threads may write telemetry at once without getting in each other's way.
+ * {@link #addData(String, String) addData()} and {@link Log#add(String) log.add()} take no
+ * locks: each thread stages its lines in a buffer of its own, and the thread that transmits
+ * gathers them up. The lines of each thread are shown together, in the order in which that
+ * thread added them, and the threads in the order in which they first added a line. Each
+ * thread's lines are replaced by the next ones it adds following an update().</p>
+ *
+ * <p>Alongside the dashboard, numeric data can be recorded at full loop rate to a file with
+ * the {@link #recorder}.</p>
  */
 public class TelemetryDashboardAndLog
     {
@@ -61,6 +97,12 @@ public class TelemetryDashboardAndLog
      */
     public final Log                log;
 
+    /**
+     * 'recorder' records numeric telemetry at full rate to a file, for analysis after the run
+     * @see TelemetryRecorder
+     */
+    public final TelemetryRecorder  recorder;
+
     /**
      * Retrieves the current delimiter used to separate dashboard items on a single line
      *
@@ -86,11 +128,13 @@ public class TelemetryDashboardAndLog
      * is refreshed with new contents of the dashboard. If updates aren't happening
      * frequently enough for you, you can change this value.
      *
-     * Note that updates happen more frequently if messages are written to the log.
+     * Note that updates happen more frequently if messages are written to the log, and
+     * less frequently if transmitting is found to be expensive.
      *
      * @return  the current update interval, in milliseconds
      *
      * @see #setUpdateIntervalMs(int)
+     * @see #getEffectiveUpdateIntervalMs()
      */
     public int getUpdateIntervalMs()
         {
@@ -109,6 +153,122 @@ public class TelemetryDashboardAndLog
         this.msUpdateInterval = msUpdateInterval;
         }
 
+    /**
+     * Advanced: returns the interval at which the driver station is actually being refreshed.
+     * This is the update interval, stretched as necessary to keep the cost of telemetry within
+     * the fraction of the time of the updating thread given by {@link #getMaxCostFraction()}.
+     *
+     * @return the effective update interval, in milliseconds
+     * @see #getUpdateIntervalMs()
+     * @see #setMaxCostFraction(double)
+     */
+    public int getEffectiveUpdateIntervalMs()
+        {
+        return (int)(this.getEffectiveIntervalNanos(this.msUpdateInterval) / ElapsedTime.MILLIS_IN_NANO);
+        }
+
+    /**
+     * Advanced: returns the largest fraction of the time of the thread calling {@link #update()}
+     * that telemetry is allowed to take
+     *
+     * @return the maximum cost fraction
+     * @see #setMaxCostFraction(double)
+     */
+    public double getMaxCostFraction()
+        {
+        return this.maxCostFraction;
+        }
+
+    /**
+     * Advanced: sets the largest fraction of the time of the thread calling {@link #update()}
+     * that telemetry is allowed to take. The cost of each transmission, including composing
+     * the dashboard, is measured, and transmissions are spaced out (up to
+     * {@link #getMaxUpdateIntervalMs()} apart) so that telemetry takes no more than this.
+     * The default is 0.05, that is, five percent.
+     *
+     * @param maxCostFraction the maximum cost fraction, greater than zero
+     * @see #getEffectiveUpdateIntervalMs()
+     */
+    public void setMaxCostFraction(double maxCostFraction)
+        {
+        if (!(maxCostFraction > 0))
+            throw new IllegalArgumentException(String.format("setMaxCostFraction: illegal fraction: %f", maxCostFraction));
+        this.maxCostFraction = maxCostFraction;
+        }
+
+    /**
+     * Advanced: returns the longest that the update interval will be stretched to in order
+     * to limit the cost of telemetry
+     *
+     * @return the maximum update interval, in milliseconds
+     * @see #setMaxCostFraction(double)
+     */
+    public int getMaxUpdateIntervalMs()
+        {
+        return this.msMaxUpdateInterval;
+        }
+
+    /**
+     * Advanced: sets the longest that the update interval will be stretched to in order
+     * to limit the cost of telemetry. The default is two seconds.
+     *
+     * @param msMaxUpdateInterval the maximum update interval, in milliseconds
+     * @see #getMaxUpdateIntervalMs()
+     */
+    public void setMaxUpdateIntervalMs(int msMaxUpdateInterval)
+        {
+        this.msMaxUpdateInterval = msMaxUpdateInterval;
+        }
+
+    /**
+     * Advanced: returns the minimum interval between transmissions caused by new log messages.
+     * Messages logged in a burst go out together in one transmission rather than one apiece.
+     *
+     * @return the log coalescing interval, in milliseconds
+     * @see #setLogCoalescingIntervalMs(int)
+     */
+    public int getLogCoalescingIntervalMs()
+        {
+        return this.msLogCoalescingInterval;
+        }
+
+    /**
+     * Advanced: sets the minimum interval between transmissions caused by new log messages.
+     * The default is 50ms. Like the update interval, this too is stretched if transmitting
+     * is expensive.
+     *
+     * @param msLogCoalescingInterval the log coalescing interval, in milliseconds
+     * @see #getLogCoalescingIntervalMs()
+     */
+    public void setLogCoalescingIntervalMs(int msLogCoalescingInterval)
+        {
+        this.msLogCoalescingInterval = msLogCoalescingInterval;
+        }
+
+    /**
+     * Advanced: returns statistics on how long the robot controller runtime takes to send each
+     * transmission to the driver station, that is, the duration of each call to
+     * OpMode.updateTelemetryNow(). Composing the dashboard isn't included.
+     *
+     * @return the transmission duration statistics
+     * @see #getLastPayloadSize()
+     */
+    public ILatencyStatistics getTransmitStatistics()
+        {
+        return this.transmitDurations;
+        }
+
+    /**
+     * Advanced: returns the size of the last transmission to the driver station
+     *
+     * @return the number of characters in the keys and values of the last transmission
+     * @see #getTransmitStatistics()
+     */
+    public int getLastPayloadSize()
+        {
+        return this.cchLastPayload;
+        }
+
     //------------------------------------------------------------------------------------------
     // Private State
     //------------------------------------------------------------------------------------------
@@ -116,13 +276,54 @@ public class TelemetryDashboardAndLog
     private String itemDelimiter    = " | ";
     private int    msUpdateInterval = 500;
 
+    private volatile double         maxCostFraction         = 0.05;
+    private volatile int            msMaxUpdateInterval     = 2000;
+    private volatile int            msLogCoalescingInterval = 50;
+    private volatile double         nsCostAverage           = 0;    // of transmit(), exponentially smoothed
+    private volatile int            cchLastPayload          = 0;
+    private final LatencyHistogram  transmitDurations       = new LatencyHistogram();
+    private static final double     costSmoothing           = 0.2;
+
     private Vector<Runnable>        actions = null;
     private Vector<Line>            composableLines = null;
-    private Vector<String>          composedLines = null;
-    private boolean                 updateSinceAddComposedLine = false;
+    private Vector<ComposedLine>    composedLines = null;           // slots, reused from one update to the next
+    private int                     cComposedLines = 0;             // how many of those slots are in use
 
-    private long                    nanoLastUpdate = 0;
+    // addData() lines are staged per thread until the transmitting thread gathers them
+    private final List<StagingBuffer>         stagingBuffers = new CopyOnWriteArrayList<StagingBuffer>();
+    private final ThreadLocal<StagingBuffer>  staging = new ThreadLocal<StagingBuffer>()
+        {
+        @Override protected StagingBuffer initialValue()
+            {
+            StagingBuffer result = new StagingBuffer();
+            stagingBuffers.add(result);
+            return result;
+            }
+        };
+    private final AtomicLong        updateEpoch  = new AtomicLong(0);  // bumped by each update() the user makes
+    private volatile long           epochCleared = 0;                  // staged lines older than this aren't shown
+    private final AtomicLong        epochLastAdd = new AtomicLong(0);  // the latest epoch in which any thread added a line
+    private final AtomicBoolean     transmitting = new AtomicBoolean(false);
+
+    private final Telemetry         transmitter = new Telemetry();  // reused for every transmission
+    private final List<Item>        backgroundItems = new CopyOnWriteArrayList<Item>();
+    private boolean                 backgroundRefresherCreated = false;
+    private Thread                  backgroundRefresher = null;
+    private final StringBuilder     composer    = new StringBuilder();
+
+    // Keys must be unique. If they start with nul, then they're not shown on the driver display.
+    // Historically, they were always shown, and sorted, so we used an increasing sequence
+    // of unrenderable strings. There can only ever be Telemetry.cCountMax of them.
+    private static final String[]   keys = new String[Telemetry.cCountMax];
+    static
+        {
+        for (int iLine = 0; iLine < keys.length; iLine++)
+            keys[iLine] = String.format("\0%c", 0x180 + iLine);
+        }
+
+    private volatile long           nanoLastUpdate = 0;
     private OpMode                  opMode;
+    private Clock                   clock;
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -160,7 +361,10 @@ public class TelemetryDashboardAndLog
         if (null == opModeContext) throw new IllegalArgumentException("TelemetryDashboardAndLog opModeContext can't be null");
         //
         this.opMode = opModeContext;
+        this.clock  = Clock.forOpMode(opModeContext);
+        this.transmitter.setSorted(false);
         this.log = new Log();
+        this.recorder = new TelemetryRecorder(this.clock);
         this.clearDashboard();
         }
 
@@ -178,7 +382,7 @@ public class TelemetryDashboardAndLog
      *
      * @see Telemetry#addData(String, String)
      */
-    public synchronized void addData(String caption, String msg)
+    public void addData(String caption, String msg)
         {
         this.addComposedLine(caption, msg);
         }
@@ -194,7 +398,7 @@ public class TelemetryDashboardAndLog
      * @see #addData(String, String)
      * @see Telemetry#addData(String, Object)
      */
-    public synchronized void addData(String caption, Object value)
+    public void addData(String caption, Object value)
         {
         this.addComposedLine(caption, value.toString());
         }
@@ -210,9 +414,9 @@ public class TelemetryDashboardAndLog
      * @see #addData(String, String)
      * @see Telemetry#addData(String, float)
      */
-    public synchronized void addData(String caption, float value)
+    public void addData(String caption, float value)
         {
-        this.addComposedLine(caption, Float.toString(value));
+        this.addComposedLine(caption, Float.floatToIntBits(value), FORMAT_FLOAT);
         }
 
     /**
@@ -226,9 +430,9 @@ public class TelemetryDashboardAndLog
      * @see #addData(String, String)
      * @see Telemetry#addData(String, float)
      */
-    public synchronized void addData(String caption, int value)
+    public void addData(String caption, int value)
         {
-        this.addComposedLine(caption, Integer.toString(value));
+        this.addComposedLine(caption, value, FORMAT_LONG);
         }
 
     /**
@@ -242,38 +446,88 @@ public class TelemetryDashboardAndLog
      * @see #addData(String, String)
      * @see Telemetry#addData(String, float)
      */
-    public synchronized void addData(String caption, long value)
+    public void addData(String caption, long value)
         {
-        this.addComposedLine(caption, Long.toString(value));
+        this.addComposedLine(caption, value, FORMAT_LONG);
         }
 
-
     /**
      * Add a one-time message to the dashboard. This message is erased after
      * update() is called and must be reissued if it is to be shown
-     * in subsequent update() cycles.
+     * in subsequent update() cycles. The number is shown much as Double.toString() would
+     * show it, but is formatted without allocating.
      *
      * @param caption   the caption to put on the message
      * @param value     the value to be formatted and displayed
      *
      * @see #addData(String, String)
      * @see Telemetry#addData(String, double)
+     * @see NumberFormatter#appendDouble(StringBuilder, double)
      */
-    public synchronized void addData(String caption, double value)
+    public void addData(String caption, double value)
         {
-        this.addComposedLine(caption, Double.toString(value));
+        this.addComposedLine(caption, Double.doubleToLongBits(value), FORMAT_DOUBLE);
+        }
+
+    /**
+     * Add a one-time message to the dashboard showing a number with a fixed number of decimal
+     * places, as String.format("%.2f") and the like would. Unlike String.format(), this
+     * allocates nothing: the number is formatted only when it is transmitted, and only if it
+     * has changed since it was last transmitted.
+     *
+     * @param caption   the caption to put on the message
+     * @param value     the value to be formatted and displayed
+     * @param decimals  the number of digits to show after the decimal point
+     *
+     * @see #addData(String, double)
+     * @see #item(String, IDoubleFunc, int)
+     */
+    public void addData(String caption, double value, int decimals)
+        {
+        checkDecimals(decimals);
+        this.addComposedLine(caption, Double.doubleToLongBits(value), decimals);
         }
 
     private void addComposedLine(String caption, String value)
         {
-        if (this.updateSinceAddComposedLine)
-            this.composedLines.clear();
+        this.staging.get().add(caption, value, 0, FORMAT_STRING);
+        }
+
+    private void addComposedLine(String caption, long number, int format)
+        {
+        this.staging.get().add(caption, null, number, format);
+        }
+
+    //------------------------------------------------------------------------------------------
+    // Number formatting
+    //------------------------------------------------------------------------------------------
+
+    // How a number staged by addData() or computed by an item is to be formatted. A format
+    // that is zero or more is the number of decimal places with which to show a double.
+    private static final int    FORMAT_STRING = -1;     // not a number at all
+    private static final int    FORMAT_DOUBLE = -2;     // as NumberFormatter.appendDouble()
+    private static final int    FORMAT_FLOAT  = -3;     // as Float.toString(); the bits are those of the float
+    private static final int    FORMAT_LONG   = -4;     // as Long.toString()
+
+    // The bits of an item number that has yet to be computed. doubleToLongBits() never
+    // returns this, as it collapses all NaNs into the one canonical NaN.
+    private static final long   NO_NUMBER     = 0x7ff8dead00000000L;
 
-        // We display both the key and the value for these, as that's what the
-        // raw telemetry does. However, we do NOT sort on the caption, as that
-        // has little utility.
-        this.composedLines.add(String.format("%s : %s", caption, value));
-        this.updateSinceAddComposedLine = false;
+    private static void checkDecimals(int decimals)
+        {
+        if (decimals < 0 || decimals > NumberFormatter.MAX_DECIMALS)
+            throw new IllegalArgumentException(String.format("illegal number of decimals: %d", decimals));
+        }
+
+    private static void appendNumber(StringBuilder builder, long number, int format)
+        {
+        switch (format)
+            {
+            case FORMAT_DOUBLE: NumberFormatter.appendDouble(builder, Double.longBitsToDouble(number)); break;
+            case FORMAT_FLOAT:  builder.append(Float.intBitsToFloat((int)number)); break;
+            case FORMAT_LONG:   builder.append(number);                            break;
+            default:            NumberFormatter.appendFixed(builder, Double.longBitsToDouble(number), format); break;
+            }
         }
 
     //------------------------------------------------------------------------------------------
@@ -287,20 +541,30 @@ public class TelemetryDashboardAndLog
         {
         this.actions         = new Vector<Runnable>();
         this.composableLines = new Vector<Line>();
+        this.backgroundItems.clear();
         clearComposedLines();
         }
 
     private void clearComposedLines()
         {
-        this.composedLines    = new Vector<String>();
+        this.composedLines  = new Vector<ComposedLine>();
+        this.cComposedLines = 0;
+        this.epochCleared   = this.updateEpoch.incrementAndGet();
+        }
+
+    // Reuse the slot a line occupied last time around. If the caller is saying
+    // the same thing as then, which is common, we need not even compose it again.
+    private ComposedLine getComposedLineSlot(int iSlot)
+        {
+        while (iSlot >= this.composedLines.size())
+            this.composedLines.add(new ComposedLine());
+        return this.composedLines.elementAt(iSlot);
         }
 
     private static String getKey(int iLine)
         {
-        // Keys must be unique. If they start with nul, then they're not shown on the driver display.
-        // Historically, they were always shown, and sorted, so we used an increasing sequence
-        // of unrenderable strings.
-        return String.format("\0%c", 0x180 + iLine);
+        // Beyond the end of the table, Telemetry will refuse to transmit anyway
+        return iLine < keys.length ? keys[iLine] : String.format("\0%c", 0x180 + iLine);
         }
 
      /**
@@ -308,14 +572,14 @@ public class TelemetryDashboardAndLog
       *
       * Note that telemetry isn't *actually* transmitted on each call. Rather, transmission
       * to the driver station is throttled to normally be sent at the end of every update
-      * interval. However, when a message is added to the log, the driver station is always
-      * updated on the next call to update().
+      * interval. However, when a message is added to the log, the driver station is
+      * updated on the next call to update() once the (short) log coalescing interval has passed.
       *
       * @return whether an update to the driver station was made or not
       * @see #getUpdateIntervalMs()
       * @see #update(int)
       */
-    public synchronized boolean update()
+    public boolean update()
         {
         return update(getUpdateIntervalMs());
         }
@@ -330,7 +594,7 @@ public class TelemetryDashboardAndLog
      * @return whether an update to the drive station was made or not (will always be true)
      * @see #update()
      */
-    public synchronized boolean updateNow()
+    public boolean updateNow()
         {
         return update(getUpdateIntervalMs(), true, true);
         }
@@ -343,90 +607,145 @@ public class TelemetryDashboardAndLog
      * @return whether an update to the driver station was made or not
      * @see #update()
      */
-    public synchronized boolean update(int msUpdateInterval)
+    public boolean update(int msUpdateInterval)
         {
         return update(msUpdateInterval, true, false);
         }
 
-    private synchronized boolean update(int msUpdateInterval, boolean userRequest, boolean forced)
+    private boolean update(int msUpdateInterval, boolean userRequest, boolean forced)
         {
         boolean result = false;
 
+        // We ALWAYS clear the composed lines of every thread (once any thread next adds one), as the
+        // user, generally, has no idea which update() calls actually transmit. Lines that
+        // are staged already still go out with this update, should it transmit.
+        if (userRequest)
+            this.updateEpoch.incrementAndGet();
+
         // Don't actually put out updates too often so as to avoid excessive pointless
         // computation in the robot controller and (to a lesser extent) reduced network
-        // traffic to the driver station.
-        long nanoNow = System.nanoTime();
+        // traffic to the driver station. New log messages hurry things along, but a
+        // burst of them still only causes the one transmission.
+        long nanoNow   = this.clock.nanoTime();
+        long nsElapsed = nanoNow - nanoLastUpdate;
         if (forced || nanoLastUpdate == 0
-                || nanoNow > nanoLastUpdate + (long)msUpdateInterval * SynchronousOpMode.NANO_TO_MILLI
-                || log.newLogMessagesAvailable
+                || nsElapsed > this.getEffectiveIntervalNanos(msUpdateInterval)
+                || (log.newLogMessagesAvailable && nsElapsed > this.getEffectiveIntervalNanos(this.msLogCoalescingInterval))
                 )
             {
-            // Ok, we're going to update the telemetry
-
-            // Evaluate any delayed actions we've been asked to do
-            for (Runnable action : this.actions)
+            // Only one thread transmits at a time. If another is already at it, we leave it
+            // to them, as what we've staged will go out either with theirs or with the next.
+            if (forced)
                 {
-                action.run();
+                while (!this.transmitting.compareAndSet(false, true))
+                    Thread.yield();
                 }
+            else if (!this.transmitting.compareAndSet(false, true))
+                return false;
 
-            // Get a copy of all the data
-            final Vector<String> keys = new Vector<String>();
-            final Vector<String> values = new Vector<String>();
-            int iLine = 0;
-
-            // Compose each of the composable lines
-            for (Line line : this.composableLines)
-                {
-                keys.add(getKey(iLine));
-                values.add(composableLines.elementAt(iLine).compose());
-                iLine++;
+            try {
+                synchronized (this)
+                    {
+                    this.transmit(nanoNow);
+                    }
+                result = true;
                 }
-
-            // Copy each of the composed lines
-            for (String line : this.composedLines)
+            finally
                 {
-                keys.add(getKey(iLine));
-                values.add(line);
-                iLine++;
+                this.transmitting.set(false);
                 }
+            }
 
-            // Add on the log
-            int size = this.log.logQueue.size();
-            for (int i = 0; i < size; i++)
-                {
-                String s = this.log.isDisplayOldToNew() ? this.log.logQueue.elementAt(i) : this.log.logQueue.elementAt(size - 1 - i);
-                keys.add(getKey(iLine));
-                values.add(s);
-                iLine++;
-                }
+        return result;
+        }
 
-            // Build an object to carry our telemetry data.
-            // Transmit same to the driver station.
-            Telemetry transmitter = new Telemetry();
-            transmitter.setSorted(false);
-            //
-            for (int i = 0; i < keys.size(); i++)
-                {
-                transmitter.addData(
-                        keys.elementAt(i),
-                        values.elementAt(i));
-                }
-            //
-            if (transmitter.hasData())
-                this.opMode.updateTelemetryNow(transmitter);
+    /**
+     * Returns the interval to actually wait between transmissions, given the one asked for: if
+     * transmissions have been costing more than our budget, we wait longer, up to a point
+     */
+    private long getEffectiveIntervalNanos(int msInterval)
+        {
+        long nsInterval = (long)msInterval * ElapsedTime.MILLIS_IN_NANO;
+        long nsFloor    = (long)(this.nsCostAverage / this.maxCostFraction);
+        long nsMax      = Math.max(nsInterval, (long)this.msMaxUpdateInterval * ElapsedTime.MILLIS_IN_NANO);
+        return Math.min(Math.max(nsInterval, nsFloor), nsMax);
+        }
+
+    // Called with the dashboard lock held, by at most one thread at a time
+    private void transmit(long nanoNow)
+        {
+        long nsStart = this.clock.nanoTime();    // the clock we schedule on, so cost and interval agree
+
+        // Evaluate any delayed actions we've been asked to do. We index rather
+        // than iterate here and below so as not to allocate iterators.
+        for (int i = 0; i < this.actions.size(); i++)
+            {
+            this.actions.elementAt(i).run();
+            }
 
-            // Update our state for the next time around
-            this.nanoLastUpdate = nanoNow;
-            this.log.newLogMessagesAvailable = false;
-            result = true;
+        // Gather up the lines that each thread has staged. Only we remove buffers, so
+        // it's safe to index: any that come along meanwhile are added at the end.
+        this.cComposedLines = 0;
+        for (int i = 0; i < this.stagingBuffers.size(); i++)
+            {
+            StagingBuffer buffer = this.stagingBuffers.get(i);
+            if (buffer.owner.isAlive())
+                this.cComposedLines = buffer.copyTo(this.cComposedLines);
+            else
+                this.stagingBuffers.remove(i--);
             }
 
-        // We ALWAYS clear the composed lines, as the user, generally,
-        // has no idea which update() calls actually transmit.
-        if (userRequest)
-            this.updateSinceAddComposedLine = true;
+        // Likewise the log messages
+        this.log.newLogMessagesAvailable = false;
+        this.log.drainPending();
 
-        return result;
+        // Load the transmitter, which the event loop normally clears after
+        // sending, but which we might not have sent last time.
+        Telemetry transmitter = this.transmitter;
+        transmitter.clearData();
+        int iLine      = 0;
+        int cchPayload = 0;
+
+        // Compose each of the composable lines
+        for (int i = 0; i < this.composableLines.size(); i++)
+            {
+            String line = this.composableLines.elementAt(i).compose(nanoNow);
+            transmitter.addData(getKey(iLine++), line);
+            cchPayload += line.length();
+            }
+
+        // Add each of the composed lines
+        for (int i = 0; i < this.cComposedLines; i++)
+            {
+            String line = this.composedLines.elementAt(i).compose();
+            transmitter.addData(getKey(iLine++), line);
+            cchPayload += line.length();
+            }
+
+        // Add on the log
+        int size = this.log.logQueue.size();
+        for (int i = 0; i < size; i++)
+            {
+            String s = this.log.isDisplayOldToNew() ? this.log.logQueue.elementAt(i) : this.log.logQueue.elementAt(size - 1 - i);
+            transmitter.addData(getKey(iLine++), s);
+            cchPayload += s.length();
+            }
+        cchPayload += iLine * 2;    // the keys
+
+        // Transmit to the driver station. Under a test harness, on a simulated clock,
+        // there's no driver station to transmit to.
+        if (transmitter.hasData() && this.clock.isRealTime())
+            {
+            long nsTransmitStart = System.nanoTime();
+            this.opMode.updateTelemetryNow(transmitter);
+            this.transmitDurations.record(System.nanoTime() - nsTransmitStart);
+            }
+
+        // Update our state for the next time around, including what this all cost us
+        long nsCost = this.clock.nanoTime() - nsStart;
+        this.nsCostAverage  = this.nsCostAverage == 0 ? nsCost : this.nsCostAverage + costSmoothing * (nsCost - this.nsCostAverage);
+        this.cchLastPayload = cchPayload;
+        this.nanoLastUpdate = nanoNow;
         }
 
     //------------------------------------------------------------------------------------------
@@ -434,7 +753,10 @@ public class TelemetryDashboardAndLog
     //------------------------------------------------------------------------------------------
 
     /**
-     * Create a new dashboard item with the indicated caption and value computation.
+     * Create a new dashboard item with the indicated caption and value computation. By default
+     * the value is computed afresh for each transmission to the driver station; see
+     * {@link Item#setRefreshIntervalMs(int)} and {@link Item#setRefreshInBackground(boolean)}
+     * for items that are expensive to compute.
      *
      * @param itemCaption   the string with which the item value is to be labelled
      * @param itemValue     a lambda expression that when evaluated will provide the
@@ -454,6 +776,24 @@ public class TelemetryDashboardAndLog
         return result;
         }
 
+    /**
+     * Create a new dashboard item whose value is a number, shown with a fixed number of decimal
+     * places. The number is kept as such, and is only formatted (without allocating) when it
+     * has changed, so a numeric item costs nothing in garbage however often it is refreshed.
+     *
+     * @param itemCaption   the string with which the item value is to be labelled
+     * @param itemValue     a lambda expression that when evaluated will provide the
+     *                      then-current value of the item
+     * @param decimals      the number of digits to show after the decimal point
+     * @return              the newly created item
+     * @see #item(String, IFunc)
+     */
+    public Item item(String itemCaption, IDoubleFunc itemValue, int decimals)
+        {
+        checkDecimals(decimals);
+        return new Item(itemCaption, itemValue, decimals);
+        }
+
     //------------------------------------------------------------------------------------------
     // Actions
     //------------------------------------------------------------------------------------------
@@ -479,32 +819,35 @@ public class TelemetryDashboardAndLog
 
     /**
      * Add an empty line to the dashboard
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine()
+    public Line addLine()
         {
-        this.addLine(new Item[]{});
+        return this.addLine(new Item[]{});
         }
     /**
      * Add a line to the dashboard containing the indicated item
      *
      * @param item      the item to be contained in the line
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine(Item item)
+    public Line addLine(Item item)
         {
-        this.addLine(new Item[]{item});
+        return this.addLine(new Item[]{item});
         }
     /**
      * Add a line to the dashboard containing the indicated items
      *
      * @param item0     the first item to be contained in the line
      * @param item1     the second item to be contained in the line
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine(Item item0, Item item1)
+    public Line addLine(Item item0, Item item1)
         {
-        this.addLine(new Item[]{item0, item1});
+        return this.addLine(new Item[]{item0, item1});
         }
     /**
      * Add a line to the dashboard containing the indicated items
@@ -512,11 +855,12 @@ public class TelemetryDashboardAndLog
      * @param item0     the first item to be contained in the line
      * @param item1     the second item to be contained in the line
      * @param item2     the third item to be contained in the line
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine(Item item0, Item item1, Item item2)
+    public Line addLine(Item item0, Item item1, Item item2)
         {
-        this.addLine(new Item[]{item0, item1, item2});
+        return this.addLine(new Item[]{item0, item1, item2});
         }
     /**
      * Add a line to the dashboard containing the indicated items
@@ -525,11 +869,12 @@ public class TelemetryDashboardAndLog
      * @param item1     the second item to be contained in the line
      * @param item2     the third item to be contained in the line
      * @param item3     the fourth item to be contained in the line
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine(Item item0, Item item1, Item item2, Item item3)
+    public Line addLine(Item item0, Item item1, Item item2, Item item3)
         {
-        this.addLine(new Item[]{item0, item1, item2, item3});
+        return this.addLine(new Item[]{item0, item1, item2, item3});
         }
     /**
      * Add a line to the dashboard containing the indicated items
@@ -539,22 +884,95 @@ public class TelemetryDashboardAndLog
      * @param item2     the third item to be contained in the line
      * @param item3     the fourth item to be contained in the line
      * @param item4     the fifth item to be contained in the line
+     * @return          the newly added line
      * @see #addLine(Item[])
      */
-    public void addLine(Item item0, Item item1, Item item2, Item item3, Item item4)
+    public Line addLine(Item item0, Item item1, Item item2, Item item3, Item item4)
         {
-        this.addLine(new Item[]{item0, item1, item2, item3, item4});
+        return this.addLine(new Item[]{item0, item1, item2, item3, item4});
         }
     /**
      * Add a line to the dashboard containing the indicated items.
      *
      * @param items     the list of items to be contained in the line
+     * @return          the newly added line
      * @see #addAction(Runnable)
      */
-    public synchronized void addLine(Item[] items)
+    public synchronized Line addLine(Item[] items)
         {
         Line line = new Line(items);
         this.composableLines.add(line);
+        return line;
+        }
+
+    //------------------------------------------------------------------------------------------
+    // Background refresh
+    //------------------------------------------------------------------------------------------
+
+    private void addBackgroundItem(Item item)
+        {
+        synchronized (this)
+            {
+            if (!this.backgroundItems.contains(item))
+                this.backgroundItems.add(item);
+
+            if (!this.backgroundRefresherCreated)
+                {
+                ((SynchronousOpMode)this.opMode).createSynchronousWorkerThread(new BackgroundRefresher());
+                this.backgroundRefresherCreated = true;
+                }
+            else if (this.backgroundRefresher != null)
+                {
+                // Get it to look at the new item
+                this.clock.unpark(this.backgroundRefresher);
+                }
+            }
+        }
+
+    private void removeBackgroundItem(Item item)
+        {
+        this.backgroundItems.remove(item);
+        }
+
+    /**
+     * Refreshes the items that are to be refreshed in the background, each at its own interval,
+     * on a synchronous worker thread, until the OpMode stops
+     */
+    private class BackgroundRefresher implements IInterruptableRunnable
+        {
+        @Override public void run() throws InterruptedException
+            {
+            synchronized (TelemetryDashboardAndLog.this)
+                {
+                backgroundRefresher = Thread.currentThread();
+                }
+            try {
+                while (!Thread.currentThread().isInterrupted())
+                    {
+                    long nsNext = Long.MAX_VALUE;
+                    for (Item item : backgroundItems)    // a snapshot, so clearDashboard() can't trip us up
+                        {
+                        long nsNow = clock.nanoTime();
+                        if (item.isDue(nsNow))
+                            item.refresh();
+                        nsNext = Math.min(nsNext, item.nanoDue());
+                        }
+
+                    long nsNow = clock.nanoTime();
+                    if (nsNext == Long.MAX_VALUE)
+                        clock.park(this);
+                    else if (nsNext > nsNow)
+                        clock.parkNanos(this, nsNext - nsNow);
+                    }
+                }
+            finally
+                {
+                synchronized (TelemetryDashboardAndLog.this)
+                    {
+                    backgroundRefresher = null;
+                    }
+                }
+            }
         }
 
     //==============================================================================================
@@ -617,7 +1035,8 @@ public class TelemetryDashboardAndLog
         //------------------------------------------------------------------------------------------
 
         private Vector<String>  logQueue = new Vector<String>();
-        private boolean         newLogMessagesAvailable = false;
+        private final Queue<String> pending = new ConcurrentLinkedQueue<String>();   // not yet in logQueue
+        private volatile boolean newLogMessagesAvailable = false;
         private int             capacity = 9;
 
         // We just use the outer class so as to *mindlessly* avoid any potential deadlocks
@@ -630,18 +1049,16 @@ public class TelemetryDashboardAndLog
         //------------------------------------------------------------------------------------------
 
         /**
-         * Add a new log message to be transmitted to the driver station as soon as we can.
+         * Add a new log message to be transmitted to the driver station as soon as we can. Messages
+         * added in quick succession are transmitted together.
          *
          * @param msg   the message to display in the log
          */
         public void add(String msg)
             {
-            synchronized (this.getLock())
-                {
-                this.logQueue.add(msg);
-                this.newLogMessagesAvailable = true;
-                this.prune();
-                }
+            // No lock here: the transmitting thread moves the message into the log proper
+            this.pending.add(msg);
+            this.newLogMessagesAvailable = true;
 
             TelemetryDashboardAndLog.this.update(getUpdateIntervalMs(), false, false);
             }
@@ -653,11 +1070,26 @@ public class TelemetryDashboardAndLog
             {
             synchronized (this.getLock())
                 {
+                this.pending.clear();
                 this.logQueue.clear();
                 this.newLogMessagesAvailable = true;
                 }
             }
 
+        // Called by the transmitting thread
+        private void drainPending()
+            {
+            synchronized (this.getLock())
+                {
+                String msg;
+                while ((msg = this.pending.poll()) != null)
+                    {
+                    this.logQueue.add(msg);
+                    }
+                this.prune();
+                }
+            }
+
         private void prune()
             {
             synchronized (this.getLock())
@@ -675,48 +1107,459 @@ public class TelemetryDashboardAndLog
     // Types
     //------------------------------------------------------------------------------------------
 
-    class Item
+    /**
+     * An item of a dashboard line: a caption, and a computation of the value that goes with it.
+     * The value last computed is cached, along with the time at which it was computed.
+     *
+     * @see #item(String, IFunc)
+     * @see #addLine(Item[])
+     */
+    public class Item
         {
-        String        caption;
-        IFunc<String> value;
+        final String            caption;
+        final IFunc<String>     value;              // null for a numeric item
+        final IDoubleFunc       number;             // ditto for any other
+        final int               decimals;
+
+        private volatile String cachedValue     = null;
+        private volatile long   cachedNumber    = NO_NUMBER;
+        private volatile boolean computed       = false;
+        private long            nanoCachedValue = 0;
+        private final StringBuilder formatted   = new StringBuilder();   // for getValue() of a numeric item
+        private long            nsRefreshInterval = 0;
+        private boolean         background      = false;
 
         Item(String caption, IFunc<String> value)
             {
-            this.caption = caption;
-            this.value   = value;
+            this.caption  = caption;
+            this.value    = value;
+            this.number   = null;
+            this.decimals = FORMAT_STRING;
+            }
+
+        Item(String caption, IDoubleFunc number, int decimals)
+            {
+            this.caption  = caption;
+            this.value    = null;
+            this.number   = number;
+            this.decimals = decimals;
+            }
+
+        /**
+         * Sets the minimum interval between computations of the value of this item. Between
+         * them, the value last computed is shown. By default, the interval is zero, and the
+         * value is computed afresh for each transmission to the driver station.
+         *
+         * @param msRefreshInterval the refresh interval of the item, in milliseconds
+         * @return this item
+         */
+        public Item setRefreshIntervalMs(int msRefreshInterval)
+            {
+            boolean background;
+            synchronized (this)
+                {
+                this.nsRefreshInterval = (long)msRefreshInterval * ElapsedTime.MILLIS_IN_NANO;
+                background = this.background;
+                }
+            // Outside of our lock, as update() takes the dashboard's and then ours
+            if (background)
+                TelemetryDashboardAndLog.this.addBackgroundItem(this);  // reschedule
+            return this;
+            }
+
+        /**
+         * Returns the minimum interval between computations of the value of this item
+         * @return the refresh interval of the item, in milliseconds
+         * @see #setRefreshIntervalMs(int)
+         */
+        public synchronized int getRefreshIntervalMs()
+            {
+            return (int)(this.nsRefreshInterval / ElapsedTime.MILLIS_IN_NANO);
+            }
+
+        /**
+         * Sets whether the value of this item is computed on a background thread rather than
+         * as part of {@link #update()}. A background item is refreshed at its refresh interval
+         * whether the dashboard is being transmitted or not (or, if it has no refresh interval of
+         * its own, at the update interval of the dashboard), and update() never waits for it:
+         * until its first computation completes, its value is shown as empty. The computation
+         * runs on a synchronous worker thread, and so this can only be done from a synchronous
+         * thread of a SynchronousOpMode; elsewhere the request is ignored.
+         *
+         * @param background whether to compute the value of the item in the background
+         * @return this item
+         * @see #setRefreshIntervalMs(int)
+         */
+        public Item setRefreshInBackground(boolean background)
+            {
+            if (background && !(opMode instanceof SynchronousOpMode && SwerveThreadContext.isSynchronousThread()))
+                return this;
+
+            synchronized (this)
+                {
+                this.background = background;
+                }
+            if (background)
+                TelemetryDashboardAndLog.this.addBackgroundItem(this);
+            else
+                TelemetryDashboardAndLog.this.removeBackgroundItem(this);
+            return this;
+            }
+
+        /**
+         * Returns the value of the item as last computed, or null if it hasn't been computed yet.
+         * The value of a numeric item is formatted afresh on each call, though into the
+         * same builder each time, so only the returned string is allocated.
+         *
+         * @return the cached value of the item
+         * @see #getValueNanoTime()
+         */
+        public String getValue()
+            {
+            if (this.number == null || !this.computed)
+                return this.cachedValue;
+
+            synchronized (this.formatted)
+                {
+                this.formatted.setLength(0);
+                appendNumber(this.formatted, this.cachedNumber, this.decimals);
+                return this.formatted.toString();
+                }
+            }
+
+        /**
+         * Returns the time at which the cached value of the item was computed
+         * @return the time of the last computation, on the clock of the OpMode, in nanoseconds
+         * @see #getValue()
+         */
+        public synchronized long getValueNanoTime()
+            {
+            return this.nanoCachedValue;
+            }
+
+        // Computes the value afresh if that's our job and it's due
+        void evaluate(long nanoNow)
+            {
+            boolean refresh;
+            synchronized (this)
+                {
+                refresh = !this.background && this.isDue(nanoNow);
+                }
+            if (refresh)
+                this.refresh();
+            }
+
+        // The value to be shown, as last computed
+        String getDisplayValue()
+            {
+            String result = this.cachedValue;
+            return result == null ? "" : result;
+            }
+
+        // Likewise for a numeric item, as the bits of a double
+        long getDisplayNumber()
+            {
+            return this.cachedNumber;
+            }
+
+        synchronized boolean isDue(long nanoNow)
+            {
+            return !this.computed || nanoNow - this.nanoCachedValue >= this.getEffectiveRefreshInterval();
             }
 
-        void composeTo(StringBuilder builder)
+        synchronized long nanoDue()
             {
-            builder.append(this.caption);
-            builder.append(this.value.value());
+            return !this.computed ? 0 : this.nanoCachedValue + this.getEffectiveRefreshInterval();
+            }
+
+        private long getEffectiveRefreshInterval()
+            {
+            // Don't let a background item with no interval spin its thread
+            if (this.background && this.nsRefreshInterval == 0)
+                return (long)getUpdateIntervalMs() * ElapsedTime.MILLIS_IN_NANO;
+            return this.nsRefreshInterval;
+            }
+
+        void refresh()
+            {
+            // Compute without holding any lock, as this may take a while
+            if (this.number != null)
+                {
+                long number = Double.doubleToLongBits(this.number.value());
+                synchronized (this)
+                    {
+                    this.nanoCachedValue = clock.nanoTime();
+                    this.cachedNumber    = number;
+                    this.computed        = true;
+                    }
+                }
+            else
+                {
+                String value = String.valueOf(this.value.value());
+                synchronized (this)
+                    {
+                    this.nanoCachedValue = clock.nanoTime();
+                    this.cachedValue     = value;
+                    this.computed        = true;
+                    }
+                }
             }
         }
 
-    class Line
+    /**
+     * A line of items in the dashboard. The line remembers the values from which it was last
+     * composed, and the result, so that it need only be composed again when one of those values
+     * changes. The values are kept here, rather than in the items, as an item may appear in more
+     * than one line.
+     *
+     * @see #addLine(Item[])
+     */
+    public class Line
         {
-        final Item[] items;
+        final Item[]    items;
+        final String[]  values;             // as last composed
+        final long[]    numbers;            // ditto, for numeric items
+        String          delimiter = null;   // ditto
+        String          composed  = null;
+        long            nanoComposed = 0;
+        volatile long   nsRefreshInterval = 0;
 
         Line(Item[] items)
             {
-            this.items = items;
+            this.items   = items;
+            this.values  = new String[items.length];
+            this.numbers = new long[items.length];
             }
 
-        String compose()
+        /**
+         * Sets the minimum interval between evaluations of the items of this line. Between
+         * them, the line is transmitted as last composed, and its items are not evaluated at
+         * all, even if their own refresh intervals have elapsed. By default, the interval is
+         * zero, and the items are evaluated for each transmission to the driver station.
+         *
+         * @param msRefreshInterval the refresh interval of the line, in milliseconds
+         * @return this line
+         * @see Item#setRefreshIntervalMs(int)
+         */
+        public Line setRefreshIntervalMs(int msRefreshInterval)
+            {
+            this.nsRefreshInterval = (long)msRefreshInterval * ElapsedTime.MILLIS_IN_NANO;
+            return this;
+            }
+
+        /**
+         * Returns the minimum interval between evaluations of the items of this line
+         * @return the refresh interval of the line, in milliseconds
+         * @see #setRefreshIntervalMs(int)
+         */
+        public int getRefreshIntervalMs()
             {
-            StringBuilder result = new StringBuilder();
-            boolean first = true;
-            for (Item item : this.items)
+            return (int)(this.nsRefreshInterval / ElapsedTime.MILLIS_IN_NANO);
+            }
+
+        // Called only from update(), and so with the dashboard lock held
+        String compose(long nanoNow)
+            {
+            if (this.composed != null && nanoNow - this.nanoComposed < this.nsRefreshInterval && getItemDelimiter().equals(this.delimiter))
+                return this.composed;
+            this.nanoComposed = nanoNow;
+
+            boolean dirty = this.composed == null || !getItemDelimiter().equals(this.delimiter);
+            for (int i = 0; i < this.items.length; i++)
                 {
-                // Separate the items with the delimiter
-                if (!first)
+                Item item = this.items[i];
+                item.evaluate(nanoNow);
+                if (item.number != null)
                     {
-                    result.append(getItemDelimiter());
+                    long number = item.getDisplayNumber();
+                    if (number != this.numbers[i])
+                        {
+                        this.numbers[i] = number;
+                        dirty = true;
+                        }
                     }
-                item.composeTo(result);
-                first = false;
+                else
+                    {
+                    String value = item.getDisplayValue();
+                    if (!value.equals(this.values[i]))
+                        {
+                        this.values[i] = value;
+                        dirty = true;
+                        }
+                    }
+                }
+
+            if (dirty)
+                {
+                StringBuilder builder = composer;
+                builder.setLength(0);
+                for (int i = 0; i < this.items.length; i++)
+                    {
+                    // Separate the items with the delimiter
+                    if (i > 0)
+                        builder.append(getItemDelimiter());
+                    builder.append(this.items[i].caption);
+                    if (this.items[i].number == null)
+                        builder.append(this.values[i]);
+                    else if (this.numbers[i] != NO_NUMBER)
+                        appendNumber(builder, this.numbers[i], this.items[i].decimals);
+                    }
+                this.delimiter = getItemDelimiter();
+                this.composed  = builder.toString();
+                }
+            return this.composed;
+            }
+        }
+
+    /**
+     * The lines added with addData() by one thread. Only that thread writes here, and it takes no
+     * lock to do so; rather, it makes the sequence number odd while it writes. The transmitting
+     * thread copies the lines out, and if the sequence number shows that it might have seen the
+     * owner part way through a write, copies them again.
+     */
+    class StagingBuffer
+        {
+        final Thread                                owner    = Thread.currentThread();
+        final AtomicLong                            seq      = new AtomicLong(0);
+        volatile AtomicReferenceArray<String>       captions = new AtomicReferenceArray<String>(8);
+        volatile AtomicReferenceArray<String>       values   = new AtomicReferenceArray<String>(8);
+        volatile AtomicLongArray                    numbers  = new AtomicLongArray(8);
+        volatile AtomicIntegerArray                 formats  = new AtomicIntegerArray(8);
+        volatile int                                count    = 0;
+        volatile long                               epoch    = -1;  // the update epoch in which the lines were added
+
+        // Called only on the owner thread
+        void add(String caption, String value, long number, int format)
+            {
+            this.seq.incrementAndGet();
+            long epochNow = updateEpoch.get();
+            if (this.epoch != epochNow)
+                {
+                // There's been an update() since we last added: start afresh. That we've added
+                // in this epoch also retires what every other thread added before it, as the first
+                // addData() after an update() always has, whether or not they add again.
+                this.epoch = epochNow;
+                this.count = 0;
+                for (long epochPrev = epochLastAdd.get(); epochPrev < epochNow; epochPrev = epochLastAdd.get())
+                    {
+                    if (epochLastAdd.compareAndSet(epochPrev, epochNow))
+                        break;
+                    }
+                }
+            if (this.count == this.captions.length())
+                this.grow();
+            this.captions.set(this.count, caption);
+            this.values.set(this.count, value);
+            this.numbers.set(this.count, number);
+            this.formats.set(this.count, format);
+            this.count++;
+            this.seq.incrementAndGet();
+            }
+
+        private void grow()
+            {
+            AtomicReferenceArray<String> captions = new AtomicReferenceArray<String>(this.captions.length() * 2);
+            AtomicReferenceArray<String> values   = new AtomicReferenceArray<String>(this.values.length() * 2);
+            AtomicLongArray              numbers  = new AtomicLongArray(this.numbers.length() * 2);
+            AtomicIntegerArray           formats  = new AtomicIntegerArray(this.formats.length() * 2);
+            for (int i = 0; i < this.count; i++)
+                {
+                captions.set(i, this.captions.get(i));
+                values.set(i, this.values.get(i));
+                numbers.set(i, this.numbers.get(i));
+                formats.set(i, this.formats.get(i));
+                }
+            this.captions = captions;
+            this.values   = values;
+            this.numbers  = numbers;
+            this.formats  = formats;
+            }
+
+        // Called by the transmitting thread: copies our lines into the composed line slots
+        // starting at iSlotFirst, and returns the index of the slot following the last
+        int copyTo(int iSlotFirst)
+            {
+            for (;;)
+                {
+                long seqBefore = this.seq.get();
+                if ((seqBefore & 1) != 0)
+                    {
+                    Thread.yield();
+                    continue;
+                    }
+
+                int iSlot = iSlotFirst;
+                if (this.epoch >= epochCleared && this.epoch >= epochLastAdd.get())
+                    {
+                    AtomicReferenceArray<String> captions = this.captions;
+                    AtomicReferenceArray<String> values   = this.values;
+                    AtomicLongArray              numbers  = this.numbers;
+                    AtomicIntegerArray           formats  = this.formats;
+                    // Should we race with grow(), the arrays may differ in length; we'll retry
+                    int count = Math.min(this.count, captions.length());
+                    count = Math.min(count, Math.min(values.length(), Math.min(numbers.length(), formats.length())));
+                    for (int i = 0; i < count; i++)
+                        {
+                        getComposedLineSlot(iSlot++).set(captions.get(i), values.get(i), numbers.get(i), formats.get(i));
+                        }
+                    }
+
+                if (this.seq.get() == seqBefore)
+                    return iSlot;
+                }
+            }
+        }
+
+    /**
+     * A slot for a line added with addData(). The slots are reused from one update to the next,
+     * so if a caller says the same thing as it did last time, the line needn't be composed again.
+     */
+    class ComposedLine
+        {
+        String  caption  = null;
+        String  value    = null;
+        long    number   = 0;
+        int     format   = FORMAT_STRING;
+        String  composed = null;
+
+        void set(String caption, String value, long number, int format)
+            {
+            caption = String.valueOf(caption);      // as String.format("%s") would have it
+            if (format == FORMAT_STRING)
+                {
+                value  = String.valueOf(value);
+                number = 0;
+                }
+            if (!caption.equals(this.caption) || format != this.format || number != this.number
+                    || (format == FORMAT_STRING && !value.equals(this.value)))
+                {
+                this.caption  = caption;
+                this.value    = value;
+                this.number   = number;
+                this.format   = format;
+                this.composed = null;
+                }
+            }
+
+        // Called only from update(), and so with the dashboard lock held
+        String compose()
+            {
+            if (this.composed == null)
+                {
+                // We display both the key and the value for these, as that's what the
+                // raw telemetry does. However, we do NOT sort on the caption, as that
+                // has little utility.
+                StringBuilder builder = composer;
+                builder.setLength(0);
+                builder.append(this.caption);
+                builder.append(" : ");
+                if (this.format == FORMAT_STRING)
+                    builder.append(this.value);
+                else
+                    appendNumber(builder, this.number, this.format);
+                this.composed = builder.toString();
                 }
-            return result.toString();
+            return this.composed;
             }
         }
 
@@ -0,0 +1,385 @@
+package org.swerverobotics.library;
+
+import android.os.Environment;
+import android.util.Log;
+
+import org.swerverobotics.library.internal.Clock;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TelemetryRecorder records numeric telemetry at full loop rate to a compact binary file,
+ * giving a complete history of a run where the driver station dashboard, throttled as it is,
+ * shows only the odd snapshot. Each {@link TelemetryDashboardAndLog} has one, as its
+ * {@link TelemetryDashboardAndLog#recorder recorder}.
+ *
+ * <p>Channels are registered once, by name, with {@link #addChannel(String)}, which returns
+ * an integer id. Samples are then recorded with {@link #record(int, double)}, typically every
+ * time around the loop. Recording a sample stores three primitives in a preallocated buffer
+ * and allocates nothing; a background thread writes full buffers to the file, so the thread
+ * recording never waits on storage. Should storage fall so far behind that both buffers are
+ * full, samples are dropped rather than waited for, and the number dropped is noted in the file.</p>
+ *
+ * <pre>
+ *     int heading = telemetry.recorder.addChannel("heading");
+ *     telemetry.recorder.start("run.tlm");
+ *     while (opModeIsActive())
+ *         {
+ *         telemetry.recorder.record(heading, imu.getAngularOrientation().heading);
+ *         ...
+ *         }
+ * </pre>
+ *
+ * <p>The recording is stopped automatically when a SynchronousOpMode stops. Recordings are
+ * read, and exported to CSV, with {@link TelemetryRecordingReader}, which runs on any JVM.</p>
+ *
+ * @see TelemetryRecordingReader
+ */
+public class TelemetryRecorder
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public static final String LOGGING_TAG = "TelemetryRecorder";
+
+    private static final int    samplesPerBank   = 4096;
+    private static final int    msFlushInterval  = 250;
+
+    private final Clock                 clock;
+    private final List<String>          channelNames = new ArrayList<String>();
+    private final Map<String, Integer>  channelIds   = new HashMap<String, Integer>();
+
+    private volatile boolean            recording    = false;
+    private Bank                        filling      = null;    // where samples are being recorded
+    private Bank                        spare        = null;    // null while the writer has it
+    private Bank                        full         = null;    // handed to the writer, but not yet taken
+    private boolean                     stopRequested = false;
+    private Thread                      writer       = null;
+
+    private long                        sampleCount  = 0;
+    private long                        droppedCount = 0;
+    private long                        droppedUnreported = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    TelemetryRecorder(Clock clock)
+        {
+        this.clock = clock;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Channels
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Registers a channel, returning the id by which samples are recorded on it. Registering
+     * the same name again returns the same id. Channels may be registered at any time, but
+     * doing so allocates, so do it before your loop.
+     *
+     * @param name  the name of the channel, which becomes its column heading on export
+     * @return      the id of the channel
+     */
+    public synchronized int addChannel(String name)
+        {
+        Integer id = this.channelIds.get(name);
+        if (id == null)
+            {
+            if (this.channelNames.size() > Short.MAX_VALUE)
+                throw new IllegalStateException("TelemetryRecorder: too many channels");
+            id = this.channelNames.size();
+            this.channelNames.add(name);
+            this.channelIds.put(name, id);
+            }
+        return id;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Recording
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Starts recording to the indicated file in external storage, replacing any recording
+     * already in progress.
+     *
+     * @param fileName  the name of the file, relative to the root of external storage
+     * @throws IOException if the file cannot be created
+     * @see #start(File)
+     */
+    public void start(String fileName) throws IOException
+        {
+        this.start(new File(Environment.getExternalStorageDirectory(), fileName));
+        }
+
+    /**
+     * Starts recording to the indicated file, replacing any recording already in progress.
+     *
+     * @param file  the file to record to
+     * @throws IOException if the file cannot be created
+     * @see #stop()
+     */
+    public void start(File file) throws IOException
+        {
+        this.stop();
+
+        final OutputStream output = new FileOutputStream(file);
+        synchronized (this)
+            {
+            this.filling       = new Bank();
+            this.spare         = new Bank();
+            this.full          = null;
+            this.stopRequested = false;
+            this.sampleCount   = 0;
+            this.droppedCount  = 0;
+            this.droppedUnreported = 0;
+
+            this.writer = new Thread(new Runnable()
+                {
+                @Override public void run()
+                    {
+                    writerThread(output);
+                    }
+                }, "telemetry recorder");
+            this.writer.setDaemon(true);
+            this.writer.start();
+            this.recording = true;
+            }
+        }
+
+    /**
+     * Stops recording, writing out all that has been recorded and closing the file. Does
+     * nothing if no recording is in progress.
+     */
+    public void stop()
+        {
+        Thread writer;
+        synchronized (this)
+            {
+            if (this.writer == null)
+                return;
+            writer = this.writer;
+            this.writer        = null;
+            this.recording     = false;
+            this.stopRequested = true;
+            this.notifyAll();
+            }
+
+        try {
+            writer.join();
+            }
+        catch (InterruptedException e)
+            {
+            Thread.currentThread().interrupt();
+            }
+        }
+
+    /**
+     * Answers whether a recording is in progress
+     * @return whether samples are currently being recorded
+     */
+    public boolean isRecording()
+        {
+        return this.recording;
+        }
+
+    /**
+     * Records a sample on a channel, timestamped now. Does nothing if no recording is in
+     * progress. Allocates nothing, and never waits on storage.
+     *
+     * @param channel   the id of the channel, as returned from {@link #addChannel(String)}
+     * @param value     the value of the sample
+     */
+    public void record(int channel, double value)
+        {
+        if (!this.recording)
+            return;
+
+        long nanoNow = this.clock.nanoTime();
+        synchronized (this)
+            {
+            Bank bank = this.filling;
+            if (bank == null || channel < 0 || channel >= this.channelNames.size())
+                return;
+
+            if (bank.count == samplesPerBank)
+                {
+                if (this.spare == null)
+                    {
+                    // The writer is still busy with the other bank: better to lose
+                    // the sample than to make our caller wait for storage.
+                    this.droppedCount++;
+                    this.droppedUnreported++;
+                    return;
+                    }
+                this.full    = bank;
+                this.filling = bank = this.spare;
+                this.spare   = null;
+                this.notifyAll();
+                }
+
+            bank.channels[bank.count] = (short)channel;
+            bank.nanos[bank.count]    = nanoNow;
+            bank.values[bank.count]   = value;
+            bank.count++;
+            this.sampleCount++;
+            }
+        }
+
+    /**
+     * Returns the number of samples recorded in the current (or last) recording
+     * @return the number of samples recorded
+     */
+    public synchronized long getSampleCount()
+        {
+        return this.sampleCount;
+        }
+
+    /**
+     * Returns the number of samples that were dropped because storage couldn't keep up
+     * @return the number of samples dropped in the current (or last) recording
+     */
+    public synchronized long getDroppedSampleCount()
+        {
+        return this.droppedCount;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Writing
+    //----------------------------------------------------------------------------------------------
+
+    /** A buffer of samples. Samples are stored in parallel primitive arrays. */
+    private static class Bank
+        {
+        final short[]   channels = new short[samplesPerBank];
+        final long[]    nanos    = new long[samplesPerBank];
+        final double[]  values   = new double[samplesPerBank];
+        int             count    = 0;
+        }
+
+    private void writerThread(OutputStream output)
+        {
+        ByteBuffer buffer = ByteBuffer.allocate(samplesPerBank * TelemetryRecordingReader.cbSample + 64);
+        int        cChannelsWritten = 0;
+        try {
+            buffer.putInt(TelemetryRecordingReader.MAGIC);
+            buffer.putShort(TelemetryRecordingReader.VERSION);
+            buffer.putLong(this.clock.nanoTime());
+            buffer.putLong(System.currentTimeMillis());
+            output.write(buffer.array(), 0, buffer.position());
+
+            for (;;)
+                {
+                Bank bank;
+                long cDropped;
+                boolean stopping;
+                synchronized (this)
+                    {
+                    // Wait for a full bank. If none comes along for a while, take what there
+                    // is, so that not much is lost should the robot controller be shut off.
+                    if (this.full == null && !this.stopRequested)
+                        this.wait(msFlushInterval);
+                    if (this.full == null && this.filling.count > 0 && this.spare != null)
+                        {
+                        this.full    = this.filling;
+                        this.filling = this.spare;
+                        this.spare   = null;
+                        }
+                    bank     = this.full;
+                    this.full = null;
+                    cDropped = this.droppedUnreported;
+                    this.droppedUnreported = 0;
+                    stopping = this.stopRequested;
+                    }
+
+                // Describe any channels that have been added since we last wrote
+                cChannelsWritten = this.writeChannelDefinitions(output, cChannelsWritten);
+
+                if (bank != null)
+                    {
+                    buffer.clear();
+                    for (int i = 0; i < bank.count; i++)
+                        {
+                        buffer.putShort(bank.channels[i]);
+                        buffer.putLong(bank.nanos[i]);
+                        buffer.putDouble(bank.values[i]);
+                        }
+                    output.write(buffer.array(), 0, buffer.position());
+
+                    synchronized (this)
+                        {
+                        bank.count = 0;
+                        this.spare = bank;
+                        }
+                    }
+
+                if (cDropped > 0)
+                    {
+                    buffer.clear();
+                    buffer.putShort(TelemetryRecordingReader.TAG_DROPPED);
+                    buffer.putLong(cDropped);
+                    output.write(buffer.array(), 0, buffer.position());
+                    }
+
+                // When stopping, keep going until everything recorded has been written
+                if (stopping && bank == null)
+                    break;
+                }
+            }
+        catch (IOException e)
+            {
+            Log.e(LOGGING_TAG, String.format("error writing recording: %s", e));
+            }
+        catch (InterruptedException e)
+            {
+            Thread.currentThread().interrupt();
+            }
+        finally
+            {
+            synchronized (this)
+                {
+                this.recording = false;
+                this.filling   = null;
+                }
+            try {
+                output.close();
+                }
+            catch (IOException e)
+                {
+                Log.e(LOGGING_TAG, String.format("error closing recording: %s", e));
+                }
+            }
+        }
+
+    private int writeChannelDefinitions(OutputStream output, int cChannelsWritten) throws IOException
+        {
+        List<String> names;
+        synchronized (this)
+            {
+            if (cChannelsWritten == this.channelNames.size())
+                return cChannelsWritten;
+            names = new ArrayList<String>(this.channelNames.subList(cChannelsWritten, this.channelNames.size()));
+            }
+
+        for (String name : names)
+            {
+            byte[] utf8 = name.getBytes("UTF-8");
+            ByteBuffer definition = ByteBuffer.allocate(2 + 2 + 2 + utf8.length);
+            definition.putShort(TelemetryRecordingReader.TAG_CHANNEL);
+            definition.putShort((short)cChannelsWritten++);
+            definition.putShort((short)utf8.length);
+            definition.put(utf8);
+            output.write(definition.array());
+            }
+        return cChannelsWritten;
+        }
+    }
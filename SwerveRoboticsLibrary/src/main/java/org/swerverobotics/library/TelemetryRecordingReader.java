@@ -0,0 +1,267 @@
+package org.swerverobotics.library;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * TelemetryRecordingReader reads the recordings made by {@link TelemetryRecorder}, and exports
+ * them as CSV. It depends on nothing but the Java runtime, so that recordings can be analyzed
+ * on a laptop; the TelemetryTools module builds it into a command line tool for doing so.
+ *
+ * The long form of CSV has one row per sample, with columns time (in seconds from the start of
+ * the recording), channel and value. The wide form has instead a column per channel and a row
+ * per interval of time, each channel showing its most recent value as of the end of the interval.
+ *
+ * <p>The file consists of a header followed by a series of records, each introduced by a
+ * big-endian short tag. A non-negative tag is the id of a channel, and is followed by a sample
+ * on that channel: its time (a long, in nanoseconds) and its value (a double). Negative tags
+ * introduce the definition of a channel (its id, followed by the length and UTF-8 bytes of its
+ * name), which always precedes any samples on it, or a count of samples that were dropped.</p>
+ */
+public class TelemetryRecordingReader
+    {
+    //----------------------------------------------------------------------------------------------
+    // Format
+    //----------------------------------------------------------------------------------------------
+
+    public static final int     MAGIC        = 0x53575452;     // "SWTR"
+    public static final short   VERSION      = 1;
+    public static final short   TAG_CHANNEL  = -1;
+    public static final short   TAG_DROPPED  = -2;
+    public static final int     cbSample     = 2 + 8 + 8;
+
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** Receives the contents of a recording as it is read */
+    public interface IListener
+        {
+        void channel(int id, String name);
+        void sample(int channel, long nanoTime, double value);
+        void dropped(long count);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final DataInputStream   input;
+    private long                    nanoStart;
+    private long                    msWallClockStart;
+
+    //----------------------------------------------------------------------------------------------
+    // Reading
+    //----------------------------------------------------------------------------------------------
+
+    public TelemetryRecordingReader(InputStream input) throws IOException
+        {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        if (this.input.readInt() != MAGIC)
+            throw new IOException("not a telemetry recording");
+        short version = this.input.readShort();
+        if (version != VERSION)
+            throw new IOException(String.format("unsupported telemetry recording version %d", version));
+        this.nanoStart        = this.input.readLong();
+        this.msWallClockStart = this.input.readLong();
+        }
+
+    /** Returns the time at which recording started, on the clock used to timestamp the samples */
+    public long getStartNanoTime()
+        {
+        return this.nanoStart;
+        }
+
+    /** Returns the wall clock time at which recording started, as System.currentTimeMillis() */
+    public long getStartWallClockMillis()
+        {
+        return this.msWallClockStart;
+        }
+
+    /**
+     * Reads the rest of the recording, passing its contents to the listener. A recording that
+     * was cut short (say, by the robot controller losing power) is read up to where it ends.
+     */
+    public void read(IListener listener) throws IOException
+        {
+        for (;;)
+            {
+            short tag;
+            try {
+                tag = this.input.readShort();
+                }
+            catch (EOFException e)
+                {
+                return;
+                }
+
+            try {
+                if (tag >= 0)
+                    {
+                    long   nanoTime = this.input.readLong();
+                    double value    = this.input.readDouble();
+                    listener.sample(tag, nanoTime, value);
+                    }
+                else if (tag == TAG_CHANNEL)
+                    {
+                    int    id    = this.input.readShort();
+                    byte[] utf8  = new byte[this.input.readShort()];
+                    this.input.readFully(utf8);
+                    listener.channel(id, new String(utf8, "UTF-8"));
+                    }
+                else if (tag == TAG_DROPPED)
+                    {
+                    listener.dropped(this.input.readLong());
+                    }
+                else
+                    throw new IOException(String.format("corrupt telemetry recording: tag %d", tag));
+                }
+            catch (EOFException e)
+                {
+                return;     // a partial final record
+                }
+            }
+        }
+
+    public void close() throws IOException
+        {
+        this.input.close();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Export
+    //----------------------------------------------------------------------------------------------
+
+    /** Writes the recording as CSV with one row per sample: time, channel, value */
+    public void exportLong(final PrintWriter output) throws IOException
+        {
+        final List<String> names = new ArrayList<String>();
+        output.println("time,channel,value");
+        this.read(new IListener()
+            {
+            @Override public void channel(int id, String name)
+                {
+                while (names.size() <= id)
+                    names.add(null);
+                names.set(id, name);
+                }
+            @Override public void sample(int channel, long nanoTime, double value)
+                {
+                output.println(formatTime(nanoTime) + "," + quote(names.get(channel)) + "," + formatValue(value));
+                }
+            @Override public void dropped(long count)
+                {
+                output.println(",dropped," + Long.toString(count));
+                }
+            });
+        }
+
+    /**
+     * Writes the recording as CSV with one column per channel and one row per interval of time
+     * in which there were samples, each channel showing its latest value as of the end of that
+     * interval. Samples from different threads are never taken at exactly the same time, so
+     * it's the interval that gathers them into rows.
+     *
+     * @param output    where to write the CSV
+     * @param msQuantum the length of each interval, in milliseconds
+     */
+    public void exportWide(PrintWriter output, double msQuantum) throws IOException
+        {
+        // We need all the channel names for the heading, so gather everything first
+        final List<String>   names   = new ArrayList<String>();
+        final List<long[]>   times   = new ArrayList<long[]>();     // {nanoTime, channel}
+        final List<Double>   values  = new ArrayList<Double>();
+        this.read(new IListener()
+            {
+            @Override public void channel(int id, String name)
+                {
+                while (names.size() <= id)
+                    names.add(null);
+                names.set(id, name);
+                }
+            @Override public void sample(int channel, long nanoTime, double value)
+                {
+                times.add(new long[] { nanoTime, channel });
+                values.add(value);
+                }
+            @Override public void dropped(long count)
+                {
+                }
+            });
+
+        // Samples are recorded in the order they're written, which across threads isn't quite
+        // the order in which they were taken. The sort is stable, so ties keep their order.
+        Integer[] order = new Integer[times.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>()
+            {
+            @Override public int compare(Integer a, Integer b)
+                {
+                long ta = times.get(a)[0];
+                long tb = times.get(b)[0];
+                return ta < tb ? -1 : (ta == tb ? 0 : 1);
+                }
+            });
+
+        StringBuilder heading = new StringBuilder("time");
+        for (String name : names)
+            heading.append(',').append(quote(name));
+        output.println(heading);
+
+        long     nsQuantum = Math.max(1, Math.round(msQuantum * 1e6));
+        Double[] latest    = new Double[names.size()];
+        for (int i = 0; i < order.length; i++)
+            {
+            long[] sample = times.get(order[i]);
+            long   bucket = this.bucketOf(sample[0], nsQuantum);
+            latest[(int)sample[1]] = values.get(order[i]);
+
+            // Emit a row once we've seen all the samples in this interval
+            if (i + 1 == order.length || this.bucketOf(times.get(order[i + 1])[0], nsQuantum) != bucket)
+                {
+                StringBuilder row = new StringBuilder(formatTime(this.nanoStart + bucket * nsQuantum));
+                for (Double value : latest)
+                    row.append(',').append(value == null ? "" : formatValue(value));
+                output.println(row);
+                }
+            }
+        }
+
+    private long bucketOf(long nanoTime, long nsQuantum)
+        {
+        long ns = nanoTime - this.nanoStart;
+        return ns >= 0 ? ns / nsQuantum : (ns - nsQuantum + 1) / nsQuantum;
+        }
+
+    // Numbers in the CSV must read the same whatever the locale of the laptop: a decimal
+    // comma would be taken for a column separator.
+
+    private String formatTime(long nanoTime)
+        {
+        return String.format(Locale.US, "%.6f", (nanoTime - this.nanoStart) * 1e-9);
+        }
+
+    private static String formatValue(double value)
+        {
+        return Double.toString(value);     // always uses '.', and round-trips exactly
+        }
+
+    private static String quote(String s)
+        {
+        if (s == null)
+            return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0)
+            return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+        }
+    }
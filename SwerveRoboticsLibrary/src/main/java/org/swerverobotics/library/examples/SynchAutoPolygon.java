@@ -35,10 +35,10 @@ public class SynchAutoPolygon extends SynchronousOpMode
         for (int i = 0; i < numSides; i++)
             {
             goStraight();
-            Thread.sleep(msStraight);
+            sleep(msStraight);
 
             turnLeft();
-            Thread.sleep(msTurn);
+            sleep(msTurn);
             }
 
         stopRobot();
@@ -38,7 +38,7 @@ public class SynchAutoServoDemo extends SynchronousOpMode
 
     void delay() throws InterruptedException
         {
-        Thread.sleep(250);
+        sleep(250);
         }
 
     void configureDashboard()
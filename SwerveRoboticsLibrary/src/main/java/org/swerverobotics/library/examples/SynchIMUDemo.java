@@ -124,6 +124,8 @@ public class SynchIMUDemo extends SynchronousOpMode
                     }
                 }));
 
+        // The status and calibration each take an I2C read of their own, and change only
+        // slowly, so there's no need to read them on every update
         telemetry.addLine(
             telemetry.item("status: ", new IFunc<Object>()
                 {
@@ -138,7 +140,7 @@ public class SynchIMUDemo extends SynchronousOpMode
                     {
                     return decodeCalibration(imu.read8(IBNO055IMU.REGISTER.CALIB_STAT));
                     }
-                }));
+                })).setRefreshIntervalMs(1000);
 
         telemetry.addLine(
             telemetry.item("heading: ", new IFunc<Object>()
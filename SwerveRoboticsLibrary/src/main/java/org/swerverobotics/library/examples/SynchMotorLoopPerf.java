@@ -65,9 +65,9 @@ public class SynchMotorLoopPerf extends SynchronousOpMode
             telemetry.addData("position",      String.format("left=%d right=%d", leftPosition, rightPosition));
             telemetry.addData("loopCount",     loopCount);
             telemetry.addData("spinCount",     spinCount);
-            telemetry.addData("#loop/#spin",   String.format("%.1f", loopCount / (double)spinCount));
-            telemetry.addData("ms/spin",       String.format("%.1f ms", ms / spinCount));
-            telemetry.addData("ms/loop",       String.format("%.1f ms", ms / loopCount));
+            telemetry.addData("#loop/#spin",   loopCount / (double)spinCount, 1);
+            telemetry.addData("ms/spin",       ms / spinCount, 1);
+            telemetry.addData("ms/loop",       ms / loopCount, 1);
             telemetry.update();
             idle();
             
@@ -43,9 +43,9 @@ public class SynchTelemetryOp extends SynchronousOpMode
 
             // Update the telemetry dashboard with fresh values
             this.telemetry.addData("time",  format(elapsed));
-            this.telemetry.addData("count", format(getLoopCount() - loopCountStart));
-            this.telemetry.addData("ms/loop", format(elapsed.milliseconds() / (getLoopCount() - loopCountStart)) + "ms");
-            this.telemetry.addData("voltage", format(getBatteryVoltage()));
+            this.telemetry.addData("count", getLoopCount() - loopCountStart);
+            this.telemetry.addData("ms/loop", elapsed.milliseconds() / (getLoopCount() - loopCountStart), 1);
+            this.telemetry.addData("voltage", getBatteryVoltage(), 1);
 
             // Update driver station and wait until there's something useful to do
             this.telemetry.update();
@@ -53,19 +53,12 @@ public class SynchTelemetryOp extends SynchronousOpMode
             }
         }
 
-    // A couple of handy functions for formatting data for the dashboard
+    // A handy function for formatting the time for the dashboard and the log. Plain numbers
+    // are better left to addData(caption, value, decimals), which doesn't allocate.
     String format(ElapsedTime elapsed)
         {
         return String.format("%.1fs", elapsed.seconds());
         }
-    String format(double d)
-        {
-        return String.format("%.1f", d);
-        }
-    String format(int i)
-        {
-        return String.format("%d", i);
-        }
 
     // Compute the current battery voltage, just for fun
     double getBatteryVoltage()
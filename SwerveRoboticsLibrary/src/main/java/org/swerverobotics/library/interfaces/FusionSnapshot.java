@@ -0,0 +1,96 @@
+package org.swerverobotics.library.interfaces;
+
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A FusionSnapshot holds all the outputs of the BNO055's fusion algorithm as they were at one
+ * instant: the orientation, both as Euler angles and as a quaternion, and the acceleration,
+ * separated into its linear and gravitational parts. They are read from the sensor in a single
+ * I2C transaction, and so are consistent with one another, and share a single timestamp.
+ *
+ * @see IBNO055IMU#getFusionSnapshot()
+ */
+public class FusionSnapshot
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** the absolute orientation of the sensor, as Euler angles */
+    public final EulerAngles    angles;
+    /** the absolute orientation of the sensor, as a quaternion */
+    public final Quaternion     quaternion;
+    /** the acceleration of the sensor, less that due to gravity */
+    public final Acceleration   linearAcceleration;
+    /** the acceleration of the sensor due to gravity */
+    public final Acceleration   gravity;
+
+    /** the time on the System.nanoTime() clock at which the data was acquired. If no
+     * timestamp is associated with this particular set of data, this value is zero */
+    public final long nanoTime;
+
+    /** the number of bytes in the register block from which a snapshot is decoded */
+    public static final int cbRegisters = 26;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public FusionSnapshot()
+        {
+        this(new EulerAngles(), new Quaternion(), new Acceleration(), new Acceleration(), 0);
+        }
+    public FusionSnapshot(EulerAngles angles, Quaternion quaternion, Acceleration linearAcceleration, Acceleration gravity, long nanoTime)
+        {
+        this.angles             = angles;
+        this.quaternion         = quaternion;
+        this.linearAcceleration = linearAcceleration;
+        this.gravity            = gravity;
+        this.nanoTime           = nanoTime;
+        }
+
+    /**
+     * Decodes a snapshot from the contents of the registers from EULER_H_LSB through
+     * GRAVITY_DATA_Z_MSB (Section 4.3 of the BNO055 specification).
+     *
+     * @param ts                the register contents
+     * @param angularScale      the number by which raw angles must be divided
+     * @param accelerationScale the number by which raw accelerations must be divided
+     */
+    public FusionSnapshot(I2cDeviceSynch.TimestampedData ts, double angularScale, double accelerationScale)
+        {
+        ByteBuffer buffer = ByteBuffer.wrap(ts.data).order(ByteOrder.LITTLE_ENDIAN);
+        this.nanoTime = ts.nanoTime;
+
+        double heading = buffer.getShort() / angularScale;
+        double roll    = buffer.getShort() / angularScale;
+        double pitch   = buffer.getShort() / angularScale;
+        this.angles = new EulerAngles(heading, roll, pitch, this.nanoTime);
+
+        final double quaternionScale = (1 << 14);
+        double w = buffer.getShort() / quaternionScale;
+        double x = buffer.getShort() / quaternionScale;
+        double y = buffer.getShort() / quaternionScale;
+        double z = buffer.getShort() / quaternionScale;
+        this.quaternion = new Quaternion(w, x, y, z, this.nanoTime);
+
+        this.linearAcceleration = new Acceleration(buffer.getShort() / accelerationScale, buffer.getShort() / accelerationScale, buffer.getShort() / accelerationScale, this.nanoTime);
+        this.gravity            = new Acceleration(buffer.getShort() / accelerationScale, buffer.getShort() / accelerationScale, buffer.getShort() / accelerationScale, this.nanoTime);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /** Returns the overall acceleration of the sensor, the sum of its linear and gravitational parts */
+    public Acceleration overallAcceleration()
+        {
+        return new Acceleration(
+            linearAcceleration.accelX + gravity.accelX,
+            linearAcceleration.accelY + gravity.accelY,
+            linearAcceleration.accelZ + gravity.accelZ,
+            this.nanoTime);
+        }
+    }
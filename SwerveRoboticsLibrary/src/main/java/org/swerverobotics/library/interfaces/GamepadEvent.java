@@ -0,0 +1,91 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * GamepadEvent records a single edge in the state of a gamepad control: a button being pressed
+ * or released, or a stick or trigger moving past the event threshold. Events are reported in
+ * the order in which they were observed.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#pollGamepadEvent()
+ */
+public class GamepadEvent
+    {
+    //----------------------------------------------------------------------------------------------
+    // Types
+    //----------------------------------------------------------------------------------------------
+
+    /** The controls of a gamepad. Each stick axis is split into its two directions. */
+    public enum CONTROL
+        {
+        A, B, X, Y,
+        DPAD_UP, DPAD_DOWN, DPAD_LEFT, DPAD_RIGHT,
+        LEFT_BUMPER, RIGHT_BUMPER, LEFT_STICK_BUTTON, RIGHT_STICK_BUTTON,
+        GUIDE, START, BACK,
+        LEFT_TRIGGER, RIGHT_TRIGGER,
+        LEFT_STICK_LEFT, LEFT_STICK_RIGHT, LEFT_STICK_UP, LEFT_STICK_DOWN,
+        RIGHT_STICK_LEFT, RIGHT_STICK_RIGHT, RIGHT_STICK_UP, RIGHT_STICK_DOWN;
+
+        private static final CONTROL[] values = values();
+        public static CONTROL fromOrdinal(int ordinal) { return values[ordinal]; }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** which gamepad the event came from: 1 or 2 */
+    public int gamepad;
+
+    /** the control whose state changed */
+    public CONTROL control;
+
+    /** true if the control became pressed (or moved past the threshold), false if it was released */
+    public boolean pressed;
+
+    /** for sticks and triggers, the value of the axis when the event was observed; otherwise 1 or 0 */
+    public float value;
+
+    /**
+     * the time at which the loop() thread observed the event, on the OpMode's clock (see
+     * {@link org.swerverobotics.library.SynchronousOpMode#getClock()}); that's System.nanoTime()
+     * unless the OpMode runs on a simulated clock
+     */
+    public long nanoTime;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public GamepadEvent()
+        {
+        this(0, CONTROL.A, false, 0, 0);
+        }
+    public GamepadEvent(int gamepad, CONTROL control, boolean pressed, float value, long nanoTime)
+        {
+        this.gamepad  = gamepad;
+        this.control  = control;
+        this.pressed  = pressed;
+        this.value    = value;
+        this.nanoTime = nanoTime;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    /** Answers whether this event is the given control of the given gamepad being pressed */
+    public boolean isPress(int gamepad, CONTROL control)
+        {
+        return this.pressed && this.gamepad == gamepad && this.control == control;
+        }
+
+    /** Answers whether this event is the given control of the given gamepad being released */
+    public boolean isRelease(int gamepad, CONTROL control)
+        {
+        return !this.pressed && this.gamepad == gamepad && this.control == control;
+        }
+
+    @Override public String toString()
+        {
+        return String.format("gamepad%d %s %s (%.2f)", this.gamepad, this.control, this.pressed ? "pressed" : "released", this.value);
+        }
+    }
@@ -151,6 +151,18 @@ public interface IBNO055IMU
      */
     Quaternion          getQuaternionOrientation();
 
+    /**
+     * Returns all the outputs of the fusion algorithm (orientation, linear acceleration, and
+     * gravity) as of a single instant. They are read in one I2C transaction, which is both
+     * quicker than reading them separately and gives values that are consistent with one another.
+     * @return  a snapshot of the fusion outputs of the sensor
+     * @see #getAngularOrientation()
+     * @see #getQuaternionOrientation()
+     * @see #getLinearAcceleration()
+     * @see #getGravity()
+     */
+    FusionSnapshot      getFusionSnapshot();
+
     //----------------------------------------------------------------------------------------------
     // Position and velocity management
     //----------------------------------------------------------------------------------------------
@@ -180,7 +192,8 @@ public interface IBNO055IMU
     /**
      * Start (or re-start) a thread that continuously at intervals polls the current linear acceleration 
      * of the sensor and integrates it to provide velocity and position information. A default polling
-     * interval of 100ms is used.
+     * interval of 100ms is used, except for an {@link IPrimitiveAccelerationIntegrator}, which is
+     * polled every 10ms, the rate at which the sensor updates its fusion outputs.
      * @param initalPosition   If non-null, the current sensor position is set to this value. If
      *                         null, the current sensor position is unchanged.
      * @param initialVelocity  If non-null, the current sensor velocity is set to this value. If
@@ -207,6 +220,126 @@ public interface IBNO055IMU
      */
     void stopAccelerationIntegration();
 
+    //----------------------------------------------------------------------------------------------
+    // Background sampling
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Start (or re-start) a thread that continuously at intervals reads the orientation and
+     * accelerations of the sensor, publishing each sample it takes. The sensor must be in a
+     * fusion mode, as each sample is a {@link #getFusionSnapshot()}. The getLatest...() methods
+     * return the most recent sample without communicating with the sensor or waiting on any
+     * thread that is, and so may be called as often as one likes, from any thread.
+     * @param msPollInterval   the interval to use, in milliseconds, between successive samples.
+     *                         If zero, samples are taken as fast as the sensor can be read.
+     * @see #getLatestAngularOrientation()
+     */
+    void startSampling(int msPollInterval);
+
+    /**
+     * Stop the sampling thread if it is currently running. The last sample taken remains
+     * available from the getLatest...() methods.
+     */
+    void stopSampling();
+
+    /**
+     * Answers whether the sampling thread is currently running
+     * @return whether the sensor is being sampled in the background
+     */
+    boolean isSampling();
+
+    /**
+     * Returns the most recent background sample in its entirety
+     * @return  the fusion outputs of the sensor as last sampled
+     * @see #startSampling(int)
+     * @see #getFusionSnapshot()
+     */
+    FusionSnapshot      getLatestFusionSnapshot();
+
+    /**
+     * Returns the absolute orientation of the sensor as of the most recent background sample.
+     * Until a sample has been taken, all angles (and the timestamp) are zero.
+     * @return  the absolute orientation of the sensor as last sampled
+     * @see #startSampling(int)
+     * @see #getAngularOrientation()
+     */
+    EulerAngles         getLatestAngularOrientation();
+
+    /**
+     * Returns the heading of the sensor as of the most recent background sample. Unlike
+     * {@link #getLatestAngularOrientation()}, this allocates nothing.
+     * @return  the heading of the sensor as last sampled
+     * @see #startSampling(int)
+     */
+    double              getLatestHeading();
+
+    /**
+     * Returns the absolute orientation of the sensor as of the most recent background sample.
+     * Until a sample has been taken, this is the identity quaternion.
+     * @return  the absolute orientation of the sensor as last sampled
+     * @see #startSampling(int)
+     * @see #getQuaternionOrientation()
+     */
+    Quaternion          getLatestQuaternionOrientation();
+
+    /**
+     * Returns the linear acceleration of the sensor as of the most recent background sample
+     * @return  the linear acceleration of the sensor as last sampled
+     * @see #startSampling(int)
+     * @see #getLinearAcceleration()
+     */
+    Acceleration        getLatestLinearAcceleration();
+
+    /**
+     * Returns the overall acceleration of the sensor as of the most recent background sample,
+     * as the sum of the linear acceleration and gravity that were sampled
+     * @return  the overall acceleration of the sensor as last sampled
+     * @see #startSampling(int)
+     * @see #getOverallAcceleration()
+     */
+    Acceleration        getLatestOverallAcceleration();
+
+    /**
+     * Returns the heading of the sensor at the indicated time, interpolated between the
+     * background samples taken either side of it. The most recent samples (about the last
+     * second and a quarter's worth, when sampling every 10ms) are kept for the purpose. This
+     * is useful for relating the sensor to things observed some time ago, such as a camera
+     * frame whose analysis has only now finished. Times outside those of the samples kept get
+     * the nearest sample, as do times in a gap of more than a few sample periods between two
+     * samples. Samples are discarded when sampling is (re)started and when the sensor is
+     * (re)initialized. This allocates nothing.
+     * @param nanoTime  the time of interest, on the System.nanoTime() clock
+     * @return  the heading of the sensor at that time, in [0, 360) degrees or [0, 2pi) radians,
+     *          or NaN if no samples have been taken
+     * @see #startSampling(int)
+     * @see #getLatestHeading()
+     */
+    double              getHeadingAt(long nanoTime);
+
+    /**
+     * Retrieves the absolute orientation of the sensor at the indicated time, spherically
+     * interpolated (slerp) between the background samples taken either side of it. As
+     * {@link #getHeadingAt(long)}, this allocates nothing.
+     * @param nanoTime  the time of interest, on the System.nanoTime() clock
+     * @param result    where to put the orientation
+     * @return  whether there were any samples from which to find the orientation; if not,
+     *          'result' is left unchanged
+     * @see #startSampling(int)
+     */
+    boolean             getQuaternionOrientationAt(long nanoTime, Quatd result);
+
+    /**
+     * Retrieves the linear acceleration of the sensor at the indicated time, interpolated
+     * between the background samples taken either side of it. As {@link #getHeadingAt(long)},
+     * this allocates nothing.
+     * @param nanoTime  the time of interest, on the System.nanoTime() clock
+     * @param result    where to put the acceleration
+     * @return  whether there were any samples from which to find the acceleration; if not,
+     *          'result' is left unchanged
+     * @see #startSampling(int)
+     */
+    boolean             getLinearAccelerationAt(long nanoTime, Vec3d result);
+
     //----------------------------------------------------------------------------------------------
     // Status inquiry
     //----------------------------------------------------------------------------------------------
@@ -312,6 +445,13 @@ public interface IBNO055IMU
      * @param data      the data to write
      */
     void write (REGISTER register, byte[] data);
+
+    /**
+     * Low level: returns statistics on the register windows through which the sensor is read.
+     * The windows are planned from the reads made of the sensor; these show how well they fit.
+     * @return  the read window statistics of the sensor
+     */
+    IReadWindowStatistics getReadWindowStatistics();
     
     //----------------------------------------------------------------------------------------------
     // Enumerations to make all of the above work 
@@ -0,0 +1,24 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * ICancellationToken is a cheap, thread-safe indication that the work being done by a
+ * synchronous thread should be abandoned. Polling it costs a single volatile read, so it
+ * can reasonably be checked on every iteration of even a tight loop.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#getCancellationToken()
+ */
+public interface ICancellationToken
+    {
+    /**
+     * Answers whether cancellation has been requested
+     * @return whether cancellation has been requested
+     */
+    boolean isCancellationRequested();
+
+    /**
+     * Throws a CancellationException if cancellation has been requested. Synchronous threads
+     * that let this propagate out of their thread body terminate quietly.
+     * @throws java.util.concurrent.CancellationException if cancellation has been requested
+     */
+    void throwIfCancellationRequested();
+    }
@@ -0,0 +1,33 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * IClock is the source of time for a SynchronousOpMode. Normally it is simply the system
+ * clock; a test harness may substitute a simulated clock so that an OpMode can run
+ * deterministically and faster than real time. Code that wants to work in both
+ * settings should read the time and sleep through the OpMode's clock rather than using
+ * System.nanoTime() and Thread.sleep() directly.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#getClock()
+ */
+public interface IClock
+    {
+    /**
+     * Returns the current time on this clock. As with System.nanoTime(), only differences
+     * between values are meaningful.
+     * @return the current time, in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Suspends the current thread for (at least) the indicated duration of this clock's time
+     * @param ms the duration to sleep, in milliseconds
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
+    void sleep(long ms) throws InterruptedException;
+
+    /**
+     * Answers whether this clock tracks real, wall clock time
+     * @return whether this clock tracks real time
+     */
+    boolean isRealTime();
+    }
@@ -0,0 +1,15 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * A variation of IFunc that returns a double, and so does not need to box its result. Use it
+ * for values that are evaluated often, such as the values of numeric telemetry items.
+ * @see IFunc
+ */
+public interface IDoubleFunc
+    {
+    /**
+     * Evaluates and returns the value of the function
+     * @return  the value of the function
+     */
+    double value();
+    }
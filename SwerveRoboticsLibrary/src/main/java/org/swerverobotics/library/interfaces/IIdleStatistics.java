@@ -0,0 +1,53 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * IIdleStatistics reports what a SynchronousOpMode idle strategy has cost and how
+ * responsive it has been, so that the strategy used by an OpMode can be chosen from data.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#setIdleStrategy(org.swerverobotics.library.SynchronousOpMode.IDLE_STRATEGY)
+ */
+public interface IIdleStatistics
+    {
+    /**
+     * Returns the number of idle() calls made since the statistics were last reset
+     * @return the number of idle() calls
+     */
+    long getIdleCount();
+
+    /**
+     * Returns the total wall clock time spent inside idle(), in nanoseconds
+     * @return the total time spent idling
+     */
+    long getIdleNanos();
+
+    /**
+     * Returns the total thread CPU time consumed inside idle(), in nanoseconds. This is the
+     * CPU that idling steals from other threads, such as the loop() thread or a camera thread.
+     * @return the CPU time burned while idling
+     */
+    long getCpuNanos();
+
+    /**
+     * Returns the fraction of the wall clock time spent idling that was actually spent
+     * running on a CPU. A value near 1.0 indicates a busy spin; near 0.0, a thread that sleeps.
+     * @return the fraction of idle time spent running
+     */
+    double getCpuFraction();
+
+    /**
+     * Returns the mean delay between the loop() thread completing a hardware cycle and an
+     * idle() that was in progress at the time noticing that and returning to its caller.
+     * @return the mean wake-up latency, in nanoseconds
+     */
+    double getMeanWakeLatencyNanos();
+
+    /**
+     * Returns the largest wake-up latency yet observed
+     * @return the maximum wake-up latency, in nanoseconds
+     * @see #getMeanWakeLatencyNanos()
+     */
+    long getMaxWakeLatencyNanos();
+
+    /** Resets all statistics to zero */
+    void reset();
+    }
@@ -0,0 +1,42 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * ILatencyStatistics summarizes a distribution of durations, such as the time taken by each
+ * call to an OpMode hook. Percentiles are approximate: they are accurate to within about 6%.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#getTimingStatistics(org.swerverobotics.library.SynchronousOpMode.TIMING_POINT)
+ */
+public interface ILatencyStatistics
+    {
+    /**
+     * Returns the number of durations recorded
+     * @return the number of durations recorded
+     */
+    long getCount();
+
+    /**
+     * Returns the mean of the durations recorded
+     * @return the mean duration, in nanoseconds
+     */
+    double getMeanNanos();
+
+    /**
+     * Returns (approximately) the duration that the given fraction of recorded durations
+     * did not exceed. For example, getPercentileNanos(0.99) returns the 99th percentile.
+     * @param fraction the percentile of interest, from 0 to 1
+     * @return the duration at that percentile, in nanoseconds
+     */
+    long getPercentileNanos(double fraction);
+
+    /**
+     * Returns the longest duration recorded
+     * @return the longest duration recorded, in nanoseconds
+     */
+    long getMaxNanos();
+
+    /**
+     * Requests that the statistics be cleared. This takes effect the next time a duration
+     * is recorded, and is done by the recording thread so that it never races with it.
+     */
+    void reset();
+    }
@@ -0,0 +1,101 @@
+package org.swerverobotics.library.interfaces;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * IMotorGroup updates the powers of a set of motors, such as the two sides of a drivetrain,
+ * as a unit. Powers are first staged, then committed together: the group issues all of its
+ * writes back to back, one controller at a time, while holding off anything that would split
+ * them. In particular, in a SynchronousOpMode all the writes of a commit are guaranteed to
+ * reach the controllers in the same hardware cycle, which separate setPower() calls are not.
+ *
+ * The group also measures the skew of each commit: the time from its first motor write to
+ * its last.
+ *
+ * <pre>
+ *     IMotorGroup drive = ClassFactory.createMotorGroup(left0, left1, right0, right1);
+ *     ...
+ *     drive.setPower(0, left);
+ *     drive.setPower(1, left);
+ *     drive.setPower(2, right);
+ *     drive.setPower(3, right);
+ *     drive.commit();
+ * </pre>
+ *
+ * @see org.swerverobotics.library.ClassFactory#createMotorGroup(DcMotor...)
+ */
+public interface IMotorGroup
+    {
+    //----------------------------------------------------------------------------------------------
+    // Membership
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of motors in the group
+     * @return the number of motors in the group
+     */
+    int size();
+
+    /**
+     * Returns the motor at the indicated position in the group
+     * @param index the position of the motor, in the order in which the group was created
+     * @return the motor at that position
+     */
+    DcMotor getMotor(int index);
+
+    //----------------------------------------------------------------------------------------------
+    // Staging and committing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Stages a power for one motor of the group. Nothing is written until {@link #commit()}.
+     * @param index the position of the motor in the group
+     * @param power the power to set, exactly as would be passed to {@link DcMotor#setPower(double)}
+     */
+    void setPower(int index, double power);
+
+    /**
+     * Stages a power for one motor of the group
+     * @param motor a motor of the group
+     * @param power the power to set
+     * @see #setPower(int, double)
+     */
+    void setPower(DcMotor motor, double power);
+
+    /**
+     * Stages the same power for every motor of the group, as one might to stop
+     * @param power the power to set
+     */
+    void setPower(double power);
+
+    /**
+     * Writes all the staged powers to their motors together, then clears the staging. Motors
+     * for which no power was staged since the last commit are left alone.
+     */
+    void commit();
+
+    //----------------------------------------------------------------------------------------------
+    // Statistics
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of commits that have written at least one motor
+     * @return the number of commits
+     */
+    long getCommitCount();
+
+    /**
+     * Returns the mean time from the first motor write of a commit to the last
+     * @return the mean skew, in nanoseconds
+     */
+    double getMeanSkewNanos();
+
+    /**
+     * Returns the largest time yet seen from the first motor write of a commit to the last
+     * @return the maximum skew, in nanoseconds
+     */
+    long getMaxSkewNanos();
+
+    /** Resets the statistics to zero */
+    void resetStatistics();
+    }
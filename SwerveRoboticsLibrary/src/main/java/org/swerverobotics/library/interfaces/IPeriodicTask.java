@@ -0,0 +1,73 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * IPeriodicTask is the handle to a control task that has been scheduled to run at a fixed rate.
+ * Along with allowing the task to be cancelled, it reports how well the schedule is being kept.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#schedulePeriodic(double, IInterruptableRunnable)
+ */
+public interface IPeriodicTask
+    {
+    /**
+     * Stops the task. Any execution in progress is interrupted; no further executions will begin.
+     */
+    void cancel();
+
+    /**
+     * Answers whether the task has been cancelled, either explicitly, because it threw an
+     * exception, or because the OpMode stopped.
+     * @return whether the task has been cancelled
+     */
+    boolean isCancelled();
+
+    /**
+     * Returns the interval between the scheduled starts of successive executions
+     * @return the period of the task, in nanoseconds
+     */
+    long getPeriodNanos();
+
+    /**
+     * Returns the number of times the task has been executed
+     * @return the number of executions
+     */
+    long getRunCount();
+
+    /**
+     * Returns the number of times an execution ran past the start of the next one. When this
+     * happens the deadlines that were missed are skipped rather than run late.
+     * @return the number of overruns
+     * @see #getSkippedCount()
+     */
+    long getOverrunCount();
+
+    /**
+     * Returns the number of scheduled executions that were skipped due to overruns
+     * @return the number of skipped executions
+     */
+    long getSkippedCount();
+
+    /**
+     * Returns the mean delay between when executions were scheduled to start and when they did
+     * @return the mean start jitter, in nanoseconds
+     */
+    double getMeanJitterNanos();
+
+    /**
+     * Returns the largest delay yet seen between when an execution was scheduled to start and
+     * when it did
+     * @return the maximum start jitter, in nanoseconds
+     */
+    long getMaxJitterNanos();
+
+    /**
+     * Returns the mean time taken by one execution of the task
+     * @return the mean execution time, in nanoseconds
+     */
+    double getMeanRunNanos();
+
+    /**
+     * Returns the longest time yet taken by one execution of the task
+     * @return the maximum execution time, in nanoseconds
+     */
+    long getMaxRunNanos();
+    }
@@ -0,0 +1,23 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * An {@link IPrimitiveAccelerationIntegrator} is an {@link IAccelerationIntegrator} that can
+ * be stepped with the components of an acceleration rather than with an {@link Acceleration}
+ * object. An IMU driving such an integrator decodes each sample straight into those components,
+ * so that, so long as the integrator itself allocates nothing, neither does a step. Such
+ * integrators are by default polled at the rate at which the sensor produces fresh data.
+ *
+ * @see IBNO055IMU#startAccelerationIntegration(Position, Velocity)
+ */
+public interface IPrimitiveAccelerationIntegrator extends IAccelerationIntegrator
+    {
+    /**
+     * Step the algorithm as a result of the stimulus of new acceleration data.
+     * @param accelX    the acceleration in the X direction, as just reported by the IMU
+     * @param accelY    the acceleration in the Y direction
+     * @param accelZ    the acceleration in the Z direction
+     * @param nanoTime  the time on the System.nanoTime() clock at which the data was acquired
+     * @see #update(Acceleration)
+     */
+    void update(double accelX, double accelY, double accelZ, long nanoTime);
+    }
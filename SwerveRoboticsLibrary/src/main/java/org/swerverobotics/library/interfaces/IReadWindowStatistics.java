@@ -0,0 +1,60 @@
+package org.swerverobotics.library.interfaces;
+
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+/**
+ * IReadWindowStatistics reports how well the read windows of an I2C sensor fit the reads
+ * actually made of it: how often the window had to be switched, how often a read fell outside
+ * all of the planned windows, and how many bytes were read from the sensor to satisfy the
+ * bytes asked for.
+ *
+ * @see IReadWindowStatisticsProvider
+ * @see IBNO055IMU#getReadWindowStatistics()
+ */
+public interface IReadWindowStatistics
+    {
+    /**
+     * Returns the number of reads made by the client of the sensor
+     * @return the number of reads requested
+     */
+    long getReadsRequested();
+
+    /**
+     * Returns the number of times the read window had to be changed to satisfy a read. Each
+     * costs at least one extra round trip on the bus.
+     * @return the number of window switches
+     */
+    long getWindowSwitches();
+
+    /**
+     * Returns the number of reads that fell outside all the planned windows, and so were
+     * made with a one-time (READ_ONCE) window of their own
+     * @return the number of READ_ONCE fallbacks
+     */
+    long getReadOnceFallbacks();
+
+    /**
+     * Returns the number of bytes asked for by the reads of the client
+     * @return the number of bytes requested
+     */
+    long getBytesRequested();
+
+    /**
+     * Returns the number of bytes read from the sensor to satisfy those reads: the size of
+     * the window through which each read was made
+     * @return the number of bytes transferred
+     */
+    long getBytesTransferred();
+
+    /**
+     * Returns the number of times the set of windows has been re-planned
+     * @return the number of plans made
+     */
+    long getPlansMade();
+
+    /**
+     * Returns the windows in the current plan
+     * @return the current read windows
+     */
+    I2cDeviceSynch.ReadWindow[] getReadWindows();
+    }
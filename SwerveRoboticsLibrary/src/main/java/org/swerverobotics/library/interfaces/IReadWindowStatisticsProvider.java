@@ -0,0 +1,18 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * IReadWindowStatisticsProvider is implemented by the I2C sensors of this library whose read
+ * windows are planned from the reads actually made of them. To tune a sensor, cast it:
+ *
+ * <pre>
+ *     IReadWindowStatistics stats = ((IReadWindowStatisticsProvider)colorSensor).getReadWindowStatistics();
+ * </pre>
+ */
+public interface IReadWindowStatisticsProvider
+    {
+    /**
+     * Returns the statistics of the read windows of this sensor
+     * @return the read window statistics
+     */
+    IReadWindowStatistics getReadWindowStatistics();
+    }
@@ -0,0 +1,47 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * ISynchronousWorkerStatistics describes one of the threads on which SynchronousOpMode runs
+ * synchronous thread bodies. A thread may be reused for several bodies over its lifetime.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#getSynchronousWorkerStatistics()
+ */
+public interface ISynchronousWorkerStatistics
+    {
+    /**
+     * Returns the name of the worker thread
+     * @return the name of the worker thread
+     */
+    String getName();
+
+    /**
+     * Answers whether the thread is still alive
+     * @return whether the thread is still alive
+     */
+    boolean isAlive();
+
+    /**
+     * Returns the System.nanoTime() at which the thread started
+     * @return when the thread started
+     */
+    long getNanoTimeStarted();
+
+    /**
+     * Returns the System.nanoTime() at which the thread terminated, or zero if it is still alive
+     * @return when the thread terminated
+     */
+    long getNanoTimeStopped();
+
+    /**
+     * Returns the CPU time consumed by the thread, as of the most recent completion of a
+     * thread body (or of the thread itself)
+     * @return the CPU time consumed by the thread, in nanoseconds
+     */
+    long getCpuNanos();
+
+    /**
+     * Returns the number of thread bodies that have been started on this thread
+     * @return the number of thread bodies run
+     */
+    int getRunCount();
+    }
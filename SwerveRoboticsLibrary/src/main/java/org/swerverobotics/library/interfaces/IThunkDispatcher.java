@@ -1,11 +1,9 @@
 package org.swerverobotics.library.interfaces;
 
-import org.swerverobotics.library.SynchronousOpMode;
-
 /**
  * Advanced: IThunkDispatcher is an interface through which one can cause work to be thunked to the loop() thread.
  *
- * @see SynchronousOpMode#getThreadThunker()
+ * @see org.swerverobotics.library.internal.SwerveThreadContext#getThunker()
  * @see <a href="https://en.wikipedia.org/wiki/Thunk">https://en.wikipedia.org/wiki/Thunk</a>
  */
 public interface IThunkDispatcher
@@ -14,7 +12,7 @@ public interface IThunkDispatcher
      * Executes the indicated action over on the loop() thread.
      *
      * @param action the action to execute
-     * @see SynchronousOpMode#getThreadThunker()
+     * @see org.swerverobotics.library.internal.SwerveThreadContext#getThunker()
      */
     void executeOnLoopThread(Runnable action);
 
@@ -26,7 +24,7 @@ public interface IThunkDispatcher
      * @param action        the action to execute
      *
      * @see #getNewSingletonKey()
-     * @see SynchronousOpMode#getThreadThunker()
+     * @see org.swerverobotics.library.internal.SwerveThreadContext#getThunker()
      */
     void executeSingletonOnLoopThread(int singletonKey, Runnable action);
 
@@ -34,7 +32,7 @@ public interface IThunkDispatcher
      * Returns a new singleton key
      * @return the new key
      * @see #executeSingletonOnLoopThread(int, Runnable)
-     * @see SynchronousOpMode#getThreadThunker()
+     * @see org.swerverobotics.library.internal.SwerveThreadContext#getThunker()
      */
     int getNewSingletonKey();
     }
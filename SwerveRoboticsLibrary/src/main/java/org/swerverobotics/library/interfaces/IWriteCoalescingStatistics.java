@@ -0,0 +1,29 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * IWriteCoalescingStatistics reports how effective write coalescing has been for one or
+ * more actuators: how many writes were asked for, and how many actually went to the controller.
+ *
+ * @see org.swerverobotics.library.SynchronousOpMode#getActuatorWriteStatistics()
+ */
+public interface IWriteCoalescingStatistics
+    {
+    /**
+     * Returns the number of writes (setPower(), setPosition(), etc) made by user code
+     * @return the number of writes requested
+     */
+    long getWritesRequested();
+
+    /**
+     * Returns the number of writes that were actually issued to the controller
+     * @return the number of writes issued
+     */
+    long getWritesIssued();
+
+    /**
+     * Returns the number of writes that were saved, either because they didn't change the
+     * value last written or because a later write in the same hardware cycle superseded them
+     * @return the number of writes saved
+     */
+    long getWritesSaved();
+    }
@@ -6,6 +6,9 @@ package org.swerverobotics.library.interfaces;
  * statically using:
  *
  * <pre>import static org.swerverobotics.library.interfaces.NavUtil.*;</pre>
+ *
+ * Each operation here makes a new object for its result. Loops that do a lot of such arithmetic
+ * may prefer the mutable {@link Vec3d} and {@link Quatd}, which allocate nothing.
  */
 public class NavUtil
     {
@@ -13,11 +16,11 @@ public class NavUtil
     // Arithmetic: some handy helpers
     //----------------------------------------------------------------------------------------------
 
-    public static Position     plus(Position a, Position b)         { return new Position    (a.x      + b.x,      a.y      + b.y,      a.z      + b.y,      Math.max(a.nanoTime, b.nanoTime)); }
+    public static Position     plus(Position a, Position b)         { return new Position    (a.x      + b.x,      a.y      + b.y,      a.z      + b.z,      Math.max(a.nanoTime, b.nanoTime)); }
     public static Velocity     plus(Velocity a, Velocity b)         { return new Velocity    (a.velocX + b.velocX, a.velocY + b.velocY, a.velocZ + b.velocZ, Math.max(a.nanoTime, b.nanoTime)); }
     public static Acceleration plus(Acceleration a, Acceleration b) { return new Acceleration(a.accelX + b.accelX, a.accelY + b.accelY, a.accelZ + b.accelZ, Math.max(a.nanoTime, b.nanoTime)); }
 
-    public static Position     minus(Position a, Position b)         { return new Position    (a.x      - b.x,      a.y      - b.y,      a.z      - b.y,      Math.max(a.nanoTime, b.nanoTime)); }
+    public static Position     minus(Position a, Position b)         { return new Position    (a.x      - b.x,      a.y      - b.y,      a.z      - b.z,      Math.max(a.nanoTime, b.nanoTime)); }
     public static Velocity     minus(Velocity a, Velocity b)         { return new Velocity    (a.velocX - b.velocX, a.velocY - b.velocY, a.velocZ - b.velocZ, Math.max(a.nanoTime, b.nanoTime)); }
     public static Acceleration minus(Acceleration a, Acceleration b) { return new Acceleration(a.accelX - b.accelX, a.accelY - b.accelY, a.accelZ - b.accelZ, Math.max(a.nanoTime, b.nanoTime)); }
 
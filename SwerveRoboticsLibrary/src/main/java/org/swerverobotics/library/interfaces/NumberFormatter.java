@@ -0,0 +1,203 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * NumberFormatter formats numbers into a StringBuilder without allocating, as an alternative
+ * to String.format() for code, such as telemetry, that formats numbers on every iteration of
+ * a loop. Reuse the StringBuilder (having set its length back to zero) and nothing is
+ * allocated once it has grown large enough.
+ */
+public class NumberFormatter
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    /** The largest number of decimal places supported by {@link #appendFixed} */
+    public static final int MAX_DECIMALS = 15;
+
+    /** The most significant digits that {@link #appendDouble} will show */
+    public static final int MAX_SIGNIFICANT_DIGITS = 15;
+
+    private static final long[] powersOfTen = new long[MAX_DECIMALS + 1];
+    static
+        {
+        powersOfTen[0] = 1;
+        for (int i = 1; i < powersOfTen.length; i++)
+            powersOfTen[i] = powersOfTen[i-1] * 10;
+        }
+
+    // The powers of ten that doubles hold exactly: multiplying or dividing by one of these
+    // is a single correctly rounded operation
+    private static final double[] exactPowersOfTen = new double[23];
+    static
+        {
+        exactPowersOfTen[0] = 1;
+        for (int i = 1; i < exactPowersOfTen.length; i++)
+            exactPowersOfTen[i] = exactPowersOfTen[i-1] * 10;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Formatting
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Appends a number with a fixed number of decimal places, as String.format("%.Nf") would,
+     * except that the rounding is done in binary: a value that lies very nearly halfway between
+     * two results may round the other way in its last digit. Values too large to be scaled
+     * exactly fall back to String.format(), and so allocate.
+     *
+     * @param builder   the builder to append to
+     * @param value     the number to format
+     * @param decimals  the number of digits to show after the decimal point, 0 to {@link #MAX_DECIMALS}
+     * @return          the builder
+     */
+    public static StringBuilder appendFixed(StringBuilder builder, double value, int decimals)
+        {
+        if (decimals < 0 || decimals > MAX_DECIMALS)
+            throw new IllegalArgumentException(String.format("appendFixed: illegal decimals: %d", decimals));
+
+        if (Double.isNaN(value))
+            return builder.append("NaN");
+
+        // String.format() shows the sign of negative zero, and of anything that rounds to it
+        boolean negative = Double.doubleToRawLongBits(value) < 0;
+        double  scaled   = Math.abs(value) * powersOfTen[decimals];
+        if (Double.isInfinite(value))
+            return builder.append(negative ? "-Infinity" : "Infinity");
+        if (scaled >= 0x1p53)
+            return builder.append(String.format("%." + decimals + "f", value));
+
+        long rounded  = Math.round(scaled);
+        long integral = rounded / powersOfTen[decimals];
+        long fraction = rounded % powersOfTen[decimals];
+
+        if (negative)
+            builder.append('-');
+        builder.append(integral);
+        if (decimals > 0)
+            {
+            builder.append('.');
+            for (int i = decimals - 1; i >= 0; i--)
+                {
+                builder.append((char)('0' + fraction / powersOfTen[i]));
+                fraction %= powersOfTen[i];
+                }
+            }
+        return builder;
+        }
+
+    /**
+     * Appends a number as Double.toString() would: the fewest digits that read back as the
+     * same double, in plain notation from 0.001 up to 10,000,000 and as, say, "1.5E-5" outside
+     * that. Numbers that need more than {@link #MAX_SIGNIFICANT_DIGITS} digits to read back
+     * exactly (0.1 + 0.2 is one) are shown rounded to that many, which is to say that the
+     * last digit or two of noise that Double.toString() would show are left off. Numbers of
+     * magnitude below about 1e-7 or above 1e22 can't be scaled exactly, and fall back to
+     * Double.toString(), and so allocate.
+     *
+     * @param builder   the builder to append to
+     * @param value     the number to format
+     * @return          the builder
+     */
+    public static StringBuilder appendDouble(StringBuilder builder, double value)
+        {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return builder.append(value);
+        if (value == 0)
+            return builder.append(Double.doubleToRawLongBits(value) < 0 ? "-0.0" : "0.0");
+
+        double magnitude = Math.abs(value);
+        int    exponent  = (int)Math.floor(Math.log10(magnitude));  // of the leading digit; may be off by one
+        if (scaleFor(MAX_SIGNIFICANT_DIGITS, exponent + 1) < -22 || scaleFor(MAX_SIGNIFICANT_DIGITS, exponent - 1) > 22)
+            return builder.append(value);
+
+        // Correct the exponent if log10() was off
+        long digits = scaleAndRound(magnitude, scaleFor(MAX_SIGNIFICANT_DIGITS, exponent));
+        if (digits >= powersOfTen[MAX_SIGNIFICANT_DIGITS])
+            exponent++;
+        else if (digits < powersOfTen[MAX_SIGNIFICANT_DIGITS - 1])
+            exponent--;
+
+        // Find the fewest digits that read back as the same double. As both the digits and the
+        // power of ten are exact, so is the reading back.
+        int cDigits;
+        for (cDigits = 1; ; cDigits++)
+            {
+            int scale = scaleFor(cDigits, exponent);
+            digits = scaleAndRound(magnitude, scale);
+            if (cDigits == MAX_SIGNIFICANT_DIGITS)
+                break;
+            // Rounding up to the next power of ten never reads back right: the exponent is
+            // that of the value rounded to the most digits we show
+            if (digits < powersOfTen[cDigits] && unscale(digits, scale) == magnitude)
+                break;
+            }
+
+        // Drop any trailing zeros, as when we had to settle for the most digits we show
+        while (cDigits > 1 && digits % 10 == 0)
+            {
+            digits /= 10;
+            cDigits--;
+            }
+
+        if (value < 0)
+            builder.append('-');
+        if (exponent >= -3 && exponent < 7)
+            {
+            if (exponent < 0)
+                {
+                builder.append("0.");
+                for (int i = -1; i > exponent; i--)
+                    builder.append('0');
+                appendDigits(builder, digits, cDigits, 0, cDigits);
+                }
+            else
+                {
+                // The integral part, padded with zeros if the digits run out before it does
+                int cIntegral = exponent + 1;
+                appendDigits(builder, digits, cDigits, 0, Math.min(cIntegral, cDigits));
+                for (int i = cDigits; i < cIntegral; i++)
+                    builder.append('0');
+                builder.append('.');
+                if (cDigits > cIntegral)
+                    appendDigits(builder, digits, cDigits, cIntegral, cDigits);
+                else
+                    builder.append('0');
+                }
+            }
+        else
+            {
+            appendDigits(builder, digits, cDigits, 0, 1);
+            builder.append('.');
+            if (cDigits > 1)
+                appendDigits(builder, digits, cDigits, 1, cDigits);
+            else
+                builder.append('0');
+            builder.append('E').append(exponent);
+            }
+        return builder;
+        }
+
+    /** Returns the power of ten by which to scale to get cDigits digits before the point */
+    private static int scaleFor(int cDigits, int exponent)
+        {
+        return cDigits - 1 - exponent;
+        }
+
+    private static long scaleAndRound(double magnitude, int scale)
+        {
+        return Math.round(scale >= 0 ? magnitude * exactPowersOfTen[scale] : magnitude / exactPowersOfTen[-scale]);
+        }
+
+    private static double unscale(long digits, int scale)
+        {
+        return scale >= 0 ? digits / exactPowersOfTen[scale] : digits * exactPowersOfTen[-scale];
+        }
+
+    /** Appends digits [iFirst, iLast) of a number of cDigits digits, most significant first */
+    private static void appendDigits(StringBuilder builder, long digits, int cDigits, int iFirst, int iLast)
+        {
+        for (int i = iFirst; i < iLast; i++)
+            builder.append((char)('0' + (digits / powersOfTen[cDigits - 1 - i]) % 10));
+        }
+    }
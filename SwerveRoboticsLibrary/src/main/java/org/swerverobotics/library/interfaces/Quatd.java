@@ -0,0 +1,130 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * Quatd is a mutable quaternion, the counterpart of {@link Quaternion} as {@link Vec3d} is of
+ * {@link Position} and its kin. Operations follow the same conventions as those of Vec3d:
+ * ...InPlace modifies this quaternion, ...Into puts its result in another (which may be
+ * this one or the argument), and each returns what it modified.
+ *
+ * Quatd is not thread-safe.
+ */
+public class Quatd
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public double w;
+    public double x;
+    public double y;
+    public double z;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /** Creates the identity quaternion */
+    public Quatd()
+        {
+        this(1,0,0,0);
+        }
+    public Quatd(double w, double x, double y, double z)
+        {
+        this.w = w;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        }
+    public Quatd(Quatd him)
+        {
+        this(him.w, him.x, him.y, him.z);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Conversion
+    //----------------------------------------------------------------------------------------------
+
+    public Quatd set(double w, double x, double y, double z)
+        {
+        this.w = w;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+        }
+    public Quatd set(Quatd him)         { return this.set(him.w, him.x, him.y, him.z); }
+    public Quatd set(Quaternion q)      { return this.set(q.w, q.x, q.y, q.z); }
+
+    public Quaternion toQuaternion(long nanoTime)
+        {
+        return new Quaternion(w, x, y, z, nanoTime);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    public double magnitude()
+        {
+        return Math.sqrt(w*w + x*x + y*y + z*z);
+        }
+
+    public Quatd normalizeInPlace()
+        {
+        double mag = this.magnitude();
+        return this.set(w / mag, x / mag, y / mag, z / mag);
+        }
+
+    public Quatd conjugateInPlace()
+        {
+        return this.set(w, -x, -y, -z);
+        }
+
+    /** result = this * him (the Hamilton product) */
+    public Quatd multiplyInto(Quatd him, Quatd result)
+        {
+        // Compute everything before storing, as result may be either operand
+        return result.set(
+            this.w * him.w - this.x * him.x - this.y * him.y - this.z * him.z,
+            this.w * him.x + this.x * him.w + this.y * him.z - this.z * him.y,
+            this.w * him.y - this.x * him.z + this.y * him.w + this.z * him.x,
+            this.w * him.z + this.x * him.y - this.y * him.x + this.z * him.w);
+        }
+
+    /** this = this * him */
+    public Quatd multiplyInPlace(Quatd him)
+        {
+        return this.multiplyInto(him, this);
+        }
+
+    /**
+     * Rotates a vector by this quaternion, which must be of unit magnitude: result = q v q*.
+     * The vector and the result may be the same.
+     */
+    public Vec3d rotateInto(Vec3d v, Vec3d result)
+        {
+        // t = 2 (q.xyz x v); result = v + w t + q.xyz x t
+        double tx = 2 * (this.y * v.z - this.z * v.y);
+        double ty = 2 * (this.z * v.x - this.x * v.z);
+        double tz = 2 * (this.x * v.y - this.y * v.x);
+        return result.set(
+            v.x + this.w * tx + (this.y * tz - this.z * ty),
+            v.y + this.w * ty + (this.z * tx - this.x * tz),
+            v.z + this.w * tz + (this.x * ty - this.y * tx));
+        }
+
+    /** Rotates a vector in place by this quaternion, which must be of unit magnitude */
+    public Vec3d rotateInPlace(Vec3d v)
+        {
+        return this.rotateInto(v, v);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String toString()
+        {
+        return String.format("(%f, %f, %f, %f)", this.w, this.x, this.y, this.z);
+        }
+    }
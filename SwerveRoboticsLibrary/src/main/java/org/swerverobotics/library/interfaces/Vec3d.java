@@ -0,0 +1,161 @@
+package org.swerverobotics.library.interfaces;
+
+/**
+ * Vec3d is a mutable vector in three-space. Where {@link Position}, {@link Velocity} and
+ * {@link Acceleration} (and the {@link NavUtil} arithmetic on them) make a new object for every
+ * result, the operations here update an existing Vec3d, so that a navigation loop can keep its
+ * working state in a few long-lived instances and allocate nothing as it runs. Conversions to
+ * and from the immutable types are provided for use at the edges of such a loop.
+ *
+ * Operations named ...InPlace modify this vector; those named ...Into leave this vector alone
+ * and put their result in another, which may be this one. Each returns the vector modified,
+ * so that operations may be chained.
+ *
+ * Vec3d is not thread-safe.
+ *
+ * @see Quatd
+ */
+public class Vec3d
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    public double x;
+    public double y;
+    public double z;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public Vec3d()
+        {
+        this(0,0,0);
+        }
+    public Vec3d(double x, double y, double z)
+        {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        }
+    public Vec3d(Vec3d him)
+        {
+        this(him.x, him.y, him.z);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Conversion
+    //----------------------------------------------------------------------------------------------
+
+    public Vec3d set(double x, double y, double z)
+        {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+        }
+    public Vec3d set(Vec3d him)             { return this.set(him.x, him.y, him.z); }
+    public Vec3d set(Position p)            { return this.set(p.x, p.y, p.z); }
+    public Vec3d set(Velocity v)            { return this.set(v.velocX, v.velocY, v.velocZ); }
+    public Vec3d set(Acceleration a)        { return this.set(a.accelX, a.accelY, a.accelZ); }
+
+    public Position     toPosition(long nanoTime)       { return new Position(x, y, z, nanoTime); }
+    public Velocity     toVelocity(long nanoTime)       { return new Velocity(x, y, z, nanoTime); }
+    public Acceleration toAcceleration(long nanoTime)   { return new Acceleration(x, y, z, nanoTime); }
+
+    //----------------------------------------------------------------------------------------------
+    // Arithmetic
+    //----------------------------------------------------------------------------------------------
+
+    public Vec3d addInPlace(double dx, double dy, double dz)
+        {
+        this.x += dx;
+        this.y += dy;
+        this.z += dz;
+        return this;
+        }
+    public Vec3d addInPlace(Vec3d him)              { return this.addInPlace(him.x, him.y, him.z); }
+    public Vec3d subtractInPlace(Vec3d him)         { return this.addInPlace(-him.x, -him.y, -him.z); }
+
+    /** this += him * scale */
+    public Vec3d addScaledInPlace(Vec3d him, double scale)
+        {
+        return this.addInPlace(him.x * scale, him.y * scale, him.z * scale);
+        }
+
+    public Vec3d scaleInPlace(double scale)
+        {
+        this.x *= scale;
+        this.y *= scale;
+        this.z *= scale;
+        return this;
+        }
+
+    /** result = this + him */
+    public Vec3d addInto(Vec3d him, Vec3d result)
+        {
+        return result.set(this.x + him.x, this.y + him.y, this.z + him.z);
+        }
+
+    /** result = this - him */
+    public Vec3d subtractInto(Vec3d him, Vec3d result)
+        {
+        return result.set(this.x - him.x, this.y - him.y, this.z - him.z);
+        }
+
+    /** result = this * scale */
+    public Vec3d scaleInto(double scale, Vec3d result)
+        {
+        return result.set(this.x * scale, this.y * scale, this.z * scale);
+        }
+
+    /** result = this x him */
+    public Vec3d crossInto(Vec3d him, Vec3d result)
+        {
+        return result.set(
+            this.y * him.z - this.z * him.y,
+            this.z * him.x - this.x * him.z,
+            this.x * him.y - this.y * him.x);
+        }
+
+    public double dot(Vec3d him)
+        {
+        return this.x * him.x + this.y * him.y + this.z * him.z;
+        }
+
+    public double magnitude()
+        {
+        return Math.sqrt(this.dot(this));
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Integration
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Adds to this vector the integral over an interval of a quantity whose values at the start
+     * and end of the interval are given, assuming that their mean has been acting the entire
+     * interval. This is the in-place equivalent of {@link NavUtil#meanIntegrate(Velocity, Velocity)}
+     * and {@link NavUtil#meanIntegrate(Acceleration, Acceleration)}.
+     *
+     * @param cur       the current value of the quantity being integrated
+     * @param prev      the previous value of the quantity being integrated
+     * @param seconds   the duration of the interval
+     * @return          this vector
+     */
+    public Vec3d addMeanIntegralInPlace(Vec3d cur, Vec3d prev, double seconds)
+        {
+        double scale = 0.5 * seconds;
+        return this.addInPlace((cur.x + prev.x) * scale, (cur.y + prev.y) * scale, (cur.z + prev.z) * scale);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String toString()
+        {
+        return String.format("(%f, %f, %f)", this.x, this.y, this.z);
+        }
+    }
@@ -23,7 +23,7 @@ import static org.swerverobotics.library.interfaces.NavUtil.*;
  * <a href="http://www.adafruit.com/products/2472">AdaFruit Absolute Orientation Sensor</a> that 
  * is attached to a Modern Robotics Core Device Interface module.
  */
-public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser, IOpModeStateTransitionEvents
+public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser, IReadWindowStatisticsProvider, IOpModeStateTransitionEvents
     {
     //------------------------------------------------------------------------------------------
     // State
@@ -31,14 +31,30 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
     private final OpMode         opmodeContext;
     private final I2cDeviceSynch deviceClient;
+    private final ReadWindowPlanner readWindowPlanner;     // all our reads go through this
     private Parameters           parameters;
-    private SENSOR_MODE          currentMode;
+    private volatile SENSOR_MODE currentMode;
 
     private final Object           dataLock = new Object();
     private IAccelerationIntegrator accelerationAlgorithm;
 
     private final Object           startStopLock = new Object();
     private ExecutorService        accelerationMananger;
+    private ExecutorService        sampler;
+
+    // The most recent sample taken by the sampler, laid out as below. Readers never wait on the
+    // sampler, and the sampler never holds the lock across a read from the sensor.
+    private final SeqLock          latest = new SeqLock(cLatest);
+    private static final int       iNanoTime   = 0;
+    private static final int       iEuler      = 1;     // heading, roll, pitch
+    private static final int       iQuaternion = 4;     // w, x, y, z
+    private static final int       iLinear     = 8;     // x, y, z
+    private static final int       iGravity    = 11;    // x, y, z
+    private static final int       cLatest     = 14;
+
+    // The recent samples taken by the sampler, for the ...At() queries. At 10ms, that's 1.28s.
+    private final ImuHistory       history = new ImuHistory(cHistory);
+    private static final int       cHistory    = 128;
     private static final int       msAccelerationIntegrationStopWait = 20;
     private static final int       msAwaitChipId                     = 2000;
     private static final int       msAwaitSelfTest                   = 2000;
@@ -56,6 +72,10 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
     // That's just a bit of contextual background for the magnitude here
     private static final int       msAccelerationIntegrationDefaultPollInterval = 100;   // so far only a guess
 
+    // The fusion outputs are updated at 100Hz (Table 3-14). Integrators that can keep up with
+    // that without making garbage are polled that often by default.
+    private static final int       msFusionOutputInterval = 10;
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -69,13 +89,19 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
         // We don't have the device auto-close since *we* handle the shutdown logic
         this.deviceClient           = ClassFactory.createI2cDeviceSynch(i2cDevice, i2cAddr8Bit);
-        this.deviceClient.setReadWindow(lowerWindow);
+        this.readWindowPlanner      = new ReadWindowPlanner(this.deviceClient, readMode);
         this.deviceClient.engage();
 
         this.parameters            = null;
         this.currentMode           = null;
         this.accelerationAlgorithm = new NaiveAccelerationIntegrator();
         this.accelerationMananger  = null;
+        this.sampler               = null;
+
+        // Until we've a sample, the orientation is the identity, as with new Quaternion()
+        this.latest.beginWrite();
+        this.latest.set(iQuaternion, 1);
+        this.latest.endWrite();
 
         RobotStateTransitionNotifier.register(opmodeContext, this);
         }
@@ -93,13 +119,16 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
         return result;
         }
 
-    @Override synchronized public boolean onUserOpModeStop()
+    // Not synchronized: close() waits for our background threads, which may themselves be
+    // waiting to read from the sensor under our lock
+
+    @Override public boolean onUserOpModeStop()
         {
         this.close();
         return true;
         }
 
-    @Override synchronized public boolean onRobotShutdown()
+    @Override public boolean onRobotShutdown()
         {
         this.close();
         return true;
@@ -113,6 +142,11 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
         {
         return this.deviceClient;
         }
+
+    @Override public IReadWindowStatistics getReadWindowStatistics()
+        {
+        return this.readWindowPlanner;
+        }
     
     //------------------------------------------------------------------------------------------
     // IBNO055IMU initialization
@@ -156,8 +190,10 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
         if (SENSOR_MODE.CONFIG == parameters.mode)
             throw new IllegalArgumentException("SENSOR_MODE.CONFIG illegal for use in AdaFruitBNO055IMU.initialize()");
 
-        // Remember the parameters for future use
+        // Remember the parameters for future use. Samples already in the history may be in
+        // other units, so they must go.
         this.parameters = parameters;
+        this.history.clear();
         ElapsedTime elapsed = new ElapsedTime();
         if (parameters.accelerationIntegrationAlgorithm != null)
             this.accelerationAlgorithm = parameters.accelerationIntegrationAlgorithm;
@@ -265,8 +301,15 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
     @Override public void close()
         {
+        // Our background threads must be stopped without our lock, as they may be waiting on it
+        // to read the sensor. But the device mustn't be closed out from under a read that some
+        // other thread is in the middle of, so that we do under the lock.
+        stopSampling();
         stopAccelerationIntegration();
-        this.deviceClient.close();
+        synchronized (this)
+            {
+            this.deviceClient.close();
+            }
         }
 
     private void setSensorMode(SENSOR_MODE mode)
@@ -406,16 +449,19 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
     public synchronized Quaternion getQuaternionOrientation()
         {
-        // Ensure we can see the registers we need
-        deviceClient.ensureReadWindow(
-                new I2cDeviceSynch.ReadWindow(REGISTER.QUATERNION_DATA_W_LSB.bVal, 8, readMode),
-                upperWindow);
-
         // Section 3.6.5.5 of BNO055 specification
-        I2cDeviceSynch.TimestampedData ts = deviceClient.readTimeStamped(REGISTER.QUATERNION_DATA_W_LSB.bVal, 8);
+        I2cDeviceSynch.TimestampedData ts = readWindowPlanner.readTimeStamped(REGISTER.QUATERNION_DATA_W_LSB.bVal, 8);
         return new Quaternion(ts, (1 << 14));
         }
 
+    public synchronized FusionSnapshot getFusionSnapshot()
+        {
+        // The block is as large as a window can be, so the planner gives it one of its own,
+        // and it's read in a single transaction
+        I2cDeviceSynch.TimestampedData ts = readWindowPlanner.readTimeStamped(REGISTER.EULER_H_LSB.bVal, FusionSnapshot.cbRegisters);
+        return new FusionSnapshot(ts, getAngularScale(), getAccelerationScale());
+        }
+
     /**
      * Return the number by which we need to divide a raw angle as read from the device in order
      * to convert it to our current angular units. See Table 3-22 of the BNO055 spec
@@ -444,13 +490,15 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
         return 16.0 * 1000000.0;
         }
 
-    private I2cDeviceSynch.TimestampedData getVector(final VECTOR vector)
+    /** Decodes the little-endian short at the indicated offset, as does ByteBuffer, but without one */
+    private static int decodeShort(byte[] data, int ib)
         {
-        // Ensure that the 6 bytes for this vector are visible in the register window.
-        ensureReadWindow(new I2cDeviceSynch.ReadWindow(vector.getValue(), 6, readMode));
+        return (short)((data[ib] & 0xFF) | (data[ib+1] << 8));
+        }
 
-        // Read the data
-        return deviceClient.readTimeStamped(vector.getValue(), 6);
+    private I2cDeviceSynch.TimestampedData getVector(final VECTOR vector)
+        {
+        return readWindowPlanner.readTimeStamped(vector.getValue(), 6);
         }
 
     //------------------------------------------------------------------------------------------
@@ -487,7 +535,10 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
     public void startAccelerationIntegration(Position initalPosition, Velocity initialVelocity)
         {
-        this.startAccelerationIntegration(initalPosition, initialVelocity, msAccelerationIntegrationDefaultPollInterval);
+        int msPollInterval = this.accelerationAlgorithm instanceof IPrimitiveAccelerationIntegrator
+                ? msFusionOutputInterval
+                : msAccelerationIntegrationDefaultPollInterval;
+        this.startAccelerationIntegration(initalPosition, initialVelocity, msPollInterval);
         }
 
     public void startAccelerationIntegration(Position initalPosition, Velocity initialVelocity, int msPollInterval)
@@ -570,8 +621,9 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
             // We should always be given a timestamp here
             if (accelNext.nanoTime != 0)
                 {
-                // Log the incoming accelerations
-                log_v("a: %f %f %f %f", accelNext.accelX, accelNext.accelY, accelNext.accelZ, acceleration == null ? 0 : (accelNext.nanoTime - acceleration.nanoTime) * 1e-9);
+                // Log the incoming accelerations (if we're logging: the arguments alone make garbage)
+                if (parameters.loggingEnabled)
+                    log_v("a: %f %f %f %f", accelNext.accelX, accelNext.accelY, accelNext.accelZ, acceleration == null ? 0 : (accelNext.nanoTime - acceleration.nanoTime) * 1e-9);
 
                 // We can only integrate if we have a previous acceleration to baseline from
                 if (acceleration != null)
@@ -597,11 +649,13 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
     class AccelerationManager implements Runnable
         {
         private final int msPollInterval;
+        private final Clock clock;
         private final static long nsPerMs = ElapsedTime.MILLIS_IN_NANO;
         
         AccelerationManager(int msPollInterval)
             {
             this.msPollInterval = msPollInterval;
+            this.clock          = Clock.current();
             }
         
         @Override public void run()
@@ -612,20 +666,245 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
                 // Loop until we're asked to stop
                 while (!isStopRequested())
                     {
-                    // Read the latest available acceleration
-                    final Acceleration accelNext = AdaFruitBNO055IMU.this.getLinearAcceleration();
-
-                    // Have the algorithm do its thing
-                    synchronized (dataLock)
+                    // Read the latest available acceleration, and have the algorithm do its thing.
+                    // Those that can take its components are spared an Acceleration per step.
+                    long nsRead = this.clock.nanoTime();
+                    IAccelerationIntegrator algorithm = accelerationAlgorithm;
+                    if (algorithm instanceof IPrimitiveAccelerationIntegrator)
                         {
-                        accelerationAlgorithm.update(accelNext);
+                        I2cDeviceSynch.TimestampedData ts;
+                        double scale;
+                        synchronized (AdaFruitBNO055IMU.this)
+                            {
+                            ts    = getVector(VECTOR.LINEARACCEL);
+                            scale = getAccelerationScale();
+                            }
+                        synchronized (dataLock)
+                            {
+                            ((IPrimitiveAccelerationIntegrator)algorithm).update(
+                                    decodeShort(ts.data, 0) / scale,
+                                    decodeShort(ts.data, 2) / scale,
+                                    decodeShort(ts.data, 4) / scale,
+                                    ts.nanoTime);
+                            }
+                        }
+                    else
+                        {
+                        final Acceleration accelNext = AdaFruitBNO055IMU.this.getLinearAcceleration();
+                        synchronized (dataLock)
+                            {
+                            algorithm.update(accelNext);
+                            }
                         }
                     
                     // Wait a bit before polling again
                     if (msPollInterval > 0)
                         {
-                        long msSoFar = (System.nanoTime() - accelNext.nanoTime) / nsPerMs;
-                        Thread.sleep(Math.max(0,msPollInterval - msSoFar));
+                        long msSoFar = (this.clock.nanoTime() - nsRead) / nsPerMs;
+                        this.clock.sleep(Math.max(0,msPollInterval - msSoFar));
+                        }
+                    else
+                        Thread.yield(); // never do a hard spin
+                    }
+                }
+            catch (InterruptedException|CancellationException e)
+                {
+                return;
+                }
+            }
+        }
+
+    //------------------------------------------------------------------------------------------
+    // Background sampling
+    //------------------------------------------------------------------------------------------
+
+    public void startSampling(int msPollInterval)
+        {
+        synchronized (this.startStopLock)
+            {
+            this.stopSampling();
+            // Don't let the ...At() queries span the time we weren't sampling
+            this.history.clear();
+            this.sampler = ThreadPool.newSingleThreadExecutor();
+            this.sampler.execute(new Sampler(msPollInterval));
+            }
+        }
+
+    public void stopSampling() // like stopAccelerationIntegration(), mustn't use 'synchronized(this)'
+        {
+        synchronized (this.startStopLock)
+            {
+            if (this.sampler != null)
+                {
+                this.sampler.shutdownNow();
+                ThreadPool.awaitTerminationOrExitApplication(this.sampler, 10, TimeUnit.SECONDS, "IMU sampler", "unresponsive IMU sampler");
+                this.sampler = null;
+                }
+            }
+        }
+
+    public boolean isSampling()
+        {
+        synchronized (this.startStopLock)
+            {
+            return this.sampler != null;
+            }
+        }
+
+    public FusionSnapshot getLatestFusionSnapshot()
+        {
+        for (;;)
+            {
+            long seq      = this.latest.beginRead();
+            long nanoTime = this.latest.getLong(iNanoTime);
+            EulerAngles  angles     = new EulerAngles(this.latest.get(iEuler), this.latest.get(iEuler+1), this.latest.get(iEuler+2), nanoTime);
+            Quaternion   quaternion = new Quaternion(this.latest.get(iQuaternion), this.latest.get(iQuaternion+1), this.latest.get(iQuaternion+2), this.latest.get(iQuaternion+3), nanoTime);
+            Acceleration linear     = new Acceleration(this.latest.get(iLinear), this.latest.get(iLinear+1), this.latest.get(iLinear+2), nanoTime);
+            Acceleration gravity    = new Acceleration(this.latest.get(iGravity), this.latest.get(iGravity+1), this.latest.get(iGravity+2), nanoTime);
+            if (this.latest.validate(seq))
+                return new FusionSnapshot(angles, quaternion, linear, gravity, nanoTime);
+            }
+        }
+
+    public EulerAngles getLatestAngularOrientation()
+        {
+        for (;;)
+            {
+            long   seq      = this.latest.beginRead();
+            double heading  = this.latest.get(iEuler);
+            double roll     = this.latest.get(iEuler+1);
+            double pitch    = this.latest.get(iEuler+2);
+            long   nanoTime = this.latest.getLong(iNanoTime);
+            if (this.latest.validate(seq))
+                return new EulerAngles(heading, roll, pitch, nanoTime);
+            }
+        }
+
+    public double getLatestHeading()
+        {
+        return this.latest.read(iEuler);
+        }
+
+    public Quaternion getLatestQuaternionOrientation()
+        {
+        for (;;)
+            {
+            long   seq      = this.latest.beginRead();
+            double w        = this.latest.get(iQuaternion);
+            double x        = this.latest.get(iQuaternion+1);
+            double y        = this.latest.get(iQuaternion+2);
+            double z        = this.latest.get(iQuaternion+3);
+            long   nanoTime = this.latest.getLong(iNanoTime);
+            if (this.latest.validate(seq))
+                return new Quaternion(w, x, y, z, nanoTime);
+            }
+        }
+
+    public Acceleration getLatestLinearAcceleration()
+        {
+        for (;;)
+            {
+            long   seq      = this.latest.beginRead();
+            double x        = this.latest.get(iLinear);
+            double y        = this.latest.get(iLinear+1);
+            double z        = this.latest.get(iLinear+2);
+            long   nanoTime = this.latest.getLong(iNanoTime);
+            if (this.latest.validate(seq))
+                return new Acceleration(x, y, z, nanoTime);
+            }
+        }
+
+    public Acceleration getLatestOverallAcceleration()
+        {
+        for (;;)
+            {
+            long   seq      = this.latest.beginRead();
+            double x        = this.latest.get(iLinear)   + this.latest.get(iGravity);
+            double y        = this.latest.get(iLinear+1) + this.latest.get(iGravity+1);
+            double z        = this.latest.get(iLinear+2) + this.latest.get(iGravity+2);
+            long   nanoTime = this.latest.getLong(iNanoTime);
+            if (this.latest.validate(seq))
+                return new Acceleration(x, y, z, nanoTime);
+            }
+        }
+
+    public double getHeadingAt(long nanoTime)
+        {
+        Parameters parameters = this.parameters;
+        double fullCircle = parameters != null && parameters.angleUnit == ANGLEUNIT.DEGREES ? 360 : 2 * Math.PI;
+        return this.history.headingAt(nanoTime, fullCircle);
+        }
+
+    public boolean getQuaternionOrientationAt(long nanoTime, Quatd result)
+        {
+        return this.history.quaternionAt(nanoTime, result);
+        }
+
+    public boolean getLinearAccelerationAt(long nanoTime, Vec3d result)
+        {
+        return this.history.linearAccelerationAt(nanoTime, result);
+        }
+
+    private void publish(FusionSnapshot snapshot)
+        {
+        this.latest.beginWrite();
+        this.latest.setLong(iNanoTime,  snapshot.nanoTime);
+        this.latest.set(iEuler,         snapshot.angles.heading);
+        this.latest.set(iEuler+1,       snapshot.angles.roll);
+        this.latest.set(iEuler+2,       snapshot.angles.pitch);
+        this.latest.set(iQuaternion,    snapshot.quaternion.w);
+        this.latest.set(iQuaternion+1,  snapshot.quaternion.x);
+        this.latest.set(iQuaternion+2,  snapshot.quaternion.y);
+        this.latest.set(iQuaternion+3,  snapshot.quaternion.z);
+        this.latest.set(iLinear,        snapshot.linearAcceleration.accelX);
+        this.latest.set(iLinear+1,      snapshot.linearAcceleration.accelY);
+        this.latest.set(iLinear+2,      snapshot.linearAcceleration.accelZ);
+        this.latest.set(iGravity,       snapshot.gravity.accelX);
+        this.latest.set(iGravity+1,     snapshot.gravity.accelY);
+        this.latest.set(iGravity+2,     snapshot.gravity.accelZ);
+        this.latest.endWrite();
+
+        this.history.add(snapshot.nanoTime,
+            snapshot.angles.heading,
+            snapshot.quaternion.w, snapshot.quaternion.x, snapshot.quaternion.y, snapshot.quaternion.z,
+            snapshot.linearAcceleration.accelX, snapshot.linearAcceleration.accelY, snapshot.linearAcceleration.accelZ);
+        }
+
+    /** Reads the fusion outputs at intervals, publishing them through 'latest' */
+    class Sampler implements Runnable
+        {
+        private final int msPollInterval;
+        private final Clock clock;
+        private final static long nsPerMs = ElapsedTime.MILLIS_IN_NANO;
+
+        Sampler(int msPollInterval)
+            {
+            this.msPollInterval = msPollInterval;
+            this.clock          = Clock.current();
+            }
+
+        @Override public void run()
+            {
+            try
+                {
+                while (!isStopRequested())
+                    {
+                    long nsRead = this.clock.nanoTime();
+
+                    // The fusion outputs read as zero while we're in CONFIG mode, as we are,
+                    // for instance, while calibration data is read or written. Those aren't
+                    // samples anyone wants to see.
+                    if (currentMode != SENSOR_MODE.CONFIG)
+                        {
+                        FusionSnapshot snapshot = AdaFruitBNO055IMU.this.getFusionSnapshot();
+                        if (!isStopRequested())
+                            publish(snapshot);
+                        }
+
+                    if (msPollInterval > 0)
+                        {
+                        long msSoFar = (this.clock.nanoTime() - nsRead) / nsPerMs;
+                        this.clock.sleep(Math.max(0,msPollInterval - msSoFar));
                         }
                     else
                         Thread.yield(); // never do a hard spin
@@ -645,14 +924,12 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
 
     @Override public synchronized byte read8(final REGISTER reg)
         {
-        // ensureReadWindow(new I2cDeviceSynch.ReadWindow(reg.bVal, 1, readMode)); // no longer needed: a READ_ONCE window will automatically be used, if needed
-        return deviceClient.read8(reg.bVal);
+        return readWindowPlanner.read8(reg.bVal);
         }
 
     @Override public synchronized byte[] read(final REGISTER reg, final int cb)
         {
-        // ensureReadWindow(new I2cDeviceSynch.ReadWindow(reg.bVal, cb, readMode)); // no longer needed: a READ_ONCE window will automatically be used, if needed
-        return deviceClient.read(reg.bVal, cb);
+        return readWindowPlanner.read(reg.bVal, cb);
         }
 
     @Override public void write8(REGISTER reg, int data)
@@ -701,43 +978,6 @@ public final class AdaFruitBNO055IMU implements IBNO055IMU, I2cDeviceSynchUser,
             }
         }
 
-    /**
-     * One of two primary register windows we use for reading from the BNO055.
-     * 
-     * Given the maximum allowable size of a register window, the set of registers on 
-     * a BNO055 can be usefully divided into two windows, which we here call lowerWindow
-     * and upperWindow. 
-     * 
-     * When we find the need to change register windows depending on what data is being requested
-     * from the sensor, we try to use these two windows so as to reduce the number of register
-     * window switching that might be required as other data is read in the future.
-     */
-    private static final I2cDeviceSynch.ReadWindow lowerWindow = newWindow(REGISTER.CHIP_ID, REGISTER.EULER_H_LSB);
-    /**
-     * A second of two primary register windows we use for reading from the BNO055.
-     * We'd like to include the temperature register, too, but that would make a 27-byte window, and
-     * those don't (currently) work in the CDIM.
-     *
-     * @see #lowerWindow
-     */
-    private static final I2cDeviceSynch.ReadWindow upperWindow = newWindow(REGISTER.EULER_H_LSB, REGISTER.TEMP);
-    
-    private static I2cDeviceSynch.ReadWindow newWindow(REGISTER regFirst, REGISTER regMax)
-        {
-        return new I2cDeviceSynch.ReadWindow(regFirst.bVal, regMax.bVal-regFirst.bVal, readMode);
-        }
-
-    private void ensureReadWindow(I2cDeviceSynch.ReadWindow needed)
-    // We optimize small windows into larger ones if we can
-        {
-        I2cDeviceSynch.ReadWindow windowToSet = lowerWindow.containsWithSameMode(needed)
-            ? lowerWindow
-            : upperWindow.containsWithSameMode(needed)
-                ? upperWindow
-                : needed;           // just use what's needed if it's not within our two main windows
-        this.deviceClient.ensureReadWindow(needed, windowToSet);
-        }
-
     // Our write logic doesn't actually know when the I2C writes are issued. All it knows is
     // when the write has made it to the USB Core Device Interface Module. It's a pretty
     // deterministic interval after that that the I2C write occurs, we guess, but we don't
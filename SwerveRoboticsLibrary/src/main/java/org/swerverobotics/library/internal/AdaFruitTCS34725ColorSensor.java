@@ -8,6 +8,8 @@ import com.qualcomm.robotcore.util.*;
 
 import org.swerverobotics.library.ClassFactory;
 import org.swerverobotics.library.exceptions.UnexpectedI2CDeviceException;
+import org.swerverobotics.library.interfaces.IReadWindowStatistics;
+import org.swerverobotics.library.interfaces.IReadWindowStatisticsProvider;
 
 import java.nio.ByteOrder;
 
@@ -21,7 +23,7 @@ import static org.swerverobotics.library.internal.Util.handleCapturedInterrupt;
  * https://www.adafruit.com/products/1334?&main_page=product_info&products_id=1334
  * https://github.com/adafruit/Adafruit_TCS34725
  */
-public class AdaFruitTCS34725ColorSensor implements ColorSensor, IOpModeStateTransitionEvents
+public class AdaFruitTCS34725ColorSensor implements ColorSensor, IReadWindowStatisticsProvider, IOpModeStateTransitionEvents
     {
     //----------------------------------------------------------------------------------------------
     // State
@@ -107,6 +109,7 @@ public class AdaFruitTCS34725ColorSensor implements ColorSensor, IOpModeStateTra
     public static final int IREG_READ_LAST      = TCS34725_BDATAH;
 
     final I2cDeviceSynch                    i2CDeviceSynch;
+    final ReadWindowPlanner                 readWindowPlanner;
     boolean                                 ledIsEnabled;
     boolean                                 ledStateIsKnown;
     I2cDeviceReplacementHelper<ColorSensor> helper;
@@ -122,15 +125,16 @@ public class AdaFruitTCS34725ColorSensor implements ColorSensor, IOpModeStateTra
         this.ledIsEnabled    = false;
         this.ledStateIsKnown = false;
 
-        this.i2CDeviceSynch.setReadWindow(new I2cDeviceSynch.ReadWindow(
-                IREG_READ_FIRST, IREG_READ_LAST - IREG_READ_FIRST + 1,
-                I2cDeviceSynch.ReadMode.REPEAT));
+        this.readWindowPlanner = new ReadWindowPlanner(this.i2CDeviceSynch, I2cDeviceSynch.ReadMode.REPEAT);
 
         RobotStateTransitionNotifier.register(context, this);
         }
 
     public static ColorSensor create(OpMode context, ColorSensor target)
         {
+        // The hardware map may have handed out a wrapper of the SDK's sensor
+        target = Util.unwrap(target);
+
         I2cController controller;
         int port;
         int i2cAddr8Bit;
@@ -181,7 +185,7 @@ public class AdaFruitTCS34725ColorSensor implements ColorSensor, IOpModeStateTra
     public void initialize(Parameters parameters)
         {
         // Verify that we're talking to whom we think we're talking to
-        byte id = this.i2CDeviceSynch.read8(TCS34725_ID);
+        byte id = this.readWindowPlanner.read8(TCS34725_ID);
         if (id != 0x44 && id != 0x10)
             throw new UnexpectedI2CDeviceException(id);
 
@@ -276,15 +280,20 @@ public class AdaFruitTCS34725ColorSensor implements ColorSensor, IOpModeStateTra
     // ColorSensor
     //----------------------------------------------------------------------------------------------
 
+    @Override public IReadWindowStatistics getReadWindowStatistics()
+        {
+        return this.readWindowPlanner;
+        }
+
     int read8(int ireg)
         {
-        byte b = this.i2CDeviceSynch.read8(ireg);
+        byte b = this.readWindowPlanner.read8(ireg);
         return TypeConversion.unsignedByteToInt(b);
         }
 
     int readLH(int ireg)
         {
-        byte[] bytes = this.i2CDeviceSynch.read(ireg, 2);
+        byte[] bytes = this.readWindowPlanner.read(ireg, 2);
         return TypeConversion.byteArrayToInt(bytes, ByteOrder.LITTLE_ENDIAN);
         }
 
@@ -0,0 +1,51 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.AnalogInput;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingAnalogInput is an AnalogInput whose value is cached for the duration of a hardware cycle.
+ *
+ * @see ReadCache
+ */
+public class CachingAnalogInput extends AnalogInput implements IHardwareWrapper<AnalogInput>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final AnalogInput       target;
+    private final ReadCache.Reading value;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingAnalogInput(AnalogInput target, ReadCache cache)
+        {
+        super(ThreadSafeAnalogInput.getController(target), ThreadSafeAnalogInput.getChannel(target));
+        this.target = target;
+        this.value  = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return CachingAnalogInput.this.target.getValue();
+                }
+            };
+        }
+
+    @Override public AnalogInput getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    @Override public int getValue()
+        {
+        return this.value.getInt();
+        }
+    }
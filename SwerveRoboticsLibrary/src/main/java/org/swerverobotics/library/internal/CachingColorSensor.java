@@ -0,0 +1,152 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingColorSensor is a ColorSensor whose readings are cached for the duration of a
+ * hardware cycle. Each channel is cached separately, so reading red() doesn't also read blue().
+ *
+ * @see ReadCache
+ */
+public class CachingColorSensor implements ColorSensor, IHardwareWrapper<ColorSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final ColorSensor target;
+    protected final ReadCache.Reading red;
+    protected final ReadCache.Reading green;
+    protected final ReadCache.Reading blue;
+    protected final ReadCache.Reading alpha;
+    protected final ReadCache.Reading argb;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingColorSensor(final ColorSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.red = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.red();
+                }
+            };
+        this.green = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.green();
+                }
+            };
+        this.blue = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.blue();
+                }
+            };
+        this.alpha = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.alpha();
+                }
+            };
+        this.argb = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.argb();
+                }
+            };
+        }
+
+    @Override public ColorSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // ColorSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public int red()
+        {
+        return this.red.getInt();
+        }
+
+    @Override public int green()
+        {
+        return this.green.getInt();
+        }
+
+    @Override public int blue()
+        {
+        return this.blue.getInt();
+        }
+
+    @Override public int alpha()
+        {
+        return this.alpha.getInt();
+        }
+
+    @Override public int argb()
+        {
+        return this.argb.getInt();
+        }
+
+    @Override public void enableLed(boolean enable)
+        {
+        this.target.enableLed(enable);
+        this.red.invalidate();
+        this.green.invalidate();
+        this.blue.invalidate();
+        this.alpha.invalidate();
+        this.argb.invalidate();
+        }
+
+    @Override public void setI2cAddress(int newAddress)
+        {
+        this.target.setI2cAddress(newAddress);
+        this.red.invalidate();
+        this.green.invalidate();
+        this.blue.invalidate();
+        this.alpha.invalidate();
+        this.argb.invalidate();
+        }
+
+    @Override public int getI2cAddress()
+        {
+        return this.target.getI2cAddress();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
@@ -0,0 +1,92 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.CompassSensor;
+import com.qualcomm.robotcore.hardware.CompassSensor.CompassMode;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingCompassSensor is a CompassSensor whose direction readings are cached for the duration
+ * of a hardware cycle.
+ *
+ * @see ReadCache
+ */
+public class CachingCompassSensor implements CompassSensor, IHardwareWrapper<CompassSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final CompassSensor target;
+    protected final ReadCache.Reading direction;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingCompassSensor(final CompassSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.direction = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getDirection();
+                }
+            };
+        }
+
+    @Override public CompassSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // CompassSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public double getDirection()
+        {
+        return this.direction.get();
+        }
+
+    @Override public String status()
+        {
+        return this.target.status();
+        }
+
+    @Override public void setMode(CompassMode mode)
+        {
+        this.target.setMode(mode);
+        this.direction.invalidate();
+        }
+
+    @Override public boolean calibrationFailed()
+        {
+        return this.target.calibrationFailed();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
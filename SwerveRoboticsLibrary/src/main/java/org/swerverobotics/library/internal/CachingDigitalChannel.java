@@ -0,0 +1,65 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.DigitalChannel;
+import com.qualcomm.robotcore.hardware.DigitalChannelController;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingDigitalChannel is a DigitalChannel whose state is cached for the duration of a
+ * hardware cycle. Writing the channel, or changing its mode, discards what was cached.
+ *
+ * @see ReadCache
+ */
+public class CachingDigitalChannel extends DigitalChannel implements IHardwareWrapper<DigitalChannel>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final DigitalChannel    target;
+    private final ReadCache.Reading state;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingDigitalChannel(DigitalChannel target, ReadCache cache)
+        {
+        super(ThreadSafeDigitalChannel.getController(target), ThreadSafeDigitalChannel.getChannel(target));
+        this.target = target;
+        this.state  = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return ReadCache.toDouble(CachingDigitalChannel.this.target.getState());
+                }
+            };
+        }
+
+    @Override public DigitalChannel getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    @Override public boolean getState()
+        {
+        return this.state.getBoolean();
+        }
+
+    @Override public void setState(boolean state)
+        {
+        this.target.setState(state);
+        this.state.invalidate();
+        }
+
+    @Override public void setMode(DigitalChannelController.Mode mode)
+        {
+        this.target.setMode(mode);
+        this.state.invalidate();
+        }
+    }
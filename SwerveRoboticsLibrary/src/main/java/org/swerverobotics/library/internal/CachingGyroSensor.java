@@ -0,0 +1,167 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.GyroSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingGyroSensor is a GyroSensor whose readings are cached for the duration of a hardware
+ * cycle. Calibrating the gyro or resetting its integrator discards what was cached.
+ *
+ * @see ReadCache
+ */
+public class CachingGyroSensor implements GyroSensor, IHardwareWrapper<GyroSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final GyroSensor target;
+    protected final ReadCache.Reading calibrating;
+    protected final ReadCache.Reading heading;
+    protected final ReadCache.Reading rotation;
+    protected final ReadCache.Reading rawX;
+    protected final ReadCache.Reading rawY;
+    protected final ReadCache.Reading rawZ;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingGyroSensor(final GyroSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.calibrating = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return ReadCache.toDouble(target.isCalibrating());
+                }
+            };
+        this.heading = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getHeading();
+                }
+            };
+        this.rotation = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getRotation();
+                }
+            };
+        this.rawX = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.rawX();
+                }
+            };
+        this.rawY = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.rawY();
+                }
+            };
+        this.rawZ = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.rawZ();
+                }
+            };
+        }
+
+    @Override public GyroSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // GyroSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void calibrate()
+        {
+        this.target.calibrate();
+        this.calibrating.invalidate();
+        this.heading.invalidate();
+        this.rotation.invalidate();
+        this.rawX.invalidate();
+        this.rawY.invalidate();
+        this.rawZ.invalidate();
+        }
+
+    @Override public boolean isCalibrating()
+        {
+        return this.calibrating.getBoolean();
+        }
+
+    @Override public int getHeading()
+        {
+        return this.heading.getInt();
+        }
+
+    @Override public double getRotation()
+        {
+        return this.rotation.get();
+        }
+
+    @Override public int rawX()
+        {
+        return this.rawX.getInt();
+        }
+
+    @Override public int rawY()
+        {
+        return this.rawY.getInt();
+        }
+
+    @Override public int rawZ()
+        {
+        return this.rawZ.getInt();
+        }
+
+    @Override public void resetZAxisIntegrator()
+        {
+        this.target.resetZAxisIntegrator();
+        this.calibrating.invalidate();
+        this.heading.invalidate();
+        this.rotation.invalidate();
+        this.rawX.invalidate();
+        this.rawY.invalidate();
+        this.rawZ.invalidate();
+        }
+
+    @Override public String status()
+        {
+        return this.target.status();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
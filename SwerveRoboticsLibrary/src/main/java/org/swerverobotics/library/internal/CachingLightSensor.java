@@ -0,0 +1,100 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.LightSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingLightSensor is a LightSensor whose readings are cached for the duration of a hardware
+ * cycle, so that a loop polling the sensor doesn't go to the controller each time round.
+ *
+ * @see ReadCache
+ */
+public class CachingLightSensor implements LightSensor, IHardwareWrapper<LightSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final LightSensor target;
+    protected final ReadCache.Reading lightDetected;
+    protected final ReadCache.Reading lightDetectedRaw;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingLightSensor(final LightSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.lightDetected = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getLightDetected();
+                }
+            };
+        this.lightDetectedRaw = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getLightDetectedRaw();
+                }
+            };
+        }
+
+    @Override public LightSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // LightSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public double getLightDetected()
+        {
+        return this.lightDetected.get();
+        }
+
+    @Override public int getLightDetectedRaw()
+        {
+        return this.lightDetectedRaw.getInt();
+        }
+
+    @Override public void enableLed(boolean enable)
+        {
+        this.target.enableLed(enable);
+        this.lightDetected.invalidate();
+        this.lightDetectedRaw.invalidate();
+        }
+
+    @Override public String status()
+        {
+        return this.target.status();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
@@ -0,0 +1,17 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.OpticalDistanceSensor;
+
+/**
+ * CachingOpticalDistanceSensor is an OpticalDistanceSensor whose readings are cached for the
+ * duration of a hardware cycle. An OpticalDistanceSensor is just a LightSensor by another name.
+ *
+ * @see ReadCache
+ */
+public class CachingOpticalDistanceSensor extends CachingLightSensor implements OpticalDistanceSensor
+    {
+    public CachingOpticalDistanceSensor(OpticalDistanceSensor target, ReadCache cache)
+        {
+        super(target, cache);
+        }
+    }
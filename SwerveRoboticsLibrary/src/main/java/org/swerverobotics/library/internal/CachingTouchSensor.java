@@ -0,0 +1,88 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.TouchSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingTouchSensor is a TouchSensor whose readings are cached for the duration of a
+ * hardware cycle.
+ *
+ * @see ReadCache
+ */
+public class CachingTouchSensor implements TouchSensor, IHardwareWrapper<TouchSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final TouchSensor target;
+    protected final ReadCache.Reading value;
+    protected final ReadCache.Reading pressed;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingTouchSensor(final TouchSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.value = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getValue();
+                }
+            };
+        this.pressed = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return ReadCache.toDouble(target.isPressed());
+                }
+            };
+        }
+
+    @Override public TouchSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // TouchSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public double getValue()
+        {
+        return this.value.get();
+        }
+
+    @Override public boolean isPressed()
+        {
+        return this.pressed.getBoolean();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
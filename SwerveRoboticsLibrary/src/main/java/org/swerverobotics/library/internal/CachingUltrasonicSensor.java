@@ -0,0 +1,80 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.UltrasonicSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingUltrasonicSensor is an UltrasonicSensor whose readings are cached for the duration
+ * of a hardware cycle.
+ *
+ * @see ReadCache
+ */
+public class CachingUltrasonicSensor implements UltrasonicSensor, IHardwareWrapper<UltrasonicSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final UltrasonicSensor target;
+    protected final ReadCache.Reading ultrasonicLevel;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingUltrasonicSensor(final UltrasonicSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.ultrasonicLevel = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getUltrasonicLevel();
+                }
+            };
+        }
+
+    @Override public UltrasonicSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // UltrasonicSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public double getUltrasonicLevel()
+        {
+        return this.ultrasonicLevel.get();
+        }
+
+    @Override public String status()
+        {
+        return this.target.status();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
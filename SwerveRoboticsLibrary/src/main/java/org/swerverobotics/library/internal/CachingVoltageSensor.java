@@ -0,0 +1,75 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+
+/**
+ * CachingVoltageSensor is a VoltageSensor whose readings are cached for the duration of a
+ * hardware cycle.
+ *
+ * @see ReadCache
+ */
+public class CachingVoltageSensor implements VoltageSensor, IHardwareWrapper<VoltageSensor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    protected final VoltageSensor target;
+    protected final ReadCache.Reading voltage;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CachingVoltageSensor(final VoltageSensor target, ReadCache cache)
+        {
+        this.target = target;
+        this.voltage = cache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return target.getVoltage();
+                }
+            };
+        }
+
+    @Override public VoltageSensor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // VoltageSensor
+    //----------------------------------------------------------------------------------------------
+
+    @Override public double getVoltage()
+        {
+        return this.voltage.get();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // HardwareDevice
+    //----------------------------------------------------------------------------------------------
+
+    @Override public String getDeviceName()
+        {
+        return this.target.getDeviceName();
+        }
+
+    @Override public String getConnectionInfo()
+        {
+        return this.target.getConnectionInfo();
+        }
+
+    @Override public int getVersion()
+        {
+        return this.target.getVersion();
+        }
+
+    @Override public void close()
+        {
+        this.target.close();
+        }
+    }
@@ -0,0 +1,34 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.ICancellationToken;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * A simple volatile-flag implementation of ICancellationToken
+ */
+public class CancellationToken implements ICancellationToken
+    {
+    private volatile boolean cancellationRequested = false;
+
+    public void cancel()
+        {
+        this.cancellationRequested = true;
+        }
+
+    public void reset()
+        {
+        this.cancellationRequested = false;
+        }
+
+    @Override public boolean isCancellationRequested()
+        {
+        return this.cancellationRequested;
+        }
+
+    @Override public void throwIfCancellationRequested()
+        {
+        if (this.cancellationRequested)
+            throw new CancellationException();
+        }
+    }
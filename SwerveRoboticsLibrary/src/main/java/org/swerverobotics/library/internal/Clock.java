@@ -0,0 +1,100 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.IClock;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock is the base of the clocks on which SynchronousOpMode runs. Beyond telling the time,
+ * a clock owns the blocking primitives (park and unpark) used by the synchronous threads so
+ * that a simulated clock can tell when all of them are waiting, and it is told of the comings
+ * and goings of those threads.
+ *
+ * @see VirtualClock
+ */
+public abstract class Clock implements IClock
+    {
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    /** The real time clock used on the robot */
+    public static final Clock REAL_TIME = new RealTimeClock();
+
+    /**
+     * Returns the clock of the SynchronousOpMode of the current thread, if there is one,
+     * and the real time clock otherwise
+     */
+    public static Clock current()
+        {
+        return forOpMode(SwerveThreadContext.getOpMode());
+        }
+
+    /**
+     * Returns the clock of the indicated OpMode if it is a SynchronousOpMode, and the real
+     * time clock otherwise
+     */
+    public static Clock forOpMode(OpMode opMode)
+        {
+        if (opMode instanceof SynchronousOpMode)
+            return ((SynchronousOpMode)opMode).getClock();
+        return REAL_TIME;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Blocking
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * As LockSupport.park(), on this clock. Returns on unpark(), interrupt, or spuriously.
+     */
+    public abstract void park(Object blocker);
+
+    /**
+     * As LockSupport.parkNanos(), on this clock. Also returns once nsTimeout has elapsed.
+     */
+    public abstract void parkNanos(Object blocker, long nsTimeout);
+
+    /**
+     * As LockSupport.unpark(): makes the thread's next (or current) park() return
+     */
+    public abstract void unpark(Thread thread);
+
+    //----------------------------------------------------------------------------------------------
+    // Synchronous threads
+    //----------------------------------------------------------------------------------------------
+
+    /** Called on the spawning thread just before a synchronous thread is handed to an executor */
+    public void threadSpawning()            { }
+    /** Called instead of threadStarting() if the executor refused the thread */
+    public void threadSpawnFailed()         { }
+    /** Called on a synchronous thread as it begins to run */
+    public void threadStarting()            { }
+    /** Called on a synchronous thread as it terminates */
+    public void threadStopping()            { }
+
+    /**
+     * Called when the main() thread has run to completion and would like the OpMode to stop
+     */
+    public void requestOpModeStop(OpMode opMode)
+        {
+        opMode.requestOpModeStop();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Real time
+    //----------------------------------------------------------------------------------------------
+
+    static class RealTimeClock extends Clock
+        {
+        @Override public long nanoTime()                                { return System.nanoTime(); }
+        @Override public void sleep(long ms) throws InterruptedException { Thread.sleep(ms); }
+        @Override public boolean isRealTime()                           { return true; }
+        @Override public void park(Object blocker)                      { LockSupport.park(blocker); }
+        @Override public void parkNanos(Object blocker, long nsTimeout) { LockSupport.parkNanos(blocker, nsTimeout); }
+        @Override public void unpark(Thread thread)                     { LockSupport.unpark(thread); }
+        }
+    }
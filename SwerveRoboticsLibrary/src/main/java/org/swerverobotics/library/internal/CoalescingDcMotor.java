@@ -0,0 +1,145 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.*;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+import org.swerverobotics.library.interfaces.IWriteCoalescingStatistics;
+
+import java.util.Queue;
+
+/**
+ * CoalescingDcMotor is a DcMotor whose power writes are coalesced: redundant setPower() calls
+ * never reach the controller, and only the last of several made in one hardware cycle does.
+ * Other writes (mode, target position, float) are issued immediately, but only after any
+ * outstanding power write, so that the order the controller sees them in is preserved.
+ *
+ * The encoder position is also cached for the duration of a hardware cycle, so that a loop
+ * waiting for the motor to reach a position doesn't query the controller each time round.
+ * Either half may be turned off by passing a null queue or read cache.
+ *
+ * @see WriteCoalescer
+ * @see ReadCache
+ */
+public class CoalescingDcMotor extends DcMotor implements IHardwareWrapper<DcMotor>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final DcMotor        target;
+    private final WriteCoalescer power;
+    private final ReadCache.Reading currentPosition;    // null if not caching
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CoalescingDcMotor(DcMotor target, Queue<WriteCoalescer> dirtyQueue)
+        {
+        this(target, dirtyQueue, null);
+        }
+
+    public CoalescingDcMotor(DcMotor target, Queue<WriteCoalescer> dirtyQueue, ReadCache readCache)
+        {
+        super(target.getController(), target.getPortNumber(), target.getDirection());
+        this.target = target;
+        this.power  = new WriteCoalescer(dirtyQueue)
+            {
+            @Override protected void issue(double value)
+                {
+                CoalescingDcMotor.super.internalSetPower(value);
+                }
+            };
+        this.currentPosition = readCache == null ? null : readCache.new Reading()
+            {
+            @Override protected double read()
+                {
+                return CoalescingDcMotor.super.getCurrentPosition();
+                }
+            };
+        }
+
+    @Override public DcMotor getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    public IWriteCoalescingStatistics getWriteStatistics()
+        {
+        return this.power;
+        }
+
+    public WriteCoalescer getCoalescer()
+        {
+        return this.power;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    @Override protected void internalSetPower(double power)
+        {
+        this.power.write(power);
+        }
+
+    @Override public synchronized double getPower()
+        {
+        // Report what was asked for, even if it hasn't yet gone out (super.getPower() would
+        // read the controller's old value). What's pending is what will be written to the
+        // controller: setPower() has already reversed it, and made it positive if we're in
+        // RUN_TO_POSITION. So we map it back exactly as super.getPower() maps what it reads,
+        // and report the same whether or not the write has been flushed.
+        if (this.power.isPending())
+            {
+            double power = this.power.getPending();
+            if (this.direction == Direction.REVERSE && power != 0)
+                power = -power;
+            return power;
+            }
+        return super.getPower();
+        }
+
+    @Override public int getCurrentPosition()
+        {
+        // Deliberately not synchronized: a hit shouldn't contend with writers
+        return this.currentPosition == null ? super.getCurrentPosition() : this.currentPosition.getInt();
+        }
+
+    @Override public synchronized void setPowerFloat()
+        {
+        this.power.flush();
+        super.setPowerFloat();
+        this.power.invalidate();
+        }
+
+    @Override public synchronized void setMode(DcMotorController.RunMode mode)
+        {
+        // Some controllers reset the power on a mode change, so we don't assume we know it afterwards
+        this.power.flush();
+        super.setMode(mode);
+        this.power.invalidate();
+        this.invalidateCurrentPosition();   // the mode may have been RESET_ENCODERS
+        }
+
+    @SuppressWarnings("deprecation")  // user code may still call the old name, so it must flush too
+    @Override public synchronized void setChannelMode(DcMotorController.RunMode mode)
+        {
+        this.power.flush();
+        super.setChannelMode(mode);
+        this.power.invalidate();
+        this.invalidateCurrentPosition();
+        }
+
+    @Override public synchronized void setTargetPosition(int position)
+        {
+        this.power.flush();
+        super.setTargetPosition(position);
+        }
+
+    private void invalidateCurrentPosition()
+        {
+        if (this.currentPosition != null)
+            this.currentPosition.invalidate();
+        }
+    }
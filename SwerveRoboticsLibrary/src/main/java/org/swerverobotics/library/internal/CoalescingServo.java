@@ -0,0 +1,82 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.*;
+
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
+import org.swerverobotics.library.interfaces.IWriteCoalescingStatistics;
+
+import java.util.Queue;
+
+/**
+ * CoalescingServo is a Servo whose position writes are coalesced: redundant setPosition()
+ * calls never reach the controller, and only the last of several made in one hardware
+ * cycle does.
+ *
+ * @see WriteCoalescer
+ */
+public class CoalescingServo extends Servo implements IHardwareWrapper<Servo>
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final Servo          target;
+    private final WriteCoalescer position;
+    private double               positionRequested;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public CoalescingServo(Servo target, Queue<WriteCoalescer> dirtyQueue)
+        {
+        super(target.getController(), target.getPortNumber(), target.getDirection());
+        this.target   = target;
+        this.position = new WriteCoalescer(dirtyQueue)
+            {
+            @Override protected void issue(double value)
+                {
+                CoalescingServo.super.internalSetPosition(value);
+                }
+            };
+        }
+
+    @Override public Servo getWrappedTarget()
+        {
+        return this.target;
+        }
+
+    public IWriteCoalescingStatistics getWriteStatistics()
+        {
+        return this.position;
+        }
+
+    WriteCoalescer getCoalescer()
+        {
+        return this.position;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    @Override public synchronized void setPosition(double position)
+        {
+        // super scales the position and calls internalSetPosition()
+        super.setPosition(position);
+        this.positionRequested = position;
+        }
+
+    @Override protected void internalSetPosition(double position)
+        {
+        this.position.write(position);
+        }
+
+    @Override public synchronized double getPosition()
+        {
+        // super.getPosition() would read the controller's old value
+        if (this.position.isPending())
+            return this.positionRequested;
+        return super.getPosition();
+        }
+    }
@@ -0,0 +1,259 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.*;
+
+/**
+ * DriftCorrectingAccelerationIntegrator integrates acceleration to velocity and position much as
+ * the naive integrator does, but attends to the two things that make naive integration of a
+ * real IMU's output drift away within seconds:
+ *
+ * <ul>
+ * <li>Bias. Even at rest, the linear acceleration reported is not quite zero. Whenever the sensor
+ *     is judged to be stationary, what it reports is taken as (an estimate of) the bias, which is
+ *     then subtracted from every sample.</li>
+ * <li>Velocity error. Any error in acceleration, integrated, makes for a velocity that never quite
+ *     returns to zero, and so a position that wanders off for good. Whenever the sensor is judged
+ *     to be stationary, the velocity is set to zero: a 'zero velocity update'.</li>
+ * </ul>
+ *
+ * The sensor is judged stationary when, for a second or so, the acceleration (less the bias)
+ * has been small and it's also been steady, its short term variance being small too. Until
+ * there's an estimate of the bias, steadiness alone is enough, so it's best that the sensor be
+ * at rest for a moment after integration is first started. The thresholds assume accelerations
+ * in m/s/s. Samples that repeat one already seen (the same timestamp) are ignored entirely.
+ *
+ * Note that acceleration alone can't tell rest from motion at a constant velocity: a robot
+ * cruising steadily also shows a small, steady linear acceleration, and if it does so for long
+ * enough its velocity will be wrongly zeroed (and, the first time, the bias estimate thrown
+ * off). The long rest window makes that less likely, but for robots that do cruise, the client
+ * should say when the robot is being driven with {@link #setMotionCommanded(boolean)}; while
+ * it is, the sensor is never judged to be at rest.
+ *
+ * All state is kept in primitive fields, and a step allocates nothing. Trapezoidal integration
+ * is used for both velocity and position. Since that is only accurate if samples are frequent,
+ * this is best polled at the rate at which the sensor produces them, which for the BNO055 it
+ * is by default.
+ *
+ * @see org.swerverobotics.library.ClassFactory#createDriftCorrectingAccelerationIntegrator()
+ */
+public class DriftCorrectingAccelerationIntegrator implements IPrimitiveAccelerationIntegrator
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    // Tuning
+    private final double    stationaryAccel;            // m/s/s: larger than this is moving
+    private final double    stationaryVariance;         // (m/s/s)^2: noisier than this is moving
+    private final long      nsStationary;               // still for this long to be stationary
+    private static final double alphaMean       = 0.2;  // smoothing of the short term mean and variance
+    private static final double betaBiasMin     = 0.01; // slowest the bias estimate follows
+    private static final double secondsGapMax   = 0.5;  // longer than this, don't integrate across
+
+    // Where we are
+    private double  px, py, pz;
+    private double  vx, vy, vz;
+    private double  ax, ay, az;         // the latest acceleration, less the bias
+    private long    nanoTime;
+    private boolean haveSample;
+
+    // Stationarity and bias
+    private double  meanX, meanY, meanZ;
+    private double  variance;
+    private long    nanoTimeStill;      // when the current run of still samples began; zero if none
+    private boolean stationary;
+    private boolean motionCommanded;
+    private double  biasX, biasY, biasZ;
+    private long    cBiasSamples;
+    private long    cZeroVelocityUpdates;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /** Creates an integrator with thresholds suitable for a BNO055 polled at 100Hz */
+    public DriftCorrectingAccelerationIntegrator()
+        {
+        this(0.15, 0.005, 1000);
+        }
+
+    /**
+     * @param stationaryAccel       the largest acceleration, less the bias, of a stationary sensor, in m/s/s
+     * @param stationaryVariance    the largest short term variance in acceleration of a stationary sensor, in (m/s/s)^2
+     * @param msStationary          how long, in milliseconds, the acceleration must be small and steady for the sensor to be taken to be at rest
+     */
+    public DriftCorrectingAccelerationIntegrator(double stationaryAccel, double stationaryVariance, int msStationary)
+        {
+        this.stationaryAccel    = stationaryAccel;
+        this.stationaryVariance = stationaryVariance;
+        this.nsStationary       = msStationary * 1000000L;
+        this.initialize(null, null);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    @Override public synchronized Position getPosition()
+        {
+        return new Position(this.px, this.py, this.pz, this.nanoTime);
+        }
+
+    @Override public synchronized Velocity getVelocity()
+        {
+        return new Velocity(this.vx, this.vy, this.vz, this.nanoTime);
+        }
+
+    @Override public synchronized Acceleration getAcceleration()
+        {
+        return this.haveSample ? new Acceleration(this.ax, this.ay, this.az, this.nanoTime) : null;
+        }
+
+    /** Returns the current estimate of the bias in the acceleration reported by the sensor */
+    public synchronized Acceleration getBias()
+        {
+        return new Acceleration(this.biasX, this.biasY, this.biasZ, this.nanoTime);
+        }
+
+    /** Answers whether the sensor is currently judged to be stationary */
+    public synchronized boolean isStationary()
+        {
+        return this.stationary;
+        }
+
+    /**
+     * Says whether the robot is currently being driven, as when its motors are being given power.
+     * While it is, the sensor is never judged to be at rest, however steady its acceleration.
+     * Initially, it is not.
+     */
+    public synchronized void setMotionCommanded(boolean motionCommanded)
+        {
+        this.motionCommanded = motionCommanded;
+        if (motionCommanded)
+            {
+            this.nanoTimeStill = 0;
+            this.stationary    = false;
+            }
+        }
+
+    /** Returns the number of times the velocity has been zeroed because the sensor was at rest */
+    public synchronized long getZeroVelocityUpdateCount()
+        {
+        return this.cZeroVelocityUpdates;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Sets the position and velocity. The bias estimate is kept, as the sensor hasn't changed.
+     */
+    @Override public synchronized void initialize(Position initialPosition, Velocity initialVelocity)
+        {
+        if (initialPosition != null)
+            {
+            this.px = initialPosition.x;
+            this.py = initialPosition.y;
+            this.pz = initialPosition.z;
+            }
+        if (initialVelocity != null)
+            {
+            this.vx = initialVelocity.velocX;
+            this.vy = initialVelocity.velocY;
+            this.vz = initialVelocity.velocZ;
+            }
+        this.ax = this.ay = this.az = 0;
+        this.haveSample    = false;
+        this.nanoTimeStill = 0;
+        this.stationary    = false;
+        }
+
+    @Override public void update(Acceleration acceleration)
+        {
+        this.update(acceleration.accelX, acceleration.accelY, acceleration.accelZ, acceleration.nanoTime);
+        }
+
+    @Override public synchronized void update(double rawX, double rawY, double rawZ, long nanoTime)
+        {
+        // We should always be given a timestamp here. We're often polled faster than the
+        // sensor is read, and so see the same sample again; that's no new information, and
+        // counting it would make the acceleration seem steadier than it is.
+        if (nanoTime == 0 || (this.haveSample && nanoTime <= this.nanoTime))
+            return;
+
+        // Track the short term mean and variance of what we're given
+        if (!this.haveSample)
+            {
+            this.meanX = rawX; this.meanY = rawY; this.meanZ = rawZ;
+            this.variance = 0;
+            }
+        else
+            {
+            double dx = rawX - this.meanX, dy = rawY - this.meanY, dz = rawZ - this.meanZ;
+            this.meanX += alphaMean * dx;
+            this.meanY += alphaMean * dy;
+            this.meanZ += alphaMean * dz;
+            this.variance += alphaMean * ((dx*dx + dy*dy + dz*dz) - this.variance);
+            }
+
+        // Remove the bias
+        double axNext = rawX - this.biasX;
+        double ayNext = rawY - this.biasY;
+        double azNext = rawZ - this.biasZ;
+
+        // Are we at rest? Until we've an estimate of the bias, we go by steadiness alone.
+        double  magnitudeSquared = axNext*axNext + ayNext*ayNext + azNext*azNext;
+        boolean small            = this.cBiasSamples == 0 || magnitudeSquared < this.stationaryAccel*this.stationaryAccel;
+        if (!this.motionCommanded && small && this.variance < this.stationaryVariance)
+            {
+            if (this.nanoTimeStill == 0)
+                this.nanoTimeStill = nanoTime;
+            this.stationary = nanoTime - this.nanoTimeStill >= this.nsStationary;
+            }
+        else
+            {
+            this.nanoTimeStill = 0;
+            this.stationary    = false;
+            }
+
+        if (this.stationary)
+            {
+            // What we're seeing is bias. Early on, the estimate is the plain mean of what we've
+            // seen at rest; later, it follows slowly, so as to track drift with temperature.
+            this.cBiasSamples++;
+            double beta = Math.max(betaBiasMin, 1.0 / this.cBiasSamples);
+            this.biasX += beta * (rawX - this.biasX);
+            this.biasY += beta * (rawY - this.biasY);
+            this.biasZ += beta * (rawZ - this.biasZ);
+
+            // And we're not moving
+            if (this.vx != 0 || this.vy != 0 || this.vz != 0)
+                this.cZeroVelocityUpdates++;
+            this.vx = this.vy = this.vz = 0;
+            axNext = ayNext = azNext = 0;
+            }
+        else if (this.haveSample)
+            {
+            double dt = (nanoTime - this.nanoTime) * 1e-9;
+            if (dt > 0 && dt <= secondsGapMax)
+                {
+                double vxNext = this.vx + (this.ax + axNext) * 0.5 * dt;
+                double vyNext = this.vy + (this.ay + ayNext) * 0.5 * dt;
+                double vzNext = this.vz + (this.az + azNext) * 0.5 * dt;
+                this.px += (this.vx + vxNext) * 0.5 * dt;
+                this.py += (this.vy + vyNext) * 0.5 * dt;
+                this.pz += (this.vz + vzNext) * 0.5 * dt;
+                this.vx = vxNext;
+                this.vy = vyNext;
+                this.vz = vzNext;
+                }
+            }
+
+        this.ax = axNext;
+        this.ay = ayNext;
+        this.az = azNext;
+        this.nanoTime   = nanoTime;
+        this.haveSample = true;
+        }
+    }
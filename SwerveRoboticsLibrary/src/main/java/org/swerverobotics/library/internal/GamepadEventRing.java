@@ -0,0 +1,235 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.swerverobotics.library.interfaces.GamepadEvent;
+
+/**
+ * GamepadEventRing turns successive snapshots of a pair of gamepads into a stream of edge
+ * events, held in a bounded single-producer, single-consumer ring buffer.
+ *
+ * The producer (the loop() thread) reduces each gamepad to a bitmask of pressed controls and
+ * writes one slot per changed bit into preallocated parallel arrays, so capturing allocates
+ * nothing and takes no locks. Slots are published by a volatile write of the write index and
+ * released by a volatile write of the read index. If the consumer falls more than a full ring
+ * behind, the newest events are dropped and counted rather than overwriting older ones.
+ */
+public class GamepadEventRing
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static final int CONTROL_COUNT = GamepadEvent.CONTROL.values().length;
+
+    private final int       capacity;
+    private final int       mask;
+    private final int[]     gamepads;
+    private final int[]     controls;
+    private final boolean[] pressed;
+    private final float[]   values;
+    private final long[]    nanoTimes;
+
+    private volatile long   writeIndex   = 0;   // written only by the producer
+    private volatile long   readIndex    = 0;   // written only by the consumer
+    private volatile long   droppedCount = 0;   // written only by the producer
+    private volatile float  threshold    = 0.5f;
+
+    // Producer-private
+    private final int[]     previousMasks = new int[2];
+    private final boolean[] havePrevious  = new boolean[2];
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param capacity the number of events that may be outstanding; rounded up to a power of two
+     */
+    public GamepadEventRing(int capacity)
+        {
+        this.capacity  = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask      = this.capacity - 1;
+        this.gamepads  = new int[this.capacity];
+        this.controls  = new int[this.capacity];
+        this.pressed   = new boolean[this.capacity];
+        this.values    = new float[this.capacity];
+        this.nanoTimes = new long[this.capacity];
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Configuration
+    //----------------------------------------------------------------------------------------------
+
+    /** Sets how far a stick or trigger must move before it is considered 'pressed' */
+    public void setThreshold(float threshold)
+        {
+        this.threshold = Math.abs(threshold);
+        }
+
+    public float getThreshold()
+        {
+        return this.threshold;
+        }
+
+    /** Returns the number of events that were dropped because the ring was full */
+    public long getDroppedCount()
+        {
+        return this.droppedCount;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Producing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Compares the given gamepad with its state on the previous call and enqueues an
+     * event for each control that has changed. The first call for each gamepad merely
+     * establishes a baseline. Must only be called from the producer thread.
+     * @param gamepadNumber 1 or 2
+     * @param gamepad       the current state of the gamepad; may be null
+     * @param nanoTime      the time at which the state was observed
+     */
+    public void capture(int gamepadNumber, Gamepad gamepad, long nanoTime)
+        {
+        if (gamepad == null)
+            return;
+
+        int i        = gamepadNumber - 1;
+        int current  = this.controlMask(gamepad);
+        int previous = this.previousMasks[i];
+        this.previousMasks[i] = current;
+        if (!this.havePrevious[i])
+            {
+            this.havePrevious[i] = true;
+            return;
+            }
+
+        int changed = current ^ previous;
+        while (changed != 0)
+            {
+            int bit = Integer.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            this.enqueue(gamepadNumber, bit, (current & (1 << bit)) != 0, controlValue(gamepad, bit), nanoTime);
+            }
+        }
+
+    /** Forgets the previous gamepad states, so the next capture establishes a new baseline */
+    public void resetBaseline()
+        {
+        this.havePrevious[0] = false;
+        this.havePrevious[1] = false;
+        }
+
+    private void enqueue(int gamepadNumber, int control, boolean isPressed, float value, long nanoTime)
+        {
+        long write = this.writeIndex;
+        if (write - this.readIndex >= this.capacity)
+            {
+            this.droppedCount++;
+            return;
+            }
+        int slot = (int)write & this.mask;
+        this.gamepads[slot]  = gamepadNumber;
+        this.controls[slot]  = control;
+        this.pressed[slot]   = isPressed;
+        this.values[slot]    = value;
+        this.nanoTimes[slot] = nanoTime;
+        this.writeIndex = write + 1;      // publishes the slot
+        }
+
+    private int controlMask(Gamepad g)
+        {
+        float t = this.threshold;
+        int result = 0;
+        if (g.a)                    result |= bit(GamepadEvent.CONTROL.A);
+        if (g.b)                    result |= bit(GamepadEvent.CONTROL.B);
+        if (g.x)                    result |= bit(GamepadEvent.CONTROL.X);
+        if (g.y)                    result |= bit(GamepadEvent.CONTROL.Y);
+        if (g.dpad_up)              result |= bit(GamepadEvent.CONTROL.DPAD_UP);
+        if (g.dpad_down)            result |= bit(GamepadEvent.CONTROL.DPAD_DOWN);
+        if (g.dpad_left)            result |= bit(GamepadEvent.CONTROL.DPAD_LEFT);
+        if (g.dpad_right)           result |= bit(GamepadEvent.CONTROL.DPAD_RIGHT);
+        if (g.left_bumper)          result |= bit(GamepadEvent.CONTROL.LEFT_BUMPER);
+        if (g.right_bumper)         result |= bit(GamepadEvent.CONTROL.RIGHT_BUMPER);
+        if (g.left_stick_button)    result |= bit(GamepadEvent.CONTROL.LEFT_STICK_BUTTON);
+        if (g.right_stick_button)   result |= bit(GamepadEvent.CONTROL.RIGHT_STICK_BUTTON);
+        if (g.guide)                result |= bit(GamepadEvent.CONTROL.GUIDE);
+        if (g.start)                result |= bit(GamepadEvent.CONTROL.START);
+        if (g.back)                 result |= bit(GamepadEvent.CONTROL.BACK);
+        if (g.left_trigger  > t)    result |= bit(GamepadEvent.CONTROL.LEFT_TRIGGER);
+        if (g.right_trigger > t)    result |= bit(GamepadEvent.CONTROL.RIGHT_TRIGGER);
+        if (g.left_stick_x  < -t)   result |= bit(GamepadEvent.CONTROL.LEFT_STICK_LEFT);
+        if (g.left_stick_x  >  t)   result |= bit(GamepadEvent.CONTROL.LEFT_STICK_RIGHT);
+        if (g.left_stick_y  < -t)   result |= bit(GamepadEvent.CONTROL.LEFT_STICK_UP);      // y is negative when pushed forward
+        if (g.left_stick_y  >  t)   result |= bit(GamepadEvent.CONTROL.LEFT_STICK_DOWN);
+        if (g.right_stick_x < -t)   result |= bit(GamepadEvent.CONTROL.RIGHT_STICK_LEFT);
+        if (g.right_stick_x >  t)   result |= bit(GamepadEvent.CONTROL.RIGHT_STICK_RIGHT);
+        if (g.right_stick_y < -t)   result |= bit(GamepadEvent.CONTROL.RIGHT_STICK_UP);
+        if (g.right_stick_y >  t)   result |= bit(GamepadEvent.CONTROL.RIGHT_STICK_DOWN);
+        return result;
+        }
+
+    private static int bit(GamepadEvent.CONTROL control)
+        {
+        return 1 << control.ordinal();
+        }
+
+    private static float controlValue(Gamepad g, int control)
+        {
+        switch (GamepadEvent.CONTROL.fromOrdinal(control))
+            {
+            case LEFT_TRIGGER:          return g.left_trigger;
+            case RIGHT_TRIGGER:         return g.right_trigger;
+            case LEFT_STICK_LEFT:
+            case LEFT_STICK_RIGHT:      return g.left_stick_x;
+            case LEFT_STICK_UP:
+            case LEFT_STICK_DOWN:       return g.left_stick_y;
+            case RIGHT_STICK_LEFT:
+            case RIGHT_STICK_RIGHT:     return g.right_stick_x;
+            case RIGHT_STICK_UP:
+            case RIGHT_STICK_DOWN:      return g.right_stick_y;
+            default:                    return 0;   // buttons: poll() reports 1 or 0 instead
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Consuming
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Removes the oldest event from the ring, copying it into the given event.
+     * Must only be called by one consumer at a time.
+     * @return whether there was an event to remove
+     */
+    public boolean poll(GamepadEvent result)
+        {
+        long read = this.readIndex;
+        if (read == this.writeIndex)
+            return false;
+
+        int slot = (int)read & this.mask;
+        GamepadEvent.CONTROL control = GamepadEvent.CONTROL.fromOrdinal(this.controls[slot]);
+        result.gamepad  = this.gamepads[slot];
+        result.control  = control;
+        result.pressed  = this.pressed[slot];
+        result.value    = control.ordinal() < GamepadEvent.CONTROL.LEFT_TRIGGER.ordinal()
+                            ? (result.pressed ? 1 : 0)
+                            : this.values[slot];
+        result.nanoTime = this.nanoTimes[slot];
+        this.readIndex = read + 1;      // releases the slot
+        return true;
+        }
+
+    /** Discards all outstanding events. Must only be called by the consumer. */
+    public void clear()
+        {
+        this.readIndex = this.writeIndex;
+        }
+
+    /** Returns the number of events waiting to be polled */
+    public int size()
+        {
+        return (int)(this.writeIndex - this.readIndex);
+        }
+    }
@@ -0,0 +1,205 @@
+package org.swerverobotics.library.internal;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HardwareCycleSequencer is a lock-free publisher of hardware cycle numbers. The loop() thread
+ * calls {@link #publish()} once per cycle; any other thread can cheaply read the current cycle
+ * or park until a given cycle has been reached. No monitor is ever taken on either side.
+ *
+ * The loop thread only pays for a volatile increment plus a single unpark(), however many
+ * threads are waiting, as each waiter wakes the next; readers that merely poll
+ * {@link #getCycle()} cost it nothing at all.
+ */
+public class HardwareCycleSequencer
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicLong                    cycle     = new AtomicLong(0);
+    private final AtomicLong                    wakeCount = new AtomicLong(0);
+    private volatile long                       nanoTimeLastPublish = 0;
+    private volatile long                       nanosLastCycle = 0;
+    private final ConcurrentLinkedQueue<Thread> waiters   = new ConcurrentLinkedQueue<Thread>();
+    private volatile Clock                      clock     = Clock.REAL_TIME;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public HardwareCycleSequencer()
+        {
+        }
+
+    /**
+     * Sets the clock through which waiting threads are parked and unparked. Timestamps used
+     * for instrumentation are always taken in real time.
+     */
+    public void setClock(Clock clock)
+        {
+        this.clock = clock;
+        }
+
+    public Clock getClock()
+        {
+        return this.clock;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Publishing (loop thread)
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Announces the completion of a hardware cycle and wakes anyone waiting on one.
+     * @return the number of the cycle just published
+     */
+    public long publish()
+        {
+        long nsNow  = System.nanoTime();
+        long nsPrev = this.nanoTimeLastPublish;
+        if (nsPrev != 0)
+            this.nanosLastCycle = nsNow - nsPrev;
+        this.nanoTimeLastPublish = nsNow;
+        long result = this.cycle.incrementAndGet();
+        this.wakeWaiters();
+        return result;
+        }
+
+    /**
+     * Wakes all waiters without advancing the cycle so that they can reevaluate whatever
+     * condition they happen to be waiting on (start, stop, and so on).
+     *
+     * Only the first waiter is woken here; each waiter, once woken, wakes the next (see
+     * {@link #parkUntilWoken(long, long)}). Were the loop thread to wake them all itself, on
+     * a single core each wakeup could preempt it in turn.
+     */
+    public void wakeWaiters()
+        {
+        this.wakeCount.incrementAndGet();
+        this.wakeNext();
+        }
+
+    private void wakeNext()
+        {
+        Thread thread = this.waiters.poll();
+        if (thread != null)
+            this.clock.unpark(thread);
+        }
+
+    /**
+     * Restarts the cycle numbering, as is done on each init()
+     */
+    public void reset()
+        {
+        this.cycle.set(0);
+        this.nanoTimeLastPublish = 0;
+        this.nanosLastCycle = 0;
+        this.wakeWaiters();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Waiting (synchronous threads)
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Returns the number of the most recently published cycle
+     * @return the number of the most recently published cycle
+     */
+    public long getCycle()
+        {
+        return this.cycle.get();
+        }
+
+    /**
+     * Returns the time on the System.nanoTime() clock at which the most recent cycle was published.
+     * Note that this is written just before the cycle number itself, so a reader who sees a new
+     * cycle number will also see (at least) its timestamp.
+     * @return the time at which the most recent cycle was published
+     */
+    public long getNanoTimeLastPublish()
+        {
+        return this.nanoTimeLastPublish;
+        }
+
+    /**
+     * Returns the interval between the two most recent publications, or zero if there
+     * haven't yet been two
+     * @return the duration of the most recent hardware cycle, in nanoseconds
+     */
+    public long getNanosLastCycle()
+        {
+        return this.nanosLastCycle;
+        }
+
+    /**
+     * Waits until the indicated cycle (or a later one) has been published
+     * @param cycleAwaited the cycle number to wait for
+     * @return the cycle number actually observed, which is at least cycleAwaited
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
+    public long awaitCycle(long cycleAwaited) throws InterruptedException
+        {
+        for (;;)
+            {
+            long wakeCountSeen = this.wakeCount.get();
+            long cycleNow      = this.cycle.get();
+            if (cycleNow >= cycleAwaited)
+                return cycleNow;
+            this.parkUntilWoken(wakeCountSeen, 0);
+            }
+        }
+
+    /**
+     * Waits until at least one more cycle than is current as of the call has been published
+     * @return the cycle number actually observed
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
+    public long awaitNextCycle() throws InterruptedException
+        {
+        return this.awaitCycle(this.cycle.get() + 1);
+        }
+
+    /**
+     * Returns a count of the number of wakeups that have been issued so far. Callers waiting on
+     * some condition of their own should read this <em>before</em> testing their condition
+     * and then pass it to {@link #parkUntilWoken(long, long)} so that no wakeup can be missed.
+     * @return the current wakeup count
+     */
+    public long getWakeCount()
+        {
+        return this.wakeCount.get();
+        }
+
+    /**
+     * Parks the current thread until a publish() or wakeWaiters() that occurs after wakeCountSeen
+     * was read. Spurious returns are possible, so callers must always recheck their condition.
+     * @param wakeCountSeen the value of {@link #getWakeCount()} read before the caller's condition was tested
+     * @param nsTimeout     the maximum number of nanoseconds to park for; zero means forever
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
+    public void parkUntilWoken(long wakeCountSeen, long nsTimeout) throws InterruptedException
+        {
+        Thread thread = Thread.currentThread();
+
+        // Register *before* rechecking so that a wakeup racing with us can't slip by unseen
+        this.waiters.add(thread);
+        if (this.wakeCount.get() == wakeCountSeen)
+            {
+            if (nsTimeout > 0)
+                this.clock.parkNanos(this, nsTimeout);
+            else
+                this.clock.park(this);
+            }
+        this.waiters.remove(thread);
+
+        // Pass the wakeup along. We do this whether or not it was we who were unparked, as
+        // we may have been taken off the queue to be woken just as we decided not to park.
+        if (this.wakeCount.get() != wakeCountSeen)
+            this.wakeNext();
+
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        }
+    }
@@ -1,11 +1,10 @@
 package org.swerverobotics.library.internal;
 
-import java.util.*;
-
 /**
  * An interface for accessing administrative information associated with actions. 
  */
 public interface IActionKeyed
     {
-    List<Integer> getActionKeys();
+    int getActionKeyCount();
+    int getActionKey(int index);
     }
@@ -0,0 +1,194 @@
+package org.swerverobotics.library.internal;
+
+import android.os.Debug;
+
+import org.swerverobotics.library.interfaces.IIdleStatistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IdleStrategy encapsulates how a synchronous thread gives up the CPU in SynchronousOpMode.idle().
+ * The base class keeps the statistics (CPU burned, wake-up latency); subclasses just decide
+ * how to wait. Instances may be used from several synchronous threads at once.
+ */
+public abstract class IdleStrategy implements IIdleStatistics
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicLong idleCount        = new AtomicLong(0);
+    private final AtomicLong idleNanos        = new AtomicLong(0);
+    private final AtomicLong cpuNanos         = new AtomicLong(0);
+    private final AtomicLong wakeCount        = new AtomicLong(0);
+    private final AtomicLong wakeLatencyNanos = new AtomicLong(0);
+    private final AtomicLong maxWakeLatency   = new AtomicLong(0);
+
+    //----------------------------------------------------------------------------------------------
+    // Idling
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Idles the current thread according to this strategy, accounting for the cost of doing so
+     */
+    public final void idle(HardwareCycleSequencer sequencer) throws InterruptedException
+        {
+        long cycleBefore = sequencer.getCycle();
+        long cpuBefore   = Debug.threadCpuTimeNanos();
+        long nanoBefore  = System.nanoTime();
+        try {
+            this.idleOnce(sequencer, cycleBefore);
+            }
+        finally
+            {
+            long nanoAfter = System.nanoTime();
+            long cpuAfter  = Debug.threadCpuTimeNanos();
+
+            this.idleCount.incrementAndGet();
+            this.idleNanos.addAndGet(nanoAfter - nanoBefore);
+            if (cpuBefore >= 0 && cpuAfter >= 0)    // -1 if the platform can't tell us
+                this.cpuNanos.addAndGet(cpuAfter - cpuBefore);
+
+            // If a cycle completed while we were idle, note how long it took us to notice
+            if (sequencer.getCycle() != cycleBefore)
+                this.noteWakeLatency(nanoAfter - sequencer.getNanoTimeLastPublish());
+            }
+        }
+
+    /**
+     * Subclasses implement idleOnce() to actually do the waiting
+     * @param sequencer   the sequencer of the hardware cycles of the OpMode
+     * @param cycleBefore the hardware cycle that was current when idle() was called
+     */
+    protected abstract void idleOnce(HardwareCycleSequencer sequencer, long cycleBefore) throws InterruptedException;
+
+    private void noteWakeLatency(long nsLatency)
+        {
+        if (nsLatency < 0) nsLatency = 0;   // a newer cycle was published after we returned
+        this.wakeCount.incrementAndGet();
+        this.wakeLatencyNanos.addAndGet(nsLatency);
+        for (;;)
+            {
+            long max = this.maxWakeLatency.get();
+            if (nsLatency <= max || this.maxWakeLatency.compareAndSet(max, nsLatency))
+                break;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // IIdleStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Override public long getIdleCount()
+        {
+        return this.idleCount.get();
+        }
+
+    @Override public long getIdleNanos()
+        {
+        return this.idleNanos.get();
+        }
+
+    @Override public long getCpuNanos()
+        {
+        return this.cpuNanos.get();
+        }
+
+    @Override public double getCpuFraction()
+        {
+        long nanos = this.idleNanos.get();
+        return nanos == 0 ? 0 : this.cpuNanos.get() / (double)nanos;
+        }
+
+    @Override public double getMeanWakeLatencyNanos()
+        {
+        long count = this.wakeCount.get();
+        return count == 0 ? 0 : this.wakeLatencyNanos.get() / (double)count;
+        }
+
+    @Override public long getMaxWakeLatencyNanos()
+        {
+        return this.maxWakeLatency.get();
+        }
+
+    @Override public void reset()
+        {
+        this.idleCount.set(0);
+        this.idleNanos.set(0);
+        this.cpuNanos.set(0);
+        this.wakeCount.set(0);
+        this.wakeLatencyNanos.set(0);
+        this.maxWakeLatency.set(0);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Strategies
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Just yields the thread's scheduling quantum. Cheapest wake-up latency, but a thread that
+     * idles in a tight loop will consume an entire core doing so.
+     */
+    public static class Yield extends IdleStrategy
+        {
+        @Override protected void idleOnce(HardwareCycleSequencer sequencer, long cycleBefore)
+            {
+            Thread.yield();
+            }
+        }
+
+    /**
+     * Spins briefly waiting for the next hardware cycle, then yields for a while, then finally
+     * parks until the next cycle is published or a timeout elapses, whichever is first.
+     */
+    public static class SpinThenPark extends IdleStrategy
+        {
+        private final int  spins;
+        private final int  yields;
+        private final long nsMaxPark;
+
+        public SpinThenPark()
+            {
+            this(100, 10, 2 * 1000 * 1000);
+            }
+
+        public SpinThenPark(int spins, int yields, long nsMaxPark)
+            {
+            this.spins     = spins;
+            this.yields    = yields;
+            this.nsMaxPark = nsMaxPark;
+            }
+
+        @Override protected void idleOnce(HardwareCycleSequencer sequencer, long cycleBefore) throws InterruptedException
+            {
+            for (int i = 0; i < this.spins; i++)
+                {
+                if (sequencer.getCycle() != cycleBefore)
+                    return;
+                }
+            for (int i = 0; i < this.yields; i++)
+                {
+                Thread.yield();
+                if (sequencer.getCycle() != cycleBefore)
+                    return;
+                }
+            long wakeCount = sequencer.getWakeCount();
+            if (sequencer.getCycle() == cycleBefore)
+                sequencer.parkUntilWoken(wakeCount, this.nsMaxPark);
+            }
+        }
+
+    /**
+     * Parks the thread until the loop() thread next completes a hardware cycle (or the OpMode
+     * stops). Burns essentially no CPU, at the cost of a thread wake-up on each cycle.
+     */
+    public static class NextCycle extends IdleStrategy
+        {
+        @Override protected void idleOnce(HardwareCycleSequencer sequencer, long cycleBefore) throws InterruptedException
+            {
+            long wakeCount = sequencer.getWakeCount();
+            if (sequencer.getCycle() == cycleBefore)
+                sequencer.parkUntilWoken(wakeCount, 0);
+            }
+        }
+    }
@@ -0,0 +1,274 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.Quatd;
+import org.swerverobotics.library.interfaces.Vec3d;
+
+/**
+ * ImuHistory remembers the most recent of a series of timestamped IMU samples (heading,
+ * quaternion orientation and linear acceleration) in a fixed-size ring, so that one can ask
+ * what they were at some moment in the recent past: the moment a camera frame was captured,
+ * say, whose analysis is only now complete. Between samples, values are interpolated: linearly
+ * for acceleration, along the shorter arc for heading, and by spherical linear interpolation
+ * (slerp) for orientation. Outside the span of the history, the nearest sample is used as is,
+ * as it is between two samples more than a few sample periods apart (sampling having been
+ * stalled, say), for there's nothing to say what happened in between.
+ *
+ * Everything is kept in primitive arrays allocated up front, so neither adding a sample nor
+ * querying allocates. The lock is held only while copying into or interpolating out of the
+ * arrays, never across a read of the sensor.
+ */
+public final class ImuHistory
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final int       capacity;
+    private final long[]    nanoTimes;
+    private final double[]  headings;
+    private final double[]  quaternions;    // w, x, y, z for each sample
+    private final double[]  linear;         // x, y, z for each sample
+    private int             iNext;          // where the next sample goes
+    private int             count;
+    private double          nsInterval;     // running estimate of the time between samples
+
+    // Samples further apart than this many sample periods aren't interpolated between
+    private static final int    cGapIntervals    = 4;
+    // Weight given to each new interval in the running estimate of the sample period
+    private static final double intervalWeight   = 1.0 / 16;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ImuHistory(int capacity)
+        {
+        this.capacity    = capacity;
+        this.nanoTimes   = new long[capacity];
+        this.headings    = new double[capacity];
+        this.quaternions = new double[capacity * 4];
+        this.linear      = new double[capacity * 3];
+        this.clear();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Adding
+    //----------------------------------------------------------------------------------------------
+
+    public synchronized void clear()
+        {
+        this.iNext      = 0;
+        this.count      = 0;
+        this.nsInterval = 0;
+        }
+
+    /**
+     * Adds a sample, displacing the oldest if the history is full. Samples must be added in
+     * order of time; one that is no later than the latest already here is ignored.
+     */
+    public synchronized void add(long nanoTime, double heading, double qw, double qx, double qy, double qz, double ax, double ay, double az)
+        {
+        if (this.count > 0)
+            {
+            long nsSince = nanoTime - this.nanoTimes[this.physical(this.count - 1)];
+            if (nsSince <= 0)
+                return;
+
+            // Clamp what we learn from a gap so that one stall doesn't inflate the estimate
+            // much, yet a lasting change of rate is still followed
+            if (this.nsInterval == 0)
+                this.nsInterval = nsSince;
+            else
+                this.nsInterval += intervalWeight * (Math.min(nsSince, cGapIntervals * this.nsInterval) - this.nsInterval);
+            }
+
+        int i = this.iNext;
+        this.nanoTimes[i]       = nanoTime;
+        this.headings[i]        = heading;
+        this.quaternions[i*4]   = qw;
+        this.quaternions[i*4+1] = qx;
+        this.quaternions[i*4+2] = qy;
+        this.quaternions[i*4+3] = qz;
+        this.linear[i*3]        = ax;
+        this.linear[i*3+1]      = ay;
+        this.linear[i*3+2]      = az;
+
+        this.iNext = (i + 1) % this.capacity;
+        if (this.count < this.capacity)
+            this.count++;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Querying
+    //----------------------------------------------------------------------------------------------
+
+    public synchronized int size()
+        {
+        return this.count;
+        }
+
+    /** Returns the timestamp of the oldest sample, or zero if there are none */
+    public synchronized long getOldestNanoTime()
+        {
+        return this.count == 0 ? 0 : this.nanoTimes[this.physical(0)];
+        }
+
+    /** Returns the timestamp of the newest sample, or zero if there are none */
+    public synchronized long getNewestNanoTime()
+        {
+        return this.count == 0 ? 0 : this.nanoTimes[this.physical(this.count - 1)];
+        }
+
+    /**
+     * Returns the heading at the indicated time, or NaN if there are no samples. Headings are
+     * taken to wrap at 'fullCircle' (360 for degrees, 2 pi for radians), and the result lies
+     * in [0, fullCircle).
+     */
+    public synchronized double headingAt(long nanoTime, double fullCircle)
+        {
+        if (this.count == 0)
+            return Double.NaN;
+
+        int    iLow  = this.findLow(nanoTime);
+        double t     = this.fraction(iLow, nanoTime);
+        int    i0    = this.physical(iLow);
+        double h0    = this.headings[i0];
+        if (t == 0)
+            return h0;
+
+        // Go the shorter way round
+        double delta = this.headings[this.physical(iLow + 1)] - h0;
+        delta -= fullCircle * Math.floor(delta / fullCircle + 0.5);
+        double result = (h0 + t * delta) % fullCircle;
+        return result < 0 ? result + fullCircle : result;
+        }
+
+    /**
+     * Puts the orientation at the indicated time in 'result'
+     * @return whether there were any samples; if not, 'result' is left alone
+     */
+    public synchronized boolean quaternionAt(long nanoTime, Quatd result)
+        {
+        if (this.count == 0)
+            return false;
+
+        int    iLow = this.findLow(nanoTime);
+        double t    = this.fraction(iLow, nanoTime);
+        int    a    = this.physical(iLow) * 4;
+        double aw = this.quaternions[a], ax = this.quaternions[a+1], ay = this.quaternions[a+2], az = this.quaternions[a+3];
+        if (t == 0)
+            {
+            result.set(aw, ax, ay, az);
+            return true;
+            }
+
+        int    b  = this.physical(iLow + 1) * 4;
+        double bw = this.quaternions[b], bx = this.quaternions[b+1], by = this.quaternions[b+2], bz = this.quaternions[b+3];
+
+        // q and -q are the same orientation; take the one nearer, so as to go the shorter way
+        double dot = aw*bw + ax*bx + ay*by + az*bz;
+        if (dot < 0)
+            {
+            bw = -bw; bx = -bx; by = -by; bz = -bz;
+            dot = -dot;
+            }
+
+        double sa, sb;
+        if (dot > 0.9995)
+            {
+            // So close that slerp is ill-conditioned, and lerp (normalized below) is as good
+            sa = 1 - t;
+            sb = t;
+            }
+        else
+            {
+            double theta = Math.acos(dot);
+            double sin   = Math.sin(theta);
+            sa = Math.sin((1 - t) * theta) / sin;
+            sb = Math.sin(t * theta) / sin;
+            }
+
+        result.set(sa*aw + sb*bw, sa*ax + sb*bx, sa*ay + sb*by, sa*az + sb*bz).normalizeInPlace();
+        return true;
+        }
+
+    /**
+     * Puts the linear acceleration at the indicated time in 'result'
+     * @return whether there were any samples; if not, 'result' is left alone
+     */
+    public synchronized boolean linearAccelerationAt(long nanoTime, Vec3d result)
+        {
+        if (this.count == 0)
+            return false;
+
+        int    iLow = this.findLow(nanoTime);
+        double t    = this.fraction(iLow, nanoTime);
+        int    a    = this.physical(iLow) * 3;
+        if (t == 0)
+            {
+            result.set(this.linear[a], this.linear[a+1], this.linear[a+2]);
+            return true;
+            }
+
+        int b = this.physical(iLow + 1) * 3;
+        result.set(
+            this.linear[a]   + t * (this.linear[b]   - this.linear[a]),
+            this.linear[a+1] + t * (this.linear[b+1] - this.linear[a+1]),
+            this.linear[a+2] + t * (this.linear[b+2] - this.linear[a+2]));
+        return true;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Utility
+    //----------------------------------------------------------------------------------------------
+
+    /** Maps a logical index, zero being the oldest sample, to an index into the arrays */
+    private int physical(int iLogical)
+        {
+        return (this.iNext - this.count + iLogical + this.capacity) % this.capacity;
+        }
+
+    /**
+     * Returns the logical index of the latest sample taken at or before nanoTime, or of the
+     * oldest sample if there's none such. Must have at least one sample.
+     */
+    private int findLow(long nanoTime)
+        {
+        int low  = 0;
+        int high = this.count - 1;
+        if (nanoTime <= this.nanoTimes[this.physical(low)])
+            return low;
+        if (nanoTime >= this.nanoTimes[this.physical(high)])
+            return high;
+
+        // Invariant: sample 'low' is at or before nanoTime, and sample 'high' is after it
+        while (high - low > 1)
+            {
+            int mid = (low + high) >>> 1;
+            if (this.nanoTimes[this.physical(mid)] <= nanoTime)
+                low = mid;
+            else
+                high = mid;
+            }
+        return low;
+        }
+
+    /**
+     * Returns how far nanoTime lies between sample iLow and the one after it, from zero to one.
+     * Zero if there's no sample after it, or nanoTime is before them both. If the two are
+     * more than a few sample periods apart, we don't interpolate, but return zero or one
+     * according to which is nearer.
+     */
+    private double fraction(int iLow, long nanoTime)
+        {
+        if (iLow + 1 >= this.count)
+            return 0;
+        long t0 = this.nanoTimes[this.physical(iLow)];
+        long t1 = this.nanoTimes[this.physical(iLow + 1)];
+        if (nanoTime <= t0)
+            return 0;
+        if (t1 - t0 > cGapIntervals * this.nsInterval)
+            return nanoTime - t0 <= t1 - nanoTime ? 0 : 1;
+        return (nanoTime - t0) / (double)(t1 - t0);
+        }
+    }
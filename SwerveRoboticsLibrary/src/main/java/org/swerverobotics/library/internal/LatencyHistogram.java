@@ -0,0 +1,136 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.ILatencyStatistics;
+
+/**
+ * LatencyHistogram records durations into log-linear buckets in the manner of an HDR histogram:
+ * each power of two is split into SUB_BUCKETS linear buckets, giving a bounded relative error
+ * over a huge range in a small fixed array. Recording is a handful of integer operations and
+ * never allocates.
+ *
+ * A histogram has a single writer. Readers on other threads see a consistent-enough view:
+ * each bucket is individually up to date, though a percentile computed during a record()
+ * may be off by that one sample.
+ */
+public class LatencyHistogram implements ILatencyStatistics
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static final int  SUB_BUCKET_BITS = 4;
+    private static final int  SUB_BUCKETS     = 1 << SUB_BUCKET_BITS;
+    private static final int  MAX_EXPONENT    = 40;                            // ~18 minutes in ns
+    private static final long MAX_VALUE       = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int  BUCKET_COUNT    = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[]     buckets = new long[BUCKET_COUNT];
+    private volatile long    count   = 0;
+    private volatile long    total   = 0;
+    private volatile long    max     = 0;
+    private volatile boolean resetRequested = false;
+
+    //----------------------------------------------------------------------------------------------
+    // Recording
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Records one duration. Must only be called from the histogram's (single) writer thread.
+     * @param nanos the duration to record
+     */
+    public void record(long nanos)
+        {
+        if (this.resetRequested)
+            this.clear();
+
+        if (nanos < 0)         nanos = 0;
+        if (nanos > MAX_VALUE) nanos = MAX_VALUE;
+
+        this.buckets[bucketIndex(nanos)]++;
+        this.total += nanos;
+        if (nanos > this.max) this.max = nanos;
+        this.count = this.count + 1;    // volatile write last: publishes the rest
+        }
+
+    /**
+     * Empties the histogram at once, rather than at the next record() as {@link #reset()} does.
+     * Must only be called from the histogram's (single) writer thread.
+     */
+    public void clear()
+        {
+        this.resetRequested = false;
+        java.util.Arrays.fill(this.buckets, 0);
+        this.total = 0;
+        this.max   = 0;
+        this.count = 0;
+        }
+
+    static int bucketIndex(long value)
+        {
+        if (value < SUB_BUCKETS)
+            return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift    = exponent - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int)((value >>> shift) & (SUB_BUCKETS - 1));
+        }
+
+    /** Returns the largest value that falls into the indicated bucket */
+    static long bucketUpperBound(int index)
+        {
+        if (index < SUB_BUCKETS)
+            return index;
+        int  shift = index / SUB_BUCKETS - 1;
+        long lower = (long)(SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // ILatencyStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Override public long getCount()
+        {
+        return this.count;
+        }
+
+    @Override public double getMeanNanos()
+        {
+        long count = this.count;
+        return count == 0 ? 0 : this.total / (double)count;
+        }
+
+    @Override public long getMaxNanos()
+        {
+        return this.max;
+        }
+
+    @Override public long getPercentileNanos(double fraction)
+        {
+        long count = this.count;
+        if (count == 0)
+            return 0;
+
+        long rank   = Math.max(1, (long)Math.ceil(Math.min(1, Math.max(0, fraction)) * count));
+        long seen   = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            {
+            seen += this.buckets[i];
+            if (seen >= rank)
+                return Math.min(bucketUpperBound(i), this.max);
+            }
+        return this.max;
+        }
+
+    @Override public void reset()
+        {
+        this.resetRequested = true;
+        }
+
+    @Override public String toString()
+        {
+        return String.format("p50=%.2fms p99=%.2fms max=%.2fms",
+                this.getPercentileNanos(0.50) * 1e-6,
+                this.getPercentileNanos(0.99) * 1e-6,
+                this.getMaxNanos() * 1e-6);
+        }
+    }
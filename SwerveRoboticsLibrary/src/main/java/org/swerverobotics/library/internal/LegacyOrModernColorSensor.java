@@ -9,13 +9,15 @@ import com.qualcomm.robotcore.hardware.*;
 import com.qualcomm.robotcore.util.*;
 
 import org.swerverobotics.library.ClassFactory;
+import org.swerverobotics.library.interfaces.IReadWindowStatistics;
+import org.swerverobotics.library.interfaces.IReadWindowStatisticsProvider;
 
 /**
  * This class implements a driver for either a HiTechnic color sensor or a
  * Modern Robotics color sensor. The two are very similar I2C devices; it's easy
  * for them to share code.
  */
-public class LegacyOrModernColorSensor implements ColorSensor, IOpModeStateTransitionEvents
+public class LegacyOrModernColorSensor implements ColorSensor, IReadWindowStatisticsProvider, IOpModeStateTransitionEvents
     {
     //----------------------------------------------------------------------------------------------
     // State
@@ -47,6 +49,7 @@ public class LegacyOrModernColorSensor implements ColorSensor, IOpModeStateTrans
     public static final int COMMAND_60HZ                = 0x36;                     // MR sensor only
 
     final I2cDeviceSynch                        i2cDeviceSynch;
+    final ReadWindowPlanner                     readWindowPlanner;
     final ClassFactory.SENSOR_FLAVOR            flavor;
           boolean                               ledIsEnabled;
           boolean                               ledStateIsKnown;
@@ -73,16 +76,16 @@ public class LegacyOrModernColorSensor implements ColorSensor, IOpModeStateTrans
         this.ledIsEnabled    = false;
         this.ledStateIsKnown = false;
 
-        this.i2cDeviceSynch.setReadWindow(new I2cDeviceSynch.ReadWindow(
-                this.getOffsetBase() + OFFSET_READ_FIRST,
-                OFFSET_READ_MAX - OFFSET_READ_FIRST,
-                I2cDeviceSynch.ReadMode.REPEAT));
+        this.readWindowPlanner = new ReadWindowPlanner(this.i2cDeviceSynch, I2cDeviceSynch.ReadMode.REPEAT);
 
         RobotStateTransitionNotifier.register(context, this);
         }
 
     public static ColorSensor create(OpMode context, ColorSensor target)
         {
+        // The hardware map may have handed out a wrapper of the SDK's sensor
+        target = Util.unwrap(target);
+
         I2cController controller;
         int port;
         int i2cAddr8Bit;
@@ -194,10 +197,15 @@ public class LegacyOrModernColorSensor implements ColorSensor, IOpModeStateTrans
 
     int read(int dib)
         {
-        byte b = this.i2cDeviceSynch.read8(getOffsetBase() + dib);
+        byte b = this.readWindowPlanner.read8(getOffsetBase() + dib);
         return TypeConversion.unsignedByteToInt(b);
         }
 
+    @Override public IReadWindowStatistics getReadWindowStatistics()
+        {
+        return this.readWindowPlanner;
+        }
+
     @Override public synchronized int red()
         {
         return this.read(OFFSET_RED_READING);
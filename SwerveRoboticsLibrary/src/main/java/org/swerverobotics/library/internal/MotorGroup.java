@@ -0,0 +1,292 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+
+import org.swerverobotics.library.interfaces.IMotorGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MotorGroup is the implementation of {@link IMotorGroup}. A commit is made in two parts:
+ *
+ * <ol>
+ * <li>Motors of a SynchronousOpMode hardware map that coalesce their writes just record the
+ *     new power, to be flushed by the loop() thread at the end of the cycle. The group makes
+ *     these writes while holding the lock on which the flush is made, so they can't be split
+ *     between two flushes.</li>
+ * <li>Plain SDK motors are written straight to their controller, a controller at a time,
+ *     while holding that controller's monitor. The SDK controllers synchronize on themselves,
+ *     so no other thread's access to the controller can come between the writes. Holding only
+ *     the controller (and not the motor) is what keeps this free of deadlock, so any other
+ *     kind of motor is simply written with setPower(), back to back.</li>
+ * </ol>
+ */
+public class MotorGroup implements IMotorGroup
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final DcMotor[]             motors;
+    private final double[]              staged;
+    private final boolean[]             isStaged;
+    private final double[]              controllerPower;    // what's written to the controller for plain members
+
+    private final Object                flushLock;      // null if no member coalesces
+    private final int[]                 coalescing;     // indices of the members that coalesce
+    private final DcMotorController[]   controllers;    // of the plain SDK members
+    private final int[][]               plain;          // their indices, by controller
+    private final int[]                 other;          // indices of the members of any other kind
+
+    private int  cWrites      = 0;     // of the commit in progress
+    private long nsFirstWrite = 0;
+    private long nsLastWrite  = 0;
+
+    private long commitCount  = 0;
+    private long skewNanos    = 0;
+    private long maxSkew      = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public MotorGroup(DcMotor... motors)
+        {
+        if (motors == null || motors.length == 0)
+            throw new IllegalArgumentException("MotorGroup: no motors provided");
+
+        this.motors   = motors.clone();
+        this.staged   = new double[motors.length];
+        this.isStaged = new boolean[motors.length];
+        this.controllerPower = new double[motors.length];
+
+        Object                  flushLock   = null;
+        List<Integer>           coalescing  = new ArrayList<Integer>();
+        List<DcMotorController> controllers = new ArrayList<DcMotorController>();
+        List<List<Integer>>     plain       = new ArrayList<List<Integer>>();
+        List<Integer>           other       = new ArrayList<Integer>();
+
+        for (int i = 0; i < motors.length; i++)
+            {
+            DcMotor motor = motors[i];
+            if (motor == null)
+                throw new IllegalArgumentException("MotorGroup: null motor");
+
+            Object lock = motor instanceof CoalescingDcMotor
+                    ? ((CoalescingDcMotor)motor).getCoalescer().getFlushLock()
+                    : null;
+            if (lock != null && (flushLock == null || flushLock == lock))
+                {
+                flushLock = lock;
+                coalescing.add(i);
+                }
+            else if (motor.getClass() == DcMotor.class)
+                {
+                int iController = controllers.indexOf(motor.getController());
+                if (iController < 0)
+                    {
+                    iController = controllers.size();
+                    controllers.add(motor.getController());
+                    plain.add(new ArrayList<Integer>());
+                    }
+                plain.get(iController).add(i);
+                }
+            else
+                other.add(i);
+            }
+
+        this.flushLock   = flushLock;
+        this.coalescing  = toArray(coalescing);
+        this.controllers = controllers.toArray(new DcMotorController[controllers.size()]);
+        this.plain       = new int[plain.size()][];
+        for (int i = 0; i < this.plain.length; i++)
+            this.plain[i] = toArray(plain.get(i));
+        this.other       = toArray(other);
+        }
+
+    private static int[] toArray(List<Integer> list)
+        {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = list.get(i);
+        return result;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Membership
+    //----------------------------------------------------------------------------------------------
+
+    @Override public int size()
+        {
+        return this.motors.length;
+        }
+
+    @Override public DcMotor getMotor(int index)
+        {
+        return this.motors[index];
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Staging and committing
+    //----------------------------------------------------------------------------------------------
+
+    @Override public synchronized void setPower(int index, double power)
+        {
+        this.staged[index]   = power;
+        this.isStaged[index] = true;
+        }
+
+    @Override public synchronized void setPower(DcMotor motor, double power)
+        {
+        for (int i = 0; i < this.motors.length; i++)
+            {
+            if (this.motors[i] == motor)
+                {
+                this.setPower(i, power);
+                return;
+                }
+            }
+        throw new IllegalArgumentException("MotorGroup: motor is not a member of the group");
+        }
+
+    @Override public synchronized void setPower(double power)
+        {
+        for (int i = 0; i < this.motors.length; i++)
+            this.setPower(i, power);
+        }
+
+    @Override public synchronized void commit()
+        {
+        this.cWrites = 0;
+        if (this.flushLock != null)
+            {
+            synchronized (this.flushLock)
+                {
+                this.commitCoalescing();
+                this.commitPlain();
+                this.commitOther();
+                }
+            }
+        else
+            {
+            this.commitPlain();
+            this.commitOther();
+            }
+
+        if (this.cWrites > 0)
+            this.noteCommit(this.nsLastWrite - this.nsFirstWrite);
+        }
+
+    private void commitCoalescing()
+        {
+        for (int i : this.coalescing)
+            {
+            if (this.isStaged[i])
+                {
+                this.noteWriteStart();
+                this.motors[i].setPower(this.staged[i]);
+                this.noteWriteEnd(i);
+                }
+            }
+        }
+
+    private void commitPlain()
+        {
+        for (int iController = 0; iController < this.controllers.length; iController++)
+            {
+            DcMotorController controller = this.controllers[iController];
+
+            // Work out the powers first, as DcMotor.setPower() would. It consults the run mode
+            // it caches, which we can't see; getMode() asks the controller, which takes a
+            // round trip, so we do that here, before the writes, and not between them.
+            for (int i : this.plain[iController])
+                {
+                if (this.isStaged[i])
+                    {
+                    DcMotor motor = this.motors[i];
+                    double  power = this.staged[i];
+                    if (motor.getDirection() == DcMotor.Direction.REVERSE)
+                        power = -power;
+                    if (motor.getMode() == DcMotorController.RunMode.RUN_TO_POSITION)
+                        power = Math.abs(power);
+                    this.controllerPower[i] = power;
+                    }
+                }
+
+            synchronized (controller)
+                {
+                for (int i : this.plain[iController])
+                    {
+                    if (this.isStaged[i])
+                        {
+                        this.noteWriteStart();
+                        controller.setMotorPower(this.motors[i].getPortNumber(), this.controllerPower[i]);
+                        this.noteWriteEnd(i);
+                        }
+                    }
+                }
+            }
+        }
+
+    private void commitOther()
+        {
+        for (int i : this.other)
+            {
+            if (this.isStaged[i])
+                {
+                this.noteWriteStart();
+                this.motors[i].setPower(this.staged[i]);
+                this.noteWriteEnd(i);
+                }
+            }
+        }
+
+    private void noteWriteStart()
+        {
+        if (this.cWrites == 0)
+            this.nsFirstWrite = System.nanoTime();
+        }
+
+    private void noteWriteEnd(int index)
+        {
+        this.nsLastWrite     = System.nanoTime();
+        this.isStaged[index] = false;
+        this.cWrites++;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Statistics
+    //----------------------------------------------------------------------------------------------
+
+    private void noteCommit(long nsSkew)
+        {
+        this.commitCount++;
+        this.skewNanos += nsSkew;
+        if (nsSkew > this.maxSkew)
+            this.maxSkew = nsSkew;
+        }
+
+    @Override public synchronized long getCommitCount()
+        {
+        return this.commitCount;
+        }
+
+    @Override public synchronized double getMeanSkewNanos()
+        {
+        return this.commitCount == 0 ? 0 : this.skewNanos / (double)this.commitCount;
+        }
+
+    @Override public synchronized long getMaxSkewNanos()
+        {
+        return this.maxSkew;
+        }
+
+    @Override public synchronized void resetStatistics()
+        {
+        this.commitCount = 0;
+        this.skewNanos   = 0;
+        this.maxSkew     = 0;
+        }
+    }
@@ -0,0 +1,188 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.util.ThreadPool;
+
+import org.swerverobotics.library.interfaces.IInterruptableRunnable;
+import org.swerverobotics.library.interfaces.IPeriodicTask;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PeriodicTask runs a control task at a fixed rate on a thread of its own. Executions are
+ * scheduled against absolute deadlines (start + n * period) so that timing errors never
+ * accumulate: a late execution doesn't push back the ones that follow it.
+ *
+ * The statistics are only ever written by the task's own thread, so plain volatiles suffice.
+ *
+ * Once the task is done with, whether it was cancelled or ended of its own accord, its owner
+ * is told (once) through the 'onFinished' action, so that it can forget about the task.
+ */
+public class PeriodicTask implements IPeriodicTask, IInterruptableRunnable
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final IInterruptableRunnable task;
+    private final long                   nsPeriod;
+    private final Clock                  clock;
+    private final Util.IAction<PeriodicTask> onFinished;
+    private final AtomicBoolean          finishNoted = new AtomicBoolean(false);
+    private volatile boolean             cancelled = false;
+    private volatile ExecutorService     executor  = null;
+
+    private volatile long runCount      = 0;
+    private volatile long overrunCount  = 0;
+    private volatile long skippedCount  = 0;
+    private volatile long jitterNanos   = 0;
+    private volatile long maxJitter     = 0;
+    private volatile long runNanos      = 0;
+    private volatile long maxRun        = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public PeriodicTask(double hz, IInterruptableRunnable task, Clock clock, Util.IAction<PeriodicTask> onFinished)
+        {
+        if (!(hz > 0))
+            throw new IllegalArgumentException(String.format("PeriodicTask: illegal rate: %f", hz));
+        this.task     = task;
+        this.clock    = clock;
+        this.onFinished = onFinished;
+        this.nsPeriod = Math.max(1, Math.round(1e9 / hz));
+        }
+
+    /**
+     * Records the executor on whose (single) thread the task is running so that it can be
+     * interrupted on cancellation.
+     */
+    public void setExecutor(ExecutorService executor)
+        {
+        this.executor = executor;
+        if (this.cancelled)
+            executor.shutdownNow();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Running
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void run() throws InterruptedException
+        {
+        // Control tasks are latency-sensitive: have them preempt the user's main() and workers
+        Thread.currentThread().setPriority(Thread.MAX_PRIORITY);
+
+        try {
+            this.runSchedule();
+            }
+        finally
+            {
+            // However we got here (cancellation, interrupt, or the task throwing), we're done.
+            // Shutting down the executor lets its thread go once we return.
+            this.cancelled = true;
+            ExecutorService executor = this.executor;
+            if (executor != null)
+                executor.shutdown();
+            this.noteFinished();
+            }
+        }
+
+    private void runSchedule() throws InterruptedException
+        {
+        long nsStart   = this.clock.nanoTime();
+        long iDeadline = 0;
+
+        while (!this.cancelled && !Thread.currentThread().isInterrupted())
+            {
+            // Wait for the deadline. parkNanos() can return early, so we loop.
+            long nsDeadline = nsStart + iDeadline * this.nsPeriod;
+            long nsNow;
+            while ((nsNow = this.clock.nanoTime()) < nsDeadline)
+                {
+                this.clock.parkNanos(this, nsDeadline - nsNow);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                }
+            if (this.cancelled)
+                break;
+
+            this.task.run();
+            long nsAfter = this.clock.nanoTime();
+
+            this.noteRun(nsNow - nsDeadline, nsAfter - nsNow);
+
+            // Move on to the next deadline; if we've already overrun it, skip ahead to
+            // the first deadline that is still in the future rather than running late.
+            iDeadline++;
+            long iNext = (nsAfter - nsStart) / this.nsPeriod + 1;
+            if (iNext > iDeadline)
+                {
+                this.overrunCount++;
+                this.skippedCount += iNext - iDeadline;
+                iDeadline = iNext;
+                }
+            }
+        }
+
+    private void noteFinished()
+        {
+        if (this.onFinished != null && this.finishNoted.compareAndSet(false, true))
+            this.onFinished.doAction(this);
+        }
+
+    private void noteRun(long nsJitter, long nsRun)
+        {
+        this.runCount++;
+        this.jitterNanos += nsJitter;
+        this.runNanos    += nsRun;
+        if (nsJitter > this.maxJitter) this.maxJitter = nsJitter;
+        if (nsRun    > this.maxRun)    this.maxRun    = nsRun;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // IPeriodicTask
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void cancel()
+        {
+        this.cancelled = true;
+        ExecutorService executor = this.executor;
+        if (executor != null)
+            executor.shutdownNow();
+        this.noteFinished();
+        }
+
+    /**
+     * Cancels the task and waits for its thread to finish
+     */
+    public void cancelAndAwait()
+        {
+        this.cancel();
+        ExecutorService executor = this.executor;
+        if (executor != null)
+            ThreadPool.awaitTerminationOrExitApplication(executor, 10, TimeUnit.SECONDS, "periodic task", "unreasonable delay in user code?");
+        }
+
+    @Override public boolean isCancelled()          { return this.cancelled; }
+    @Override public long getPeriodNanos()          { return this.nsPeriod; }
+    @Override public long getRunCount()             { return this.runCount; }
+    @Override public long getOverrunCount()         { return this.overrunCount; }
+    @Override public long getSkippedCount()         { return this.skippedCount; }
+    @Override public long getMaxJitterNanos()       { return this.maxJitter; }
+    @Override public long getMaxRunNanos()          { return this.maxRun; }
+
+    @Override public double getMeanJitterNanos()
+        {
+        long count = this.runCount;
+        return count == 0 ? 0 : this.jitterNanos / (double)count;
+        }
+
+    @Override public double getMeanRunNanos()
+        {
+        long count = this.runCount;
+        return count == 0 ? 0 : this.runNanos / (double)count;
+        }
+    }
@@ -0,0 +1,126 @@
+package org.swerverobotics.library.internal;
+
+/**
+ * ReadCache lets the sensors of the processed hardware map remember what they last read so
+ * that asking again within the same hardware cycle doesn't go back to the controller. A cached
+ * value is good until the loop() thread publishes the next cycle or, optionally, until it
+ * reaches a maximum age, whichever comes first.
+ *
+ * A hit costs a couple of volatile loads: no lock is taken and nothing is written, so any
+ * number of threads may poll the same sensor without contending with each other. Misses
+ * are racy but benign: two threads missing together both read the controller, and either
+ * result may be the one that is kept.
+ */
+public class ReadCache
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final HardwareCycleSequencer sequencer;
+    private volatile long                nsMaxStaleness = 0;   // zero: the cycle alone decides
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ReadCache(HardwareCycleSequencer sequencer)
+        {
+        this.sequencer = sequencer;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Sets the maximum age of a cached value. Values older than this are read afresh even if
+     * the hardware cycle hasn't moved on, which bounds how stale a reading can get should the
+     * loop() thread stall. Zero (the default) disables the age check altogether.
+     */
+    public void setMaxStalenessNanos(long nsMaxStaleness)
+        {
+        this.nsMaxStaleness = Math.max(0, nsMaxStaleness);
+        }
+
+    public long getMaxStalenessNanos()
+        {
+        return this.nsMaxStaleness;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Readings
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * A Reading caches one value read from one sensor. Integral and boolean values are carried
+     * as doubles, which represent them exactly.
+     */
+    public abstract class Reading
+        {
+        private volatile double value;
+        private volatile long   nanoTime;
+        private volatile long   cycle = -1;     // written last; -1: nothing cached
+        private volatile int    epoch = 0;      // bumped on each invalidation
+
+        /** Actually reads the value from the sensor */
+        protected abstract double read();
+
+        public double get()
+            {
+            long cycleNow = sequencer.getCycle();
+            if (this.cycle == cycleNow)
+                {
+                long nsMax = nsMaxStaleness;
+                if (nsMax == 0)
+                    return this.value;
+                long nsNow = sequencer.getClock().nanoTime();
+                if (nsNow - this.nanoTime <= nsMax)
+                    return this.value;
+                return this.refresh(cycleNow, nsNow);
+                }
+            return this.refresh(cycleNow, nsMaxStaleness == 0 ? 0 : sequencer.getClock().nanoTime());
+            }
+
+        public int getInt()
+            {
+            return (int)this.get();
+            }
+
+        public boolean getBoolean()
+            {
+            return this.get() != 0;
+            }
+
+        /**
+         * Forgets the cached value. Used when a write to the sensor (a mode change, a reset)
+         * makes what was read before it meaningless.
+         */
+        public void invalidate()
+            {
+            this.epoch++;
+            this.cycle = -1;
+            }
+
+        private double refresh(long cycleNow, long nsNow)
+            {
+            int epoch = this.epoch;
+            double value = this.read();
+            this.value    = value;
+            this.nanoTime = nsNow;
+            this.cycle    = cycleNow;
+
+            // If we were invalidated while reading, what we read may predate the write that
+            // invalidated us, so it mustn't be kept
+            if (this.epoch != epoch)
+                this.cycle = -1;
+            return value;
+            }
+        }
+
+    /** Converts a boolean to the form in which a Reading carries it */
+    public static double toDouble(boolean value)
+        {
+        return value ? 1 : 0;
+        }
+    }
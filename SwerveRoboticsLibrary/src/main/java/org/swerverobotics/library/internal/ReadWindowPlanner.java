@@ -0,0 +1,262 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.hardware.I2cDeviceSynch;
+
+import org.swerverobotics.library.interfaces.IReadWindowStatistics;
+
+import java.util.Arrays;
+
+/**
+ * ReadWindowPlanner chooses the read windows of an {@link I2cDeviceSynch} from the reads its
+ * client actually makes, instead of from windows fixed in advance. A client makes its reads
+ * through the planner, which notes the register range each covers, and from time to time plans
+ * anew the fewest windows that between them cover the ranges that are being read. Each window
+ * is made as small as the ranges it covers allow, so no more is read from the device than is
+ * needed. Ranges that haven't been read for a while are dropped from the plan.
+ *
+ * A read that lies within a planned window ensures that window is the device's before reading.
+ * One that lies outside them all (because it's too big for any window, say, or there are more
+ * distinct ranges than we keep track of) is left to the device, which reads it with a one-time
+ * READ_ONCE window of its own.
+ *
+ * Apart from planning, which is infrequent, a read allocates nothing beyond what the device does.
+ * Reads are expected to be serialized by the client, as all our sensors do; the statistics may
+ * be read from any thread.
+ */
+public class ReadWindowPlanner implements IReadWindowStatistics
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static final int    cRangesMax    = 16;     // distinct ranges we keep track of
+    private static final int    cReadsPerPlan = 100;    // reads between routine replanning
+    private static final int    cRegisterMax  = I2cDeviceSynch.ReadWindow.READ_REGISTER_COUNT_MAX;
+
+    private final I2cDeviceSynch            device;
+    private final I2cDeviceSynch.ReadMode   readMode;
+
+    // The distinct ranges that have been read, and how often since the last routine plan
+    private final int[]     rangeFirst = new int[cRangesMax];
+    private final int[]     rangeCount = new int[cRangesMax];
+    private final int[]     rangeHits  = new int[cRangesMax];
+    private int             cRanges    = 0;
+    private int             cReadsSincePlan = 0;
+
+    // The plan, and scratch space in which to make the next one
+    private I2cDeviceSynch.ReadWindow[] windows = new I2cDeviceSynch.ReadWindow[0];
+    private final boolean[] covered    = new boolean[cRangesMax];
+    private final int[]     planFirst  = new int[cRangesMax];
+    private final int[]     planCount  = new int[cRangesMax];
+
+    private volatile long   readsRequested    = 0;
+    private volatile long   windowSwitches    = 0;
+    private volatile long   readOnceFallbacks = 0;
+    private volatile long   bytesRequested    = 0;
+    private volatile long   bytesTransferred  = 0;
+    private volatile long   plansMade         = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public ReadWindowPlanner(I2cDeviceSynch device, I2cDeviceSynch.ReadMode readMode)
+        {
+        this.device   = device;
+        this.readMode = readMode;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Reading
+    //----------------------------------------------------------------------------------------------
+
+    public byte read8(int ireg)
+        {
+        this.ensureWindowFor(ireg, 1);
+        return this.device.read8(ireg);
+        }
+
+    public byte[] read(int ireg, int creg)
+        {
+        this.ensureWindowFor(ireg, creg);
+        return this.device.read(ireg, creg);
+        }
+
+    public I2cDeviceSynch.TimestampedData readTimeStamped(int ireg, int creg)
+        {
+        this.ensureWindowFor(ireg, creg);
+        return this.device.readTimeStamped(ireg, creg);
+        }
+
+    private void ensureWindowFor(int ireg, int creg)
+        {
+        I2cDeviceSynch.ReadWindow window = this.windowFor(ireg, creg);
+        if (window != null)
+            {
+            // The device compares windows by their contents, and only on a real switch does it
+            // store anything: a fresh copy of the window it's given. So a change in the identity
+            // of its window is a switch, whichever window objects we happen to hand it.
+            I2cDeviceSynch.ReadWindow before = this.device.getReadWindow();
+            this.device.ensureReadWindow(window, window);
+            if (this.device.getReadWindow() != before)
+                this.windowSwitches++;
+            }
+        }
+
+    /** Notes a read, returning the planned window through which to make it, if any */
+    private synchronized I2cDeviceSynch.ReadWindow windowFor(int ireg, int creg)
+        {
+        this.readsRequested++;
+        this.bytesRequested += creg;
+        boolean isNew = this.noteRange(ireg, creg);
+
+        I2cDeviceSynch.ReadWindow window = this.findWindow(ireg, creg);
+        if (++this.cReadsSincePlan >= cReadsPerPlan)
+            {
+            this.plan(true);
+            window = this.findWindow(ireg, creg);
+            }
+        else if (window == null && isNew)
+            {
+            this.plan(false);
+            window = this.findWindow(ireg, creg);
+            }
+
+        if (window == null)
+            {
+            this.readOnceFallbacks++;
+            this.bytesTransferred += creg;
+            }
+        else
+            this.bytesTransferred += window.getRegisterCount();
+        return window;
+        }
+
+    private I2cDeviceSynch.ReadWindow findWindow(int ireg, int creg)
+        {
+        for (I2cDeviceSynch.ReadWindow window : this.windows)
+            {
+            if (window.contains(ireg, creg))
+                return window;
+            }
+        return null;
+        }
+
+    /** Records a read of a range, returning whether we hadn't seen that range before */
+    private boolean noteRange(int ireg, int creg)
+        {
+        if (creg > cRegisterMax)
+            return false;   // no window can hold it
+
+        for (int i = 0; i < this.cRanges; i++)
+            {
+            if (this.rangeFirst[i] == ireg && this.rangeCount[i] == creg)
+                {
+                this.rangeHits[i]++;
+                return false;
+                }
+            }
+
+        if (this.cRanges == cRangesMax)
+            return false;   // until the next routine plan drops some cold ones
+
+        this.rangeFirst[this.cRanges] = ireg;
+        this.rangeCount[this.cRanges] = creg;
+        this.rangeHits[this.cRanges]  = 1;
+        this.cRanges++;
+        return true;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Planning
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Plans the fewest windows that cover all the ranges we know of. If 'routine', ranges not
+     * read since the last routine plan are first forgotten.
+     */
+    private void plan(boolean routine)
+        {
+        this.plansMade++;
+        this.cReadsSincePlan = 0;
+
+        // Forget cold ranges, and sort the rest by their first register
+        int cKept = 0;
+        for (int i = 0; i < this.cRanges; i++)
+            {
+            if (routine && this.rangeHits[i] == 0)
+                continue;
+            int first = this.rangeFirst[i];
+            int count = this.rangeCount[i];
+            int hits  = routine ? 0 : this.rangeHits[i];
+            int j = cKept++;
+            for (; j > 0 && this.rangeFirst[j-1] > first; j--)
+                {
+                this.rangeFirst[j] = this.rangeFirst[j-1];
+                this.rangeCount[j] = this.rangeCount[j-1];
+                this.rangeHits[j]  = this.rangeHits[j-1];
+                }
+            this.rangeFirst[j] = first;
+            this.rangeCount[j] = count;
+            this.rangeHits[j]  = hits;
+            }
+        this.cRanges = cKept;
+
+        // Greedily start a window at the first register of the lowest range not yet covered,
+        // and take in every range that fits. Any window covering that range must start at or
+        // below it, and moving such a window up to start there loses none of the uncovered
+        // ranges, so no plan can do with fewer windows.
+        Arrays.fill(this.covered, false);
+        int cWindows = 0;
+        for (int i = 0; i < this.cRanges; i++)
+            {
+            if (this.covered[i])
+                continue;
+            int first = this.rangeFirst[i];
+            int max   = first;
+            for (int j = i; j < this.cRanges; j++)
+                {
+                int end = this.rangeFirst[j] + this.rangeCount[j];
+                if (!this.covered[j] && end - first <= cRegisterMax)
+                    {
+                    this.covered[j] = true;
+                    max = Math.max(max, end);
+                    }
+                }
+            this.planFirst[cWindows] = first;
+            this.planCount[cWindows] = max - first;
+            cWindows++;
+            }
+
+        // Keep the windows we have if nothing has changed, so a routine plan allocates nothing
+        boolean same = cWindows == this.windows.length;
+        for (int i = 0; same && i < cWindows; i++)
+            {
+            same = this.windows[i].getRegisterFirst() == this.planFirst[i]
+                && this.windows[i].getRegisterCount() == this.planCount[i];
+            }
+        if (!same)
+            {
+            I2cDeviceSynch.ReadWindow[] windows = new I2cDeviceSynch.ReadWindow[cWindows];
+            for (int i = 0; i < cWindows; i++)
+                windows[i] = new I2cDeviceSynch.ReadWindow(this.planFirst[i], this.planCount[i], this.readMode);
+            this.windows = windows;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // IReadWindowStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Override public long getReadsRequested()    { return this.readsRequested; }
+    @Override public long getWindowSwitches()    { return this.windowSwitches; }
+    @Override public long getReadOnceFallbacks() { return this.readOnceFallbacks; }
+    @Override public long getBytesRequested()    { return this.bytesRequested; }
+    @Override public long getBytesTransferred()  { return this.bytesTransferred; }
+    @Override public long getPlansMade()         { return this.plansMade; }
+
+    @Override public synchronized I2cDeviceSynch.ReadWindow[] getReadWindows()
+        {
+        return this.windows.clone();
+        }
+    }
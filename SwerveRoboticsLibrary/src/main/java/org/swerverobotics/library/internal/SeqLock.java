@@ -0,0 +1,135 @@
+package org.swerverobotics.library.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SeqLock publishes a small group of doubles (or longs) that must be read consistently with one another,
+ * without readers ever taking a lock or writing to shared memory. A writer makes the sequence
+ * number odd, stores the values, then makes it even again; a reader notes the (even) sequence,
+ * reads the values, and retries if the sequence has changed in the meantime.
+ *
+ * Writers exclude one another only for the duration of the stores themselves, never across
+ * a call out to a controller. The sequence number of a write is also useful in its own right:
+ * it tells a writer whether anyone has published since it did.
+ *
+ * <pre>
+ *     long seq;
+ *     double a, b;
+ *     do  {
+ *         seq = lock.beginRead();
+ *         a = lock.get(0);
+ *         b = lock.get(1);
+ *         } while (!lock.validate(seq));
+ * </pre>
+ */
+public final class SeqLock
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicLong      sequence = new AtomicLong(0);    // odd while a write is in progress
+    private final AtomicLongArray values;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public SeqLock(int count)
+        {
+        this.values = new AtomicLongArray(count);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Writing
+    //----------------------------------------------------------------------------------------------
+
+    /** Waits out any other writer, then begins a write */
+    public void beginWrite()
+        {
+        for (;;)
+            {
+            long seq = this.sequence.get();
+            if ((seq & 1) == 0 && this.sequence.compareAndSet(seq, seq + 1))
+                return;
+            Thread.yield();
+            }
+        }
+
+    /** Stores one of the values. Must be bracketed by beginWrite() and endWrite(). */
+    public void set(int index, double value)
+        {
+        this.values.set(index, Double.doubleToRawLongBits(value));
+        }
+
+    /** Stores one of the values as a long, such as a timestamp, which a double can't hold exactly */
+    public void setLong(int index, long value)
+        {
+        this.values.set(index, value);
+        }
+
+    /**
+     * Completes a write, publishing the values stored since beginWrite()
+     * @return the sequence number of the write
+     */
+    public long endWrite()
+        {
+        return this.sequence.incrementAndGet();
+        }
+
+    /** Publishes a single value, returning the sequence number of the write */
+    public long write(double value)
+        {
+        this.beginWrite();
+        this.set(0, value);
+        return this.endWrite();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Reading
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Begins a read, waiting out any write in progress
+     * @return the sequence number to later pass to {@link #validate(long)}
+     */
+    public long beginRead()
+        {
+        long seq;
+        while (((seq = this.sequence.get()) & 1) != 0)
+            {
+            Thread.yield();
+            }
+        return seq;
+        }
+
+    public double get(int index)
+        {
+        return Double.longBitsToDouble(this.values.get(index));
+        }
+
+    /** Reads a value stored with {@link #setLong(int, long)} */
+    public long getLong(int index)
+        {
+        return this.values.get(index);
+        }
+
+    /** Answers whether the values read since beginRead() were consistent with one another */
+    public boolean validate(long seq)
+        {
+        return this.sequence.get() == seq;
+        }
+
+    /** Reads a single value */
+    public double read(int index)
+        {
+        for (;;)
+            {
+            long   seq   = this.beginRead();
+            double value = this.get(index);
+            if (this.validate(seq))
+                return value;
+            }
+        }
+    }
@@ -18,6 +18,17 @@ public class SwerveThreadContext
     public final Thread     thread;
     public OpMode           opMode;
     public boolean          isSynchronousThread;
+    public IThunkDispatcher thunker;                // carries work from this thread to the loop() thread
+
+    // Writes of actuator values made by this thread that were deferred to the end of the
+    // hardware cycle, and how many of those have since been flushed to their controllers.
+    // Each deferred write is given the next number in sequence, and is acknowledged exactly
+    // once, so when the counts agree, nothing this thread has written is outstanding.
+    // The waiting is done by parking on the OpMode's clock, so that a simulated clock can
+    // see that the thread is blocked.
+    private long            writesDeferred = 0;     // only this thread changes it
+    private long            writesFlushed  = 0;     // guarded by this
+    private volatile boolean awaitingFlush = false;
 
     /**
      * tlsThreadContext is the thread local variable by which a SwerveThreadContext is associated with a thread
@@ -36,6 +47,7 @@ public class SwerveThreadContext
         this.thread              = Thread.currentThread();
         this.opMode              = null;
         this.isSynchronousThread = false;
+        this.thunker             = null;
         }
 
     public static SwerveThreadContext createIfNecessary()
@@ -63,6 +75,11 @@ public class SwerveThreadContext
         return getThreadContext()==null ? null : getThreadContext().opMode;
         }
 
+    public static IThunkDispatcher getThunker()
+        {
+        return getThreadContext()==null ? null : getThreadContext().thunker;
+        }
+
     public static void assertSynchronousThread()
         {
         junit.framework.Assert.assertTrue(isSynchronousThread());
@@ -77,4 +94,64 @@ public class SwerveThreadContext
         {
         return this.isSynchronousThread;
         }
+
+    //----------------------------------------------------------------------------------------------
+    // Write completion
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Called on this context's own thread when one of its writes is deferred
+     * @return the sequence number of the write
+     */
+    public long noteWriteDeferred()
+        {
+        return ++this.writesDeferred;
+        }
+
+    /**
+     * Called, on whatever thread does the flushing, when writes of this thread have been
+     * flushed to their controllers (or have been superseded by writes that have)
+     * @param count the number of writes flushed
+     */
+    public void acknowledgeWritesFlushed(int count)
+        {
+        synchronized (this)
+            {
+            this.writesFlushed += count;
+            }
+        if (this.awaitingFlush)
+            Clock.forOpMode(this.opMode).unpark(this.thread);
+        }
+
+    /**
+     * Waits until all the writes deferred so far by this context's thread have been flushed.
+     * Must be called on that thread.
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
+    public void waitForWritesFlushed() throws InterruptedException
+        {
+        long  target = this.writesDeferred;
+        Clock clock  = Clock.forOpMode(this.opMode);
+
+        // Announce that we're waiting *before* checking, so an acknowledgement racing with
+        // us is sure either to be seen by the check or to unpark us
+        this.awaitingFlush = true;
+        try {
+            while (this.getWritesFlushed() < target)
+                {
+                clock.park(this);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                }
+            }
+        finally
+            {
+            this.awaitingFlush = false;
+            }
+        }
+
+    private synchronized long getWritesFlushed()
+        {
+        return this.writesFlushed;
+        }
     }
\ No newline at end of file
@@ -6,6 +6,8 @@ import com.qualcomm.robotcore.hardware.*;
 import org.swerverobotics.library.interfaces.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SynchronousOpModeHardwareFactory processes an SDK-provided hardware map so as to allow
@@ -21,17 +23,34 @@ public class SynchronousOpModeHardwareFactory
     HardwareMap          unprocessedMap;
     HardwareMap          processedMap;
     boolean              useExperimental;
+    boolean              coalesceWrites;
+    ReadCache            readCache;         // null if sensor reads aren't cached
+
+    final Queue<WriteCoalescer>  dirtyWrites = new ConcurrentLinkedQueue<WriteCoalescer>();
+    final List<WriteCoalescer>   coalescers  = new CopyOnWriteArrayList<WriteCoalescer>();
 
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
 
     public SynchronousOpModeHardwareFactory(OpMode opmodeContext, boolean useExperimental)
+        {
+        this(opmodeContext, useExperimental, false);
+        }
+
+    public SynchronousOpModeHardwareFactory(OpMode opmodeContext, boolean useExperimental, boolean coalesceWrites)
+        {
+        this(opmodeContext, useExperimental, coalesceWrites, null);
+        }
+
+    public SynchronousOpModeHardwareFactory(OpMode opmodeContext, boolean useExperimental, boolean coalesceWrites, ReadCache readCache)
         {
         this.opmodeContext      = opmodeContext;
         this.processedMap       = null;
         this.unprocessedMap     = opmodeContext.hardwareMap;
         this.useExperimental    = useExperimental;
+        this.coalesceWrites     = coalesceWrites;
+        this.readCache          = readCache;
         }
     
     //----------------------------------------------------------------------------------------------
@@ -113,7 +132,12 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public DcMotor create(DcMotor target)
                     {
-                    return target;
+                    if (!coalesceWrites && readCache == null)
+                        return target;
+                    CoalescingDcMotor motor = new CoalescingDcMotor(target, coalesceWrites ? dirtyWrites : null, readCache);
+                    if (coalesceWrites)
+                        coalescers.add(motor.getCoalescer());
+                    return motor;
                     }
                 }
         );
@@ -125,7 +149,11 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public Servo create(Servo target)
                     {
-                    return target;
+                    if (!coalesceWrites)
+                        return target;
+                    CoalescingServo servo = new CoalescingServo(target, dirtyWrites);
+                    coalescers.add(servo.getCoalescer());
+                    return servo;
                     }
                 }
         );
@@ -141,7 +169,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public AnalogInput create(AnalogInput target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingAnalogInput(target, readCache);
                     }
                 }
         );
@@ -189,7 +217,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public DigitalChannel create(DigitalChannel target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingDigitalChannel(target, readCache);
                     }
                 }
         );
@@ -213,7 +241,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public CompassSensor create(CompassSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingCompassSensor(target, readCache);
                     }
                 }
         );
@@ -225,7 +253,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public GyroSensor create(GyroSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingGyroSensor(target, readCache);
                     }
                 }
         );
@@ -249,7 +277,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public LightSensor create(LightSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingLightSensor(target, readCache);
                     }
                 }
         );
@@ -261,7 +289,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public OpticalDistanceSensor create(OpticalDistanceSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingOpticalDistanceSensor(target, readCache);
                     }
                 }
         );
@@ -273,7 +301,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public TouchSensor create(TouchSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingTouchSensor(target, readCache);
                     }
                 }
         );
@@ -285,7 +313,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public UltrasonicSensor create(UltrasonicSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingUltrasonicSensor(target, readCache);
                     }
                 }
         );
@@ -297,7 +325,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public VoltageSensor create(VoltageSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingVoltageSensor(target, readCache);
                     }
                 }
         );
@@ -309,7 +337,7 @@ public class SynchronousOpModeHardwareFactory
                 @Override
                 public ColorSensor create(ColorSensor target)
                     {
-                    return target;
+                    return readCache == null ? target : new CachingColorSensor(target, readCache);
                     }
                 }
         );
@@ -343,7 +371,59 @@ public class SynchronousOpModeHardwareFactory
 
     public void stop()
         {
-        // Nothing to do, these days
+        // Writes still outstanding are dropped: the OpMode is no longer entitled to move anything
+        WriteCoalescer coalescer;
+        while ((coalescer = this.dirtyWrites.poll()) != null)
+            {
+            coalescer.abandon();
+            }
+        }
+
+    /**
+     * Issues all the actuator writes deferred during the current hardware cycle. Called
+     * by the loop() thread once per cycle.
+     */
+    public void flushWrites()
+        {
+        // The queue's monitor lets a MotorGroup keep its writes from being split across two flushes
+        synchronized (this.dirtyWrites)
+            {
+            WriteCoalescer coalescer;
+            while ((coalescer = this.dirtyWrites.poll()) != null)
+                {
+                coalescer.flush();
+                }
+            }
+        }
+
+    /**
+     * Returns the write coalescing statistics summed over all the actuators of the processed map
+     */
+    public IWriteCoalescingStatistics getWriteStatistics()
+        {
+        return new IWriteCoalescingStatistics()
+            {
+            @Override public long getWritesRequested()
+                {
+                long result = 0;
+                for (WriteCoalescer coalescer : coalescers)
+                    result += coalescer.getWritesRequested();
+                return result;
+                }
+
+            @Override public long getWritesIssued()
+                {
+                long result = 0;
+                for (WriteCoalescer coalescer : coalescers)
+                    result += coalescer.getWritesIssued();
+                return result;
+                }
+
+            @Override public long getWritesSaved()
+                {
+                return this.getWritesRequested() - this.getWritesIssued();
+                }
+            };
         }
         
     private interface IFactory<T>
@@ -0,0 +1,159 @@
+package org.swerverobotics.library.internal;
+
+import android.os.Debug;
+
+import org.swerverobotics.library.interfaces.ISynchronousWorkerStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SynchronousWorkerPool is the executor on which SynchronousOpMode runs its synchronous threads.
+ * Unlike a cached thread pool it is bounded: synchronous thread bodies generally run until the
+ * OpMode stops, so queueing one behind another would be pointless, and an attempt to run more
+ * than the maximum number at once is instead refused. Each thread it creates is named and
+ * tracked so that its lifetime and CPU consumption can be reported.
+ */
+public class SynchronousWorkerPool extends ThreadPoolExecutor
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final String                       name;
+    private final List<WorkerStatistics>       workers = new CopyOnWriteArrayList<WorkerStatistics>();
+    private final ThreadLocal<WorkerStatistics> currentWorker = new ThreadLocal<WorkerStatistics>();
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public SynchronousWorkerPool(String name, int maxThreads)
+        {
+        super(0, maxThreads, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+        this.name = name;
+        this.setThreadFactory(new WorkerThreadFactory());
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the command on an idle worker thread, or on a new one if there are none idle.
+     * @throws IllegalStateException if all worker threads are busy, or if the pool is shut down
+     */
+    @Override public void execute(Runnable command)
+        {
+        try {
+            super.execute(command);
+            }
+        catch (RejectedExecutionException e)
+            {
+            throw new IllegalStateException(this.isShutdown()
+                    ? String.format("%s: pool is shut down", this.name)
+                    : String.format("%s: all %d threads are busy", this.name, this.getMaximumPoolSize()));
+            }
+        }
+
+    /**
+     * Returns a snapshot of the statistics of all the threads this pool has ever created
+     */
+    public List<ISynchronousWorkerStatistics> getWorkerStatistics()
+        {
+        return new ArrayList<ISynchronousWorkerStatistics>(this.workers);
+        }
+
+    @Override protected void beforeExecute(Thread thread, Runnable command)
+        {
+        WorkerStatistics worker = this.currentWorker.get();
+        if (worker != null)
+            worker.runCount++;
+        super.beforeExecute(thread, command);
+        }
+
+    @Override protected void afterExecute(Runnable command, Throwable throwable)
+        {
+        super.afterExecute(command, throwable);
+        WorkerStatistics worker = this.currentWorker.get();
+        if (worker != null)
+            worker.updateCpuNanos();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Workers
+    //----------------------------------------------------------------------------------------------
+
+    private class WorkerThreadFactory implements ThreadFactory
+        {
+        int threadCount = 0;
+
+        @Override public synchronized Thread newThread(final Runnable runnable)
+            {
+            final WorkerStatistics worker = new WorkerStatistics(String.format("%s-%d", name, threadCount++));
+            Thread thread = new Thread(new Runnable()
+                {
+                @Override public void run()
+                    {
+                    worker.nanoTimeStarted = System.nanoTime();
+                    worker.alive = true;
+                    currentWorker.set(worker);
+                    try {
+                        runnable.run();
+                        }
+                    finally
+                        {
+                        worker.updateCpuNanos();
+                        worker.nanoTimeStopped = System.nanoTime();
+                        worker.alive = false;
+                        }
+                    }
+                }, worker.name);
+            workers.add(worker);
+            return thread;
+            }
+        }
+
+    /**
+     * The fields of a WorkerStatistics are only ever written by its own thread
+     */
+    private static class WorkerStatistics implements ISynchronousWorkerStatistics
+        {
+        final String     name;
+        volatile boolean alive           = false;
+        volatile long    nanoTimeStarted = 0;
+        volatile long    nanoTimeStopped = 0;
+        volatile long    cpuNanos        = 0;
+        volatile int     runCount        = 0;
+
+        WorkerStatistics(String name)
+            {
+            this.name = name;
+            }
+
+        void updateCpuNanos()
+            {
+            long nanos = Debug.threadCpuTimeNanos();
+            if (nanos >= 0)     // -1 if the platform can't tell us
+                this.cpuNanos = nanos;
+            }
+
+        @Override public String  getName()            { return this.name; }
+        @Override public boolean isAlive()            { return this.alive; }
+        @Override public long    getNanoTimeStarted() { return this.nanoTimeStarted; }
+        @Override public long    getNanoTimeStopped() { return this.nanoTimeStopped; }
+        @Override public long    getCpuNanos()        { return this.cpuNanos; }
+        @Override public int     getRunCount()        { return this.runCount; }
+
+        @Override public String toString()
+            {
+            return String.format("%s: runs=%d cpu=%.1fms", this.name, this.runCount, this.cpuNanos * 1e-6);
+            }
+        }
+    }
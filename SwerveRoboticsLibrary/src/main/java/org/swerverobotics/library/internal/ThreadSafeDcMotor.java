@@ -2,11 +2,32 @@ package org.swerverobotics.library.internal;
 
 import com.qualcomm.robotcore.hardware.*;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * ThreadSafeServo modifies the FTC-provided DCMotor so that it is thread-safe.
+ * ThreadSafeDcMotor modifies the FTC-provided DCMotor so that it is thread-safe. No monitor is
+ * taken: the direction and run mode live together in one atomic int, so that setPower() sees a
+ * consistent pair of them, and the power is published through a {@link SeqLock}.
+ *
+ * When two threads set the power at once, the two controller writes may land in either order.
+ * A writer therefore checks, after its controller write, whether anyone published a newer power
+ * in the meantime, and if so writes that one again; the controller thus always ends up with the
+ * power that was set last.
  */
 public class ThreadSafeDcMotor extends DcMotor
     {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static final int REVERSE    = 1;    // bit 0: direction; the rest: ordinal of the mode
+    private static final int MODE_SHIFT = 1;
+
+    private static final DcMotorController.RunMode[] modes = DcMotorController.RunMode.values();
+
+    private final AtomicInteger state;
+    private final SeqLock       power = new SeqLock(1);    // as last sent to the controller
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -14,37 +35,123 @@ public class ThreadSafeDcMotor extends DcMotor
     public ThreadSafeDcMotor(DcMotorController controller, int portNumber, DcMotor.Direction direction)
         {
         super(controller, portNumber, direction);
+        this.state = new AtomicInteger(pack(direction, this.mode));
+        }
+
+    private static int pack(DcMotor.Direction direction, DcMotorController.RunMode mode)
+        {
+        return (mode.ordinal() << MODE_SHIFT) | (direction == Direction.REVERSE ? REVERSE : 0);
+        }
+
+    private static boolean isReverse(int state)
+        {
+        return (state & REVERSE) != 0;
+        }
+
+    private static DcMotorController.RunMode modeOf(int state)
+        {
+        return modes[state >>> MODE_SHIFT];
         }
 
     //----------------------------------------------------------------------------------------------
     // Operations
     //----------------------------------------------------------------------------------------------
 
-    public synchronized void setDirection(DcMotor.Direction direction)
+    @Override public void setDirection(DcMotor.Direction direction)
+        {
+        for (;;)
+            {
+            int state = this.state.get();
+            int next  = direction == Direction.REVERSE ? (state | REVERSE) : (state & ~REVERSE);
+            if (this.state.compareAndSet(state, next))
+                break;
+            }
+        }
+
+    @Override public DcMotor.Direction getDirection()
         {
-        // super writes direction
-        super.setDirection(direction);
+        return isReverse(this.state.get()) ? Direction.REVERSE : Direction.FORWARD;
         }
 
-    public synchronized void setPower(double power)
+    @Override public void setPower(double power)
         {
-        // super reads direction, mode
-        super.setPower(power);
+        int state = this.state.get();
+        if (isReverse(state))
+            power = -power;
+        if (modeOf(state) == DcMotorController.RunMode.RUN_TO_POSITION)
+            power = Math.abs(power);
+
+        long seq = this.power.write(power);
+        this.internalSetPower(power);
+
+        // If someone published after us, their write may have reached the controller before
+        // ours did: make sure that the latest power is the one the controller is left with.
+        for (;;)
+            {
+            long   seqNow = this.power.beginRead();
+            double latest = this.power.get(0);
+            if (!this.power.validate(seqNow))
+                continue;
+            if (seqNow == seq)
+                break;
+            this.internalSetPower(latest);
+            seq = seqNow;
+            }
         }
 
-    public synchronized double getPower()
+    @Override public double getPower()
         {
-        // super reads direction
-        return super.getPower();
+        double power = this.controller.getMotorPower(this.portNumber);
+        if (isReverse(this.state.get()) && power != 0)
+            power = -power;
+        return power;
+        }
+
+    @Override public void setTargetPosition(int position)
+        {
+        if (isReverse(this.state.get()))
+            position = -position;
+        this.internalSetTargetPosition(position);
+        }
+
+    @Override public int getTargetPosition()
+        {
+        int position = this.controller.getMotorTargetPosition(this.portNumber);
+        return isReverse(this.state.get()) ? -position : position;
+        }
+
+    @Override public int getCurrentPosition()
+        {
+        int position = this.controller.getMotorCurrentPosition(this.portNumber);
+        return isReverse(this.state.get()) ? -position : position;
+        }
+
+    @Override public void setMode(DcMotorController.RunMode mode)
+        {
+        for (;;)
+            {
+            int state = this.state.get();
+            int next  = pack(isReverse(state) ? Direction.REVERSE : Direction.FORWARD, mode);
+            if (this.state.compareAndSet(state, next))
+                break;
+            }
+        this.internalSetMode(mode);
+
+        // As with power: a racing setMode() mustn't leave the controller in a mode other than the last one set
+        DcMotorController.RunMode latest;
+        while ((latest = modeOf(this.state.get())) != mode)
+            {
+            this.internalSetMode(latest);
+            mode = latest;
+            }
         }
 
-    public synchronized void setChannelMode(DcMotorController.RunMode mode)
+    @Override public void setChannelMode(DcMotorController.RunMode mode)
         {
-        // super writes mode
-        super.setChannelMode(mode);
+        this.setMode(mode);
         }
 
-    public DcMotorController.RunMode getChannelMode()
+    @Override public DcMotorController.RunMode getChannelMode()
         {
         return this.controller.getMotorChannelMode(this.portNumber);
         }
@@ -4,7 +4,9 @@ import com.qualcomm.robotcore.hardware.PWMOutput;
 import com.qualcomm.robotcore.hardware.PWMOutputController;
 
 /**
- * Another in our series
+ * Another in our series. A PWMOutput keeps no state of its own, only its controller and
+ * channel, which never change; its operations are therefore thread-safe as they stand, and
+ * need take no monitor. The controller serializes its own accesses.
  */
 public class ThreadSafePWMOutput extends PWMOutput
     {
@@ -30,22 +32,22 @@ public class ThreadSafePWMOutput extends PWMOutput
     // Operations
     //----------------------------------------------------------------------------------------------
 
-    @Override public synchronized void setPulseWidthOutputTime(int time) 
+    @Override public void setPulseWidthOutputTime(int time)
         {
         super.setPulseWidthOutputTime(time);
         }
 
-    @Override public synchronized int getPulseWidthOutputTime()
+    @Override public int getPulseWidthOutputTime()
         {
         return super.getPulseWidthOutputTime();
         }
 
-    @Override public synchronized void setPulseWidthPeriod(int period) 
+    @Override public void setPulseWidthPeriod(int period)
         {
         super.setPulseWidthPeriod(period);
         }
 
-    @Override public synchronized int getPulseWidthPeriod()
+    @Override public int getPulseWidthPeriod()
         {
         return super.getPulseWidthPeriod();
         }
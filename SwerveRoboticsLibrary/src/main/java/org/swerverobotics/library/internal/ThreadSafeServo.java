@@ -1,12 +1,31 @@
 package org.swerverobotics.library.internal;
 
 import com.qualcomm.robotcore.hardware.*;
+import com.qualcomm.robotcore.util.Range;
 
 /**
- * ThreadSafeServo modifies the FTC-provided Servo so that it is thread-safe.
+ * ThreadSafeServo modifies the FTC-provided Servo so that it is thread-safe. No monitor is
+ * taken: the direction and scaling range are published together through one {@link SeqLock},
+ * so that a position is never scaled with half of an old range and half of a new one, and the
+ * position itself is published through another.
+ *
+ * As in {@link ThreadSafeDcMotor}, a writer who finds after its controller write that a newer
+ * position has been published writes that one again, so the controller is always left with
+ * the position that was set last.
  */
 public class ThreadSafeServo extends com.qualcomm.robotcore.hardware.Servo
     {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static final int IREVERSE = 0;      // indices into config
+    private static final int IMIN     = 1;
+    private static final int IMAX     = 2;
+
+    private final SeqLock config   = new SeqLock(3);
+    private final SeqLock position = new SeqLock(1);   // as last sent to the controller
+
     //----------------------------------------------------------------------------------------------
     // Construction
     //----------------------------------------------------------------------------------------------
@@ -14,34 +33,90 @@ public class ThreadSafeServo extends com.qualcomm.robotcore.hardware.Servo
     public ThreadSafeServo(ServoController controller, int portNumber, Servo.Direction direction)
         {
         super(controller, portNumber, direction);
+        this.config.beginWrite();
+        this.config.set(IREVERSE, direction == Direction.REVERSE ? 1 : 0);
+        this.config.set(IMIN,     this.limitPositionMin);
+        this.config.set(IMAX,     this.limitPositionMax);
+        this.config.endWrite();
         }
 
     //----------------------------------------------------------------------------------------------
     // Operations
     //----------------------------------------------------------------------------------------------
 
-    public synchronized void setDirection(Servo.Direction direction)
+    @Override public void setDirection(Servo.Direction direction)
         {
-        // super sets direction
-        super.setDirection(direction);
+        this.config.beginWrite();
+        this.config.set(IREVERSE, direction == Direction.REVERSE ? 1 : 0);
+        this.config.endWrite();
         }
 
-    public synchronized void setPosition(double position)
+    @Override public Servo.Direction getDirection()
         {
-        // super uses direction, minPosition, maxPosition
-        super.setPosition(position);
+        return this.config.read(IREVERSE) != 0 ? Direction.REVERSE : Direction.FORWARD;
         }
 
-    public synchronized double getPosition()
+    @Override public void setPosition(double position)
         {
-        // super uses direction, minPosition, maxPosition
-        return super.getPosition();
+        double reverse, min, max;
+        long seqConfig;
+        do  {
+            seqConfig = this.config.beginRead();
+            reverse   = this.config.get(IREVERSE);
+            min       = this.config.get(IMIN);
+            max       = this.config.get(IMAX);
+            } while (!this.config.validate(seqConfig));
+
+        position = Range.clip(position, MIN_POSITION, MAX_POSITION);
+        if (reverse != 0)
+            position = MAX_POSITION - position;
+        position = Range.scale(position, MIN_POSITION, MAX_POSITION, min, max);
+
+        long seq = this.position.write(position);
+        this.internalSetPosition(position);
+
+        // If someone published after us, make sure theirs is the position the controller keeps
+        for (;;)
+            {
+            long   seqNow = this.position.beginRead();
+            double latest = this.position.get(0);
+            if (!this.position.validate(seqNow))
+                continue;
+            if (seqNow == seq)
+                break;
+            this.internalSetPosition(latest);
+            seq = seqNow;
+            }
         }
 
-    public synchronized void scaleRange(double min, double max) throws IllegalArgumentException
+    @Override public double getPosition()
         {
-        // super sets minPosition, maxPosition
-        super.scaleRange(min, max);
+        double reverse, min, max;
+        long seqConfig;
+        do  {
+            seqConfig = this.config.beginRead();
+            reverse   = this.config.get(IREVERSE);
+            min       = this.config.get(IMIN);
+            max       = this.config.get(IMAX);
+            } while (!this.config.validate(seqConfig));
+
+        double position = this.controller.getServoPosition(this.portNumber);
+        if (reverse != 0)
+            position = MAX_POSITION - position;
+        position = Range.scale(position, min, max, MIN_POSITION, MAX_POSITION);
+        return Range.clip(position, MIN_POSITION, MAX_POSITION);
         }
 
+    @Override public void scaleRange(double min, double max) throws IllegalArgumentException
+        {
+        Range.throwIfRangeIsInvalid(min, MIN_POSITION, MAX_POSITION);
+        Range.throwIfRangeIsInvalid(max, MIN_POSITION, MAX_POSITION);
+        if (min >= max)
+            throw new IllegalArgumentException("min must be less than max");
+
+        this.config.beginWrite();
+        this.config.set(IMIN, min);
+        this.config.set(IMAX, max);
+        this.config.endWrite();
+        }
     }
@@ -2,14 +2,31 @@ package org.swerverobotics.library.internal;
 
 import android.util.Log;
 
-import java.util.*;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.swerverobotics.library.SynchronousOpMode;
-import org.swerverobotics.library.interfaces.*;
+import org.swerverobotics.library.interfaces.IThunkDispatcher;
 
 /**
- * ThunkBase contains most of the code for thunking a call from a synchronous thread to the loop() thread
+ * Thunk carries a call from a synchronous thread over to the loop() thread, where it is run
+ * by the {@link ThunkDispatcher}. Thunks are cheap to use over and over again:
+ *
+ * <ul>
+ * <li>A thunk class that is dispatched often should get its instances from a {@link Pool},
+ *     which recycles them, so that once the pool has warmed up, a dispatch allocates nothing.
+ *     Its action keys are kept in an int array that is reused along with it.</li>
+ * <li>Completion is signalled with a one-shot latch: a volatile state, and an unpark of the
+ *     dispatching thread if (and only if) it is waiting. No monitor is taken by either side.
+ *     Should the waiter be interrupted, the latch also settles which side returns the thunk
+ *     to its pool.</li>
+ * </ul>
+ *
+ * A thunk is dispatched with either {@link #dispatch()}, after which the dispatching thread
+ * calls {@link #waitForCompletion()} (which returns a pooled thunk to its pool), or with
+ * {@link #dispatchAndForget()}, in which case the loop() thread returns it to its pool once
+ * it has run.
  *
  * @see <a href="https://en.wikipedia.org/wiki/Thunk">https://en.wikipedia.org/wiki/Thunk</a>
  */
@@ -19,10 +36,29 @@ public abstract class Thunk implements Runnable, IActionKeyed
     // State
     //----------------------------------------------------------------------------------------------
 
-    private   final SynchronousThreadContext context;
-    protected final Object                   theLock;
-    protected       RuntimeException         exception;
-    public    final List<Integer>            actionKeys;
+    private static final int    FREE     = 0;   // in the pool
+    private static final int    ACQUIRED = 1;   // out of the pool, or never in one
+
+    private static final int    PENDING   = 0;  // not yet completed
+    private static final int    DONE      = 1;  // completed; the waiter (if any) frees the thunk
+    private static final int    ABANDONED = 2;  // the waiter gave up; completion frees the thunk
+
+    private static final AtomicIntegerFieldUpdater<Thunk> latchUpdater = AtomicIntegerFieldUpdater.newUpdater(Thunk.class, "latch");
+
+    private       Pool<?>           pool;
+    private       IThunkDispatcher  dispatcher;
+    private       Clock             clock;
+    private       Thread            dispatchingThread;
+    protected     RuntimeException  exception;
+    private       int[]             actionKeys  = new int[2];
+    private       int               cActionKeys = 0;
+    private volatile boolean        forget;
+    int                             singletonKey;
+    Thunk                           next;               // link in the dispatcher's queue
+
+    private volatile int            state;
+    private volatile int            latch;
+    private volatile boolean        waiting;
 
     //----------------------------------------------------------------------------------------------
     // Construction
@@ -30,10 +66,90 @@ public abstract class Thunk implements Runnable, IActionKeyed
 
     public Thunk()
         {
-        this.context    = SynchronousThreadContext.getThreadContext();
-        this.theLock    = new Object();
-        this.exception  = null;
-        this.actionKeys = new LinkedList<Integer>();
+        this.pool  = null;
+        this.state = ACQUIRED;
+        this.reset();
+        }
+
+    // Readies the thunk for a (re)use on the current thread
+    private void reset()
+        {
+        this.dispatcher        = SwerveThreadContext.getThunker();
+        this.clock             = Clock.current();
+        this.dispatchingThread = Thread.currentThread();
+        this.exception         = null;
+        this.cActionKeys       = 0;
+        this.forget            = false;
+        this.singletonKey      = 0;
+        this.next              = null;
+        this.latch             = PENDING;
+        this.waiting           = false;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Pooling
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * A Pool recycles the thunks of one class. Each thread has its own set of them, so
+     * acquiring takes no lock; a thunk becomes available again once it has completed and
+     * (if it was dispatched with {@link #dispatch()}) been waited for.
+     */
+    public static abstract class Pool<T extends Thunk>
+        {
+        private final ThreadLocal<PerThread> perThread = new ThreadLocal<PerThread>()
+            {
+            @Override protected PerThread initialValue()
+                {
+                return new PerThread();
+                }
+            };
+
+        private class PerThread
+            {
+            Thunk[] thunks = new Thunk[4];
+            int     count  = 0;
+            int     iNext  = 0;
+            }
+
+        /** Creates a new thunk for the pool */
+        protected abstract T create();
+
+        /**
+         * Returns a thunk from the pool, ready to be filled in and dispatched
+         * @return a thunk not in use by anyone
+         */
+        @SuppressWarnings("unchecked")
+        public T acquire()
+            {
+            PerThread pool = this.perThread.get();
+
+            // Only we take thunks out of the free state, so seeing one there is enough
+            for (int i = 0; i < pool.count; i++)
+                {
+                Thunk thunk = pool.thunks[pool.iNext];
+                pool.iNext = (pool.iNext + 1) % pool.count;
+                if (thunk.state == FREE)
+                    {
+                    thunk.state = ACQUIRED;
+                    thunk.reset();
+                    return (T)thunk;
+                    }
+                }
+
+            T thunk = this.create();
+            ((Thunk)thunk).pool = this;
+            if (pool.count == pool.thunks.length)
+                pool.thunks = Arrays.copyOf(pool.thunks, pool.count * 2);
+            pool.thunks[pool.count++] = thunk;
+            return thunk;
+            }
+        }
+
+    private void release()
+        {
+        if (this.pool != null)
+            this.state = FREE;
         }
 
     //----------------------------------------------------------------------------------------------
@@ -42,26 +158,33 @@ public abstract class Thunk implements Runnable, IActionKeyed
 
     public static final int          nullActionKey = 0;
     static AtomicInteger             prevActionKey = new AtomicInteger(nullActionKey);
-    
+
     public static int getNewActionKey()
         {
         return prevActionKey.incrementAndGet();
         }
-    
+
     public void addActionKey(int actionKey)
         {
-        this.actionKeys.add(actionKey);
+        if (this.cActionKeys == this.actionKeys.length)
+            this.actionKeys = Arrays.copyOf(this.actionKeys, this.cActionKeys * 2);
+        this.actionKeys[this.cActionKeys++] = actionKey;
         }
 
     //----------------------------------------------------------------------------------------------
     // IActionKeyed
     //----------------------------------------------------------------------------------------------
-    
-    @Override public List<Integer> getActionKeys()
+
+    @Override public int getActionKeyCount()
+        {
+        return this.cActionKeys;
+        }
+
+    @Override public int getActionKey(int index)
         {
-        return this.actionKeys;
+        return this.actionKeys[index];
         }
-    
+
     //----------------------------------------------------------------------------------------------
     // Actions
     //----------------------------------------------------------------------------------------------
@@ -81,26 +204,67 @@ public abstract class Thunk implements Runnable, IActionKeyed
             this.exception = e;
             Log.e(SynchronousOpMode.LOGGING_TAG, "exception thrown during action: " + e);
             }
+        this.complete();
+        }
+
+    // Signals completion without running the action (as the dispatcher does for a singleton
+    // that was superseded, or for what's left when the OpMode stops)
+    void complete()
+        {
+        if (this.forget)
+            {
+            // No one's waiting: once it's back in the pool, we mustn't touch it
+            this.latch = DONE;
+            this.release();
+            return;
+            }
 
-        // Tell all those waiting on the completion of this thunk that we are done
-        synchronized (theLock)
+        Thread waiter = this.dispatchingThread;
+        Clock  clock  = this.clock;
+        if (!latchUpdater.compareAndSet(this, PENDING, DONE))
             {
-            theLock.notifyAll();
+            // The waiter was interrupted and left it to us to free the thunk
+            this.release();
+            return;
             }
+        // The waiter sets 'waiting' and then checks the latch; we set the latch and then
+        // check 'waiting', so at least one of us sees the other. Should the waiter have seen
+        // we're done, and already have reused us, we unpark it for nothing, which is harmless.
+        if (this.waiting)
+            clock.unpark(waiter);
         }
 
+    /**
+     * Waits until the action has been carried out on the loop thread, then returns the thunk
+     * to its pool (if it has one). If the action threw, the exception is rethrown here.
+     *
+     * @throws InterruptedException thrown if the thread is interrupted
+     */
     protected void waitForCompletion() throws InterruptedException
         {
-        // Wait until the action is carried out on the loop thread
-        synchronized (theLock)
+        if (this.latch != DONE)
             {
-            theLock.wait();
+            this.waiting = true;
+            while (this.latch != DONE)
+                {
+                if (Thread.interrupted())
+                    {
+                    // Exactly one of us frees the thunk: the dispatcher, when it completes us,
+                    // if we get our word in first; otherwise, since it already has, we do.
+                    if (!latchUpdater.compareAndSet(this, PENDING, ABANDONED))
+                        this.release();
+                    throw new InterruptedException();
+                    }
+                this.clock.park(this);
+                }
             }
 
         // If an exception was thrown on the loop thread, then re-throw it here
-        if (this.exception != null)
+        RuntimeException exception = this.exception;
+        this.release();
+        if (exception != null)
             {
-            throw this.exception;
+            throw exception;
             }
         }
 
@@ -110,11 +274,22 @@ public abstract class Thunk implements Runnable, IActionKeyed
     protected abstract void actionOnLoopThread();
 
     /**
-     * Dispatch this thunk over to the loop thread.
+     * Dispatch this thunk over to the loop thread. The caller must then call
+     * {@link #waitForCompletion()}.
      */
     protected void dispatch() throws InterruptedException
         {
-        SynchronousThreadContext.assertSynchronousThread();
-        this.context.getThunker().executeOnLoopThread(this);
+        SwerveThreadContext.assertSynchronousThread();
+        this.dispatcher.executeOnLoopThread(this);
+        }
+
+    /**
+     * Dispatch this thunk over to the loop thread without waiting for it. Any exception it
+     * throws there is logged, and otherwise ignored.
+     */
+    protected void dispatchAndForget() throws InterruptedException
+        {
+        this.forget = true;
+        this.dispatch();
         }
-    }
\ No newline at end of file
+    }
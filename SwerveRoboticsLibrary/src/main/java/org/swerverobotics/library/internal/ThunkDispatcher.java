@@ -0,0 +1,179 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.IThunkDispatcher;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ThunkDispatcher carries thunks from the synchronous threads over to the loop() thread, which
+ * runs all those that are pending in one batch per hardware cycle by calling {@link #drain()}.
+ *
+ * Pending thunks are linked through themselves onto a lock-free stack: dispatching is a single
+ * compare-and-set, and allocates nothing. The loop() thread takes the whole stack at once, and
+ * reverses it so that the thunks run in the order in which they were dispatched. Actions that
+ * aren't thunks are wrapped in one, which does allocate.
+ *
+ * Of the singletons pending with the same key, only the one dispatched last is run; those it
+ * supersedes are completed without being run.
+ *
+ * Nothing in the library dispatches thunks as yet (only the ThunkDispatchPerf test does), so
+ * the loop() thread's drain each cycle usually finds nothing pending. That case costs a single
+ * volatile read.
+ */
+public class ThunkDispatcher implements IThunkDispatcher
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final AtomicReference<Thunk>    pending         = new AtomicReference<Thunk>(null);
+    private final AtomicInteger             prevSingletonKey = new AtomicInteger(0);
+    private long                            batchCount      = 0;    // loop() thread only
+    private long                            thunkCount      = 0;    // ditto
+
+    //----------------------------------------------------------------------------------------------
+    // IThunkDispatcher
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void executeOnLoopThread(Runnable action)
+        {
+        this.push(asThunk(action));
+        }
+
+    @Override public void executeSingletonOnLoopThread(int singletonKey, Runnable action)
+        {
+        Thunk thunk = asThunk(action);
+        thunk.singletonKey = singletonKey;
+        this.push(thunk);
+        }
+
+    @Override public int getNewSingletonKey()
+        {
+        return this.prevSingletonKey.incrementAndGet();
+        }
+
+    private static Thunk asThunk(final Runnable action)
+        {
+        if (action instanceof Thunk)
+            return (Thunk)action;
+
+        Thunk result = new Thunk()
+            {
+            @Override protected void actionOnLoopThread()
+                {
+                action.run();
+                }
+            };
+        return result;
+        }
+
+    private void push(Thunk thunk)
+        {
+        for (;;)
+            {
+            Thunk head = this.pending.get();
+            thunk.next = head;
+            if (this.pending.compareAndSet(head, thunk))
+                return;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Runs all the thunks that are pending, in the order in which they were dispatched.
+     * Called once per hardware cycle by the loop() thread.
+     *
+     * @return the number of thunks run
+     */
+    public int drain()
+        {
+        if (this.pending.get() == null)
+            return 0;
+
+        Thunk first = this.takeAll();
+        if (first == null)
+            return 0;
+
+        int result = 0;
+        while (first != null)
+            {
+            // Read the link first: once it completes, the thunk may be reused
+            Thunk thunk = first;
+            first = thunk.next;
+            thunk.next = null;
+
+            if (thunk.singletonKey != 0 && isSuperseded(thunk, first))
+                thunk.complete();
+            else
+                {
+                thunk.run();
+                result++;
+                }
+            }
+
+        this.batchCount++;
+        this.thunkCount += result;
+        return result;
+        }
+
+    /**
+     * Completes all the thunks that are pending without running them. Called once the
+     * synchronous threads have stopped.
+     */
+    public void abandon()
+        {
+        Thunk thunk = this.takeAll();
+        while (thunk != null)
+            {
+            Thunk next = thunk.next;
+            thunk.next = null;
+            thunk.complete();
+            thunk = next;
+            }
+        }
+
+    // Takes the whole stack, and returns it in the order in which it was pushed
+    private Thunk takeAll()
+        {
+        Thunk thunk    = this.pending.getAndSet(null);
+        Thunk reversed = null;
+        while (thunk != null)
+            {
+            Thunk next = thunk.next;
+            thunk.next = reversed;
+            reversed   = thunk;
+            thunk      = next;
+            }
+        return reversed;
+        }
+
+    private static boolean isSuperseded(Thunk thunk, Thunk later)
+        {
+        for (; later != null; later = later.next)
+            {
+            if (later.singletonKey == thunk.singletonKey)
+                return true;
+            }
+        return false;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Statistics
+    //----------------------------------------------------------------------------------------------
+
+    /** Returns the number of batches (non-empty drains) run so far. Loop thread only. */
+    public long getBatchCount()
+        {
+        return this.batchCount;
+        }
+
+    /** Returns the number of thunks run so far. Loop thread only. */
+    public long getThunkCount()
+        {
+        return this.thunkCount;
+        }
+    }
@@ -4,6 +4,7 @@ import com.qualcomm.robotcore.hardware.*;
 import com.qualcomm.robotcore.util.*;
 
 import org.swerverobotics.library.exceptions.*;
+import org.swerverobotics.library.interfaces.IHardwareWrapper;
 import java.lang.reflect.*;
 import java.util.*;
 import java.util.concurrent.*;
@@ -89,6 +90,20 @@ public class Util
         return false;
         }
 
+    /**
+     * Strips away any wrappers (such as those of the processed hardware map) that the device
+     * may be inside of, returning the SDK object that was originally constructed
+     */
+    @SuppressWarnings("unchecked")  // a wrapper always wraps a device of its own kind
+    public static <T> T unwrap(T device)
+        {
+        while (device instanceof IHardwareWrapper)
+            {
+            device = (T)((IHardwareWrapper<?>)device).getWrappedTarget();
+            }
+        return device;
+        }
+
     //----------------------------------------------------------------------------------------------
     // String
     //----------------------------------------------------------------------------------------------
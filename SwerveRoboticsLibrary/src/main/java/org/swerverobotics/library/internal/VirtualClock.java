@@ -0,0 +1,283 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * VirtualClock is a simulated clock whose time only moves when it is explicitly advanced.
+ * It keeps track of the synchronous threads of the OpMode and of which of them are blocked
+ * on the clock (parked or sleeping), which lets a harness wait until every one of them is
+ * blocked before it moves time forward. Since the threads can then only be released by the
+ * harness, the whole OpMode advances in lock step with it.
+ *
+ * All state is guarded by the clock's own monitor, which is also what blocked threads wait on.
+ *
+ * @see VirtualTimeHarness
+ */
+public class VirtualClock extends Clock
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private static class Waiter
+        {
+        final long    nsDeadline;
+        final boolean sleeping;     // sleepers ignore unpark()
+        boolean       permit;
+
+        Waiter(long nsDeadline, boolean sleeping)
+            {
+            this.nsDeadline = nsDeadline;
+            this.sleeping   = sleeping;
+            }
+        }
+
+    private volatile long            nanoTime;
+    private volatile boolean         opModeStopRequested = false;
+    private final Map<Thread,Waiter> waiters      = new HashMap<Thread,Waiter>();
+    private final Set<Thread>        permits      = new HashSet<Thread>();
+    private final Set<Thread>        participants = new HashSet<Thread>();
+    private int                      threadsSpawning = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param nsStart the time at which the clock starts. Since some code treats a time of
+     *                zero as 'never', this is best not zero.
+     */
+    public VirtualClock(long nsStart)
+        {
+        this.nanoTime = nsStart;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // IClock
+    //----------------------------------------------------------------------------------------------
+
+    @Override public long nanoTime()
+        {
+        return this.nanoTime;
+        }
+
+    @Override public boolean isRealTime()
+        {
+        return false;
+        }
+
+    @Override public void sleep(long ms) throws InterruptedException
+        {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        if (ms <= 0)
+            return;
+
+        Thread thread = Thread.currentThread();
+        synchronized (this)
+            {
+            long nsDeadline = saturatingAdd(this.nanoTime, ms * ElapsedTime.MILLIS_IN_NANO);
+            this.waiters.put(thread, new Waiter(nsDeadline, true));
+            this.notifyAll();
+            try {
+                while (this.nanoTime < nsDeadline)
+                    this.wait();
+                }
+            finally
+                {
+                this.waiters.remove(thread);
+                this.notifyAll();
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Blocking
+    //----------------------------------------------------------------------------------------------
+
+    @Override public void park(Object blocker)
+        {
+        this.parkUntil(Long.MAX_VALUE);
+        }
+
+    @Override public void parkNanos(Object blocker, long nsTimeout)
+        {
+        if (nsTimeout > 0)
+            this.parkUntil(saturatingAdd(this.nanoTime, nsTimeout));
+        }
+
+    private synchronized void parkUntil(long nsDeadline)
+        {
+        Thread thread = Thread.currentThread();
+        if (this.permits.remove(thread) || thread.isInterrupted())
+            return;
+
+        Waiter waiter = new Waiter(nsDeadline, false);
+        this.waiters.put(thread, waiter);
+        this.notifyAll();
+        try {
+            while (!waiter.permit && this.nanoTime < nsDeadline)
+                this.wait();
+            }
+        catch (InterruptedException e)
+            {
+            // As with LockSupport.park(), return with the interrupt status set
+            thread.interrupt();
+            }
+        finally
+            {
+            this.waiters.remove(thread);
+            this.notifyAll();
+            }
+        }
+
+    @Override public synchronized void unpark(Thread thread)
+        {
+        Waiter waiter = this.waiters.get(thread);
+        if (waiter != null && !waiter.sleeping)
+            {
+            waiter.permit = true;
+            this.notifyAll();
+            }
+        else
+            this.permits.add(thread);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Synchronous threads
+    //----------------------------------------------------------------------------------------------
+
+    @Override public synchronized void threadSpawning()
+        {
+        this.threadsSpawning++;
+        }
+
+    @Override public synchronized void threadSpawnFailed()
+        {
+        this.threadsSpawning--;
+        this.notifyAll();
+        }
+
+    @Override public synchronized void threadStarting()
+        {
+        this.threadsSpawning--;
+        this.participants.add(Thread.currentThread());
+        this.notifyAll();
+        }
+
+    @Override public synchronized void threadStopping()
+        {
+        this.participants.remove(Thread.currentThread());
+        this.notifyAll();
+        }
+
+    /** There's no robot controller runtime to ask; we just remember that we were asked */
+    @Override public void requestOpModeStop(OpMode opMode)
+        {
+        this.opModeStopRequested = true;
+        }
+
+    public boolean isOpModeStopRequested()
+        {
+        return this.opModeStopRequested;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Driving (harness thread)
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Moves the time forward to nsNow, releasing any threads whose deadlines have then passed
+     */
+    public synchronized void advanceTo(long nsNow)
+        {
+        if (nsNow > this.nanoTime)
+            {
+            this.nanoTime = nsNow;
+            this.notifyAll();
+            }
+        }
+
+    /**
+     * Returns the earliest deadline of any thread that is blocked on the clock with a timeout,
+     * or Long.MAX_VALUE if there is none
+     */
+    public synchronized long getEarliestDeadline()
+        {
+        long result = Long.MAX_VALUE;
+        for (Waiter waiter : this.waiters.values())
+            result = Math.min(result, waiter.nsDeadline);
+        return result;
+        }
+
+    /**
+     * Waits (in real time) until every synchronous thread is blocked on the clock and can't
+     * proceed until time advances or it is unparked
+     * @param msTimeout the maximum real time to wait
+     * @return whether quiescence was reached within the timeout
+     */
+    public synchronized boolean awaitQuiescence(long msTimeout) throws InterruptedException
+        {
+        long msDeadline = System.currentTimeMillis() + msTimeout;
+        while (!this.isQuiescent())
+            {
+            long msRemaining = msDeadline - System.currentTimeMillis();
+            if (msRemaining <= 0)
+                return false;
+            this.wait(msRemaining);
+            }
+        return true;
+        }
+
+    /**
+     * Returns the names of the synchronous threads that are not currently blocked on the clock
+     */
+    public synchronized String describeRunnableThreads()
+        {
+        StringBuilder result = new StringBuilder();
+        if (this.threadsSpawning > 0)
+            result.append(String.format("%d thread(s) starting", this.threadsSpawning));
+        for (Thread thread : this.participants)
+            {
+            if (!this.isBlocked(thread))
+                {
+                if (result.length() > 0) result.append(", ");
+                result.append(thread.getName());
+                }
+            }
+        return result.toString();
+        }
+
+    private boolean isQuiescent()
+        {
+        if (this.threadsSpawning > 0)
+            return false;
+        for (Thread thread : this.participants)
+            {
+            if (!this.isBlocked(thread))
+                return false;
+            }
+        return true;
+        }
+
+    private boolean isBlocked(Thread thread)
+        {
+        Waiter waiter = this.waiters.get(thread);
+        return waiter != null
+            && !waiter.permit
+            && waiter.nsDeadline > this.nanoTime
+            && !thread.isInterrupted();
+        }
+
+    private static long saturatingAdd(long a, long b)
+        {
+        long result = a + b;
+        return result < a ? Long.MAX_VALUE : result;
+        }
+    }
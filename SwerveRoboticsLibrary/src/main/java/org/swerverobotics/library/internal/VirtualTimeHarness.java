@@ -0,0 +1,197 @@
+package org.swerverobotics.library.internal;
+
+import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.hardware.Gamepad;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.util.ElapsedTime;
+
+import org.swerverobotics.library.SynchronousOpMode;
+
+/**
+ * VirtualTimeHarness runs a SynchronousOpMode on a simulated clock, playing the part of the
+ * robot controller runtime: it calls init(), init_loop(), start(), loop(), and stop() at a
+ * fixed (simulated) loop period. Before each step it waits until every synchronous thread of
+ * the OpMode has blocked in idle(), sleep(), or the like, and then advances time directly to
+ * the next thing that is due to happen. Thus the OpMode sees
+ * exactly the same sequence of events on each run, and a thirty second autonomous takes
+ * only as long as its code actually takes to execute.
+ *
+ * Code under test must read the time and sleep through the OpMode's clock (see
+ * {@link SynchronousOpMode#getClock()}); a thread that spins, or that blocks on anything
+ * other than the clock or the loop() cycle, will be reported as having failed to settle.
+ *
+ * The library depends on the Android runtime, so the harness is itself run from within the
+ * robot controller app, by an OpMode that hands it the OpMode under test and a hardware map
+ * of stand-in devices, as VirtualTimeHarnessDemo does. There is no desktop entry point.
+ */
+public class VirtualTimeHarness
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final SynchronousOpMode opMode;
+    private final VirtualClock      clock;
+    private final long              nsLoopPeriod;
+    private long                    msSettleTimeout = 5000;
+    private long                    loopCount       = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * @param opMode       the OpMode to run. It must not yet have been initialized.
+     * @param hardwareMap  the hardware map to give it; if null, an empty one is used
+     * @param msLoopPeriod the simulated interval between successive calls to loop()
+     */
+    public VirtualTimeHarness(SynchronousOpMode opMode, HardwareMap hardwareMap, double msLoopPeriod)
+        {
+        this.opMode       = opMode;
+        this.clock        = new VirtualClock(ElapsedTime.SECOND_IN_NANO);
+        this.nsLoopPeriod = Math.max(1, Math.round(msLoopPeriod * ElapsedTime.MILLIS_IN_NANO));
+
+        // Fill in what the robot controller runtime would. SynchronousOpMode shadows these
+        // variables, so we must be careful to set the ones in OpMode itself.
+        OpMode runtimeView = this.opMode;
+        runtimeView.hardwareMap = hardwareMap != null ? hardwareMap : new HardwareMap(null);
+        runtimeView.gamepad1    = new Gamepad();
+        runtimeView.gamepad2    = new Gamepad();
+        this.opMode.setClock(this.clock);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Accessing
+    //----------------------------------------------------------------------------------------------
+
+    public VirtualClock getClock()
+        {
+        return this.clock;
+        }
+
+    /**
+     * Returns the state of one of the gamepads as the robot controller runtime sees it. Tests
+     * that drive the OpMode a step at a time may change this between steps to simulate driver input.
+     * @param gamepadNumber 1 or 2
+     */
+    public Gamepad getGamepad(int gamepadNumber)
+        {
+        OpMode runtimeView = this.opMode;
+        return gamepadNumber == 1 ? runtimeView.gamepad1 : runtimeView.gamepad2;
+        }
+
+    /** Returns the number of times loop() has been called */
+    public long getLoopCount()
+        {
+        return this.loopCount;
+        }
+
+    /** Sets how long, in real time, we wait for the OpMode's threads to block before giving up */
+    public void setSettleTimeout(long msSettleTimeout)
+        {
+        this.msSettleTimeout = msSettleTimeout;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Running
+    //----------------------------------------------------------------------------------------------
+
+    /**
+     * Runs the OpMode through its whole life cycle: init(), the indicated number of init_loop()
+     * cycles, start(), and then loop() cycles until either the indicated duration of simulated
+     * time has passed or main() returns, and finally stop().
+     *
+     * @param initLoopCount the number of times to call init_loop() before start()
+     * @param msDuration    the maximum simulated time to run after start()
+     * @throws RuntimeException whatever the OpMode threw, or IllegalStateException if its
+     *                          threads failed to settle
+     */
+    public void run(int initLoopCount, long msDuration) throws InterruptedException
+        {
+        this.init();
+        try {
+            for (int i = 0; i < initLoopCount; i++)
+                this.initLoop();
+
+            this.start();
+
+            long nsEnd = this.clock.nanoTime() + msDuration * ElapsedTime.MILLIS_IN_NANO;
+            while (this.clock.nanoTime() < nsEnd && !this.isOpModeStopRequested())
+                this.loop();
+            }
+        finally
+            {
+            this.stop();
+            }
+        }
+
+    /**
+     * Answers whether the OpMode has asked to be stopped, as it does when main() returns
+     */
+    public boolean isOpModeStopRequested()
+        {
+        return this.clock.isOpModeStopRequested();
+        }
+
+    /** Calls init(), and waits for the main() thread to block */
+    public void init() throws InterruptedException
+        {
+        this.opMode.init();
+        this.settle();
+        }
+
+    /** Advances time by one loop period, calls init_loop(), and waits for the threads to block */
+    public void initLoop() throws InterruptedException
+        {
+        this.advanceBy(this.nsLoopPeriod);
+        this.opMode.init_loop();
+        this.settle();
+        }
+
+    /** Calls start(), and waits for the threads to block */
+    public void start() throws InterruptedException
+        {
+        this.opMode.start();
+        this.settle();
+        }
+
+    /** Advances time by one loop period, calls loop(), and waits for the threads to block */
+    public void loop() throws InterruptedException
+        {
+        this.advanceBy(this.nsLoopPeriod);
+        this.opMode.loop();
+        this.loopCount++;
+        this.settle();
+        }
+
+    /** Calls stop(), which waits for the OpMode's threads to terminate */
+    public void stop()
+        {
+        this.opMode.stop();
+        }
+
+    /**
+     * Moves time forward by the indicated amount, stopping along the way at each deadline of
+     * a sleeping or timed-out thread so that it gets to run at precisely its appointed time
+     */
+    private void advanceBy(long nsDelta) throws InterruptedException
+        {
+        long nsTarget = this.clock.nanoTime() + nsDelta;
+        for (;;)
+            {
+            long nsDeadline = this.clock.getEarliestDeadline();
+            if (nsDeadline >= nsTarget)
+                break;
+            this.clock.advanceTo(nsDeadline);
+            this.settle();
+            }
+        this.clock.advanceTo(nsTarget);
+        }
+
+    /** Waits until all the synchronous threads are blocked on the clock */
+    private void settle() throws InterruptedException
+        {
+        if (!this.clock.awaitQuiescence(this.msSettleTimeout))
+            throw new IllegalStateException(String.format("VirtualTimeHarness: threads failed to block on the clock: %s", this.clock.describeRunnableThreads()));
+        }
+    }
@@ -0,0 +1,186 @@
+package org.swerverobotics.library.internal;
+
+import org.swerverobotics.library.interfaces.IWriteCoalescingStatistics;
+
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * WriteCoalescer defers writes of one actuator value (a motor power, a servo position) to
+ * the end of the current hardware cycle. Writes of the value most recently issued are dropped
+ * outright, and of several writes made within one cycle, only the last is issued. A coalescer
+ * with a write outstanding puts itself on a shared queue, which the loop() thread drains
+ * once per cycle by calling {@link #flush()}; devices also flush before any write that must
+ * not be reordered with respect to the deferred one.
+ *
+ * A coalescer constructed without a queue writes through: every write is issued at once,
+ * which lets a device that coalesces nothing share the same code.
+ *
+ * The coalescer remembers which threads' writes it is holding, and how many of each, and
+ * acknowledges them to the threads' {@link SwerveThreadContext} once they are flushed, so that
+ * a thread can wait for what it has written to actually reach the controllers.
+ */
+public abstract class WriteCoalescer implements IWriteCoalescingStatistics
+    {
+    //----------------------------------------------------------------------------------------------
+    // State
+    //----------------------------------------------------------------------------------------------
+
+    private final Queue<WriteCoalescer> dirtyQueue;
+    private double  lastIssued    = Double.NaN;     // NaN: unknown, so always issue
+    private double  pending       = 0;
+    private boolean isPending     = false;
+    private long    writesRequested = 0;
+    private long    writesIssued    = 0;
+    private long    nsLastIssue     = 0;      // System.nanoTime() of the last write to the controller
+
+    // The threads whose writes are pending, and how many of each. Usually there's just the one.
+    private SwerveThreadContext[] writers      = new SwerveThreadContext[2];
+    private int[]                 writerCounts = new int[2];
+    private int                   cWriters     = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Construction
+    //----------------------------------------------------------------------------------------------
+
+    public WriteCoalescer(Queue<WriteCoalescer> dirtyQueue)
+        {
+        this.dirtyQueue = dirtyQueue;
+        }
+
+    /** Actually writes the value to the controller */
+    protected abstract void issue(double value);
+
+    //----------------------------------------------------------------------------------------------
+    // Operations
+    //----------------------------------------------------------------------------------------------
+
+    /** Records a write, to be issued when next flushed (if it is then still needed) */
+    public synchronized void write(double value)
+        {
+        this.writesRequested++;
+        if (this.dirtyQueue == null)
+            {
+            this.issue(value);
+            this.lastIssued  = value;
+            this.nsLastIssue = System.nanoTime();
+            this.writesIssued++;
+            return;
+            }
+        this.pending = value;
+        if (!this.isPending && value != this.lastIssued)
+            {
+            this.isPending = true;
+            this.dirtyQueue.add(this);
+            }
+        if (this.isPending)
+            this.noteWriter(SwerveThreadContext.getThreadContext());
+        }
+
+    private void noteWriter(SwerveThreadContext context)
+        {
+        if (context == null)
+            return;
+        context.noteWriteDeferred();
+        for (int i = 0; i < this.cWriters; i++)
+            {
+            if (this.writers[i] == context)
+                {
+                this.writerCounts[i]++;
+                return;
+                }
+            }
+        if (this.cWriters == this.writers.length)
+            {
+            this.writers      = Arrays.copyOf(this.writers, this.cWriters * 2);
+            this.writerCounts = Arrays.copyOf(this.writerCounts, this.cWriters * 2);
+            }
+        this.writers[this.cWriters]      = context;
+        this.writerCounts[this.cWriters] = 1;
+        this.cWriters++;
+        }
+
+    // The pending writes are done with: let their writers know
+    private void acknowledgeWriters()
+        {
+        for (int i = 0; i < this.cWriters; i++)
+            {
+            this.writers[i].acknowledgeWritesFlushed(this.writerCounts[i]);
+            this.writers[i] = null;
+            }
+        this.cWriters = 0;
+        }
+
+    /** Issues the outstanding write, if any, to the controller */
+    public synchronized void flush()
+        {
+        if (this.isPending)
+            {
+            this.isPending = false;
+            if (this.pending != this.lastIssued)
+                {
+                this.issue(this.pending);
+                this.lastIssued  = this.pending;
+                this.nsLastIssue = System.nanoTime();
+                this.writesIssued++;
+                }
+            this.acknowledgeWriters();
+            }
+        }
+
+    /**
+     * Drops the outstanding write, if any, without issuing it. Its writers are told it's
+     * done with, so that none of them is left waiting for it.
+     */
+    public synchronized void abandon()
+        {
+        this.isPending = false;
+        this.acknowledgeWriters();
+        }
+
+    /**
+     * Forgets what was last issued, so that the next write is certain to be issued. Used when
+     * the controller's copy of the value may have been changed behind our back.
+     */
+    public synchronized void invalidate()
+        {
+        this.lastIssued = Double.NaN;
+        }
+
+    /**
+     * Returns the object on which the dirty queue is drained, or null if this coalescer writes
+     * through. Writes made while holding it are certain to be flushed together.
+     */
+    public Object getFlushLock()
+        {
+        return this.dirtyQueue;
+        }
+
+    public synchronized boolean isPending()
+        {
+        return this.isPending;
+        }
+
+    public synchronized double getPending()
+        {
+        return this.pending;
+        }
+
+    /**
+     * Returns the System.nanoTime() at which a write was last actually issued to the controller,
+     * or zero if none has been. Lets a test see when writes reach the hardware, rather than when
+     * they were asked for.
+     */
+    public synchronized long getLastIssueNanoTime()
+        {
+        return this.nsLastIssue;
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // IWriteCoalescingStatistics
+    //----------------------------------------------------------------------------------------------
+
+    @Override public synchronized long getWritesRequested() { return this.writesRequested; }
+    @Override public synchronized long getWritesIssued()    { return this.writesIssued; }
+    @Override public synchronized long getWritesSaved()     { return this.writesRequested - this.writesIssued; }
+    }
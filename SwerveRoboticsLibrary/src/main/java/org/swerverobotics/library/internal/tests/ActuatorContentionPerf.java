@@ -0,0 +1,222 @@
+package org.swerverobotics.library.internal.tests;
+
+import com.qualcomm.robotcore.hardware.*;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.TeleOp;
+import org.swerverobotics.library.internal.ThreadSafeDcMotor;
+import org.swerverobotics.library.internal.ThreadSafeServo;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hammers one shared motor, and one shared servo, from several threads at once, and reports the
+ * mean cost of each operation for both the lock-free ThreadSafeDcMotor and ThreadSafeServo and
+ * the monitor-based versions of them that they replaced. The devices sit on do-nothing
+ * controllers, so it is the cost of the wrappers themselves that is measured, not that of USB.
+ * The comparison is only meaningful on a multi-core device: on a single core, threads take
+ * turns rather than contend, and the rows for two, four and eight threads show no contention.
+ * Press gamepad1 'a' to run the measurements again.
+ */
+@TeleOp(name="Actuator Contention Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class ActuatorContentionPerf extends SynchronousOpMode
+    {
+    static final int[] threadCounts = { 1, 2, 4, 8 };
+    static final int   opsPerThread = 200000;
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+        measureAll();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    measureAll();
+                }
+            idle();
+            }
+        }
+
+    void measureAll() throws InterruptedException
+        {
+        telemetry.addData("status", "measuring...");
+        telemetry.update();
+
+        for (int cThreads : threadCounts)
+            {
+            String motor = String.format("sync %.0f lock-free %.0f",
+                    measure(cThreads, opsPerThread, motorOp(new SynchronizedDcMotor(new NullDcMotorController(), 1, DcMotor.Direction.REVERSE))),
+                    measure(cThreads, opsPerThread, motorOp(new ThreadSafeDcMotor(new NullDcMotorController(), 1, DcMotor.Direction.REVERSE))));
+            String servo = String.format("sync %.0f lock-free %.0f",
+                    measure(cThreads, opsPerThread, servoOp(new SynchronizedServo(new NullServoController(), 1, Servo.Direction.REVERSE))),
+                    measure(cThreads, opsPerThread, servoOp(new ThreadSafeServo(new NullServoController(), 1, Servo.Direction.REVERSE))));
+            telemetry.addData(String.format("motor ns/op x%d", cThreads), motor);
+            telemetry.addData(String.format("servo ns/op x%d", cThreads), servo);
+            }
+        telemetry.update();
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Measurement
+    //----------------------------------------------------------------------------------------------
+
+    interface IOperation
+        {
+        void run(int i);
+        }
+
+    static IOperation motorOp(final DcMotor motor)
+        {
+        return new IOperation()
+            {
+            @Override public void run(int i)
+                {
+                motor.setPower((i & 1) == 0 ? 0.5 : -0.5);
+                motor.getPower();
+                }
+            };
+        }
+
+    static IOperation servoOp(final Servo servo)
+        {
+        return new IOperation()
+            {
+            @Override public void run(int i)
+                {
+                servo.setPosition((i & 1) == 0 ? 0.25 : 0.75);
+                servo.getPosition();
+                }
+            };
+        }
+
+    /**
+     * Runs the operation on the indicated number of threads concurrently and returns the mean
+     * wall clock time each thread took per operation, in nanoseconds
+     */
+    static double measure(int cThreads, final int ops, final IOperation operation) throws InterruptedException
+        {
+        final CountDownLatch ready  = new CountDownLatch(cThreads);
+        final CountDownLatch go     = new CountDownLatch(1);
+        final CountDownLatch done   = new CountDownLatch(cThreads);
+        final long[]         nanos  = new long[cThreads];
+
+        for (int i = 0; i < cThreads; i++)
+            {
+            final int iThread = i;
+            Thread thread = new Thread(new Runnable()
+                {
+                @Override public void run()
+                    {
+                    try {
+                        // Warm up before we start timing
+                        for (int i = 0; i < ops / 10; i++)
+                            operation.run(i);
+                        ready.countDown();
+                        go.await();
+
+                        long nsStart = System.nanoTime();
+                        for (int i = 0; i < ops; i++)
+                            operation.run(i);
+                        nanos[iThread] = System.nanoTime() - nsStart;
+                        }
+                    catch (InterruptedException e)
+                        {
+                        Thread.currentThread().interrupt();
+                        }
+                    finally
+                        {
+                        done.countDown();
+                        }
+                    }
+                }, "contention perf " + i);
+            thread.start();
+            }
+
+        ready.await();
+        go.countDown();
+        done.await();
+
+        long nsTotal = 0;
+        for (long ns : nanos)
+            nsTotal += ns;
+        return nsTotal / ((double)cThreads * ops);
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // The monitor-based implementations that ThreadSafeDcMotor and ThreadSafeServo replaced
+    //----------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("deprecation")    // the SDK's channel mode API is deprecated, but still ours to override
+    static class SynchronizedDcMotor extends DcMotor
+        {
+        SynchronizedDcMotor(DcMotorController controller, int portNumber, DcMotor.Direction direction)
+            {
+            super(controller, portNumber, direction);
+            }
+        @Override public synchronized void setDirection(DcMotor.Direction direction)    { super.setDirection(direction); }
+        @Override public synchronized void setPower(double power)                      { super.setPower(power); }
+        @Override public synchronized double getPower()                                { return super.getPower(); }
+        @Override public synchronized void setChannelMode(DcMotorController.RunMode mode) { super.setChannelMode(mode); }
+        }
+
+    static class SynchronizedServo extends Servo
+        {
+        SynchronizedServo(ServoController controller, int portNumber, Servo.Direction direction)
+            {
+            super(controller, portNumber, direction);
+            }
+        @Override public synchronized void setDirection(Servo.Direction direction)     { super.setDirection(direction); }
+        @Override public synchronized void setPosition(double position)                { super.setPosition(position); }
+        @Override public synchronized double getPosition()                             { return super.getPosition(); }
+        @Override public synchronized void scaleRange(double min, double max)          { super.scaleRange(min, max); }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Controllers that do nothing (quickly)
+    //----------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("deprecation")    // device modes are deprecated, but still part of the interface
+    static class NullDcMotorController implements DcMotorController
+        {
+        volatile double power;
+
+        @Override public void setMotorControllerDeviceMode(DeviceMode mode)   { }
+        @Override public DeviceMode getMotorControllerDeviceMode()            { return DeviceMode.READ_WRITE; }
+        @Override public void setMotorChannelMode(int motor, RunMode mode)    { }
+        @Override public RunMode getMotorChannelMode(int motor)               { return RunMode.RUN_WITHOUT_ENCODERS; }
+        @Override public void setMotorPower(int motor, double power)          { this.power = power; }
+        @Override public double getMotorPower(int motor)                      { return this.power; }
+        @Override public boolean isBusy(int motor)                            { return false; }
+        @Override public void setMotorPowerFloat(int motor)                   { }
+        @Override public boolean getMotorPowerFloat(int motor)                { return false; }
+        @Override public void setMotorTargetPosition(int motor, int position) { }
+        @Override public int getMotorTargetPosition(int motor)                { return 0; }
+        @Override public int getMotorCurrentPosition(int motor)               { return 0; }
+        @Override public String getDeviceName()                               { return "null motor controller"; }
+        @Override public String getConnectionInfo()                           { return ""; }
+        @Override public int getVersion()                                     { return 1; }
+        @Override public void close()                                         { }
+        }
+
+    static class NullServoController implements ServoController
+        {
+        volatile double position;
+
+        @Override public void pwmEnable()                                     { }
+        @Override public void pwmDisable()                                    { }
+        @Override public PwmStatus getPwmStatus()                             { return PwmStatus.ENABLED; }
+        @Override public void setServoPosition(int servo, double position)    { this.position = position; }
+        @Override public double getServoPosition(int servo)                   { return this.position; }
+        @Override public String getDeviceName()                               { return "null servo controller"; }
+        @Override public String getConnectionInfo()                           { return ""; }
+        @Override public int getVersion()                                     { return 1; }
+        @Override public void close()                                         { }
+        }
+    }
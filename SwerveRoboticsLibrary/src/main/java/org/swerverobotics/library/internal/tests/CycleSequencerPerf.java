@@ -0,0 +1,86 @@
+package org.swerverobotics.library.internal.tests;
+
+import com.qualcomm.robotcore.util.MovingStatistics;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.IInterruptableRunnable;
+import org.swerverobotics.library.interfaces.TeleOp;
+
+/**
+ * Measures how much time the loop() thread spends in each cycle while a number of
+ * synchronous threads are all waiting on hardware cycles and reading the gamepads.
+ * Run with and without the worker threads (toggle with gamepad1 'a') to see what
+ * the waiters cost the loop thread.
+ */
+@TeleOp(name="Cycle Sequencer Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class CycleSequencerPerf extends SynchronousOpMode
+    {
+    static final int cWorkers = 4;
+
+    final MovingStatistics nsPerLoop = new MovingStatistics(500);
+    volatile boolean       workersActive = true;
+    volatile boolean       clearRequested = false;
+    long                   nsLoopStart;
+
+    @Override protected void preLoopHook()
+        {
+        nsLoopStart = System.nanoTime();
+        }
+
+    @Override protected void postLoopHook()
+        {
+        // The statistics are only ever touched on the loop thread
+        if (clearRequested)
+            {
+            nsPerLoop.clear();
+            clearRequested = false;
+            }
+        nsPerLoop.add(System.nanoTime() - nsLoopStart);
+        }
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+
+        for (int i = 0; i < cWorkers; i++)
+            {
+            createSynchronousWorkerThread(new IInterruptableRunnable()
+                {
+                @Override public void run() throws InterruptedException
+                    {
+                    while (opModeIsActive())
+                        {
+                        if (workersActive)
+                            awaitNextCycle();
+                        else
+                            Thread.sleep(10);
+                        }
+                    }
+                });
+            }
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            awaitNextCycle();
+
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    {
+                    workersActive = !workersActive;
+                    clearRequested = true;
+                    }
+                }
+
+            telemetry.addData("waiters", workersActive ? cWorkers + 1 : 1);
+            telemetry.addData("cycle", getHardwareCycle());
+            telemetry.addData("us/loop mean", String.format("%.1f", nsPerLoop.getMean() * 1e-3));
+            telemetry.addData("us/loop sd", String.format("%.1f", nsPerLoop.getStandardDeviation() * 1e-3));
+            telemetry.update();
+            }
+        }
+    }
@@ -0,0 +1,52 @@
+package org.swerverobotics.library.internal.tests;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.TeleOp;
+
+/**
+ * Counts gamepad presses using pollGamepadEvent() while main() deliberately iterates slowly,
+ * and compares that with what polling the gamepad state with updateGamepads() sees. Tap 'a'
+ * quickly on gamepad1: the event count should keep up, the polled count won't.
+ */
+@TeleOp(name="Gamepad Event Log (Synch)", group="Swerve Tests")
+@Disabled
+public class GamepadEventLog extends SynchronousOpMode
+    {
+    @Override protected void main() throws InterruptedException
+        {
+        GamepadEvent event = new GamepadEvent();
+        int     eventPresses  = 0;
+        int     polledPresses = 0;
+        boolean aPrev         = false;
+        long    nsLatencyMax  = 0;
+
+        waitForStart();
+
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    eventPresses++;
+                nsLatencyMax = Math.max(nsLatencyMax, System.nanoTime() - event.nanoTime);
+                telemetry.log.add(event.toString());
+                }
+
+            updateGamepads();
+            if (gamepad1.a && !aPrev)
+                polledPresses++;
+            aPrev = gamepad1.a;
+
+            telemetry.addData("presses (events)", eventPresses);
+            telemetry.addData("presses (polled)", polledPresses);
+            telemetry.addData("dropped", getDroppedGamepadEventCount());
+            telemetry.addData("max ms to poll", nsLatencyMax * 1e-6, 1);
+            telemetry.update();
+
+            // Simulate a main loop that has a lot of work to do
+            Thread.sleep(250);
+            }
+        }
+    }
@@ -0,0 +1,98 @@
+package org.swerverobotics.library.internal.tests;
+
+import com.qualcomm.robotcore.hardware.I2cDevice;
+
+import org.swerverobotics.library.ClassFactory;
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.*;
+
+/**
+ * Measures how quickly the fusion outputs of a BNO055 (named "imu") can be read, and how far
+ * apart in time the parts of each reading were taken. Press gamepad1 'a' to cycle through
+ *
+ * <ul>
+ * <li>separate: the orientation, quaternion, linear acceleration and gravity, each read on its own</li>
+ * <li>mixed: euler angles, linear and overall acceleration, as GyroHelper-style code reads them;
+ *     the overall acceleration lies outside the window holding the others, so each reading
+ *     switches windows twice</li>
+ * <li>snapshot: all the fusion outputs in one {@link IBNO055IMU#getFusionSnapshot()}</li>
+ * </ul>
+ *
+ * The I2C cycles per reading are those of the device's port, which cycles whether we read or not;
+ * what matters is how many of them each reading waits for.
+ */
+@TeleOp(name="IMU Fusion Read Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class IMUFusionReadPerf extends SynchronousOpMode
+    {
+    static final String[] modes = { "separate", "mixed", "snapshot" };
+
+    @Override protected void main() throws InterruptedException
+        {
+        IBNO055IMU.Parameters parameters = new IBNO055IMU.Parameters();
+        parameters.mode = IBNO055IMU.SENSOR_MODE.NDOF;
+        I2cDevice  i2cDevice = hardwareMap.i2cDevice.get("imu");
+        IBNO055IMU imu       = ClassFactory.createAdaFruitBNO055IMU(i2cDevice, parameters);
+
+        waitForStart();
+
+        GamepadEvent event = new GamepadEvent();
+
+        int     mode       = 0;
+        long    readings   = 0;
+        long    nsSkewSum  = 0;
+        long    nsSkewMax  = 0;
+        int     i2cStart   = i2cDevice.getCallbackCount();
+        long    nsStart    = System.nanoTime();
+
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    {
+                    mode      = (mode + 1) % modes.length;
+                    readings  = nsSkewSum = nsSkewMax = 0;
+                    i2cStart  = i2cDevice.getCallbackCount();
+                    nsStart   = System.nanoTime();
+                    }
+                }
+
+            // The skew is the time between the first and last parts of the reading being taken
+            long nsSkew;
+            switch (mode)
+                {
+                case 0:
+                    {
+                    long nsFirst = imu.getAngularOrientation().nanoTime;
+                    imu.getQuaternionOrientation();
+                    imu.getLinearAcceleration();
+                    nsSkew = imu.getGravity().nanoTime - nsFirst;
+                    break;
+                    }
+                case 1:
+                    {
+                    long nsFirst = imu.getAngularOrientation().nanoTime;
+                    imu.getLinearAcceleration();
+                    nsSkew = imu.getOverallAcceleration().nanoTime - nsFirst;
+                    break;
+                    }
+                default:
+                    imu.getFusionSnapshot();
+                    nsSkew = 0;
+                    break;
+                }
+            readings++;
+            nsSkewSum += nsSkew;
+            nsSkewMax  = Math.max(nsSkewMax, nsSkew);
+
+            double seconds = (System.nanoTime() - nsStart) * 1e-9;
+            telemetry.addData("reading", modes[mode]);
+            telemetry.addData("readings/s", readings / seconds, 1);
+            telemetry.addData("i2c cycles/reading", (i2cDevice.getCallbackCount() - i2cStart) / (double)readings, 2);
+            telemetry.addData("skew ms (mean)", nsSkewSum * 1e-6 / readings, 2);
+            telemetry.addData("skew ms (max)", nsSkewMax * 1e-6, 2);
+            telemetry.update();
+            }
+        }
+    }
@@ -0,0 +1,49 @@
+package org.swerverobotics.library.internal.tests;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.IIdleStatistics;
+import org.swerverobotics.library.interfaces.TeleOp;
+
+/**
+ * Runs a typical while (opModeIsActive()) { ... idle(); } loop and reports what each of the
+ * idle strategies costs in CPU and in wake-up latency. Press gamepad1 'a' to move to the
+ * next strategy.
+ */
+@TeleOp(name="Idle Strategy Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class IdleStrategyPerf extends SynchronousOpMode
+    {
+    @Override protected void main() throws InterruptedException
+        {
+        IDLE_STRATEGY[] strategies = IDLE_STRATEGY.values();
+        int iStrategy = 0;
+        setIdleStrategy(strategies[iStrategy]);
+
+        waitForStart();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    {
+                    iStrategy = (iStrategy + 1) % strategies.length;
+                    setIdleStrategy(strategies[iStrategy]);
+                    }
+                }
+
+            IIdleStatistics stats = getIdleStatistics();
+            telemetry.addData("strategy", getIdleStrategy().toString());
+            telemetry.addData("idles", stats.getIdleCount());
+            telemetry.addData("cpu fraction", stats.getCpuFraction(), 3);
+            telemetry.addData("cpu ms total", stats.getCpuNanos() * 1e-6, 1);
+            telemetry.addData("wake us mean", stats.getMeanWakeLatencyNanos() * 1e-3, 1);
+            telemetry.addData("wake us max", stats.getMaxWakeLatencyNanos() * 1e-3, 1);
+            telemetry.update();
+            idle();
+            }
+        }
+    }
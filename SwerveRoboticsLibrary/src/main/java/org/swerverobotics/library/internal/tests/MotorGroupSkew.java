@@ -0,0 +1,146 @@
+package org.swerverobotics.library.internal.tests;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+
+import org.swerverobotics.library.ClassFactory;
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.IMotorGroup;
+import org.swerverobotics.library.interfaces.TeleOp;
+import org.swerverobotics.library.internal.CoalescingDcMotor;
+import org.swerverobotics.library.internal.WriteCoalescer;
+
+/**
+ * Drives a four motor drivetrain (motors "l0", "l1", "r0" and "r1") through a slowly varying
+ * power, updating the two sides either with four separate setPower() calls, as most OpModes do,
+ * or through an IMotorGroup. Both are measured where the writes reach the motor controllers:
+ * the skew is the time between the first and last of an update's four writes being issued,
+ * and an update is counted as split if they were issued in different flushes, meaning that
+ * the two sides of the robot changed speed at different times. Press gamepad1 'a' to switch
+ * between the two. The motors must be from a hardware map that coalesces writes.
+ *
+ * Put the robot up on blocks before running this.
+ */
+@TeleOp(name="Motor Group Skew (Synch)", group="Swerve Tests")
+@Disabled
+public class MotorGroupSkew extends SynchronousOpMode
+    {
+    // The writes of one flush are issued back to back, and successive flushes are a loop()
+    // cycle apart, which is many times this; anything between the two is a split update.
+    static final long nsSplit = 1000000;
+
+    DcMotor          l0, l1, r0, r1;
+    IMotorGroup      drive;
+    WriteCoalescer[] coalescers;
+
+    @Override protected void main() throws InterruptedException
+        {
+        l0 = hardwareMap.dcMotor.get("l0");
+        l1 = hardwareMap.dcMotor.get("l1");
+        r0 = hardwareMap.dcMotor.get("r0");
+        r1 = hardwareMap.dcMotor.get("r1");
+        r0.setDirection(DcMotor.Direction.REVERSE);
+        r1.setDirection(DcMotor.Direction.REVERSE);
+        for (DcMotor motor : new DcMotor[] { l0, l1, r0, r1 })
+            motor.setMode(DcMotorController.RunMode.RUN_WITHOUT_ENCODERS);
+
+        drive      = ClassFactory.createMotorGroup(l0, l1, r0, r1);
+        coalescers = new WriteCoalescer[] { coalescerOf(l0), coalescerOf(l1), coalescerOf(r0), coalescerOf(r1) };
+
+        waitForStart();
+
+        GamepadEvent event = new GamepadEvent();
+
+        boolean useGroup      = false;
+        boolean awaitingIssue = false;
+        long    nsUpdate      = 0;
+        long    updates       = 0;
+        long    splits        = 0;
+        long    skewNanos     = 0;
+        long    maxSkew       = 0;
+        long    nsStart       = System.nanoTime();
+
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    {
+                    useGroup = !useGroup;
+                    updates = splits = skewNanos = maxSkew = 0;
+                    }
+                }
+
+            // Once all four writes of the last update have reached the controllers, see how
+            // far apart they got there
+            if (awaitingIssue)
+                {
+                long nsFirst = Long.MAX_VALUE;
+                long nsLast  = Long.MIN_VALUE;
+                for (WriteCoalescer coalescer : coalescers)
+                    {
+                    long nsIssue = coalescer.getLastIssueNanoTime();
+                    nsFirst = Math.min(nsFirst, nsIssue);
+                    nsLast  = Math.max(nsLast, nsIssue);
+                    }
+                if (nsFirst > nsUpdate)
+                    {
+                    long nsSkew = nsLast - nsFirst;
+                    updates++;
+                    skewNanos += nsSkew;
+                    maxSkew = Math.max(maxSkew, nsSkew);
+                    if (nsSkew > nsSplit)
+                        splits++;
+                    awaitingIssue = false;
+                    }
+                }
+
+            // Start another update only when the last is done with, so that none is superseded.
+            // A gentle turn whose power changes every time round, so no write is redundant.
+            if (!awaitingIssue)
+                {
+                nsUpdate = System.nanoTime();
+                double t     = (nsUpdate - nsStart) * 1e-9;
+                double left  = 0.2 + 0.1 * Math.sin(t);
+                double right = 0.2 - 0.1 * Math.sin(t);
+
+                if (useGroup)
+                    {
+                    drive.setPower(0, left);
+                    drive.setPower(1, left);
+                    drive.setPower(2, right);
+                    drive.setPower(3, right);
+                    drive.commit();
+                    }
+                else
+                    {
+                    l0.setPower(left);
+                    l1.setPower(left);
+                    r0.setPower(right);
+                    r1.setPower(right);
+                    }
+                awaitingIssue = true;
+                }
+
+            telemetry.addData("mode", useGroup ? "motor group" : "separate setPower()");
+            telemetry.addData("updates", updates);
+            telemetry.addData("skew us mean", updates == 0 ? 0 : skewNanos * 1e-3 / updates, 1);
+            telemetry.addData("skew us max", maxSkew * 1e-3, 1);
+            telemetry.addData("split %", updates == 0 ? 0 : 100.0 * splits / updates, 2);
+            telemetry.update();
+            idle();
+            }
+
+        drive.setPower(0);
+        drive.commit();
+        }
+
+    static WriteCoalescer coalescerOf(DcMotor motor)
+        {
+        if (!(motor instanceof CoalescingDcMotor))
+            throw new IllegalStateException("MotorGroupSkew: motor doesn't coalesce its writes");
+        return ((CoalescingDcMotor)motor).getCoalescer();
+        }
+    }
\ No newline at end of file
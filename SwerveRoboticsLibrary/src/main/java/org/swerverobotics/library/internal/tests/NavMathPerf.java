@@ -0,0 +1,143 @@
+package org.swerverobotics.library.internal.tests;
+
+import android.os.Debug;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.*;
+
+import static org.swerverobotics.library.interfaces.NavUtil.*;
+
+/**
+ * Compares the throughput and allocation of navigation arithmetic done with the immutable
+ * {@link NavUtil} types against the same done with the mutable {@link Vec3d} and {@link Quatd}.
+ * Each step integrates a synthetic acceleration once to velocity and again to position, as an
+ * acceleration integrator does, and both versions do exactly that. Rotating the acceleration
+ * from the robot's frame into the field's by a quaternion, which NavUtil has no counterpart
+ * for, is measured on its own in a third row. Steps per second and objects and bytes
+ * allocated per step are shown. Press gamepad1 'a' to measure again.
+ */
+@TeleOp(name="Nav Math Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class NavMathPerf extends SynchronousOpMode
+    {
+    static final int  steps    = 100000;
+    static final long nsPerStep = 10 * 1000000L;
+
+    // Results are kept here so that the work can't be optimized away
+    Position    immutablePosition;
+    Vec3d       mutablePosition;
+    Vec3d       rotatedSum;
+
+    enum Work { IMMUTABLE, MUTABLE, ROTATION }
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+        measureAll();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    measureAll();
+                }
+            idle();
+            }
+        }
+
+    void measureAll()
+        {
+        // Warm up, so that we measure the steady state
+        for (Work work : Work.values())
+            run(work, steps / 10);
+
+        telemetry.addData("NavUtil", measure(Work.IMMUTABLE));
+        telemetry.addData("Vec3d", measure(Work.MUTABLE));
+        telemetry.addData("Quatd rotation", measure(Work.ROTATION));
+        telemetry.updateNow();
+        }
+
+    String measure(Work work)
+        {
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        long nsStart = System.nanoTime();
+        run(work, steps);
+        long nsElapsed = System.nanoTime() - nsStart;
+        int objects = Debug.getThreadAllocCount();
+        int bytes   = Debug.getThreadAllocSize();
+        Debug.stopAllocCounting();
+
+        return String.format("%.0f steps/s %.1f objects %.1f bytes per step", steps * 1e9 / nsElapsed, objects / (double)steps, bytes / (double)steps);
+        }
+
+    void run(Work work, int count)
+        {
+        switch (work)
+            {
+            case IMMUTABLE: runImmutable(count); break;
+            case MUTABLE:   runMutable(count);   break;
+            case ROTATION:  runRotation(count);  break;
+            }
+        }
+
+    static double accelAt(int i)
+        {
+        return (i & 0xFF) < 0x80 ? 0.5 : -0.5;
+        }
+
+    void runImmutable(int count)
+        {
+        Position     position = new Position();
+        Velocity     velocity = new Velocity();
+        Acceleration accelPrev = new Acceleration();
+        long nanoTime = 0;
+        for (int i = 0; i < count; i++)
+            {
+            nanoTime += nsPerStep;
+            double a = accelAt(i);
+            Acceleration accel = new Acceleration(a, -a, 0, nanoTime);
+            Velocity velocityNext = plus(velocity, meanIntegrate(accel, accelPrev));
+            position = plus(position, meanIntegrate(velocityNext, velocity));
+            velocity  = velocityNext;
+            accelPrev = accel;
+            }
+        this.immutablePosition = position;
+        }
+
+    void runMutable(int count)
+        {
+        Vec3d position     = new Vec3d();
+        Vec3d velocity     = new Vec3d();
+        Vec3d velocityPrev = new Vec3d();
+        Vec3d accel        = new Vec3d();
+        Vec3d accelPrev    = new Vec3d();
+        double seconds = nsPerStep * 1e-9;
+        for (int i = 0; i < count; i++)
+            {
+            double a = accelAt(i);
+            accel.set(a, -a, 0);
+            velocityPrev.set(velocity);
+            velocity.addMeanIntegralInPlace(accel, accelPrev, seconds);
+            position.addMeanIntegralInPlace(velocity, velocityPrev, seconds);
+            accelPrev.set(accel);
+            }
+        this.mutablePosition = position;
+        }
+
+    void runRotation(int count)
+        {
+        Vec3d sum         = new Vec3d();
+        Vec3d accel       = new Vec3d();
+        Quatd orientation = new Quatd(Math.cos(0.25), 0, 0, Math.sin(0.25));
+        for (int i = 0; i < count; i++)
+            {
+            double a = accelAt(i);
+            sum.addInPlace(orientation.rotateInPlace(accel.set(a, -a, 0)));
+            }
+        this.rotatedSum = sum;
+        }
+    }
@@ -0,0 +1,44 @@
+package org.swerverobotics.library.internal.tests;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.IInterruptableRunnable;
+import org.swerverobotics.library.interfaces.IPeriodicTask;
+import org.swerverobotics.library.interfaces.TeleOp;
+
+/**
+ * Runs a trivial control task at 100Hz and reports how well its schedule is kept
+ * while main() carries on with a busy loop of its own.
+ */
+@TeleOp(name="Periodic Task Jitter (Synch)", group="Swerve Tests")
+@Disabled
+public class PeriodicTaskJitter extends SynchronousOpMode
+    {
+    volatile double integral = 0;
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+
+        IPeriodicTask task = schedulePeriodic(100, new IInterruptableRunnable()
+            {
+            @Override public void run() throws InterruptedException
+                {
+                integral += gamepad1.left_stick_y * 0.01;
+                }
+            });
+
+        while (opModeIsActive())
+            {
+            updateGamepads();
+
+            telemetry.addData("runs", task.getRunCount());
+            telemetry.addData("overruns", String.format("%d (%d skipped)", task.getOverrunCount(), task.getSkippedCount()));
+            telemetry.addData("jitter us", String.format("mean=%.1f max=%.1f", task.getMeanJitterNanos() * 1e-3, task.getMaxJitterNanos() * 1e-3));
+            telemetry.addData("run us", String.format("mean=%.1f max=%.1f", task.getMeanRunNanos() * 1e-3, task.getMaxRunNanos() * 1e-3));
+            telemetry.addData("integral", integral);
+            telemetry.update();
+            idle();
+            }
+        }
+    }
@@ -0,0 +1,98 @@
+package org.swerverobotics.library.internal.tests;
+
+import android.os.Debug;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.IFunc;
+import org.swerverobotics.library.interfaces.TeleOp;
+
+/**
+ * Measures what each transmitting telemetry update allocates. A typical dashboard of items,
+ * pre-composed lines and log messages is set up, and is then transmitted a number of times
+ * with nothing in it changing, and again with one of its lines changing each time. The objects
+ * and bytes allocated per update are then shown. What remains in the steady state is the
+ * entries that the SDK's Telemetry makes for each line it is given. Press gamepad1 'a' to
+ * measure again.
+ */
+@TeleOp(name="Telemetry Allocation Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class TelemetryAllocationPerf extends SynchronousOpMode
+    {
+    static final int updates = 1000;
+
+    int counter = 0;
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+        measureAll();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    measureAll();
+                }
+            idle();
+            }
+        }
+
+    void measureAll()
+        {
+        String steady   = measure(false);
+        String changing = measure(true);
+
+        telemetry.clearDashboard();
+        telemetry.log.clear();
+        telemetry.addData("steady", steady);
+        telemetry.addData("one line changing", changing);
+        telemetry.updateNow();
+        }
+
+    String measure(boolean changing)
+        {
+        telemetry.clearDashboard();
+        telemetry.log.clear();
+        for (int i = 0; i < 6; i++)
+            {
+            final String value = "value " + i;
+            telemetry.addLine(
+                    telemetry.item("a" + i + ": ", new IFunc<Object>() { @Override public Object value() { return value; }}),
+                    telemetry.item("b" + i + ": ", new IFunc<Object>() { @Override public Object value() { return value; }}));
+            }
+        if (changing)
+            {
+            telemetry.addLine(
+                    telemetry.item("n: ", new IFunc<Object>() { @Override public Object value() { return (counter & 1) == 0 ? "even" : "odd"; }}));
+            }
+        for (int i = 0; i < 5; i++)
+            telemetry.log.add("log message " + i);
+
+        // Warm up, so that we measure the steady state
+        for (int i = 0; i < updates / 10; i++)
+            update();
+
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+        for (int i = 0; i < updates; i++)
+            update();
+        int objects = Debug.getThreadAllocCount();
+        int bytes   = Debug.getThreadAllocSize();
+        Debug.stopAllocCounting();
+
+        return String.format("%.1f objects %.1f bytes per update", objects / (double)updates, bytes / (double)updates);
+        }
+
+    void update()
+        {
+        counter++;
+        telemetry.addData("x", "constant");
+        telemetry.addData("y", "also constant");
+        telemetry.updateNow();
+        }
+    }
@@ -0,0 +1,159 @@
+package org.swerverobotics.library.internal.tests;
+
+import android.os.Debug;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.TeleOp;
+import org.swerverobotics.library.internal.SwerveThreadContext;
+import org.swerverobotics.library.internal.Thunk;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Measures the cost of thunking work over to the loop() thread. Each time around, a burst of
+ * thunks is dispatched without waiting, followed by one that is waited for, so that all of
+ * them run in the same batch at the end of the hardware cycle. Reports dispatches per second,
+ * the time taken on the dispatching thread by each dispatch, and the objects it allocates.
+ *
+ * Press gamepad1 'a' to switch between pooled thunks and thunks that are made as they used
+ * to be: a new thunk per call, with its own lock object and list of action keys, completed
+ * with wait() and notifyAll().
+ */
+@TeleOp(name="Thunk Dispatch Perf (Synch)", group="Swerve Tests")
+@Disabled
+public class ThunkDispatchPerf extends SynchronousOpMode
+    {
+    static final int burst = 50;
+
+    volatile long ran = 0;
+
+    //----------------------------------------------------------------------------------------------
+    // Thunks
+    //----------------------------------------------------------------------------------------------
+
+    class PooledThunk extends Thunk
+        {
+        @Override protected void actionOnLoopThread()
+            {
+            ran++;
+            }
+
+        void go(boolean wait) throws InterruptedException
+            {
+            this.addActionKey(1);
+            if (wait)
+                {
+                this.dispatch();
+                this.waitForCompletion();
+                }
+            else
+                this.dispatchAndForget();
+            }
+        }
+
+    final Thunk.Pool<PooledThunk> pool = new Thunk.Pool<PooledThunk>()
+        {
+        @Override protected PooledThunk create()
+            {
+            return new PooledThunk();
+            }
+        };
+
+    /** A thunk as they were before pooling, for comparison */
+    class LegacyThunk implements Runnable
+        {
+        final Object        theLock    = new Object();
+        final List<Integer> actionKeys = new LinkedList<Integer>();
+        boolean             done       = false;
+
+        @Override public void run()
+            {
+            ran++;
+            synchronized (theLock)
+                {
+                done = true;
+                theLock.notifyAll();
+                }
+            }
+
+        void go(boolean wait) throws InterruptedException
+            {
+            this.actionKeys.add(1);
+            SwerveThreadContext.getThunker().executeOnLoopThread(this);
+            if (wait)
+                {
+                synchronized (theLock)
+                    {
+                    while (!done)
+                        theLock.wait();
+                    }
+                }
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // Measurement
+    //----------------------------------------------------------------------------------------------
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+
+        GamepadEvent event = new GamepadEvent();
+
+        boolean pooled     = true;
+        long    dispatches = 0;
+        long    timed      = 0;     // of those, the ones in the bursts
+        long    nsDispatch = 0;
+        long    nsStart    = System.nanoTime();
+        Debug.startAllocCounting();
+        Debug.resetThreadAllocCount();
+
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    {
+                    pooled     = !pooled;
+                    dispatches = timed = nsDispatch = 0;
+                    nsStart    = System.nanoTime();
+                    Debug.resetThreadAllocCount();
+                    }
+                }
+
+            // Count only what the dispatching does, not our telemetry. The time is that of
+            // the burst alone, as the last dispatch waits for the end of the hardware cycle.
+            int  cAllocBefore = Debug.getThreadAllocCount();
+            long nsBefore     = System.nanoTime();
+            for (int i = 0; i < burst; i++)
+                {
+                if (pooled)
+                    pool.acquire().go(false);
+                else
+                    new LegacyThunk().go(false);
+                }
+            nsDispatch += System.nanoTime() - nsBefore;
+            timed      += burst;
+            if (pooled)
+                pool.acquire().go(true);
+            else
+                new LegacyThunk().go(true);
+            dispatches += burst + 1;
+            int cAlloc = Debug.getThreadAllocCount() - cAllocBefore;
+
+            double seconds = (System.nanoTime() - nsStart) * 1e-9;
+            telemetry.addData("thunks", pooled ? "pooled" : "legacy");
+            telemetry.addData("dispatches/s", dispatches / seconds, 0);
+            telemetry.addData("us/dispatch", nsDispatch * 1e-3 / timed, 2);
+            telemetry.addData("objects/dispatch", cAlloc / (double)(burst + 1), 2);
+            telemetry.addData("ran", ran);
+            telemetry.update();
+            }
+
+        Debug.stopAllocCounting();
+        }
+    }
@@ -44,9 +44,9 @@ public class TimeTheTimer extends SynchronousOpMode
             long nsDuration = (end - start);
             stats.add(nsDuration / count);
 
-            telemetry.addData("ns/read count", format(stats.getCount()));
-            telemetry.addData("ns/read mean", format(stats.getMean()));
-            telemetry.addData("ns/read sd", format(stats.getStandardDeviation()));
+            telemetry.addData("ns/read count", stats.getCount());
+            telemetry.addData("ns/read mean", stats.getMean(), 2);
+            telemetry.addData("ns/read sd", stats.getStandardDeviation(), 2);
             telemetry.update();
             idle();
             }
@@ -54,10 +54,6 @@ public class TimeTheTimer extends SynchronousOpMode
         telemetry.log.add("done");
         }
 
-    String format(double f) { return String.format("%.2f", f); }
-    String format(long l) { return String.format("%d", l); }
-    String format(int i) { return String.format("%d", i); }
-
     void read100()
         {
         System.nanoTime();
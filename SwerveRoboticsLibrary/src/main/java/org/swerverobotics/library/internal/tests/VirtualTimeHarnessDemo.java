@@ -0,0 +1,127 @@
+package org.swerverobotics.library.internal.tests;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.*;
+import org.swerverobotics.library.internal.VirtualTimeHarness;
+
+/**
+ * Exercises {@link VirtualTimeHarness}. A scripted autonomous of some twenty seconds, with a
+ * periodic task and a worker thread alongside its main thread, is run twice on a simulated
+ * clock. Each run records the simulated time at which each step of the script happened; the
+ * two runs should be identical, and each should take far less real time than it simulates.
+ * The real time taken, the simulated time covered, and whether the runs agreed are shown.
+ * Press gamepad1 'a' to run again.
+ */
+@TeleOp(name="Virtual Time Harness (Synch)", group="Swerve Tests")
+@Disabled
+public class VirtualTimeHarnessDemo extends SynchronousOpMode
+    {
+    static final int    msLoopPeriod  = 20;
+    static final int    msScript      = 30 * 1000;     // longer than the script needs
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+        this.runAndReport();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    this.runAndReport();
+                }
+            idle();
+            }
+        }
+
+    void runAndReport() throws InterruptedException
+        {
+        ScriptedAutonomous first  = new ScriptedAutonomous();
+        ScriptedAutonomous second = new ScriptedAutonomous();
+        long nsReal = runScript(first) + runScript(second);
+
+        telemetry.addData("real ms per run", nsReal * 1e-6 / 2, 1);
+        telemetry.addData("simulated ms per run", first.nsTraceEnd() * 1e-6, 1);
+        telemetry.addData("loop() cycles", first.loopCount);
+        telemetry.addData("periodic runs", first.periodicRuns);
+        telemetry.addData("worker idles", first.workerIdles);
+        telemetry.addData("runs identical", first.sameAs(second));
+        telemetry.updateNow();
+        }
+
+    /** Runs the script to completion on virtual time, returning the real time that took */
+    static long runScript(ScriptedAutonomous script) throws InterruptedException
+        {
+        VirtualTimeHarness harness = new VirtualTimeHarness(script, null, msLoopPeriod);
+        long nsStart = System.nanoTime();
+        harness.run(5, msScript + 1000);
+        script.loopCount = harness.getLoopCount();
+        return System.nanoTime() - nsStart;
+        }
+
+    /**
+     * The OpMode run under the harness. It uses no hardware, and reads the time and sleeps
+     * only through its clock, as code run under the harness must.
+     */
+    static class ScriptedAutonomous extends SynchronousOpMode
+        {
+        static final int cSteps = 30;
+
+        final long[]    trace = new long[cSteps];   // simulated time of each step, relative to start
+        volatile int    cTrace = 0;
+        volatile int    periodicRuns = 0;
+        volatile int    workerIdles  = 0;
+        long            loopCount    = 0;
+
+        @Override protected void main() throws InterruptedException
+            {
+            waitForStart();
+            final long nsStart = getClock().nanoTime();
+
+            schedulePeriodic(50, new IInterruptableRunnable()
+                {
+                @Override public void run()
+                    {
+                    periodicRuns++;
+                    }
+                });
+            createSynchronousWorkerThread(new IInterruptableRunnable()
+                {
+                @Override public void run() throws InterruptedException
+                    {
+                    while (opModeIsActive())
+                        {
+                        workerIdles++;
+                        idle();
+                        }
+                    }
+                });
+
+            // Steps of varying length, as a real script's drive segments would be
+            for (int i = 0; i < cSteps; i++)
+                {
+                sleep(500 + (i % 3) * 250);
+                trace[cTrace++] = getClock().nanoTime() - nsStart;
+                }
+            }
+
+        long nsTraceEnd()
+            {
+            return this.cTrace == 0 ? 0 : this.trace[this.cTrace - 1];
+            }
+
+        boolean sameAs(ScriptedAutonomous him)
+            {
+            if (this.cTrace != him.cTrace || this.periodicRuns != him.periodicRuns || this.workerIdles != him.workerIdles)
+                return false;
+            for (int i = 0; i < this.cTrace; i++)
+                {
+                if (this.trace[i] != him.trace[i])
+                    return false;
+                }
+            return true;
+            }
+        }
+    }
@@ -0,0 +1,143 @@
+package org.swerverobotics.library.internal.tests;
+
+import com.qualcomm.robotcore.hardware.*;
+
+import org.swerverobotics.library.SynchronousOpMode;
+import org.swerverobotics.library.interfaces.Disabled;
+import org.swerverobotics.library.interfaces.GamepadEvent;
+import org.swerverobotics.library.interfaces.TeleOp;
+import org.swerverobotics.library.internal.VirtualTimeHarness;
+
+/**
+ * Checks write coalescing of the processed hardware map, on a {@link VirtualTimeHarness} and
+ * against a motor controller that counts what reaches it. An OpMode sets the same power twice
+ * a cycle for a hundred cycles, changing it once half way through; only two writes should
+ * reach the controller. It then sets a reversed motor in RUN_TO_POSITION to several powers,
+ * and getPower() should read the same before the write is flushed as after. The outcome of
+ * each is shown. Press gamepad1 'a' to check again.
+ */
+@TeleOp(name="Write Coalescing Check (Synch)", group="Swerve Tests")
+@Disabled
+public class WriteCoalescingCheck extends SynchronousOpMode
+    {
+    static final int msLoopPeriod = 20;
+
+    @Override protected void main() throws InterruptedException
+        {
+        waitForStart();
+        this.runAndReport();
+
+        GamepadEvent event = new GamepadEvent();
+        while (opModeIsActive())
+            {
+            while (pollGamepadEvent(event))
+                {
+                if (event.isPress(1, GamepadEvent.CONTROL.A))
+                    this.runAndReport();
+                }
+            idle();
+            }
+        }
+
+    void runAndReport() throws InterruptedException
+        {
+        CountingDcMotorController controller = new CountingDcMotorController();
+        HardwareMap map = new HardwareMap(null);
+        map.dcMotor.put("motor", new DcMotor(controller, 1));
+
+        Writer writer = new Writer();
+        VirtualTimeHarness harness = new VirtualTimeHarness(writer, map, msLoopPeriod);
+        String outcome = "completed";
+        try {
+            harness.run(1, 10 * 1000);
+            if (!writer.finished)
+                outcome = "did not finish";
+            }
+        catch (RuntimeException e)
+            {
+            outcome = e.toString();
+            }
+
+        telemetry.addData("outcome", outcome);
+        telemetry.addData("setPower() calls", writer.powerWrites);
+        telemetry.addData("controller writes (2 expected)", writer.controllerWrites);
+        telemetry.addData("pending getPower() agrees", writer.pendingPowerAgrees);
+        telemetry.updateNow();
+        }
+
+    /**
+     * The OpMode run under the harness
+     */
+    static class Writer extends SynchronousOpMode
+        {
+        static final int cycles = 100;
+
+        volatile boolean finished           = false;
+        volatile int     powerWrites        = 0;
+        volatile int     controllerWrites   = 0;
+        volatile boolean pendingPowerAgrees = true;
+
+        @Override protected void main() throws InterruptedException
+            {
+            DcMotor motor = hardwareMap.dcMotor.get("motor");
+            CountingDcMotorController controller = (CountingDcMotorController)motor.getController();
+            waitForStart();
+
+            // Redundant and superseded writes should never reach the controller
+            for (int i = 0; i < cycles; i++)
+                {
+                double power = i < cycles / 2 ? 0.25 : 0.5;
+                motor.setPower(power);
+                motor.setPower(power);
+                powerWrites += 2;
+                idle();
+                }
+            waitForThreadsWritesToReachHardware();
+            controllerWrites = controller.powerWrites;
+
+            // A pending power should read back just as it will once it's been flushed
+            motor.setDirection(DcMotor.Direction.REVERSE);
+            motor.setMode(DcMotorController.RunMode.RUN_TO_POSITION);
+            for (double power : new double[] { 0.5, -0.5, 0 })
+                {
+                motor.setPower(power);
+                double pending = motor.getPower();
+                waitForThreadsWritesToReachHardware();
+                double flushed = motor.getPower();
+                if (Double.compare(pending, flushed) != 0)
+                    pendingPowerAgrees = false;
+                }
+
+            finished = true;
+            }
+        }
+
+    //----------------------------------------------------------------------------------------------
+    // A controller that only remembers, and counts, what it is told
+    //----------------------------------------------------------------------------------------------
+
+    @SuppressWarnings("deprecation")    // device modes are deprecated, but still part of the interface
+    static class CountingDcMotorController implements DcMotorController
+        {
+        volatile double  power;
+        volatile RunMode mode = RunMode.RUN_WITHOUT_ENCODERS;
+        volatile int     powerWrites = 0;
+
+        @Override public void setMotorControllerDeviceMode(DeviceMode mode)   { }
+        @Override public DeviceMode getMotorControllerDeviceMode()            { return DeviceMode.READ_WRITE; }
+        @Override public void setMotorChannelMode(int motor, RunMode mode)    { this.mode = mode; }
+        @Override public RunMode getMotorChannelMode(int motor)               { return this.mode; }
+        @Override public void setMotorPower(int motor, double power)          { this.power = power; this.powerWrites++; }
+        @Override public double getMotorPower(int motor)                      { return this.power; }
+        @Override public boolean isBusy(int motor)                            { return false; }
+        @Override public void setMotorPowerFloat(int motor)                   { }
+        @Override public boolean getMotorPowerFloat(int motor)                { return false; }
+        @Override public void setMotorTargetPosition(int motor, int position) { }
+        @Override public int getMotorTargetPosition(int motor)                { return 0; }
+        @Override public int getMotorCurrentPosition(int motor)               { return 0; }
+        @Override public String getDeviceName()                               { return "counting motor controller"; }
+        @Override public String getConnectionInfo()                           { return ""; }
+        @Override public int getVersion()                                     { return 1; }
+        @Override public void close()                                         { }
+        }
+    }
@@ -0,0 +1,84 @@
+package org.swerverobotics.tools;
+
+import org.swerverobotics.library.TelemetryRecordingReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TelemetryRecordingToCsv converts a recording made by the robot controller's TelemetryRecorder
+ * to CSV, for analysis in a spreadsheet or the like:
+ *
+ * <pre>
+ *     java -jar TelemetryTools.jar [-wide[=ms]] recording.tlm [output.csv]
+ * </pre>
+ *
+ * By default the CSV has one row per sample. With -wide it has a column per channel and a row
+ * per interval of time, 10ms unless otherwise indicated. If no output is named, it's written
+ * beside the recording.
+ */
+public class TelemetryRecordingToCsv
+    {
+    static final double msQuantumDefault = 10;
+
+    public static void main(String[] args) throws IOException
+        {
+        boolean      wide      = false;
+        double       msQuantum = msQuantumDefault;
+        List<String> files     = new ArrayList<String>();
+        for (String arg : args)
+            {
+            if (arg.equals("-wide"))
+                wide = true;
+            else if (arg.startsWith("-wide="))
+                {
+                wide = true;
+                msQuantum = parseQuantum(arg.substring("-wide=".length()));
+                }
+            else
+                files.add(arg);
+            }
+        if (files.size() < 1 || files.size() > 2 || msQuantum <= 0)
+            usage();
+
+        File inputFile  = new File(files.get(0));
+        File outputFile = files.size() > 1 ? new File(files.get(1)) : new File(inputFile.getPath() + ".csv");
+        TelemetryRecordingReader reader = new TelemetryRecordingReader(new FileInputStream(inputFile));
+        PrintWriter output = new PrintWriter(new FileWriter(outputFile));
+        try {
+            if (wide)
+                reader.exportWide(output, msQuantum);
+            else
+                reader.exportLong(output);
+            }
+        finally
+            {
+            output.close();
+            reader.close();
+            }
+        }
+
+    static double parseQuantum(String ms)
+        {
+        try {
+            return Double.parseDouble(ms);
+            }
+        catch (NumberFormatException e)
+            {
+            usage();
+            return 0;
+            }
+        }
+
+    static void usage()
+        {
+        System.err.println("usage: TelemetryRecordingToCsv [-wide[=ms]] recording.tlm [output.csv]");
+        System.err.println("    -wide: a column per channel, and a row per interval of the given length (10ms by default)");
+        System.exit(1);
+        }
+    }